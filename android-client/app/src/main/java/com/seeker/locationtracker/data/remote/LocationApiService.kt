@@ -6,6 +6,7 @@ import com.seeker.locationtracker.data.model.LocationUploadDto
 import retrofit2.Response
 import retrofit2.http.Body
 import retrofit2.http.GET
+import retrofit2.http.Header
 import retrofit2.http.POST
 
 /**
@@ -17,10 +18,13 @@ import retrofit2.http.POST
 interface LocationApiService {
     
     /**
-     * 上传位置数据
+     * 上传位置数据，服务端按设备ID请求头限流
      */
     @POST("api/location/upload")
-    suspend fun uploadLocation(@Body location: LocationUploadDto): Response<ApiResponse<Void>>
+    suspend fun uploadLocation(
+        @Header("X-Device-Id") deviceId: String,
+        @Body location: LocationUploadDto
+    ): Response<ApiResponse<Void>>
     
     /**
      * 健康检查
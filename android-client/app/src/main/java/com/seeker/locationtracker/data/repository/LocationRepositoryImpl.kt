@@ -61,7 +61,12 @@ class LocationRepositoryImpl @Inject constructor(
                         locationTimestamp = location.locationTimestamp
                     )
                     
-                    val response = apiService.uploadLocation(uploadDto)
+                    val response = apiService.uploadLocation(location.deviceId, uploadDto)
+                    if (response.code() == 429) {
+                        // 被服务端限流，剩余数据留到下次上传
+                        Timber.w("位置数据上传被限流，${response.headers()["Retry-After"]} 秒后可重试")
+                        break
+                    }
                     if (response.isSuccessful) {
                         val apiResponse = response.body()
                         if (apiResponse?.statusCode == 200) {
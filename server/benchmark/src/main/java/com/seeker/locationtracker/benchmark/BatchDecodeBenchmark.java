@@ -0,0 +1,113 @@
+package com.seeker.locationtracker.benchmark;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.common.codec.DecodedLocation;
+import com.seeker.locationtracker.common.codec.LocationBinaryCodec;
+import com.seeker.locationtracker.common.codec.LocationJsonCodec;
+import com.seeker.locationtracker.common.codec.LocationValidator;
+import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量上传100条：JSON与二进制格式从请求体到待写入实体的耗时
+ * 
+ * <p>json 为原来的Jackson反序列化、逐条Bean Validation校验、BeanUtils转换为实体；jsonStreaming 为上传接口现在使用的
+ * LocationJsonCodec 流式解码；二进制路径为 LocationBinaryCodec.decode。后两者解码时已完成校验和实体转换。
+ * 两种请求体的字节数在初始化时输出。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class BatchDecodeBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    /**
+     * 固定输入的位置时间不随当前时间变化，不限制时间窗口
+     */
+    private static final LocationValidator VALIDATOR = new LocationValidator(Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private ObjectMapper objectMapper;
+
+    private JavaType listType;
+
+    private ValidatorFactory validatorFactory;
+
+    private Validator validator;
+
+    private byte[] json;
+
+    private byte[] binary;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        listType = objectMapper.getTypeFactory().constructCollectionType(List.class, LocationUploadDTO.class);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+        List<LocationUploadDTO> locations = BenchmarkFixtures.track("device-0001", BATCH_SIZE, 1);
+        json = objectMapper.writeValueAsBytes(locations);
+        binary = LocationBinaryCodec.encode(locations);
+        System.out.println("请求体字节数（" + BATCH_SIZE + "条）: json=" + json.length + ", binary=" + binary.length);
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public List<LocationEntity> json() throws IOException {
+        List<LocationUploadDTO> dtos = objectMapper.readValue(json, listType);
+        Date now = new Date();
+        List<LocationEntity> entities = new ArrayList<>(dtos.size());
+        for (LocationUploadDTO dto : dtos) {
+            if (validator.validate(dto).isEmpty()) {
+                LocationEntity entity = new LocationEntity();
+                BeanUtils.copyProperties(dto, entity);
+                entity.setCreateTime(now);
+                entity.setUpdateTime(now);
+                entities.add(entity);
+            }
+        }
+        return entities;
+    }
+
+    @Benchmark
+    public List<DecodedLocation> jsonStreaming() throws IOException {
+        return LocationJsonCodec.decodeBatch(json, BATCH_SIZE, new Date(), VALIDATOR);
+    }
+
+    @Benchmark
+    public List<DecodedLocation> binary() {
+        return LocationBinaryCodec.decode(binary, BATCH_SIZE, new Date(), VALIDATOR);
+    }
+}
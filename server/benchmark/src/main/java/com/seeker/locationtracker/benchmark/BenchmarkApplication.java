@@ -0,0 +1,83 @@
+package com.seeker.locationtracker.benchmark;
+
+import com.seeker.locationtracker.LocationTrackerApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 在临时数据目录中启动完整的服务端应用上下文
+ * 
+ * <p>使用不带环境配置的默认配置（与prod一致），关闭限流、定时清理和归档，日志只输出警告，
+ * 避免这些与被测路径无关的开销影响结果。Web服务器监听随机端口，基准测试通过MockMvc或直接调用Bean访问。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class BenchmarkApplication implements AutoCloseable {
+
+    private final File dataDir;
+
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkApplication(File dataDir, ConfigurableApplicationContext context) {
+        this.dataDir = dataDir;
+        this.context = context;
+    }
+
+    /**
+     * 启动应用
+     * 
+     * @param properties 额外的配置，格式为 key=value，覆盖默认配置
+     * @return 应用
+     * @throws IOException 临时目录创建失败
+     */
+    public static BenchmarkApplication start(String... properties) throws IOException {
+        File dataDir = Files.createTempDirectory("location-tracker-benchmark").toFile();
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "--spring.profiles.active=prod",
+                "--server.port=0",
+                "--app.data.path=" + dataDir.getAbsolutePath(),
+                "--logging.file.name=" + new File(dataDir, "benchmark.log").getAbsolutePath(),
+                "--logging.level.root=WARN",
+                "--logging.level.com.seeker.locationtracker=WARN",
+                "--logging.level.com.baomidou.mybatisplus=WARN",
+                "--spring.main.banner-mode=off",
+                "--mybatis-plus.global-config.banner=false",
+                "--app.location.retention.enabled=false",
+                "--app.location.archive.enabled=false",
+                // 固定输入的位置时间不随当前时间变化，放宽可写入的位置时间范围
+                "--app.location.retention-days=36500",
+                "--app.security.rate-limit.enabled=false"));
+        for (String property : properties) {
+            args.add("--" + property);
+        }
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(LocationTrackerApplication.class)
+                .run(args.toArray(new String[0]));
+        return new BenchmarkApplication(dataDir, context);
+    }
+
+    public ConfigurableApplicationContext getContext() {
+        return context;
+    }
+
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    /**
+     * 关闭应用并删除临时数据目录
+     */
+    @Override
+    public void close() {
+        context.close();
+        FileSystemUtils.deleteRecursively(dataDir);
+    }
+}
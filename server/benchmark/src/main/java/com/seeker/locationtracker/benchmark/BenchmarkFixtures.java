@@ -0,0 +1,96 @@
+package com.seeker.locationtracker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试数据
+ * 
+ * <p>位置数据按固定种子随机游走生成，字段取值与Android客户端上传的数据相近，每次运行的输入完全相同。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class BenchmarkFixtures {
+
+    /**
+     * 起始位置时间戳(毫秒)，北京时间 2026-10-01 00:00
+     */
+    public static final long BASE_TIMESTAMP = 1790784000000L;
+
+    /**
+     * 相邻两个位置的时间间隔(毫秒)，与默认定位间隔一致
+     */
+    public static final long INTERVAL_MS = 30000L;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 与Spring MVC默认配置一致的ObjectMapper
+     */
+    public static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    /**
+     * 生成一台设备的连续位置数据
+     * 
+     * @param deviceId 设备唯一标识
+     * @param count 条数
+     * @param seed 随机种子
+     * @return 位置数据
+     */
+    public static List<LocationUploadDTO> track(String deviceId, int count, long seed) {
+        Random random = new Random(seed);
+        List<LocationUploadDTO> locations = new ArrayList<>(count);
+        double latitude = 39.9 + random.nextDouble() / 10;
+        double longitude = 116.3 + random.nextDouble() / 10;
+        for (int i = 0; i < count; i++) {
+            latitude += (random.nextDouble() - 0.5) / 1000;
+            longitude += (random.nextDouble() - 0.5) / 1000;
+            LocationUploadDTO dto = new LocationUploadDTO();
+            dto.setDeviceId(deviceId);
+            dto.setLatitude(latitude);
+            dto.setLongitude(longitude);
+            dto.setAccuracy(Math.round(random.nextDouble() * 2000) / 100.0);
+            dto.setAltitude(Math.round((40 + random.nextDouble() * 20) * 100) / 100.0);
+            dto.setSpeed(Math.round(random.nextDouble() * 1500) / 100.0);
+            dto.setBearing(Math.round(random.nextDouble() * 36000) / 100.0);
+            dto.setProvider("gps");
+            dto.setLocationTimestamp(BASE_TIMESTAMP + i * INTERVAL_MS);
+            locations.add(dto);
+        }
+        return locations;
+    }
+
+    /**
+     * 生成一条位置数据
+     */
+    public static LocationUploadDTO location(String deviceId, long seed) {
+        return track(deviceId, 1, seed).get(0);
+    }
+
+    /**
+     * 按上传数据创建位置实体（手工赋值，不经过BeanUtils）
+     */
+    public static LocationEntity entity(LocationUploadDTO dto) {
+        LocationEntity entity = new LocationEntity();
+        entity.setDeviceId(dto.getDeviceId());
+        entity.setLatitude(dto.getLatitude());
+        entity.setLongitude(dto.getLongitude());
+        entity.setAccuracy(dto.getAccuracy());
+        entity.setAltitude(dto.getAltitude());
+        entity.setSpeed(dto.getSpeed());
+        entity.setBearing(dto.getBearing());
+        entity.setProvider(dto.getProvider());
+        entity.setLocationTimestamp(dto.getLocationTimestamp());
+        return entity;
+    }
+}
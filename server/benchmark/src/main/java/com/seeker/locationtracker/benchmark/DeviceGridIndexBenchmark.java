@@ -0,0 +1,100 @@
+package com.seeker.locationtracker.benchmark;
+
+import com.seeker.locationtracker.common.spatial.DeviceGridIndex;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 设备网格索引：10万台设备分布在约1°×1°（北京市区量级）范围内时的更新和查询
+ * 
+ * <p>网格边长与默认配置（0.05°）一致。更新为随机一台设备小幅移动，可能跨网格；附近查询半径1公里，
+ * 最近邻查询取10台。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class DeviceGridIndexBenchmark {
+
+    private static final int DEVICES = 100000;
+
+    private static final double MIN_LATITUDE = 39.5;
+
+    private static final double MIN_LONGITUDE = 116.0;
+
+    private static final double SPAN_DEGREES = 1.0;
+
+    private DeviceGridIndex index;
+
+    private String[] deviceIds;
+
+    private long timestamp;
+
+    @Setup
+    public void setup() {
+        index = new DeviceGridIndex(0.05);
+        deviceIds = new String[DEVICES];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < DEVICES; i++) {
+            deviceIds[i] = String.format("device-%06d", i);
+            index.update(location(deviceIds[i], MIN_LATITUDE + random.nextDouble() * SPAN_DEGREES,
+                    MIN_LONGITUDE + random.nextDouble() * SPAN_DEGREES, BenchmarkFixtures.BASE_TIMESTAMP));
+        }
+        timestamp = BenchmarkFixtures.BASE_TIMESTAMP;
+    }
+
+    @Benchmark
+    public boolean update() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String deviceId = deviceIds[random.nextInt(DEVICES)];
+        LocationEntity current = index.get(deviceId);
+        double latitude = clamp(current.getLatitude() + (random.nextDouble() - 0.5) / 100, MIN_LATITUDE);
+        double longitude = clamp(current.getLongitude() + (random.nextDouble() - 0.5) / 100, MIN_LONGITUDE);
+        return index.update(location(deviceId, latitude, longitude, ++timestamp));
+    }
+
+    @Benchmark
+    public List<DeviceGridIndex.Neighbor> withinRadius1km() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.withinRadius(MIN_LATITUDE + random.nextDouble() * SPAN_DEGREES,
+                MIN_LONGITUDE + random.nextDouble() * SPAN_DEGREES, 1000, 100);
+    }
+
+    @Benchmark
+    public List<DeviceGridIndex.Neighbor> nearest10() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return index.nearest(MIN_LATITUDE + random.nextDouble() * SPAN_DEGREES,
+                MIN_LONGITUDE + random.nextDouble() * SPAN_DEGREES, 10, 100000);
+    }
+
+    private static double clamp(double value, double min) {
+        return Math.max(min, Math.min(min + SPAN_DEGREES, value));
+    }
+
+    private static LocationEntity location(String deviceId, double latitude, double longitude, long timestamp) {
+        LocationEntity location = new LocationEntity();
+        location.setDeviceId(deviceId);
+        location.setLatitude(latitude);
+        location.setLongitude(longitude);
+        location.setLocationTimestamp(timestamp);
+        return location;
+    }
+}
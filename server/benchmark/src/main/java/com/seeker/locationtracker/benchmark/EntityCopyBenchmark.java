@@ -0,0 +1,51 @@
+package com.seeker.locationtracker.benchmark;
+
+import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.BeanUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上传数据转换为位置实体：BeanUtils.copyProperties（LocationServiceImpl.toEntity 的做法）与手工赋值对比
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class EntityCopyBenchmark {
+
+    private LocationUploadDTO dto;
+
+    @Setup
+    public void setup() {
+        dto = BenchmarkFixtures.location("device-0001", 1);
+    }
+
+    @Benchmark
+    public LocationEntity beanUtilsCopyProperties() {
+        LocationEntity entity = new LocationEntity();
+        BeanUtils.copyProperties(dto, entity);
+        return entity;
+    }
+
+    @Benchmark
+    public LocationEntity manualCopy() {
+        return BenchmarkFixtures.entity(dto);
+    }
+}
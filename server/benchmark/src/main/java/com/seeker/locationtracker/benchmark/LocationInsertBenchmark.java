@@ -0,0 +1,109 @@
+package com.seeker.locationtracker.benchmark;
+
+import com.seeker.locationtracker.mapper.LocationMapper;
+import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.LocationPartitionService;
+import com.seeker.locationtracker.service.LocationWriteService;
+import com.seeker.locationtracker.util.GeoHashUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 位置数据写入临时SQLite文件（WAL + synchronous=NORMAL，与默认配置一致）
+ * 
+ * <p>insert 为 BaseMapper 写入原始 T_LOCATION 表，insertIntoPartition 为写入月份分区表，二者都是每行一个自动提交的事务；
+ * saveBatch 为实际上传路径使用的批量写入，一个事务写入100行，结果按每行折算。每行的位置时间都不同，不会被唯一索引忽略。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class LocationInsertBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private BenchmarkApplication application;
+
+    private LocationMapper locationMapper;
+
+    private LocationPartitionService locationPartitionService;
+
+    private LocationWriteService locationWriteService;
+
+    private LocationUploadDTO template;
+
+    private long sequence;
+
+    @Setup
+    public void setup() throws IOException {
+        application = BenchmarkApplication.start();
+        locationMapper = application.getBean(LocationMapper.class);
+        locationPartitionService = application.getBean(LocationPartitionService.class);
+        locationWriteService = application.getBean(LocationWriteService.class);
+        template = BenchmarkFixtures.location("device-0001", 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public int insert() {
+        return locationMapper.insert(nextEntity());
+    }
+
+    @Benchmark
+    public int insertIntoPartition() {
+        LocationEntity entity = nextEntity();
+        return locationMapper.insertIntoPartition(
+                locationPartitionService.resolveWritePartition(entity.getLocationTimestamp()), entity);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] saveBatch() {
+        List<LocationEntity> entities = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            entities.add(nextEntity());
+        }
+        return locationWriteService.saveBatch(entities);
+    }
+
+    /**
+     * 每1000条换一台设备，同一设备的位置时间递增，分区保持在同一个月内
+     */
+    private LocationEntity nextEntity() {
+        long n = sequence++;
+        LocationEntity entity = BenchmarkFixtures.entity(template);
+        entity.setDeviceId("device-" + n / 1000);
+        entity.setLocationTimestamp(BenchmarkFixtures.BASE_TIMESTAMP + n % 1000 * BenchmarkFixtures.INTERVAL_MS);
+        entity.setGeohash(GeoHashUtils.encode(entity.getLatitude(), entity.getLongitude()));
+        Date now = new Date();
+        entity.setCreateTime(now);
+        entity.setUpdateTime(now);
+        return entity;
+    }
+}
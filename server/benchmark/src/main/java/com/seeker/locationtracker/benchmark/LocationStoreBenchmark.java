@@ -0,0 +1,146 @@
+package com.seeker.locationtracker.benchmark;
+
+import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.LocationStore;
+import com.seeker.locationtracker.service.impl.InMemoryLocationStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 同一组工作负载在每个 LocationStore 实现上的耗时
+ * 
+ * <p>各实现的语义由服务端的 LocationStoreConformanceTest 保证。初始化时预先写入
+ * 100台设备各1000条位置数据。append / appendBatch 写入新设备的数据，appendBatch 一批100条，结果按每行折算；
+ * latest 与 track 轮流查询预先写入的设备，track 每次从轨迹中间读取100条。</p>
+ * 
+ * <p>sqlite 为服务端当前使用的存储（临时目录中的完整应用，写入包含提交后通知内存视图的开销），
+ * memory 为服务端中不持久化的内存存储（app.location.store=memory 时使用），作为下限参考。按位置时间删除会改变数据规模，只在一致性测试中覆盖。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class LocationStoreBenchmark {
+
+    private static final int DEVICES = 100;
+
+    private static final int LOCATIONS_PER_DEVICE = 1000;
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final int TRACK_LIMIT = 100;
+
+    @Param({"sqlite", "memory"})
+    private String store;
+
+    private BenchmarkApplication application;
+
+    private LocationStore locationStore;
+
+    private LocationUploadDTO template;
+
+    private long sequence;
+
+    private int cursor;
+
+    @Setup
+    public void setup() throws IOException {
+        if ("sqlite".equals(store)) {
+            application = BenchmarkApplication.start();
+            locationStore = application.getBean(LocationStore.class);
+        } else {
+            locationStore = new InMemoryLocationStore();
+        }
+
+        for (int i = 0; i < DEVICES; i++) {
+            List<LocationEntity> entities = new ArrayList<>(LOCATIONS_PER_DEVICE);
+            for (LocationUploadDTO dto : BenchmarkFixtures.track(deviceId(i), LOCATIONS_PER_DEVICE, i)) {
+                entities.add(BenchmarkFixtures.entity(dto));
+            }
+            for (int from = 0; from < entities.size(); from += BATCH_SIZE) {
+                locationStore.appendBatch(entities.subList(from, Math.min(from + BATCH_SIZE, entities.size())));
+            }
+        }
+        template = BenchmarkFixtures.location("append-0001", 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (application != null) {
+            application.close();
+        }
+    }
+
+    @Benchmark
+    public int append() {
+        return locationStore.append(nextEntity());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public int[] appendBatch() {
+        List<LocationEntity> entities = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            entities.add(nextEntity());
+        }
+        return locationStore.appendBatch(entities);
+    }
+
+    @Benchmark
+    public LocationEntity latest() {
+        return locationStore.latest(deviceId(nextDevice()));
+    }
+
+    @Benchmark
+    public List<LocationEntity> track() {
+        int device = nextDevice();
+        long from = BenchmarkFixtures.BASE_TIMESTAMP
+                + (long) (device * 7 % (LOCATIONS_PER_DEVICE - TRACK_LIMIT)) * BenchmarkFixtures.INTERVAL_MS;
+        return locationStore.track(deviceId(device), from, null, TRACK_LIMIT);
+    }
+
+    private static String deviceId(int index) {
+        return String.format("device-%04d", index);
+    }
+
+    /**
+     * 按固定步长轮流选择预先写入的设备，每次运行的顺序相同
+     */
+    private int nextDevice() {
+        cursor = (cursor + 37) % DEVICES;
+        return cursor;
+    }
+
+    /**
+     * 每1000条换一台设备，同一设备的位置时间递增，与预先写入的设备不重复
+     */
+    private LocationEntity nextEntity() {
+        long n = sequence++;
+        LocationEntity entity = BenchmarkFixtures.entity(template);
+        entity.setDeviceId("append-" + n / 1000);
+        entity.setLocationTimestamp(BenchmarkFixtures.BASE_TIMESTAMP + n % 1000 * BenchmarkFixtures.INTERVAL_MS);
+        return entity;
+    }
+}
@@ -0,0 +1,36 @@
+package com.seeker.locationtracker.benchmark;
+
+import com.seeker.locationtracker.model.vo.ResponseResult;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 响应结果构造，每次构造都会格式化当前时间（localTime字段）
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class ResponseResultBenchmark {
+
+    @Benchmark
+    public ResponseResult<Void> success() {
+        return ResponseResult.success("位置数据上传成功");
+    }
+
+    @Benchmark
+    public ResponseResult<Void> fail() {
+        return ResponseResult.fail("位置数据上传异常");
+    }
+}
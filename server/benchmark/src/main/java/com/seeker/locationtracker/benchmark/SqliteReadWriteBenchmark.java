@@ -0,0 +1,142 @@
+package com.seeker.locationtracker.benchmark;
+
+import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.vo.PageResponseResult;
+import com.seeker.locationtracker.service.LocationService;
+import com.seeker.locationtracker.service.LocationWriteService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 读写混合：1个线程批量写入（每批100条）的同时，3个线程分页查询轨迹
+ * 
+ * <p>对比WAL与回滚日志（DELETE）两种日志模式。WAL模式下读不阻塞写、写不阻塞读；DELETE模式下写事务需要等待
+ * 所有读事务结束，读事务也要等待写事务提交。查询的是预先写入的20台设备各5000条数据中的随机一页。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(3)
+public class SqliteReadWriteBenchmark {
+
+    private static final int SEED_DEVICES = 20;
+
+    private static final int SEED_POINTS = 5000;
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"WAL", "DELETE"})
+    private String journalMode;
+
+    private BenchmarkApplication application;
+
+    private LocationWriteService locationWriteService;
+
+    private LocationService locationService;
+
+    private List<LocationEntity> template;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup
+    public void setup() throws IOException {
+        application = BenchmarkApplication.start("app.sqlite.journal-mode=" + journalMode);
+        locationWriteService = application.getBean(LocationWriteService.class);
+        locationService = application.getBean(LocationService.class);
+        for (int device = 0; device < SEED_DEVICES; device++) {
+            List<LocationUploadDTO> track = BenchmarkFixtures.track(seedDeviceId(device), SEED_POINTS, device);
+            for (int from = 0; from < SEED_POINTS; from += BATCH_SIZE) {
+                locationWriteService.saveBatch(entities(track.subList(from, from + BATCH_SIZE)));
+            }
+        }
+        template = entities(BenchmarkFixtures.track("device-0001", BATCH_SIZE, 1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public int[] write() {
+        String deviceId = "writer-" + sequence.getAndIncrement();
+        List<LocationEntity> entities = new ArrayList<>(BATCH_SIZE);
+        for (LocationEntity location : template) {
+            LocationEntity entity = copy(location);
+            entity.setDeviceId(deviceId);
+            entities.add(entity);
+        }
+        return locationWriteService.saveBatch(entities);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public PageResponseResult<LocationEntity> read() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long from = BenchmarkFixtures.BASE_TIMESTAMP
+                + random.nextInt(SEED_POINTS - PAGE_SIZE) * BenchmarkFixtures.INTERVAL_MS;
+        return locationService.queryTrack(seedDeviceId(random.nextInt(SEED_DEVICES)), from, null, PAGE_SIZE, null);
+    }
+
+    private static String seedDeviceId(int device) {
+        return "seed-" + device;
+    }
+
+    private static List<LocationEntity> entities(List<LocationUploadDTO> dtos) {
+        Date now = new Date();
+        List<LocationEntity> entities = new ArrayList<>(dtos.size());
+        for (LocationUploadDTO dto : dtos) {
+            LocationEntity entity = BenchmarkFixtures.entity(dto);
+            entity.setCreateTime(now);
+            entity.setUpdateTime(now);
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    private static LocationEntity copy(LocationEntity source) {
+        LocationEntity entity = new LocationEntity();
+        entity.setLatitude(source.getLatitude());
+        entity.setLongitude(source.getLongitude());
+        entity.setAccuracy(source.getAccuracy());
+        entity.setAltitude(source.getAltitude());
+        entity.setSpeed(source.getSpeed());
+        entity.setBearing(source.getBearing());
+        entity.setProvider(source.getProvider());
+        entity.setLocationTimestamp(source.getLocationTimestamp());
+        entity.setCreateTime(source.getCreateTime());
+        entity.setUpdateTime(source.getUpdateTime());
+        return entity;
+    }
+}
@@ -0,0 +1,78 @@
+package com.seeker.locationtracker.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上传请求体反序列化：Jackson（Spring MVC实际使用）与fastjson对比
+ * 
+ * <p>输入为UTF-8字节数组，与 @RequestBody 读取到的请求体一致；Jackson使用与Spring MVC相同配置的ObjectMapper。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class UploadDeserializationBenchmark {
+
+    private static final Type FASTJSON_LIST_TYPE = new TypeReference<List<LocationUploadDTO>>() {
+    }.getType();
+
+    private ObjectMapper objectMapper;
+
+    private JavaType jacksonListType;
+
+    private byte[] single;
+
+    private byte[] batch;
+
+    @Setup
+    public void setup() throws IOException {
+        objectMapper = BenchmarkFixtures.objectMapper();
+        jacksonListType = objectMapper.getTypeFactory().constructCollectionType(List.class, LocationUploadDTO.class);
+        single = objectMapper.writeValueAsBytes(BenchmarkFixtures.location("device-0001", 1));
+        batch = objectMapper.writeValueAsBytes(BenchmarkFixtures.track("device-0001", 100, 1));
+    }
+
+    @Benchmark
+    public LocationUploadDTO jacksonSingle() throws IOException {
+        return objectMapper.readValue(single, LocationUploadDTO.class);
+    }
+
+    @Benchmark
+    public LocationUploadDTO fastjsonSingle() {
+        return JSON.parseObject(single, LocationUploadDTO.class);
+    }
+
+    @Benchmark
+    public List<LocationUploadDTO> jacksonBatch100() throws IOException {
+        return objectMapper.readValue(batch, jacksonListType);
+    }
+
+    @Benchmark
+    public List<LocationUploadDTO> fastjsonBatch100() {
+        return JSON.parseObject(batch, FASTJSON_LIST_TYPE);
+    }
+}
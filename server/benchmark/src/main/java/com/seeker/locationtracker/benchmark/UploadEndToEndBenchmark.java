@@ -0,0 +1,119 @@
+package com.seeker.locationtracker.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.common.codec.LocationBinaryCodec;
+import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * 经过MockMvc的上传接口端到端耗时：消息转换、校验、去重、写库和响应序列化
+ * 
+ * <p>不经过Servlet过滤器（请求体解压、HTTP指标）。每次请求使用新的设备唯一标识，数据不会被当作重复上传；
+ * 请求体在调用中重新生成，这部分耗时为微秒级，相对于写库可以忽略。批量上传的结果是每个请求（100条）的耗时。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(3)
+public class UploadEndToEndBenchmark {
+
+    private static final String SUCCESS = "\"opCode\":0";
+
+    private BenchmarkApplication application;
+
+    private MockMvc mockMvc;
+
+    private ObjectMapper objectMapper;
+
+    private LocationUploadDTO single;
+
+    private List<LocationUploadDTO> batch;
+
+    private long sequence;
+
+    @Setup
+    public void setup() throws Exception {
+        application = BenchmarkApplication.start();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) application.getContext()).build();
+        objectMapper = BenchmarkFixtures.objectMapper();
+        single = BenchmarkFixtures.location("device-0001", 1);
+        batch = BenchmarkFixtures.track("device-0001", 100, 1);
+        // 预先确认各接口都是成功写入，避免测到的是失败分支
+        for (MockHttpServletResponse response : new MockHttpServletResponse[]{
+                uploadJson(), batchJson(), batchBinary()}) {
+            String body = response.getContentAsString(StandardCharsets.UTF_8);
+            if (response.getStatus() != 200 || !body.contains(SUCCESS) || body.contains("\"success\":false")) {
+                throw new IllegalStateException("上传接口返回失败: " + body);
+            }
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse uploadJson() throws Exception {
+        single.setDeviceId(nextDeviceId());
+        return mockMvc.perform(post("/api/location/upload")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(single)))
+                .andReturn().getResponse();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse batchJson() throws Exception {
+        String deviceId = nextDeviceId();
+        for (LocationUploadDTO dto : batch) {
+            dto.setDeviceId(deviceId);
+        }
+        return mockMvc.perform(post("/api/location/batch")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsBytes(batch)))
+                .andReturn().getResponse();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse batchBinary() throws Exception {
+        String deviceId = nextDeviceId();
+        for (LocationUploadDTO dto : batch) {
+            dto.setDeviceId(deviceId);
+        }
+        return mockMvc.perform(post("/api/location/batch")
+                .contentType(LocationBinaryCodec.CONTENT_TYPE)
+                .accept(MediaType.APPLICATION_JSON)
+                .content(LocationBinaryCodec.encode(batch)))
+                .andReturn().getResponse();
+    }
+
+    private String nextDeviceId() {
+        return "device-" + sequence++;
+    }
+}
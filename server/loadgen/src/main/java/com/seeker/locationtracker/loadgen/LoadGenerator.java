@@ -0,0 +1,340 @@
+package com.seeker.locationtracker.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 压测入口：模拟一批设备按固定间隔上传位置，输出吞吐量和响应时间分布
+ * 
+ * <p>每台设备是一个固定速率的调度任务，按计划时间生成定位点并发送，请求数不随服务端响应快慢变化（开环），
+ * 适合按目标速率评估容量。批量模式下设备攒够一批再上传，模拟离线缓存后补传。</p>
+ * 
+ * <p>退出码：0 正常结束，1 参数错误或没有成功的请求，2 超出 --max-p99-ms 或 --max-error-rate 阈值。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class LoadGenerator {
+
+    private static final int EXIT_OK = 0;
+
+    private static final int EXIT_ERROR = 1;
+
+    private static final int EXIT_THRESHOLD_EXCEEDED = 2;
+
+    /**
+     * 直方图输出的单位换算：微秒 -> 毫秒
+     */
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final LoadGeneratorOptions options;
+
+    private final UploadClient client;
+
+    private final LoadStatistics statistics = new LoadStatistics();
+
+    private final long intervalNanos;
+
+    private LoadGenerator(LoadGeneratorOptions options) throws IOException {
+        this.options = options;
+        this.client = new UploadClient(options);
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(options.getIntervalMs());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadGeneratorOptions options;
+        try {
+            for (String arg : args) {
+                if ("--help".equals(arg) || "-h".equals(arg)) {
+                    System.out.println(LoadGeneratorOptions.usage());
+                    return;
+                }
+            }
+            options = LoadGeneratorOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadGeneratorOptions.usage());
+            System.exit(EXIT_ERROR);
+            return;
+        }
+        // keep-alive缓存的连接数在第一次建立连接时读取，默认只有5个
+        System.setProperty("http.maxConnections", String.valueOf(options.getThreads()));
+        System.exit(new LoadGenerator(options).run());
+    }
+
+    private int run() throws InterruptedException, IOException {
+        System.out.printf(Locale.ROOT, "目标: %s，模式 %s，%d 台设备，定位间隔 %d ms，并发连接 %d%n",
+                options.getUrl(), options.getMode().name().toLowerCase(), options.getDevices(),
+                options.getIntervalMs(), options.getThreads());
+        System.out.printf(Locale.ROOT, "目标速率: %.1f 定位点/秒，%.1f 请求/秒；预热 %d 秒，统计 %d 秒%n",
+                options.targetFixesPerSecond(), options.targetRequestsPerSecond(), options.getWarmupSeconds(),
+                options.getDurationSeconds());
+
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(options.getThreads(),
+                new LoadThreadFactory());
+        scheduler.setRemoveOnCancelPolicy(true);
+        Random stagger = new Random(options.getSeed());
+        // 各设备的首次定位在一个发送周期内错开，避免同时发送；批量模式的发送周期为一批的时长
+        long sendPeriodNanos = options.getMode() == LoadGeneratorOptions.Mode.BATCH
+                ? intervalNanos * options.getBatchSize() : intervalNanos;
+        if (TimeUnit.SECONDS.toNanos(options.getWarmupSeconds()) < sendPeriodNanos) {
+            System.out.printf(Locale.ROOT, "提示: 预热时长短于一个发送周期（%.1f 秒），统计开始时部分设备尚未开始发送%n",
+                    sendPeriodNanos / 1e9);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < options.getDevices(); i++) {
+            VirtualDevice device = new VirtualDevice(options.getDevicePrefix() + i, options.getSeed() + i,
+                    options.getCenterLatitude(), options.getCenterLongitude(), options.getRadiusMeters());
+            long initialDelay = (long) (stagger.nextDouble() * sendPeriodNanos);
+            device.setNextIntendedNanos(System.nanoTime() + initialDelay);
+            scheduler.scheduleAtFixedRate(new DeviceTask(device), initialDelay, intervalNanos,
+                    TimeUnit.NANOSECONDS);
+        }
+
+        long reportNanos = TimeUnit.SECONDS.toNanos(options.getReportIntervalSeconds());
+        long warmupEnd = start + TimeUnit.SECONDS.toNanos(options.getWarmupSeconds());
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(options.getDurationSeconds());
+        Totals totals = new Totals();
+        LoadStatistics.Interval previous = null;
+        long intervalStart = start;
+        boolean measuring = options.getWarmupSeconds() == 0;
+        printHeader();
+        while (true) {
+            long boundary = measuring ? Math.min(intervalStart + reportNanos, end)
+                    : Math.min(intervalStart + reportNanos, warmupEnd);
+            sleepUntil(boundary);
+            if (boundary == end) {
+                break;
+            }
+            LoadStatistics.Interval interval = statistics.interval(previous);
+            printInterval(measuring ? "统计" : "预热", boundary - start, boundary - intervalStart, interval);
+            if (measuring) {
+                totals.add(interval);
+            }
+            if (boundary == warmupEnd) {
+                measuring = true;
+            }
+            previous = interval;
+            intervalStart = boundary;
+        }
+
+        // 停止发送新请求，已发出的请求等待完成后计入最后一个区间
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(options.getReadTimeoutMs() + options.getConnectTimeoutMs(),
+                TimeUnit.MILLISECONDS)) {
+            System.out.println("部分请求在超时时间内未完成，未计入统计");
+        }
+        LoadStatistics.Interval last = statistics.interval(previous);
+        printInterval("统计", end - start, end - intervalStart, last);
+        totals.add(last);
+        return printSummary(totals, end - Math.max(start, warmupEnd));
+    }
+
+    private static void sleepUntil(long deadlineNanos) throws InterruptedException {
+        long remaining;
+        while ((remaining = deadlineNanos - System.nanoTime()) > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    private void printHeader() {
+        System.out.println();
+        System.out.println("阶段   时间(s)    请求/s   定位点/s   失败   p50(ms)   p99(ms)  p999(ms)   max(ms)");
+    }
+
+    private void printInterval(String phase, long elapsedNanos, long lengthNanos, LoadStatistics.Interval interval) {
+        double seconds = lengthNanos / 1e9;
+        Histogram histogram = interval.getResponseTime();
+        System.out.printf(Locale.ROOT, "%s %8.0f %9.1f %10.1f %6d %9.2f %9.2f %9.2f %9.2f%n", phase,
+                elapsedNanos / 1e9, interval.requests() / seconds, interval.getFixes() / seconds,
+                interval.failures(), millis(histogram, 50), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private int printSummary(Totals totals, long measuredNanos) throws IOException {
+        double seconds = measuredNanos / 1e9;
+        long requests = totals.requests();
+        double errorRate = requests == 0 ? 0 : (double) totals.failures() / requests;
+        double requestRate = requests / seconds;
+
+        System.out.println();
+        System.out.println("========== 压测结果 ==========");
+        System.out.printf(Locale.ROOT, "统计时长: %.1f 秒%n", seconds);
+        System.out.printf(Locale.ROOT, "请求: %d（%.1f/s，目标 %.1f/s），定位点: %d（%.1f/s）%n", requests,
+                requestRate, options.targetRequestsPerSecond(), totals.fixes, totals.fixes / seconds);
+        System.out.printf(Locale.ROOT, "结果: 成功 %d，部分失败 %d，业务失败 %d，限流 %d，HTTP错误 %d，IO错误 %d，失败比例 %.2f%%%n",
+                totals.count(UploadClient.Outcome.SUCCESS), totals.count(UploadClient.Outcome.PARTIAL),
+                totals.count(UploadClient.Outcome.REJECTED), totals.count(UploadClient.Outcome.RATE_LIMITED),
+                totals.count(UploadClient.Outcome.HTTP_ERROR), totals.count(UploadClient.Outcome.IO_ERROR),
+                errorRate * 100);
+        printPercentiles("响应时间（自计划发送时间）", totals.responseTime);
+        printPercentiles("服务时间（自实际发送时间）", totals.serviceTime);
+        if (requestRate < options.targetRequestsPerSecond() * 0.95) {
+            System.out.println("未达到目标速率：并发连接数不足，或服务端已饱和");
+        }
+        if (totals.count(UploadClient.Outcome.RATE_LIMITED) > 0) {
+            System.out.println("有请求被限流：单台设备的上传频率超过了服务端 app.security.rate-limit.upload-per-minute");
+        }
+
+        if (options.getHistogramFile() != null) {
+            try (PrintStream out = new PrintStream(new FileOutputStream(options.getHistogramFile()), true,
+                    StandardCharsets.UTF_8.name())) {
+                totals.responseTime.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+            System.out.println("响应时间分布已写入 " + options.getHistogramFile() + "（单位毫秒）");
+        }
+
+        int exitCode = EXIT_OK;
+        double p99 = millis(totals.responseTime, 99);
+        if (options.getMaxP99Ms() > 0 && p99 > options.getMaxP99Ms()) {
+            System.out.printf(Locale.ROOT, "检查未通过: p99 %.2f ms 超过 %.2f ms%n", p99, options.getMaxP99Ms());
+            exitCode = EXIT_THRESHOLD_EXCEEDED;
+        }
+        if (options.getMaxErrorRate() >= 0 && errorRate > options.getMaxErrorRate()) {
+            System.out.printf(Locale.ROOT, "检查未通过: 失败比例 %.4f 超过 %.4f%n", errorRate, options.getMaxErrorRate());
+            exitCode = EXIT_THRESHOLD_EXCEEDED;
+        }
+        if (totals.count(UploadClient.Outcome.SUCCESS) == 0) {
+            System.out.println("统计期间没有成功的请求，检查服务端地址和参数");
+            exitCode = EXIT_ERROR;
+        }
+        return exitCode;
+    }
+
+    private static void printPercentiles(String name, Histogram histogram) {
+        System.out.printf(Locale.ROOT, "%s(ms): p50 %.2f，p90 %.2f，p99 %.2f，p999 %.2f，max %.2f%n", name,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    /**
+     * 单台设备的调度任务，同一设备的任务不会并发执行
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private final class DeviceTask implements Runnable {
+
+        private final VirtualDevice device;
+
+        private final StringBuilder json = new StringBuilder(256);
+
+        private int pendingFixes;
+
+        private DeviceTask(VirtualDevice device) {
+            this.device = device;
+        }
+
+        @Override
+        public void run() {
+            // 固定速率调度落后时会连续补发，计划时间按间隔递推，不受实际执行时间影响
+            long intended = device.getNextIntendedNanos();
+            device.setNextIntendedNanos(intended + intervalNanos);
+            try {
+                if (options.getMode() == LoadGeneratorOptions.Mode.UPLOAD) {
+                    json.setLength(0);
+                    device.nextFix(options.getIntervalMs(), json);
+                    send(intended, 1);
+                    return;
+                }
+                json.append(pendingFixes == 0 ? '[' : ',');
+                device.nextFix(options.getIntervalMs(), json);
+                if (++pendingFixes < options.getBatchSize()) {
+                    return;
+                }
+                json.append(']');
+                send(intended, pendingFixes);
+                json.setLength(0);
+                pendingFixes = 0;
+            } catch (RuntimeException e) {
+                // 周期任务抛出异常后不会再执行，记录后继续
+                json.setLength(0);
+                pendingFixes = 0;
+                System.err.println("设备 " + device.getDeviceId() + " 发送失败: " + e);
+            }
+        }
+
+        private void send(long intended, int fixCount) {
+            byte[] body = json.toString().getBytes(StandardCharsets.UTF_8);
+            long start = System.nanoTime();
+            UploadClient.Outcome outcome = options.getMode() == LoadGeneratorOptions.Mode.UPLOAD
+                    ? client.upload(device.getDeviceId(), body)
+                    : client.uploadBatch(device.getDeviceId(), body);
+            statistics.record(outcome, fixCount, intended, start, System.nanoTime());
+        }
+    }
+
+    /**
+     * 统计阶段各区间的累计结果
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class Totals {
+
+        private final Histogram responseTime = new Histogram(3);
+
+        private final Histogram serviceTime = new Histogram(3);
+
+        private final long[] outcomes = new long[UploadClient.Outcome.values().length];
+
+        private long fixes;
+
+        private void add(LoadStatistics.Interval interval) {
+            responseTime.add(interval.getResponseTime());
+            serviceTime.add(interval.getServiceTime());
+            for (UploadClient.Outcome outcome : UploadClient.Outcome.values()) {
+                outcomes[outcome.ordinal()] += interval.count(outcome);
+            }
+            fixes += interval.getFixes();
+        }
+
+        private long count(UploadClient.Outcome outcome) {
+            return outcomes[outcome.ordinal()];
+        }
+
+        private long requests() {
+            long requests = 0;
+            for (long count : outcomes) {
+                requests += count;
+            }
+            return requests;
+        }
+
+        private long failures() {
+            return requests() - count(UploadClient.Outcome.SUCCESS);
+        }
+    }
+
+    /**
+     * 发送线程，守护线程不阻止进程退出
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class LoadThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger index = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "loadgen-" + index.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.seeker.locationtracker.loadgen;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 压测参数，命令行格式为 --名称=值
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+final class LoadGeneratorOptions {
+
+    /**
+     * 上传方式
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    enum Mode {
+        /**
+         * 每个定位点单独调用 /api/location/upload
+         */
+        UPLOAD,
+        /**
+         * 每台设备攒够 batch-size 个定位点后调用一次 /api/location/batch
+         */
+        BATCH
+    }
+
+    private String url = "http://localhost:8080";
+
+    private int devices = 100;
+
+    private long intervalMs = 1000;
+
+    private Mode mode = Mode.UPLOAD;
+
+    private int batchSize = 10;
+
+    private int threads = 16;
+
+    private long durationSeconds = 60;
+
+    private long warmupSeconds = 10;
+
+    private long reportIntervalSeconds = 5;
+
+    private int connectTimeoutMs = 5000;
+
+    private int readTimeoutMs = 30000;
+
+    private String deviceIdHeader = "X-Device-Id";
+
+    private String devicePrefix = "loadgen-";
+
+    private double centerLatitude = 31.2304;
+
+    private double centerLongitude = 121.4737;
+
+    private double radiusMeters = 20000;
+
+    private long seed = 42;
+
+    private boolean insecure;
+
+    private String histogramFile;
+
+    private double maxP99Ms;
+
+    private double maxErrorRate = -1;
+
+    static String usage() {
+        return "用法: java -jar loadgen.jar [--名称=值 ...]\n"
+                + "  --url=http://localhost:8080     服务端地址\n"
+                + "  --devices=100                   模拟设备数\n"
+                + "  --interval-ms=1000              每台设备的定位间隔（毫秒）\n"
+                + "  --mode=upload|batch             逐条上传，或攒够 batch-size 条后批量上传\n"
+                + "  --batch-size=10                 批量上传每批条数\n"
+                + "  --threads=16                    并发连接数\n"
+                + "  --duration=60                   统计时长（秒），不含预热\n"
+                + "  --warmup=10                     预热时长（秒），期间的结果不计入统计\n"
+                + "  --report-interval=5             过程输出间隔（秒）\n"
+                + "  --connect-timeout-ms=5000       连接超时\n"
+                + "  --read-timeout-ms=30000         读取超时\n"
+                + "  --device-id-header=X-Device-Id  服务端按此请求头限流\n"
+                + "  --device-prefix=loadgen-        设备ID前缀，设备ID为前缀加序号\n"
+                + "  --center=31.2304,121.4737       轨迹起点所在区域的中心\n"
+                + "  --radius-m=20000                轨迹起点所在区域的半径，设备离开区域后会折返\n"
+                + "  --seed=42                       随机种子，相同参数生成相同的轨迹\n"
+                + "  --insecure                      HTTPS不校验证书和主机名（开发环境自签名证书）\n"
+                + "  --histogram-file=               结束时将响应时间分布写入文件（HdrHistogram .hgrm 格式）\n"
+                + "  --max-p99-ms=                   响应时间p99超过该值时以退出码2结束，用于回归检查\n"
+                + "  --max-error-rate=               失败比例超过该值（0~1）时以退出码2结束\n";
+    }
+
+    /**
+     * 解析命令行参数
+     * 
+     * @param args 命令行参数
+     * @return 压测参数
+     * @throws IllegalArgumentException 参数名未知或取值不合法
+     */
+    static LoadGeneratorOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("参数格式应为 --名称=值: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+
+        LoadGeneratorOptions options = new LoadGeneratorOptions();
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String value = entry.getValue();
+            switch (entry.getKey()) {
+                case "url":
+                    options.url = value.endsWith("/") ? value.substring(0, value.length() - 1) : value;
+                    break;
+                case "devices":
+                    options.devices = positiveInt(entry.getKey(), value);
+                    break;
+                case "interval-ms":
+                    options.intervalMs = positiveInt(entry.getKey(), value);
+                    break;
+                case "mode":
+                    options.mode = parseMode(value);
+                    break;
+                case "batch-size":
+                    options.batchSize = positiveInt(entry.getKey(), value);
+                    break;
+                case "threads":
+                    options.threads = positiveInt(entry.getKey(), value);
+                    break;
+                case "duration":
+                    options.durationSeconds = positiveInt(entry.getKey(), value);
+                    break;
+                case "warmup":
+                    options.warmupSeconds = nonNegativeInt(entry.getKey(), value);
+                    break;
+                case "report-interval":
+                    options.reportIntervalSeconds = positiveInt(entry.getKey(), value);
+                    break;
+                case "connect-timeout-ms":
+                    options.connectTimeoutMs = positiveInt(entry.getKey(), value);
+                    break;
+                case "read-timeout-ms":
+                    options.readTimeoutMs = positiveInt(entry.getKey(), value);
+                    break;
+                case "device-id-header":
+                    options.deviceIdHeader = value;
+                    break;
+                case "device-prefix":
+                    options.devicePrefix = value;
+                    break;
+                case "center":
+                    parseCenter(options, value);
+                    break;
+                case "radius-m":
+                    options.radiusMeters = positiveDouble(entry.getKey(), value);
+                    break;
+                case "seed":
+                    options.seed = Long.parseLong(value);
+                    break;
+                case "insecure":
+                    options.insecure = Boolean.parseBoolean(value);
+                    break;
+                case "histogram-file":
+                    options.histogramFile = value.isEmpty() ? null : value;
+                    break;
+                case "max-p99-ms":
+                    options.maxP99Ms = positiveDouble(entry.getKey(), value);
+                    break;
+                case "max-error-rate":
+                    options.maxErrorRate = Double.parseDouble(value);
+                    if (options.maxErrorRate < 0 || options.maxErrorRate > 1) {
+                        throw new IllegalArgumentException("max-error-rate 必须在0到1之间: " + value);
+                    }
+                    break;
+                default:
+                    throw new IllegalArgumentException("未知参数: --" + entry.getKey());
+            }
+        }
+        return options;
+    }
+
+    private static Mode parseMode(String value) {
+        try {
+            return Mode.valueOf(value.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("mode 只能是 upload 或 batch: " + value);
+        }
+    }
+
+    private static void parseCenter(LoadGeneratorOptions options, String value) {
+        String[] parts = value.split(",");
+        if (parts.length != 2) {
+            throw new IllegalArgumentException("center 格式应为 纬度,经度: " + value);
+        }
+        options.centerLatitude = Double.parseDouble(parts[0].trim());
+        options.centerLongitude = Double.parseDouble(parts[1].trim());
+        if (Math.abs(options.centerLatitude) > 85 || Math.abs(options.centerLongitude) > 180) {
+            throw new IllegalArgumentException("center 超出经纬度范围: " + value);
+        }
+    }
+
+    private static int positiveInt(String name, String value) {
+        int parsed = Integer.parseInt(value);
+        if (parsed <= 0) {
+            throw new IllegalArgumentException(name + " 必须大于0: " + value);
+        }
+        return parsed;
+    }
+
+    private static int nonNegativeInt(String name, String value) {
+        int parsed = Integer.parseInt(value);
+        if (parsed < 0) {
+            throw new IllegalArgumentException(name + " 不能小于0: " + value);
+        }
+        return parsed;
+    }
+
+    private static double positiveDouble(String name, String value) {
+        double parsed = Double.parseDouble(value);
+        if (!(parsed > 0)) {
+            throw new IllegalArgumentException(name + " 必须大于0: " + value);
+        }
+        return parsed;
+    }
+
+    /**
+     * @return 每秒产生的定位点数
+     */
+    double targetFixesPerSecond() {
+        return devices * 1000.0 / intervalMs;
+    }
+
+    /**
+     * @return 每秒发出的请求数
+     */
+    double targetRequestsPerSecond() {
+        return mode == Mode.BATCH ? targetFixesPerSecond() / batchSize : targetFixesPerSecond();
+    }
+
+    String getUrl() {
+        return url;
+    }
+
+    int getDevices() {
+        return devices;
+    }
+
+    long getIntervalMs() {
+        return intervalMs;
+    }
+
+    Mode getMode() {
+        return mode;
+    }
+
+    int getBatchSize() {
+        return batchSize;
+    }
+
+    int getThreads() {
+        return threads;
+    }
+
+    long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    long getWarmupSeconds() {
+        return warmupSeconds;
+    }
+
+    long getReportIntervalSeconds() {
+        return reportIntervalSeconds;
+    }
+
+    int getConnectTimeoutMs() {
+        return connectTimeoutMs;
+    }
+
+    int getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    String getDeviceIdHeader() {
+        return deviceIdHeader;
+    }
+
+    String getDevicePrefix() {
+        return devicePrefix;
+    }
+
+    double getCenterLatitude() {
+        return centerLatitude;
+    }
+
+    double getCenterLongitude() {
+        return centerLongitude;
+    }
+
+    double getRadiusMeters() {
+        return radiusMeters;
+    }
+
+    long getSeed() {
+        return seed;
+    }
+
+    boolean isInsecure() {
+        return insecure;
+    }
+
+    String getHistogramFile() {
+        return histogramFile;
+    }
+
+    double getMaxP99Ms() {
+        return maxP99Ms;
+    }
+
+    double getMaxErrorRate() {
+        return maxErrorRate;
+    }
+}
@@ -0,0 +1,134 @@
+package com.seeker.locationtracker.loadgen;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 压测统计，延迟以微秒记录在HdrHistogram中
+ * 
+ * <p>响应时间从计划发送时间算起，包含请求在客户端排队等待空闲连接的时间，服务端变慢时不会因为发送变少而低估延迟
+ * （coordinated omission）；服务时间从实际发送算起，只反映单个请求的往返耗时。两者差距明显时说明并发连接数不足或
+ * 服务端已饱和。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+final class LoadStatistics {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Recorder responseTimeRecorder = new Recorder(SIGNIFICANT_DIGITS);
+
+    private final Recorder serviceTimeRecorder = new Recorder(SIGNIFICANT_DIGITS);
+
+    private final LongAdder[] outcomes = new LongAdder[UploadClient.Outcome.values().length];
+
+    private final LongAdder fixes = new LongAdder();
+
+    LoadStatistics() {
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次请求，IO异常的请求没有响应，只计数
+     * 
+     * @param outcome 请求结果
+     * @param fixCount 请求包含的定位点数
+     * @param intendedNanos 计划发送时间
+     * @param startNanos 实际发送时间
+     * @param endNanos 收到响应的时间
+     */
+    void record(UploadClient.Outcome outcome, int fixCount, long intendedNanos, long startNanos, long endNanos) {
+        outcomes[outcome.ordinal()].increment();
+        fixes.add(fixCount);
+        if (outcome != UploadClient.Outcome.IO_ERROR) {
+            responseTimeRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(Math.max(0, endNanos - intendedNanos)));
+            serviceTimeRecorder.recordValue(TimeUnit.NANOSECONDS.toMicros(Math.max(0, endNanos - startNanos)));
+        }
+    }
+
+    /**
+     * 取出上次调用以来的统计，只能由一个线程调用
+     * 
+     * @param previous 上次的结果，第一次调用时为null
+     * @return 本次区间的统计
+     */
+    Interval interval(Interval previous) {
+        long[] totals = new long[outcomes.length];
+        for (int i = 0; i < outcomes.length; i++) {
+            totals[i] = outcomes[i].sum();
+        }
+        return new Interval(responseTimeRecorder.getIntervalHistogram(), serviceTimeRecorder.getIntervalHistogram(),
+                totals, fixes.sum(), previous);
+    }
+
+    /**
+     * 一个统计区间的结果
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    static final class Interval {
+
+        private final Histogram responseTime;
+
+        private final Histogram serviceTime;
+
+        private final long[] totalOutcomes;
+
+        private final long totalFixes;
+
+        private final long[] outcomes;
+
+        private final long fixes;
+
+        private Interval(Histogram responseTime, Histogram serviceTime, long[] totalOutcomes, long totalFixes,
+                         Interval previous) {
+            this.responseTime = responseTime;
+            this.serviceTime = serviceTime;
+            this.totalOutcomes = totalOutcomes;
+            this.totalFixes = totalFixes;
+            this.outcomes = new long[totalOutcomes.length];
+            for (int i = 0; i < totalOutcomes.length; i++) {
+                outcomes[i] = totalOutcomes[i] - (previous == null ? 0 : previous.totalOutcomes[i]);
+            }
+            this.fixes = totalFixes - (previous == null ? 0 : previous.totalFixes);
+        }
+
+        Histogram getResponseTime() {
+            return responseTime;
+        }
+
+        Histogram getServiceTime() {
+            return serviceTime;
+        }
+
+        long count(UploadClient.Outcome outcome) {
+            return outcomes[outcome.ordinal()];
+        }
+
+        long requests() {
+            long requests = 0;
+            for (long count : outcomes) {
+                requests += count;
+            }
+            return requests;
+        }
+
+        /**
+         * @return 未完全成功的请求数
+         */
+        long failures() {
+            return requests() - count(UploadClient.Outcome.SUCCESS);
+        }
+
+        long getFixes() {
+            return fixes;
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.seeker.locationtracker.loadgen;
+
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+
+/**
+ * 上传请求客户端，基于JDK自带的 HttpURLConnection
+ * 
+ * <p>响应体读完并关闭后连接由JDK放回keep-alive缓存复用，缓存的连接数由系统属性 http.maxConnections 控制，
+ * 需要在第一次请求前设置为不小于并发数，否则超出的连接每次都要重新建立。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+final class UploadClient {
+
+    /**
+     * 请求结果
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    enum Outcome {
+        /**
+         * 上传成功（含服务端确认的重复数据）
+         */
+        SUCCESS,
+        /**
+         * 批量上传请求成功，但其中部分条目失败
+         */
+        PARTIAL,
+        /**
+         * 服务端返回业务失败（opCode不为0）
+         */
+        REJECTED,
+        /**
+         * 被限流（HTTP 429）
+         */
+        RATE_LIMITED,
+        /**
+         * 其他HTTP错误状态
+         */
+        HTTP_ERROR,
+        /**
+         * 连接失败、超时等IO异常
+         */
+        IO_ERROR
+    }
+
+    private static final String OP_CODE_SUCCESS = "\"opCode\":0";
+
+    private static final String ITEM_FAILED = "\"success\":false";
+
+    private final URL uploadUrl;
+
+    private final URL batchUrl;
+
+    private final String deviceIdHeader;
+
+    private final int connectTimeoutMs;
+
+    private final int readTimeoutMs;
+
+    private final SSLSocketFactory insecureSocketFactory;
+
+    UploadClient(LoadGeneratorOptions options) throws IOException {
+        this.uploadUrl = new URL(options.getUrl() + "/api/location/upload");
+        this.batchUrl = new URL(options.getUrl() + "/api/location/batch");
+        this.deviceIdHeader = options.getDeviceIdHeader();
+        this.connectTimeoutMs = options.getConnectTimeoutMs();
+        this.readTimeoutMs = options.getReadTimeoutMs();
+        this.insecureSocketFactory = options.isInsecure() ? trustAllSocketFactory() : null;
+    }
+
+    /**
+     * 上传单条位置数据
+     * 
+     * @param deviceId 设备ID，作为限流请求头
+     * @param body JSON对象
+     * @return 请求结果
+     */
+    Outcome upload(String deviceId, byte[] body) {
+        return post(uploadUrl, deviceId, body, false);
+    }
+
+    /**
+     * 批量上传位置数据
+     * 
+     * @param deviceId 设备ID，作为限流请求头
+     * @param body JSON数组
+     * @return 请求结果
+     */
+    Outcome uploadBatch(String deviceId, byte[] body) {
+        return post(batchUrl, deviceId, body, true);
+    }
+
+    private Outcome post(URL url, String deviceId, byte[] body, boolean batch) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) url.openConnection();
+            if (insecureSocketFactory != null && connection instanceof HttpsURLConnection) {
+                HttpsURLConnection https = (HttpsURLConnection) connection;
+                https.setSSLSocketFactory(insecureSocketFactory);
+                https.setHostnameVerifier((hostname, session) -> true);
+            }
+            connection.setRequestMethod("POST");
+            connection.setConnectTimeout(connectTimeoutMs);
+            connection.setReadTimeout(readTimeoutMs);
+            connection.setDoOutput(true);
+            connection.setFixedLengthStreamingMode(body.length);
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setRequestProperty("Accept", "application/json");
+            connection.setRequestProperty(deviceIdHeader, deviceId);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body);
+            }
+
+            int status = connection.getResponseCode();
+            // 错误响应也要读完，连接才能复用
+            String response = readFully(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+            if (status == 429) {
+                return Outcome.RATE_LIMITED;
+            }
+            if (status != 200) {
+                return Outcome.HTTP_ERROR;
+            }
+            if (!response.contains(OP_CODE_SUCCESS)) {
+                return Outcome.REJECTED;
+            }
+            return batch && response.contains(ITEM_FAILED) ? Outcome.PARTIAL : Outcome.SUCCESS;
+        } catch (IOException e) {
+            if (connection != null) {
+                // 出错的连接不再复用
+                connection.disconnect();
+            }
+            return Outcome.IO_ERROR;
+        }
+    }
+
+    private static String readFully(InputStream in) throws IOException {
+        if (in == null) {
+            return "";
+        }
+        try (InputStream input = in) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = input.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static SSLSocketFactory trustAllSocketFactory() throws IOException {
+        TrustManager trustAll = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+                // 只用于压测本地服务
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+                // 只用于压测本地服务
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[]{trustAll}, null);
+            return context.getSocketFactory();
+        } catch (GeneralSecurityException e) {
+            throw new IOException("初始化SSL上下文失败", e);
+        }
+    }
+}
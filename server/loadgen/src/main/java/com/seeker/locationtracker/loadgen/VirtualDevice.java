@@ -0,0 +1,182 @@
+package com.seeker.locationtracker.loadgen;
+
+import java.util.Random;
+
+/**
+ * 模拟设备，按随机游走生成连续的定位点
+ * 
+ * <p>每台设备随机选择步行、骑行或驾车三种出行方式之一，速度在均值附近波动，偶尔停留；航向每次小幅随机偏转，
+ * 离开区域后转向区域中心。上报的经纬度叠加与定位精度相当的噪声，少部分定位点为网络定位，精度更差。
+ * 位置时间取生成时的当前时间，同一设备严格递增，不会被服务端当作重复数据。</p>
+ * 
+ * <p>同一台设备的定位点只在持有该设备的调度任务中生成，不需要同步。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+final class VirtualDevice {
+
+    private static final double METERS_PER_DEGREE = 111320.0;
+
+    /**
+     * 出行方式的平均速度（米/秒）：步行、骑行、驾车
+     */
+    private static final double[] MEAN_SPEEDS = {1.4, 4.5, 12.0};
+
+    /**
+     * 每次定位开始停留的概率
+     */
+    private static final double STOP_PROBABILITY = 0.02;
+
+    /**
+     * 网络定位的比例
+     */
+    private static final double NETWORK_PROVIDER_RATIO = 0.1;
+
+    private final String deviceId;
+
+    private final Random random;
+
+    private final double centerLatitude;
+
+    private final double centerLongitude;
+
+    private final double radiusMeters;
+
+    private final double meanSpeed;
+
+    private double latitude;
+
+    private double longitude;
+
+    private double altitude;
+
+    private double speed;
+
+    /**
+     * 航向，正北为0，顺时针（度）
+     */
+    private double bearing;
+
+    /**
+     * 剩余停留的定位次数
+     */
+    private int stopTicks;
+
+    private long lastTimestamp;
+
+    private long nextIntendedNanos;
+
+    VirtualDevice(String deviceId, long seed, double centerLatitude, double centerLongitude,
+                  double radiusMeters) {
+        this.deviceId = deviceId;
+        this.random = new Random(seed);
+        this.centerLatitude = centerLatitude;
+        this.centerLongitude = centerLongitude;
+        this.radiusMeters = radiusMeters;
+        this.meanSpeed = MEAN_SPEEDS[random.nextInt(MEAN_SPEEDS.length)];
+        // 起点在区域内均匀分布
+        double distance = radiusMeters * Math.sqrt(random.nextDouble());
+        double angle = random.nextDouble() * 2 * Math.PI;
+        this.latitude = centerLatitude + distance * Math.cos(angle) / METERS_PER_DEGREE;
+        this.longitude = centerLongitude + distance * Math.sin(angle) / metersPerDegreeLongitude(latitude);
+        this.altitude = 5 + random.nextDouble() * 50;
+        this.speed = meanSpeed;
+        this.bearing = random.nextDouble() * 360;
+    }
+
+    String getDeviceId() {
+        return deviceId;
+    }
+
+    /**
+     * 下一次定位的计划时间，压测按计划时间计算响应时间，排队等待的时间也计入
+     */
+    long getNextIntendedNanos() {
+        return nextIntendedNanos;
+    }
+
+    void setNextIntendedNanos(long nextIntendedNanos) {
+        this.nextIntendedNanos = nextIntendedNanos;
+    }
+
+    /**
+     * 前进一个定位间隔，生成新的定位点并追加到JSON对象
+     * 
+     * @param intervalMs 定位间隔（毫秒）
+     * @param json 输出
+     */
+    void nextFix(long intervalMs, StringBuilder json) {
+        move(intervalMs / 1000.0);
+
+        boolean network = random.nextDouble() < NETWORK_PROVIDER_RATIO;
+        double accuracy = network ? 30 + random.nextDouble() * 70 : 3 + random.nextDouble() * 12;
+        // 上报位置在真实位置附近，误差与精度相当
+        double noiseMeters = random.nextGaussian() * accuracy / 2;
+        double noiseAngle = random.nextDouble() * 2 * Math.PI;
+        double reportedLatitude = latitude + noiseMeters * Math.cos(noiseAngle) / METERS_PER_DEGREE;
+        double reportedLongitude = longitude + noiseMeters * Math.sin(noiseAngle) / metersPerDegreeLongitude(latitude);
+        long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp + 1);
+        lastTimestamp = timestamp;
+
+        json.append("{\"deviceId\":\"").append(deviceId)
+                .append("\",\"latitude\":").append(round(reportedLatitude, 1e7))
+                .append(",\"longitude\":").append(round(reportedLongitude, 1e7))
+                .append(",\"accuracy\":").append(round(accuracy, 10));
+        if (!network) {
+            // 网络定位没有海拔、速度和航向
+            json.append(",\"altitude\":").append(round(altitude, 10))
+                    .append(",\"speed\":").append(round(speed, 100))
+                    .append(",\"bearing\":").append(round(bearing, 10));
+        }
+        json.append(",\"provider\":\"").append(network ? "network" : "gps")
+                .append("\",\"locationTimestamp\":").append(timestamp)
+                .append('}');
+    }
+
+    private void move(double seconds) {
+        if (stopTicks > 0) {
+            stopTicks--;
+            speed = 0;
+            return;
+        }
+        if (random.nextDouble() < STOP_PROBABILITY) {
+            stopTicks = 1 + random.nextInt(10);
+            speed = 0;
+            return;
+        }
+
+        // 速度向均值回归并随机波动
+        speed += (meanSpeed - speed) * 0.3 + random.nextGaussian() * meanSpeed * 0.15;
+        speed = Math.max(0, Math.min(speed, meanSpeed * 2));
+        bearing += random.nextGaussian() * 15;
+        if (distanceFromCenter() > radiusMeters) {
+            // 离开区域后转向中心，保持设备分布在区域内
+            double toCenter = Math.toDegrees(Math.atan2(
+                    (centerLongitude - longitude) * metersPerDegreeLongitude(latitude),
+                    (centerLatitude - latitude) * METERS_PER_DEGREE));
+            bearing = toCenter + random.nextGaussian() * 20;
+        }
+        bearing = ((bearing % 360) + 360) % 360;
+
+        double distance = speed * seconds;
+        double radians = Math.toRadians(bearing);
+        latitude += distance * Math.cos(radians) / METERS_PER_DEGREE;
+        longitude += distance * Math.sin(radians) / metersPerDegreeLongitude(latitude);
+        altitude = Math.max(0, altitude + random.nextGaussian() * 0.5);
+    }
+
+    private double distanceFromCenter() {
+        double dy = (latitude - centerLatitude) * METERS_PER_DEGREE;
+        double dx = (longitude - centerLongitude) * metersPerDegreeLongitude(latitude);
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private static double metersPerDegreeLongitude(double latitude) {
+        return METERS_PER_DEGREE * Math.cos(Math.toRadians(latitude));
+    }
+
+    private static double round(double value, double scale) {
+        return Math.round(value * scale) / scale;
+    }
+}
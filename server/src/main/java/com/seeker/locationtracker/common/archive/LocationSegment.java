@@ -0,0 +1,516 @@
+package com.seeker.locationtracker.common.archive;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.util.GeoHashUtils;
+import com.seeker.locationtracker.util.VarIntUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 单台设备单日位置数据的列式段
+ * 
+ * <p>段内数据按 (LOCATION_TIMESTAMP, TID) 升序，每列单独连续存放，读取时只解码需要的列：</p>
+ * <ul>
+ *     <li>位置时间戳：首值 + 首个差值 + 二阶差分（delta-of-delta），定频上报时几乎全是0，每点1个字节</li>
+ *     <li>主键：首值 + 差值</li>
+ *     <li>纬度/经度：按1e-7度定点化（约1厘米）后存差值</li>
+ *     <li>位置提供者：游程编码，同一提供者连续的点只存一次</li>
+ *     <li>创建时间：与位置时间戳的差值，即上报延迟</li>
+ *     <li>精度/海拔/速度/方向：按0.01定点化后存与上一个非空值的差值，0表示空值</li>
+ * </ul>
+ * <p>整数都以zig-zag变长整数存放，见 VarIntUtils。更新时间不单独存放，读出时与创建时间相同。</p>
+ * 
+ * <p>文件格式：魔数、版本、设备唯一标识、行数、位置时间范围、最大创建时间、最大主键、各列长度，之后依次为各列数据。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class LocationSegment {
+
+    /**
+     * 文件魔数 "LSEG"
+     */
+    private static final int MAGIC = 0x4C534547;
+
+    private static final byte VERSION = 1;
+
+    private static final double COORDINATE_SCALE = 1e7;
+
+    private static final double METRIC_SCALE = 100;
+
+    private static final int COLUMN_TIMESTAMP = 0;
+
+    private static final int COLUMN_TID = 1;
+
+    private static final int COLUMN_LATITUDE = 2;
+
+    private static final int COLUMN_LONGITUDE = 3;
+
+    private static final int COLUMN_PROVIDER = 4;
+
+    private static final int COLUMN_CREATE_TIME = 5;
+
+    private static final int COLUMN_ACCURACY = 6;
+
+    private static final int COLUMN_ALTITUDE = 7;
+
+    private static final int COLUMN_SPEED = 8;
+
+    private static final int COLUMN_BEARING = 9;
+
+    private static final int COLUMN_COUNT = 10;
+
+    /**
+     * 文件头中设备唯一标识之前的固定部分：魔数、版本、设备唯一标识长度
+     */
+    private static final int HEADER_PREFIX_SIZE = Integer.BYTES + 1 + Short.BYTES;
+
+    /**
+     * 文件头中设备唯一标识之后的固定部分：行数、位置时间范围、最大创建时间、最大主键、各列长度
+     */
+    private static final int HEADER_SUFFIX_SIZE = Integer.BYTES + 4 * Long.BYTES + COLUMN_COUNT * Integer.BYTES;
+
+    private final ByteBuffer buffer;
+
+    private final Header header;
+
+    private LocationSegment(ByteBuffer buffer) {
+        this.buffer = buffer;
+        this.header = parseHeader(buffer.duplicate(), buffer.limit());
+    }
+
+    /**
+     * 解析列式段，只读取文件头，列数据在遍历时按需解码
+     * 
+     * @param buffer 段数据（通常是内存映射的文件），位置为0
+     * @return 列式段
+     * @throws IllegalArgumentException 格式错误
+     */
+    public static LocationSegment wrap(ByteBuffer buffer) {
+        return new LocationSegment(buffer);
+    }
+
+    /**
+     * 只读取段文件的文件头，不映射、不读取列数据
+     * 
+     * @param channel 段文件，位置为0
+     * @param size 段文件大小，用于检查列数据是否完整
+     * @return 文件头
+     * @throws IOException 读取失败
+     * @throws IllegalArgumentException 格式错误
+     */
+    public static Header readHeader(ReadableByteChannel channel, long size) throws IOException {
+        ByteBuffer prefix = ByteBuffer.allocate(HEADER_PREFIX_SIZE);
+        readFully(channel, prefix);
+        int deviceIdLength = prefix.getShort(HEADER_PREFIX_SIZE - Short.BYTES) & 0xFFFF;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_PREFIX_SIZE + deviceIdLength + HEADER_SUFFIX_SIZE);
+        prefix.flip();
+        header.put(prefix);
+        readFully(channel, header);
+        header.flip();
+        return parseHeader(header, size);
+    }
+
+    private static void readFully(ReadableByteChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 解析文件头
+     * 
+     * @param header 从段首开始的缓冲区
+     * @param limit 段数据总长度
+     */
+    private static Header parseHeader(ByteBuffer header, long limit) {
+        if (header.remaining() < 5 || header.getInt() != MAGIC) {
+            throw new IllegalArgumentException("不是位置数据列式段");
+        }
+        byte version = header.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("不支持的列式段版本: " + version);
+        }
+        try {
+            byte[] deviceIdBytes = new byte[header.getShort() & 0xFFFF];
+            header.get(deviceIdBytes);
+            String deviceId = new String(deviceIdBytes, StandardCharsets.UTF_8);
+            int rowCount = header.getInt();
+            long minTimestamp = header.getLong();
+            long maxTimestamp = header.getLong();
+            long maxCreateTime = header.getLong();
+            long maxTid = header.getLong();
+            int[] columnOffsets = new int[COLUMN_COUNT];
+            long offset = header.position() + COLUMN_COUNT * Integer.BYTES;
+            for (int i = 0; i < COLUMN_COUNT; i++) {
+                int length = header.getInt();
+                if (length < 0) {
+                    throw new IllegalArgumentException("列式段列长度无效: " + deviceId);
+                }
+                columnOffsets[i] = (int) Math.min(offset, Integer.MAX_VALUE);
+                offset += length;
+            }
+            if (rowCount <= 0 || offset > limit) {
+                throw new IllegalArgumentException("列式段数据不完整: " + deviceId);
+            }
+            return new Header(deviceId, rowCount, minTimestamp, maxTimestamp, maxCreateTime, maxTid, columnOffsets);
+        } catch (BufferUnderflowException e) {
+            // 文件头被截断
+            throw new IllegalArgumentException("列式段文件头不完整");
+        }
+    }
+
+    /**
+     * 编码列式段
+     * 
+     * @param deviceId 设备唯一标识
+     * @param rows 同一设备的位置数据，需按 (LOCATION_TIMESTAMP, TID) 升序且主键不重复
+     * @return 段数据
+     */
+    public static byte[] encode(String deviceId, List<LocationEntity> rows) {
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("列式段不能为空: " + deviceId);
+        }
+        ByteArrayOutputStream[] columns = new ByteArrayOutputStream[COLUMN_COUNT];
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+            columns[i] = new ByteArrayOutputStream(rows.size() * 2);
+        }
+        long previousTimestamp = 0;
+        long previousDelta = 0;
+        long previousTid = 0;
+        long previousLatitude = 0;
+        long previousLongitude = 0;
+        long[] previousMetrics = new long[4];
+        String runProvider = null;
+        int runLength = 0;
+        int runCount = 0;
+        ByteArrayOutputStream runs = new ByteArrayOutputStream();
+        long maxCreateTime = Long.MIN_VALUE;
+        long maxTid = Long.MIN_VALUE;
+        for (int i = 0; i < rows.size(); i++) {
+            LocationEntity row = rows.get(i);
+            long timestamp = row.getLocationTimestamp();
+            long delta = timestamp - previousTimestamp;
+            VarIntUtils.writeSignedVarLong(columns[COLUMN_TIMESTAMP], i < 2 ? delta : delta - previousDelta);
+            previousDelta = i == 0 ? 0 : delta;
+            previousTimestamp = timestamp;
+
+            VarIntUtils.writeSignedVarLong(columns[COLUMN_TID], row.getTid() - previousTid);
+            previousTid = row.getTid();
+            maxTid = Math.max(maxTid, row.getTid());
+
+            long latitude = Math.round(row.getLatitude() * COORDINATE_SCALE);
+            long longitude = Math.round(row.getLongitude() * COORDINATE_SCALE);
+            VarIntUtils.writeSignedVarLong(columns[COLUMN_LATITUDE], latitude - previousLatitude);
+            VarIntUtils.writeSignedVarLong(columns[COLUMN_LONGITUDE], longitude - previousLongitude);
+            previousLatitude = latitude;
+            previousLongitude = longitude;
+
+            if (runLength > 0 && !row.getProvider().equals(runProvider)) {
+                writeRun(runs, runProvider, runLength);
+                runCount++;
+                runLength = 0;
+            }
+            runProvider = row.getProvider();
+            runLength++;
+
+            long createTime = row.getCreateTime() == null ? timestamp : row.getCreateTime().getTime();
+            VarIntUtils.writeSignedVarLong(columns[COLUMN_CREATE_TIME], createTime - timestamp);
+            maxCreateTime = Math.max(maxCreateTime, createTime);
+
+            writeMetric(columns[COLUMN_ACCURACY], row.getAccuracy(), previousMetrics, 0);
+            writeMetric(columns[COLUMN_ALTITUDE], row.getAltitude(), previousMetrics, 1);
+            writeMetric(columns[COLUMN_SPEED], row.getSpeed(), previousMetrics, 2);
+            writeMetric(columns[COLUMN_BEARING], row.getBearing(), previousMetrics, 3);
+        }
+        writeRun(runs, runProvider, runLength);
+        VarIntUtils.writeVarLong(columns[COLUMN_PROVIDER], runCount + 1);
+        byte[] runBytes = runs.toByteArray();
+        columns[COLUMN_PROVIDER].write(runBytes, 0, runBytes.length);
+
+        byte[] deviceIdBytes = deviceId.getBytes(StandardCharsets.UTF_8);
+        int headerSize = HEADER_PREFIX_SIZE + deviceIdBytes.length + HEADER_SUFFIX_SIZE;
+        int size = headerSize;
+        for (ByteArrayOutputStream column : columns) {
+            size += column.size();
+        }
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.putInt(MAGIC);
+        out.put(VERSION);
+        out.putShort((short) deviceIdBytes.length);
+        out.put(deviceIdBytes);
+        out.putInt(rows.size());
+        out.putLong(rows.get(0).getLocationTimestamp());
+        out.putLong(rows.get(rows.size() - 1).getLocationTimestamp());
+        out.putLong(maxCreateTime);
+        out.putLong(maxTid);
+        for (ByteArrayOutputStream column : columns) {
+            out.putInt(column.size());
+        }
+        for (ByteArrayOutputStream column : columns) {
+            out.put(column.toByteArray());
+        }
+        return out.array();
+    }
+
+    private static void writeRun(ByteArrayOutputStream out, String provider, int length) {
+        byte[] bytes = provider.getBytes(StandardCharsets.UTF_8);
+        VarIntUtils.writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+        VarIntUtils.writeVarLong(out, length);
+    }
+
+    private static void writeMetric(ByteArrayOutputStream out, Double value, long[] previous, int index) {
+        if (value == null) {
+            out.write(0);
+            return;
+        }
+        long fixed = Math.round(value * METRIC_SCALE);
+        VarIntUtils.writeVarLong(out, VarIntUtils.zigZag(fixed - previous[index]) + 1);
+        previous[index] = fixed;
+    }
+
+    /**
+     * 创建游标
+     * 
+     * @param full 是否解码全部列；只绘制轨迹时只需位置时间戳、主键和经纬度
+     * @return 指向第一行之前的游标
+     */
+    public Cursor cursor(boolean full) {
+        return new Cursor(full);
+    }
+
+    public Header getHeader() {
+        return header;
+    }
+
+    public String getDeviceId() {
+        return header.deviceId;
+    }
+
+    public int getRowCount() {
+        return header.rowCount;
+    }
+
+    public long getMinTimestamp() {
+        return header.minTimestamp;
+    }
+
+    public long getMaxTimestamp() {
+        return header.maxTimestamp;
+    }
+
+    public long getMaxCreateTime() {
+        return header.maxCreateTime;
+    }
+
+    public long getMaxTid() {
+        return header.maxTid;
+    }
+
+    /**
+     * 列式段文件头：设备、行数和统计信息，建立目录时只需读取文件头
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    public static final class Header {
+
+        private final String deviceId;
+
+        private final int rowCount;
+
+        private final long minTimestamp;
+
+        private final long maxTimestamp;
+
+        private final long maxCreateTime;
+
+        private final long maxTid;
+
+        /**
+         * 各列数据在段中的起始位置
+         */
+        private final int[] columnOffsets;
+
+        private Header(String deviceId, int rowCount, long minTimestamp, long maxTimestamp, long maxCreateTime,
+                       long maxTid, int[] columnOffsets) {
+            this.deviceId = deviceId;
+            this.rowCount = rowCount;
+            this.minTimestamp = minTimestamp;
+            this.maxTimestamp = maxTimestamp;
+            this.maxCreateTime = maxCreateTime;
+            this.maxTid = maxTid;
+            this.columnOffsets = columnOffsets;
+        }
+
+        public String getDeviceId() {
+            return deviceId;
+        }
+
+        public int getRowCount() {
+            return rowCount;
+        }
+
+        public long getMinTimestamp() {
+            return minTimestamp;
+        }
+
+        public long getMaxTimestamp() {
+            return maxTimestamp;
+        }
+
+        public long getMaxCreateTime() {
+            return maxCreateTime;
+        }
+
+        public long getMaxTid() {
+            return maxTid;
+        }
+    }
+
+    /**
+     * 列式段游标，按 (LOCATION_TIMESTAMP, TID) 升序逐行解码，非线程安全
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    public final class Cursor {
+
+        private final boolean full;
+
+        private final ByteBuffer[] columns = new ByteBuffer[COLUMN_COUNT];
+
+        private int row = -1;
+
+        private long timestamp;
+
+        private long delta;
+
+        private long tid;
+
+        private long latitude;
+
+        private long longitude;
+
+        private String provider;
+
+        private long providerRemaining;
+
+        private long createTime;
+
+        private final long[] metrics = new long[4];
+
+        private final boolean[] metricPresent = new boolean[4];
+
+        private Cursor(boolean full) {
+            this.full = full;
+            int[] columnOffsets = header.columnOffsets;
+            int columnCount = full ? COLUMN_COUNT : COLUMN_LONGITUDE + 1;
+            for (int i = 0; i < columnCount; i++) {
+                ByteBuffer column = buffer.duplicate();
+                column.position(columnOffsets[i]);
+                columns[i] = column;
+            }
+            if (full) {
+                // 游程数，之后逐个游程读取
+                VarIntUtils.readVarLong(columns[COLUMN_PROVIDER]);
+            }
+        }
+
+        /**
+         * 移动到下一行
+         * 
+         * @return 是否还有数据
+         */
+        public boolean next() {
+            if (++row >= header.rowCount) {
+                return false;
+            }
+            long value = VarIntUtils.readSignedVarLong(columns[COLUMN_TIMESTAMP]);
+            if (row < 2) {
+                delta = row == 0 ? 0 : value;
+            } else {
+                delta += value;
+            }
+            timestamp = row == 0 ? value : timestamp + delta;
+            tid += VarIntUtils.readSignedVarLong(columns[COLUMN_TID]);
+            latitude += VarIntUtils.readSignedVarLong(columns[COLUMN_LATITUDE]);
+            longitude += VarIntUtils.readSignedVarLong(columns[COLUMN_LONGITUDE]);
+            if (full) {
+                if (providerRemaining == 0) {
+                    ByteBuffer column = columns[COLUMN_PROVIDER];
+                    byte[] bytes = new byte[(int) VarIntUtils.readVarLong(column)];
+                    column.get(bytes);
+                    provider = new String(bytes, StandardCharsets.UTF_8);
+                    providerRemaining = VarIntUtils.readVarLong(column);
+                }
+                providerRemaining--;
+                createTime = timestamp + VarIntUtils.readSignedVarLong(columns[COLUMN_CREATE_TIME]);
+                for (int i = 0; i < metrics.length; i++) {
+                    long encoded = VarIntUtils.readVarLong(columns[COLUMN_ACCURACY + i]);
+                    metricPresent[i] = encoded != 0;
+                    if (encoded != 0) {
+                        metrics[i] += VarIntUtils.unZigZag(encoded - 1);
+                    }
+                }
+            }
+            return true;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public long getTid() {
+            return tid;
+        }
+
+        public double getLatitude() {
+            return latitude / COORDINATE_SCALE;
+        }
+
+        public double getLongitude() {
+            return longitude / COORDINATE_SCALE;
+        }
+
+        /**
+         * 当前行转换为位置实体，需以 full=true 创建游标
+         * 
+         * @return 位置实体
+         */
+        public LocationEntity toEntity() {
+            if (!full) {
+                throw new IllegalStateException("游标未解码全部列");
+            }
+            LocationEntity entity = new LocationEntity();
+            entity.setTid(tid);
+            entity.setDeviceId(header.deviceId);
+            entity.setLatitude(getLatitude());
+            entity.setLongitude(getLongitude());
+            entity.setAccuracy(metric(0));
+            entity.setAltitude(metric(1));
+            entity.setSpeed(metric(2));
+            entity.setBearing(metric(3));
+            entity.setProvider(provider);
+            entity.setLocationTimestamp(timestamp);
+            entity.setGeohash(GeoHashUtils.encode(entity.getLatitude(), entity.getLongitude()));
+            entity.setCreateTime(new Date(createTime));
+            entity.setUpdateTime(new Date(createTime));
+            return entity;
+        }
+
+        private Double metric(int index) {
+            return metricPresent[index] ? metrics[index] / METRIC_SCALE : null;
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.seeker.locationtracker.common.codec;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+
+/**
+ * 单条位置数据的解码结果
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class DecodedLocation {
+
+    private final LocationEntity entity;
+
+    private final String violation;
+
+    DecodedLocation(LocationEntity entity, String violation) {
+        this.entity = entity;
+        this.violation = violation;
+    }
+
+    /**
+     * @return 待写入的位置实体，校验失败时字段可能不完整
+     */
+    public LocationEntity getEntity() {
+        return entity;
+    }
+
+    /**
+     * @return 校验失败信息，校验通过时返回null
+     */
+    public String getViolation() {
+        return violation;
+    }
+}
@@ -0,0 +1,210 @@
+package com.seeker.locationtracker.common.codec;
+
+import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 位置数据紧凑二进制格式编解码
+ * 
+ * <p>请求体为小端字节序：1字节版本号、2字节无符号条数，之后是逐条记录，每条记录固定部分34字节：</p>
+ * <pre>
+ * int64  位置时间戳(毫秒)
+ * int32  纬度 × 1e7
+ * int32  经度 × 1e7
+ * int32  精度(米) × 100，Integer.MIN_VALUE 表示空
+ * int32  海拔(米) × 100，同上
+ * int32  速度(米/秒) × 100，同上
+ * int32  方向(度) × 100，同上
+ * uint8  位置提供者：1-gps，2-network，3-fused，0-自定义（后跟1字节长度和UTF-8字节）
+ * uint8  设备唯一标识长度，后跟UTF-8字节
+ * </pre>
+ * 
+ * <p>解码直接生成待写入的位置实体，不经过JSON解析、属性拷贝和Bean Validation；
+ * 单条记录的字段校验失败不影响其余记录，记录边界损坏时整个请求体无效。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class LocationBinaryCodec {
+
+    /**
+     * 请求体的媒体类型
+     */
+    public static final String CONTENT_TYPE = "application/x-location-batch";
+
+    public static final byte VERSION = 1;
+
+    /**
+     * 数值字段的空值
+     */
+    public static final int NULL_VALUE = Integer.MIN_VALUE;
+
+    private static final double COORDINATE_SCALE = 1e7;
+
+    private static final double METRIC_SCALE = 100;
+
+    private static final int HEADER_BYTES = 3;
+
+    private static final int RECORD_FIXED_BYTES = 34;
+
+    private static final String[] PROVIDERS = {null, "gps", "network", "fused"};
+
+    private LocationBinaryCodec() {}
+
+    /**
+     * 解码请求体
+     * 
+     * @param body 请求体
+     * @param maxRecords 最大条数
+     * @param now 写入时间
+     * @param validator 字段校验
+     * @return 逐条解码结果，顺序与请求体一致
+     * @throws IllegalArgumentException 版本不支持、条数超限或记录边界损坏
+     */
+    public static List<DecodedLocation> decode(byte[] body, int maxRecords, Date now, LocationValidator validator) {
+        if (body == null || body.length < HEADER_BYTES) {
+            throw new IllegalArgumentException("二进制请求体不完整");
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        byte version = buffer.get();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("不支持的二进制格式版本: " + version);
+        }
+        int count = buffer.getShort() & 0xFFFF;
+        if (count == 0) {
+            throw new IllegalArgumentException("批量上传数据不能为空");
+        }
+        if (count > maxRecords) {
+            throw new IllegalArgumentException("请求体条数超出限制，单次最多 " + maxRecords + " 条");
+        }
+        List<DecodedLocation> records = new ArrayList<>(count);
+        try {
+            for (int i = 0; i < count; i++) {
+                records.add(decodeRecord(buffer, now, validator));
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("二进制请求体不完整，第 " + records.size() + " 条记录被截断");
+        }
+        if (buffer.hasRemaining()) {
+            throw new IllegalArgumentException("二进制请求体长度与条数不符");
+        }
+        return records;
+    }
+
+    private static DecodedLocation decodeRecord(ByteBuffer buffer, Date now, LocationValidator validator) {
+        LocationEntity entity = new LocationEntity();
+        entity.setLocationTimestamp(buffer.getLong());
+        entity.setLatitude(buffer.getInt() / COORDINATE_SCALE);
+        entity.setLongitude(buffer.getInt() / COORDINATE_SCALE);
+        entity.setAccuracy(metric(buffer.getInt()));
+        entity.setAltitude(metric(buffer.getInt()));
+        entity.setSpeed(metric(buffer.getInt()));
+        entity.setBearing(metric(buffer.getInt()));
+        int providerCode = buffer.get() & 0xFF;
+        String violation = null;
+        if (providerCode == 0) {
+            entity.setProvider(readString(buffer));
+        } else if (providerCode < PROVIDERS.length) {
+            entity.setProvider(PROVIDERS[providerCode]);
+        } else {
+            violation = "位置提供者编码无效: " + providerCode;
+        }
+        entity.setDeviceId(readString(buffer));
+        entity.setCreateTime(now);
+        entity.setUpdateTime(now);
+        if (violation == null) {
+            violation = validator.validate(entity);
+        }
+        return new DecodedLocation(entity, violation);
+    }
+
+    private static Double metric(int value) {
+        return value == NULL_VALUE ? null : value / METRIC_SCALE;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.get() & 0xFF;
+        if (length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), length,
+                StandardCharsets.UTF_8);
+        buffer.position(buffer.position() + length);
+        return value;
+    }
+
+    /**
+     * 编码位置数据，供客户端和测试使用
+     * 
+     * @param locations 位置数据，设备唯一标识和自定义位置提供者不超过255个字节
+     * @return 请求体
+     */
+    public static byte[] encode(List<LocationUploadDTO> locations) {
+        if (locations.size() > 0xFFFF) {
+            throw new IllegalArgumentException("单个请求体最多 65535 条");
+        }
+        List<byte[]> deviceIds = new ArrayList<>(locations.size());
+        List<byte[]> customProviders = new ArrayList<>(locations.size());
+        int size = HEADER_BYTES;
+        for (LocationUploadDTO location : locations) {
+            byte[] deviceId = checkLength(location.getDeviceId().getBytes(StandardCharsets.UTF_8));
+            byte[] customProvider = providerCode(location.getProvider()) == 0
+                    ? checkLength(location.getProvider().getBytes(StandardCharsets.UTF_8)) : null;
+            deviceIds.add(deviceId);
+            customProviders.add(customProvider);
+            size += RECORD_FIXED_BYTES + deviceId.length + (customProvider == null ? 0 : 1 + customProvider.length);
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(VERSION);
+        buffer.putShort((short) locations.size());
+        for (int i = 0; i < locations.size(); i++) {
+            LocationUploadDTO location = locations.get(i);
+            buffer.putLong(location.getLocationTimestamp());
+            buffer.putInt((int) Math.round(location.getLatitude() * COORDINATE_SCALE));
+            buffer.putInt((int) Math.round(location.getLongitude() * COORDINATE_SCALE));
+            buffer.putInt(fixed(location.getAccuracy()));
+            buffer.putInt(fixed(location.getAltitude()));
+            buffer.putInt(fixed(location.getSpeed()));
+            buffer.putInt(fixed(location.getBearing()));
+            byte[] customProvider = customProviders.get(i);
+            if (customProvider == null) {
+                buffer.put((byte) providerCode(location.getProvider()));
+            } else {
+                buffer.put((byte) 0);
+                buffer.put((byte) customProvider.length);
+                buffer.put(customProvider);
+            }
+            buffer.put((byte) deviceIds.get(i).length);
+            buffer.put(deviceIds.get(i));
+        }
+        return buffer.array();
+    }
+
+    private static int providerCode(String provider) {
+        for (int i = 1; i < PROVIDERS.length; i++) {
+            if (PROVIDERS[i].equals(provider)) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    private static int fixed(Double value) {
+        return value == null ? NULL_VALUE : (int) Math.round(value * METRIC_SCALE);
+    }
+
+    private static byte[] checkLength(byte[] bytes) {
+        if (bytes.length > 0xFF) {
+            throw new IllegalArgumentException("字符串超过255个字节");
+        }
+        return bytes;
+    }
+}
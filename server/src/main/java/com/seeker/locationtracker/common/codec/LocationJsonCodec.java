@@ -0,0 +1,217 @@
+package com.seeker.locationtracker.common.codec;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 位置数据JSON流式解码
+ * 
+ * <p>请求体字段与 LocationUploadDTO 相同，用Jackson的流式解析器逐个读取字段，必填字段直接读入基本类型的局部变量，
+ * 校验后手工赋值生成待写入的位置实体，不创建DTO，也不经过反射绑定、Bean Validation和属性拷贝。</p>
+ * 
+ * <p>解析规则与Spring MVC默认的Jackson配置一致：忽略未知字段，数值字段接受数字或数字字符串，
+ * 空字符串视为空值，字符串字段接受任意标量。字段校验见 LocationValidator，与二进制格式的规则相同。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class LocationJsonCodec {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private LocationJsonCodec() {}
+
+    /**
+     * 解码单条位置数据
+     * 
+     * @param body 请求体，必须是JSON对象
+     * @param now 写入时间
+     * @param validator 字段校验
+     * @return 解码结果
+     * @throws IOException 请求体不是合法的JSON或字段类型不符
+     */
+    public static DecodedLocation decode(byte[] body, Date now, LocationValidator validator) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "位置数据必须是JSON对象");
+            }
+            return readLocation(parser, now, validator);
+        }
+    }
+
+    /**
+     * 解码批量位置数据，超出条数限制时不再继续解析
+     * 
+     * @param body 请求体，必须是JSON数组，数组元素为null时该条校验失败
+     * @param maxRecords 最大条数
+     * @param now 写入时间
+     * @param validator 字段校验
+     * @return 逐条解码结果，顺序与请求体一致
+     * @throws IOException 请求体不是合法的JSON或字段类型不符
+     * @throws IllegalArgumentException 数组为空或条数超限
+     */
+    public static List<DecodedLocation> decodeBatch(byte[] body, int maxRecords, Date now,
+                                                    LocationValidator validator) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new JsonParseException(parser, "批量位置数据必须是JSON数组");
+            }
+            List<DecodedLocation> records = new ArrayList<>();
+            JsonToken token;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                if (records.size() == maxRecords) {
+                    throw new IllegalArgumentException("批量上传条数超出限制，单次最多 " + maxRecords + " 条");
+                }
+                if (token == JsonToken.START_OBJECT) {
+                    records.add(readLocation(parser, now, validator));
+                } else if (token == JsonToken.VALUE_NULL) {
+                    records.add(new DecodedLocation(new LocationEntity(), "位置数据不能为空"));
+                } else {
+                    throw new JsonParseException(parser, "位置数据必须是JSON对象");
+                }
+            }
+            if (records.isEmpty()) {
+                throw new IllegalArgumentException("批量上传数据不能为空");
+            }
+            return records;
+        }
+    }
+
+    /**
+     * 读取当前对象的字段，调用时解析器位于 START_OBJECT，返回时位于对应的 END_OBJECT
+     */
+    private static DecodedLocation readLocation(JsonParser parser, Date now, LocationValidator validator)
+            throws IOException {
+        String deviceId = null;
+        String provider = null;
+        double latitude = 0;
+        double longitude = 0;
+        long locationTimestamp = 0;
+        boolean hasLatitude = false;
+        boolean hasLongitude = false;
+        boolean hasLocationTimestamp = false;
+        Double accuracy = null;
+        Double altitude = null;
+        Double speed = null;
+        Double bearing = null;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            // 字段名由解析器的符号表规范化，不会为每个请求创建新字符串
+            String field = parser.getCurrentName();
+            parser.nextToken();
+            switch (field) {
+                case "deviceId":
+                    deviceId = readString(parser);
+                    break;
+                case "latitude":
+                    hasLatitude = !isNull(parser);
+                    if (hasLatitude) {
+                        latitude = readDouble(parser);
+                    }
+                    break;
+                case "longitude":
+                    hasLongitude = !isNull(parser);
+                    if (hasLongitude) {
+                        longitude = readDouble(parser);
+                    }
+                    break;
+                case "accuracy":
+                    accuracy = isNull(parser) ? null : readDouble(parser);
+                    break;
+                case "altitude":
+                    altitude = isNull(parser) ? null : readDouble(parser);
+                    break;
+                case "speed":
+                    speed = isNull(parser) ? null : readDouble(parser);
+                    break;
+                case "bearing":
+                    bearing = isNull(parser) ? null : readDouble(parser);
+                    break;
+                case "provider":
+                    provider = readString(parser);
+                    break;
+                case "locationTimestamp":
+                    hasLocationTimestamp = !isNull(parser);
+                    if (hasLocationTimestamp) {
+                        locationTimestamp = readLong(parser);
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+                    break;
+            }
+        }
+
+        LocationEntity entity = new LocationEntity();
+        entity.setDeviceId(deviceId);
+        entity.setLatitude(hasLatitude ? latitude : null);
+        entity.setLongitude(hasLongitude ? longitude : null);
+        entity.setAccuracy(accuracy);
+        entity.setAltitude(altitude);
+        entity.setSpeed(speed);
+        entity.setBearing(bearing);
+        entity.setProvider(provider);
+        entity.setLocationTimestamp(hasLocationTimestamp ? locationTimestamp : null);
+        entity.setCreateTime(now);
+        entity.setUpdateTime(now);
+        return new DecodedLocation(entity, validator.validate(entity));
+    }
+
+    /**
+     * 数值字段的空值：null或空字符串
+     */
+    private static boolean isNull(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        return token == JsonToken.VALUE_NULL
+                || token == JsonToken.VALUE_STRING && parser.getText().trim().isEmpty();
+    }
+
+    private static String readString(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!token.isScalarValue()) {
+            throw new JsonParseException(parser, "字段 " + parser.getCurrentName() + " 必须是字符串");
+        }
+        return parser.getText();
+    }
+
+    private static double readDouble(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token.isNumeric()) {
+            return parser.getDoubleValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Double.parseDouble(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(parser, "字段 " + parser.getCurrentName() + " 不是有效的数字", e);
+            }
+        }
+        throw new JsonParseException(parser, "字段 " + parser.getCurrentName() + " 必须是数字");
+    }
+
+    private static long readLong(JsonParser parser) throws IOException {
+        JsonToken token = parser.currentToken();
+        if (token.isNumeric()) {
+            // 与Jackson默认的 ACCEPT_FLOAT_AS_INT 一致，小数截断为整数
+            return parser.getLongValue();
+        }
+        if (token == JsonToken.VALUE_STRING) {
+            try {
+                return Long.parseLong(parser.getText().trim());
+            } catch (NumberFormatException e) {
+                throw new JsonParseException(parser, "字段 " + parser.getCurrentName() + " 不是有效的整数", e);
+            }
+        }
+        throw new JsonParseException(parser, "字段 " + parser.getCurrentName() + " 必须是整数");
+    }
+}
@@ -0,0 +1,126 @@
+package com.seeker.locationtracker.common.codec;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+
+/**
+ * 待写入位置数据的字段校验
+ * 
+ * <p>JSON、二进制和DTO三种上传方式解码后都用同一套规则校验，同一条数据不会因为请求格式不同而一种被接受、另一种被拒绝。
+ * 经纬度超出范围的数据会被地理哈希截断、在设备网格索引中落到负数网格，必须在写入前拒绝。</p>
+ * 
+ * <p>只有位置时间落在 [当前时间 - 保留期, 当前时间 + 允许的时钟偏差] 之内的数据才写入：位置时间决定写入哪个月份分区，
+ * 不限制时会为任意客户端时间戳建表（1970年、公元前或超过4位的年份）。时间窗口不在 validate 中检查，
+ * 由调用方通过 accepts 判断后按已接收确认并丢弃：客户端只在成功时把数据标记为已上传，按失败返回会被一直重传。
+ * 时间窗口在创建时按当前时间计算，每个请求创建一个实例。</p>
+ * 
+ * <p>设备唯一标识和位置提供者的长度上限与表结构 VARCHAR(100) / VARCHAR(20) 一致，SQLite不检查声明的长度，
+ * 预写日志按固定上限编码单条记录，超长的值必须在这里拒绝。</p>
+ * 
+ * <p>多个字段校验失败时按字段顺序以逗号拼接。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class LocationValidator {
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    /**
+     * 设备唯一标识最大长度(字符)
+     */
+    public static final int MAX_DEVICE_ID_LENGTH = 100;
+
+    /**
+     * 位置提供者最大长度(字符)
+     */
+    public static final int MAX_PROVIDER_LENGTH = 20;
+
+    private final long minTimestamp;
+
+    private final long maxTimestamp;
+
+    /**
+     * @param minTimestamp 允许的最早位置时间戳(毫秒，包含)
+     * @param maxTimestamp 允许的最晚位置时间戳(毫秒，包含)
+     */
+    public LocationValidator(long minTimestamp, long maxTimestamp) {
+        this.minTimestamp = minTimestamp;
+        this.maxTimestamp = maxTimestamp;
+    }
+
+    /**
+     * 按当前时间、保留天数和允许的时钟偏差创建
+     * 
+     * @param now 当前时间戳(毫秒)
+     * @param retentionDays 数据保留天数
+     * @param maxClockSkewMs 允许位置时间晚于当前时间的最大偏差(毫秒)
+     * @return 校验器
+     */
+    public static LocationValidator of(long now, int retentionDays, long maxClockSkewMs) {
+        return new LocationValidator(now - retentionDays * DAY_MS, now + maxClockSkewMs);
+    }
+
+    public long getMinTimestamp() {
+        return minTimestamp;
+    }
+
+    public long getMaxTimestamp() {
+        return maxTimestamp;
+    }
+
+    /**
+     * @param locationTimestamp 位置时间戳(毫秒)
+     * @return 位置时间是否在允许范围内
+     */
+    public boolean accepts(long locationTimestamp) {
+        return locationTimestamp >= minTimestamp && locationTimestamp <= maxTimestamp;
+    }
+
+    /**
+     * 校验单条位置数据的字段，不检查位置时间是否在允许范围内
+     * 
+     * @param entity 解码后的位置实体
+     * @return 校验失败信息，校验通过时返回null
+     */
+    public String validate(LocationEntity entity) {
+        StringBuilder violation = null;
+        if (isBlank(entity.getDeviceId())) {
+            violation = append(violation, "设备ID不能为空");
+        } else if (entity.getDeviceId().length() > MAX_DEVICE_ID_LENGTH) {
+            violation = append(violation, "设备ID不能超过" + MAX_DEVICE_ID_LENGTH + "个字符");
+        }
+        Double latitude = entity.getLatitude();
+        if (latitude == null) {
+            violation = append(violation, "纬度不能为空");
+        } else if (!(latitude >= -90.0 && latitude <= 90.0)) {
+            // 取反写法同时拒绝NaN
+            violation = append(violation, "纬度必须在-90到90之间");
+        }
+        Double longitude = entity.getLongitude();
+        if (longitude == null) {
+            violation = append(violation, "经度不能为空");
+        } else if (!(longitude >= -180.0 && longitude <= 180.0)) {
+            violation = append(violation, "经度必须在-180到180之间");
+        }
+        if (isBlank(entity.getProvider())) {
+            violation = append(violation, "位置提供者不能为空");
+        } else if (entity.getProvider().length() > MAX_PROVIDER_LENGTH) {
+            violation = append(violation, "位置提供者不能超过" + MAX_PROVIDER_LENGTH + "个字符");
+        }
+        if (entity.getLocationTimestamp() == null) {
+            violation = append(violation, "位置时间戳不能为空");
+        }
+        return violation == null ? null : violation.toString();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    private static StringBuilder append(StringBuilder violation, String message) {
+        if (violation == null) {
+            return new StringBuilder(message);
+        }
+        return violation.append(", ").append(message);
+    }
+}
@@ -0,0 +1,20 @@
+package com.seeker.locationtracker.common.datasource;
+
+/**
+ * 数据源路由类型
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public enum DataSourceRoute {
+
+    /**
+     * 唯一的写连接
+     */
+    WRITE,
+
+    /**
+     * 只读连接池
+     */
+    READ
+}
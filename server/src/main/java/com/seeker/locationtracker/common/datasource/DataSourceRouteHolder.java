@@ -0,0 +1,36 @@
+package com.seeker.locationtracker.common.datasource;
+
+/**
+ * 当前线程的数据源路由标记
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class DataSourceRouteHolder {
+
+    private static final ThreadLocal<DataSourceRoute> ROUTE = new ThreadLocal<>();
+
+    private DataSourceRouteHolder() {}
+
+    /**
+     * 获取当前路由，未设置时返回null（使用写连接）
+     * 
+     * @return 当前路由
+     */
+    public static DataSourceRoute get() {
+        return ROUTE.get();
+    }
+
+    /**
+     * 设置当前路由，传入null时清除
+     * 
+     * @param route 路由
+     */
+    public static void set(DataSourceRoute route) {
+        if (route == null) {
+            ROUTE.remove();
+        } else {
+            ROUTE.set(route);
+        }
+    }
+}
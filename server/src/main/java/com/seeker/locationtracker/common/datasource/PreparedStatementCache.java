@@ -0,0 +1,101 @@
+package com.seeker.locationtracker.common.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单个物理连接上缓存的PreparedStatement
+ *
+ * <p>连接池在连接归还时会关闭通过代理连接创建的语句，所以语句直接在物理连接上创建，连接池不跟踪这些语句，
+ * 同一物理连接上的同一SQL只编译一次。缓存由 StatementCachingDataSource 创建并挂在物理连接上，
+ * 物理连接被连接池关闭（maxLifetime到期、校验失败等）时一起关闭缓存的语句，缓存不会引用已关闭的连接。
+ * 缓存的SQL种数由调用方保证有限（如每个分区表一条）。</p>
+ *
+ * <p>缓存的语句随连接在事务之间复用，调用方需在连接被占用（如事务内）时使用，并在执行后清空批处理和参数。</p>
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+public class PreparedStatementCache {
+
+    private final Connection physical;
+
+    private final Map<String, PreparedStatement> statements = new ConcurrentHashMap<>(16);
+
+    PreparedStatementCache(Connection physical) {
+        this.physical = physical;
+    }
+
+    /**
+     * 获取连接上的语句缓存
+     *
+     * @param connection 连接（可以是连接池代理）
+     * @return 语句缓存，连接不是由 StatementCachingDataSource 创建时返回null，调用方应按普通方式创建并关闭语句
+     * @throws SQLException 解包失败
+     */
+    public static PreparedStatementCache of(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(StatementCachingDataSource.CachingConnection.class)) {
+            return null;
+        }
+        return connection.unwrap(StatementCachingDataSource.CachingConnection.class).getStatementCache();
+    }
+
+    /**
+     * 获取已编译的语句，没有时编译并缓存
+     *
+     * @param sql SQL
+     * @return 语句，不要关闭
+     * @throws SQLException 编译失败
+     */
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null || statement.isClosed()) {
+            statement = physical.prepareStatement(sql);
+            statements.put(sql, statement);
+        }
+        return statement;
+    }
+
+    /**
+     * 执行失败后移除并关闭语句，下次使用时重新编译
+     *
+     * @param sql SQL
+     */
+    public void evict(String sql) {
+        PreparedStatement statement = statements.remove(sql);
+        if (statement != null) {
+            close(statement, sql);
+        }
+    }
+
+    /**
+     * 关闭全部语句，物理连接关闭前调用
+     */
+    void clear() {
+        for (Map.Entry<String, PreparedStatement> entry : statements.entrySet()) {
+            close(entry.getValue(), entry.getKey());
+        }
+        statements.clear();
+    }
+
+    /**
+     * @return 缓存的语句数
+     */
+    public int size() {
+        return statements.size();
+    }
+
+    private static void close(PreparedStatement statement, String sql) {
+        try {
+            statement.close();
+        } catch (SQLException e) {
+            log.warn("关闭缓存的PreparedStatement失败. sql={}", sql, e);
+        }
+    }
+}
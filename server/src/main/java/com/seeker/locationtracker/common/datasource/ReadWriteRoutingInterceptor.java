@@ -0,0 +1,64 @@
+package com.seeker.locationtracker.common.datasource;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Properties;
+
+/**
+ * Mapper读写路由拦截器
+ * 
+ * <p>事务外的SELECT语句路由到只读连接池，其余语句（包括事务内的查询）路由到写连接。
+ * 连接在Executor执行语句时才获取，因此在这里设置路由标记即可生效。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor",
+                args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class ReadWriteRoutingInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement ms = (MappedStatement) invocation.getArgs()[0];
+        boolean readOnly = ms.getSqlCommandType() == SqlCommandType.SELECT
+                && !TransactionSynchronizationManager.isActualTransactionActive();
+        DataSourceRoute previous = DataSourceRouteHolder.get();
+        DataSourceRouteHolder.set(readOnly ? DataSourceRoute.READ : DataSourceRoute.WRITE);
+        try {
+            return invocation.proceed();
+        } finally {
+            DataSourceRouteHolder.set(previous);
+        }
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        // 无需配置
+    }
+}
@@ -0,0 +1,46 @@
+package com.seeker.locationtracker.common.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * SQLite读写路由数据源
+ * 
+ * <p>写连接池只有一个连接，所有写操作在应用内排队，避免并发写入时出现SQLITE_BUSY；
+ * 读操作走只读连接池，在WAL模式下与写操作互不阻塞。未显式标记的操作一律走写连接。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public class SqliteRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+    private final HikariDataSource writeDataSource;
+
+    private final HikariDataSource readDataSource;
+
+    public SqliteRoutingDataSource(HikariDataSource writeDataSource, HikariDataSource readDataSource) {
+        this.writeDataSource = writeDataSource;
+        this.readDataSource = readDataSource;
+        Map<Object, Object> targets = new HashMap<>(4);
+        targets.put(DataSourceRoute.WRITE, writeDataSource);
+        targets.put(DataSourceRoute.READ, readDataSource);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(writeDataSource);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        DataSourceRoute route = DataSourceRouteHolder.get();
+        return route == null ? DataSourceRoute.WRITE : route;
+    }
+
+    @Override
+    public void close() {
+        readDataSource.close();
+        writeDataSource.close();
+    }
+}
@@ -0,0 +1,103 @@
+package com.seeker.locationtracker.common.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * 为每个物理连接挂一个 PreparedStatementCache 的数据源，作为连接池创建物理连接的数据源
+ *
+ * <p>返回的物理连接是一个代理，除以下方法外都直接转发：</p>
+ * <ul>
+ *     <li>unwrap / isWrapperFor 可以取到 CachingConnection，连接池代理连接的 unwrap 会转发到这里；</li>
+ *     <li>close 先关闭缓存的语句再关闭物理连接，连接池淘汰连接时缓存随之释放。</li>
+ * </ul>
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+public class StatementCachingDataSource extends DelegatingDataSource {
+
+    /**
+     * 带语句缓存的物理连接
+     */
+    public interface CachingConnection extends Connection {
+
+        /**
+         * @return 本连接的语句缓存
+         */
+        PreparedStatementCache getStatementCache();
+    }
+
+    /**
+     * @param targetDataSource 创建物理连接的数据源
+     */
+    public StatementCachingDataSource(DataSource targetDataSource) {
+        super(targetDataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private static Connection wrap(Connection physical) {
+        return (Connection) Proxy.newProxyInstance(CachingConnection.class.getClassLoader(),
+                new Class<?>[] {CachingConnection.class}, new CachingInvocationHandler(physical));
+    }
+
+    private static final class CachingInvocationHandler implements InvocationHandler {
+
+        private final Connection physical;
+
+        private final PreparedStatementCache statementCache;
+
+        private CachingInvocationHandler(Connection physical) {
+            this.physical = physical;
+            this.statementCache = new PreparedStatementCache(physical);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getStatementCache":
+                    return statementCache;
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    break;
+                case "isWrapperFor":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return true;
+                    }
+                    break;
+                case "close":
+                    statementCache.clear();
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
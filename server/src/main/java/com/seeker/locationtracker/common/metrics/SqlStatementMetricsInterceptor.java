@@ -0,0 +1,106 @@
+package com.seeker.locationtracker.common.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL语句耗时统计拦截器
+ * 
+ * <p>按Mapper方法记录 location.sqlite.statement 耗时，标签 statement 为 Mapper类名.方法名。
+ * 带ResultHandler的流式查询耗时包含逐行处理的时间。BATCH执行器的单条update只是加入批处理，
+ * 不单独记录，执行耗时在flushStatements时按该批第一条语句记录，type标签为batch。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Intercepts({
+        @Signature(type = Executor.class, method = "update",
+                args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class,
+                        CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "flushStatements", args = {})
+})
+public class SqlStatementMetricsInterceptor implements Interceptor {
+
+    private static final String METRIC_NAME = "location.sqlite.statement";
+
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * 语句ID:类型 -> 计时器，避免每次执行都查找注册表
+     */
+    private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public SqlStatementMetricsInterceptor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        long start = System.nanoTime();
+        Object result = invocation.proceed();
+        long elapsed = System.nanoTime() - start;
+        // 无参方法（flushStatements）的参数为null
+        Object[] args = invocation.getArgs();
+        if (args == null) {
+            List<?> results = (List<?>) result;
+            if (!results.isEmpty()) {
+                record(((BatchResult) results.get(0)).getMappedStatement(), "batch", elapsed);
+            }
+        } else if (!Integer.valueOf(BatchExecutor.BATCH_UPDATE_RETURN_VALUE).equals(result)) {
+            MappedStatement ms = (MappedStatement) args[0];
+            record(ms, ms.getSqlCommandType().name().toLowerCase(), elapsed);
+        }
+        return result;
+    }
+
+    private void record(MappedStatement ms, String type, long elapsedNanos) {
+        timers.computeIfAbsent(ms.getId() + ':' + type, key -> Timer.builder(METRIC_NAME)
+                .tag("statement", shortId(ms.getId()))
+                .tag("type", type)
+                .description("SQL语句执行耗时")
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * com.x.mapper.LocationMapper.selectTrackPage -> LocationMapper.selectTrackPage
+     */
+    private static String shortId(String id) {
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return id.substring(type + 1);
+    }
+
+    @Override
+    public Object plugin(Object target) {
+        return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+        // 无需配置
+    }
+}
@@ -0,0 +1,81 @@
+package com.seeker.locationtracker.common.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.MigrationVersion;
+import org.flywaydb.core.api.migration.Context;
+import org.flywaydb.core.api.migration.JavaMigration;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 位置数据去重唯一索引迁移（V20261021）
+ * 
+ * <p>月份分区表在运行时创建，SQL迁移无法枚举，因此用Java迁移逐表处理：
+ * 删除 (DEVICE_ID, LOCATION_TIMESTAMP) 重复的数据（保留主键最小的一条），
+ * 建立唯一索引，并删除被唯一索引覆盖的轨迹索引。</p>
+ * 
+ * <p>唯一索引的每个条目隐含主键，仍可按 (DEVICE_ID, LOCATION_TIMESTAMP, TID) 顺序做键集分页。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Component
+public class LocationUniqueIndexMigration implements JavaMigration {
+
+    private static final String LOCATION_TABLES_SQL = "SELECT name FROM sqlite_master WHERE type = 'table' "
+            + "AND (name = 'T_LOCATION' OR name GLOB 'T_LOCATION_[0-9][0-9][0-9][0-9][0-9][0-9]') ORDER BY name";
+
+    @Override
+    public MigrationVersion getVersion() {
+        return MigrationVersion.fromVersion("20261021");
+    }
+
+    @Override
+    public String getDescription() {
+        return "位置数据去重唯一索引";
+    }
+
+    @Override
+    public Integer getChecksum() {
+        return null;
+    }
+
+    @Override
+    public boolean isUndo() {
+        return false;
+    }
+
+    @Override
+    public boolean canExecuteInTransaction() {
+        return true;
+    }
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (Statement statement = connection.createStatement()) {
+            List<String> tables = new ArrayList<>();
+            try (ResultSet rs = statement.executeQuery(LOCATION_TABLES_SQL)) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+            for (String table : tables) {
+                int deleted = statement.executeUpdate("DELETE FROM " + table + " WHERE EXISTS (SELECT 1 FROM "
+                        + table + " d WHERE d.DEVICE_ID = " + table + ".DEVICE_ID AND d.LOCATION_TIMESTAMP = "
+                        + table + ".LOCATION_TIMESTAMP AND d.TID < " + table + ".TID)");
+                statement.executeUpdate("CREATE UNIQUE INDEX IF NOT EXISTS UK_" + table + "_DEVICE_TS ON "
+                        + table + "(DEVICE_ID, LOCATION_TIMESTAMP)");
+                statement.executeUpdate("DROP INDEX IF EXISTS IDX_" + table + "_DEVICE_TS_TID");
+                log.info("位置数据唯一索引已建立. table={}, duplicates={}", table, deleted);
+            }
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.seeker.locationtracker.common.ratelimit;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按键限流的无锁令牌桶
+ * 
+ * <p>每个令牌桶只保存一个理论到达时间（GCRA算法，与令牌桶等价）：每放行一个请求向后推进一个补充间隔，
+ * 理论到达时间超出当前时间一个桶容量时拒绝。放行只需一次CAS，不同键之间、同一键的并发请求之间都不加锁。</p>
+ * 
+ * <p>理论到达时间不晚于当前时间的令牌桶是满的，与新建的令牌桶等价，定期清除不会改变限流结果，
+ * 内存只与最近一个清理周期内活跃的键数有关。键数达到上限时先清除已补满的令牌桶，仍然满时按理论到达时间
+ * 淘汰最早的 1/16（最接近补满、淘汰后对限流结果影响最小的键），被淘汰的键下次请求时重新获得满的令牌桶，
+ * 淘汰数见 evictions()。不同键之间不会共用令牌桶，大量新键只会让其他键提前补满，不会让其他键被限流。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public class TokenBucketRateLimiter {
+
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    /**
+     * 键数达到上限时淘汰的比例(1/EVICT_DIVISOR)，每次淘汰的开销分摊到之后的新键上
+     */
+    private static final int EVICT_DIVISOR = 16;
+
+    /**
+     * 补充一个令牌的间隔(纳秒)
+     */
+    private final long intervalNanos;
+
+    /**
+     * 桶容量对应的时长(纳秒)
+     */
+    private final long capacityNanos;
+
+    private final int maxKeys;
+
+    /**
+     * 键 -> 理论到达时间(System.nanoTime)
+     */
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+    private final AtomicLong nextSweep;
+
+    /**
+     * 是否有线程正在淘汰，同一时间只有一个线程淘汰，其余线程照常新建令牌桶
+     */
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param permitsPerMinute 每分钟放行数，同时也是桶容量
+     * @param maxKeys 最多跟踪的键数
+     */
+    public TokenBucketRateLimiter(int permitsPerMinute, int maxKeys) {
+        if (permitsPerMinute <= 0) {
+            throw new IllegalArgumentException("每分钟放行数必须大于0: " + permitsPerMinute);
+        }
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("最多跟踪的键数必须大于0: " + maxKeys);
+        }
+        this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / permitsPerMinute;
+        this.capacityNanos = intervalNanos * permitsPerMinute;
+        this.maxKeys = maxKeys;
+        this.nextSweep = new AtomicLong(System.nanoTime() + SWEEP_INTERVAL_NANOS);
+    }
+
+    /**
+     * 尝试获取一个令牌
+     * 
+     * @param key 限流键
+     * @return 0表示放行，否则为需要等待的纳秒数
+     */
+    public long tryAcquire(String key) {
+        long now = System.nanoTime();
+        long sweepAt = nextSweep.get();
+        if (now - sweepAt >= 0 && nextSweep.compareAndSet(sweepAt, now + SWEEP_INTERVAL_NANOS)) {
+            sweep(now);
+        }
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxKeys) {
+                evict(now);
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long arrival = bucket.get();
+            long start = arrival - now > 0 ? arrival : now;
+            long next = start + intervalNanos;
+            long wait = next - now - capacityNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(arrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return 当前跟踪的键数
+     */
+    public int size() {
+        return buckets.size();
+    }
+
+    /**
+     * @return 键数达到上限时被淘汰的、尚未补满的令牌桶个数（累计值）
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * 清除已经补满的令牌桶。与放行并发时，刚被清除的键可能多放行一个请求
+     */
+    private void sweep(long now) {
+        buckets.values().removeIf(bucket -> bucket.get() - now <= 0);
+    }
+
+    /**
+     * 键数达到上限时腾出空间：先清除已补满的令牌桶，不够时淘汰理论到达时间最早的令牌桶
+     */
+    private void evict(long now) {
+        if (!evicting.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            int target = maxKeys - Math.max(1, maxKeys / EVICT_DIVISOR);
+            sweep(now);
+            int excess = buckets.size() - target;
+            if (excess <= 0) {
+                return;
+            }
+            // 按相对当前时间的值比较，避免System.nanoTime回绕
+            long[] arrivals = new long[buckets.size() + 16];
+            int count = 0;
+            for (AtomicLong bucket : buckets.values()) {
+                if (count == arrivals.length) {
+                    break;
+                }
+                arrivals[count++] = bucket.get() - now;
+            }
+            if (count == 0) {
+                return;
+            }
+            Arrays.sort(arrivals, 0, count);
+            long threshold = arrivals[Math.min(excess, count) - 1];
+            int before = buckets.size();
+            buckets.values().removeIf(bucket -> bucket.get() - now <= threshold);
+            evictions.add(Math.max(0, before - buckets.size()));
+        } finally {
+            evicting.set(false);
+        }
+    }
+}
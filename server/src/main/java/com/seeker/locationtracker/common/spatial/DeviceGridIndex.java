@@ -0,0 +1,236 @@
+package com.seeker.locationtracker.common.spatial;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.util.GeoDistanceUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 设备最新位置的等经纬度网格索引
+ * 
+ * <p>按固定度数把地球划分为网格，每台设备只登记在其最新位置所在的网格中。更新只锁定设备和新旧网格
+ * 各自所在的哈希桶（ConcurrentHashMap的分段锁），不同设备的更新互不阻塞；查询完全不加锁，
+ * 遍历覆盖查询圆的网格并按实际距离过滤。</p>
+ * 
+ * <p>查询是弱一致的：与更新并发时，正在跨网格移动的设备可能在一次查询中短暂缺失，但不会重复出现。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public class DeviceGridIndex {
+
+    private static final Comparator<Neighbor> BY_DISTANCE = Comparator.comparingDouble(Neighbor::getDistanceMeters);
+
+    private final double cellSizeDegrees;
+
+    private final int latitudeCells;
+
+    private final int longitudeCells;
+
+    /**
+     * 设备唯一标识 -> 最新位置
+     */
+    private final ConcurrentHashMap<String, LocationEntity> positions = new ConcurrentHashMap<>();
+
+    /**
+     * 网格编号 -> 网格内的设备唯一标识，空网格会被移除
+     */
+    private final ConcurrentHashMap<Long, Set<String>> cells = new ConcurrentHashMap<>();
+
+    /**
+     * @param cellSizeDegrees 网格边长(度)，应与常见查询半径同一量级
+     */
+    public DeviceGridIndex(double cellSizeDegrees) {
+        if (!(cellSizeDegrees > 0 && cellSizeDegrees <= 90)) {
+            throw new IllegalArgumentException("网格边长必须在(0, 90]度之间: " + cellSizeDegrees);
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.latitudeCells = (int) Math.ceil(180.0 / cellSizeDegrees);
+        this.longitudeCells = (int) Math.ceil(360.0 / cellSizeDegrees);
+    }
+
+    /**
+     * 更新设备位置，位置时间戳不比已索引数据新的会被忽略
+     * 
+     * @param location 位置数据
+     * @return 是否更新了索引
+     */
+    public boolean update(LocationEntity location) {
+        String deviceId = location.getDeviceId();
+        boolean[] updated = new boolean[1];
+        positions.compute(deviceId, (id, current) -> {
+            if (current != null && current.getLocationTimestamp() >= location.getLocationTimestamp()) {
+                return current;
+            }
+            long newCell = cellOf(location.getLatitude(), location.getLongitude());
+            long oldCell = current == null ? -1 : cellOf(current.getLatitude(), current.getLongitude());
+            if (newCell != oldCell) {
+                // 先登记到新网格再从旧网格移除，保证设备在任何时刻至少登记在一个网格中
+                cells.compute(newCell, (cell, members) -> {
+                    Set<String> set = members == null ? ConcurrentHashMap.newKeySet() : members;
+                    set.add(id);
+                    return set;
+                });
+                if (current != null) {
+                    cells.computeIfPresent(oldCell, (cell, members) -> {
+                        members.remove(id);
+                        return members.isEmpty() ? null : members;
+                    });
+                }
+            }
+            updated[0] = true;
+            return location;
+        });
+        return updated[0];
+    }
+
+    /**
+     * 查询设备当前索引的位置
+     * 
+     * @param deviceId 设备唯一标识
+     * @return 位置数据，未索引时返回null
+     */
+    public LocationEntity get(String deviceId) {
+        return positions.get(deviceId);
+    }
+
+    /**
+     * 已索引的设备数
+     * 
+     * @return 设备数
+     */
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * 查询半径范围内距离最近的设备
+     * 
+     * @param latitude 中心点纬度
+     * @param longitude 中心点经度
+     * @param radiusMeters 半径(米)
+     * @param limit 最大条数
+     * @return 按距离升序排列的设备
+     */
+    public List<Neighbor> withinRadius(double latitude, double longitude, double radiusMeters, int limit) {
+        // 大顶堆只保留当前最近的limit个，结果很多时也不会整体排序
+        PriorityQueue<Neighbor> nearest = new PriorityQueue<>(Math.min(limit, 1024) + 1, BY_DISTANCE.reversed());
+        double latitudeDelta = radiusMeters / GeoDistanceUtils.METERS_PER_DEGREE;
+        double minLatitude = latitude - latitudeDelta;
+        double maxLatitude = latitude + latitudeDelta;
+        int row0 = latitudeRow(Math.max(minLatitude, -90.0));
+        int row1 = latitudeRow(Math.min(maxLatitude, 90.0));
+
+        // 查询圆包含极点或经度跨度超过一周时扫描整行网格
+        int col0 = 0;
+        int col1 = longitudeCells - 1;
+        double maxAbsLatitude = Math.max(Math.abs(minLatitude), Math.abs(maxLatitude));
+        if (maxAbsLatitude < 90.0) {
+            double longitudeDelta = latitudeDelta / Math.cos(Math.toRadians(maxAbsLatitude));
+            int from = (int) Math.floor((longitude - longitudeDelta + 180.0) / cellSizeDegrees);
+            int to = (int) Math.floor((longitude + longitudeDelta + 180.0) / cellSizeDegrees);
+            if (to - from + 1 < longitudeCells) {
+                col0 = from;
+                col1 = to;
+            }
+        }
+
+        for (int row = row0; row <= row1; row++) {
+            for (int col = col0; col <= col1; col++) {
+                long cell = (long) row * longitudeCells + Math.floorMod(col, longitudeCells);
+                Set<String> members = cells.get(cell);
+                if (members == null) {
+                    continue;
+                }
+                for (String deviceId : members) {
+                    LocationEntity location = positions.get(deviceId);
+                    // 跳过刚移出该网格的设备，它会在新网格中被统计
+                    if (location == null || cellOf(location.getLatitude(), location.getLongitude()) != cell) {
+                        continue;
+                    }
+                    double distance = GeoDistanceUtils.distanceMeters(latitude, longitude,
+                            location.getLatitude(), location.getLongitude());
+                    if (distance > radiusMeters) {
+                        continue;
+                    }
+                    if (nearest.size() < limit) {
+                        nearest.add(new Neighbor(location, distance));
+                    } else if (distance < nearest.peek().getDistanceMeters()) {
+                        nearest.poll();
+                        nearest.add(new Neighbor(location, distance));
+                    }
+                }
+            }
+        }
+        List<Neighbor> result = new ArrayList<>(nearest);
+        result.sort(BY_DISTANCE);
+        return result;
+    }
+
+    /**
+     * 查询距离最近的k台设备
+     * 
+     * <p>从一个网格边长的半径开始，找不满k台时半径翻倍，直到达到最大半径。
+     * 每次扩大都包含了更小半径内的全部设备，所以找满k台时结果就是精确的k近邻。</p>
+     * 
+     * @param latitude 中心点纬度
+     * @param longitude 中心点经度
+     * @param k 设备数
+     * @param maxRadiusMeters 最大搜索半径(米)
+     * @return 按距离升序排列的设备，最大半径内不足k台时返回全部
+     */
+    public List<Neighbor> nearest(double latitude, double longitude, int k, double maxRadiusMeters) {
+        if (positions.isEmpty()) {
+            return Collections.emptyList();
+        }
+        double radius = Math.min(cellSizeDegrees * GeoDistanceUtils.METERS_PER_DEGREE, maxRadiusMeters);
+        while (true) {
+            List<Neighbor> result = withinRadius(latitude, longitude, radius, k);
+            if (result.size() >= k || radius >= maxRadiusMeters) {
+                return result;
+            }
+            radius = Math.min(radius * 2, maxRadiusMeters);
+        }
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        int col = Math.floorMod((int) Math.floor((longitude + 180.0) / cellSizeDegrees), longitudeCells);
+        return (long) latitudeRow(latitude) * longitudeCells + col;
+    }
+
+    private int latitudeRow(double latitude) {
+        return Math.min((int) Math.floor((latitude + 90.0) / cellSizeDegrees), latitudeCells - 1);
+    }
+
+    /**
+     * 查询结果：设备位置及其到中心点的距离
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    public static final class Neighbor {
+
+        private final LocationEntity location;
+
+        private final double distanceMeters;
+
+        public Neighbor(LocationEntity location, double distanceMeters) {
+            this.location = location;
+            this.distanceMeters = distanceMeters;
+        }
+
+        public LocationEntity getLocation() {
+            return location;
+        }
+
+        public double getDistanceMeters() {
+            return distanceMeters;
+        }
+    }
+}
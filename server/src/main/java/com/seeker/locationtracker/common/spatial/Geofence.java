@@ -0,0 +1,213 @@
+package com.seeker.locationtracker.common.spatial;
+
+import com.seeker.locationtracker.util.GeoDistanceUtils;
+
+/**
+ * 围栏几何形状，创建后不可变
+ * 
+ * <p>外接矩形用于网格索引和快速排除，精确判断只对外接矩形包含的点执行。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public abstract class Geofence {
+
+    private final long id;
+
+    protected final double minLatitude;
+
+    protected final double minLongitude;
+
+    protected final double maxLatitude;
+
+    protected final double maxLongitude;
+
+    protected Geofence(long id, double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {
+        this.id = id;
+        this.minLatitude = minLatitude;
+        this.minLongitude = minLongitude;
+        this.maxLatitude = maxLatitude;
+        this.maxLongitude = maxLongitude;
+    }
+
+    /**
+     * 圆形围栏
+     * 
+     * @param id 围栏ID
+     * @param latitude 圆心纬度
+     * @param longitude 圆心经度
+     * @param radiusMeters 半径(米)
+     * @return 围栏
+     */
+    public static Geofence circle(long id, double latitude, double longitude, double radiusMeters) {
+        return new Circle(id, latitude, longitude, radiusMeters);
+    }
+
+    /**
+     * 多边形围栏，顶点首尾不需要重复，不支持跨越180度经线
+     * 
+     * @param id 围栏ID
+     * @param latitudes 顶点纬度
+     * @param longitudes 顶点经度
+     * @return 围栏
+     */
+    public static Geofence polygon(long id, double[] latitudes, double[] longitudes) {
+        return new Polygon(id, latitudes, longitudes);
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public double getMinLatitude() {
+        return minLatitude;
+    }
+
+    public double getMinLongitude() {
+        return minLongitude;
+    }
+
+    public double getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    /**
+     * @return 外接矩形的最大经度，小于最小经度时表示跨越180度经线
+     */
+    public double getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    /**
+     * 判断点是否在围栏内
+     * 
+     * @param latitude 纬度
+     * @param longitude 经度
+     * @return 是否在围栏内，边界上的点视为在内
+     */
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude) {
+            return false;
+        }
+        boolean withinLongitude = minLongitude <= maxLongitude
+                ? longitude >= minLongitude && longitude <= maxLongitude
+                : longitude >= minLongitude || longitude <= maxLongitude;
+        return withinLongitude && containsExact(latitude, longitude);
+    }
+
+    /**
+     * 精确判断，调用前已确认点在外接矩形内
+     */
+    protected abstract boolean containsExact(double latitude, double longitude);
+
+    /**
+     * 圆形围栏，按球面距离判断
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class Circle extends Geofence {
+
+        private final double latitude;
+
+        private final double longitude;
+
+        private final double radiusMeters;
+
+        private Circle(long id, double latitude, double longitude, double radiusMeters) {
+            super(id, Math.max(-90.0, latitude - radiusMeters / GeoDistanceUtils.METERS_PER_DEGREE),
+                    longitudeBound(latitude, longitude, radiusMeters, -1),
+                    Math.min(90.0, latitude + radiusMeters / GeoDistanceUtils.METERS_PER_DEGREE),
+                    longitudeBound(latitude, longitude, radiusMeters, 1));
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.radiusMeters = radiusMeters;
+        }
+
+        /**
+         * 外接矩形的经度边界，圆包含极点或经度跨度超过一周时取整个经度范围
+         */
+        private static double longitudeBound(double latitude, double longitude, double radiusMeters, int sign) {
+            double latitudeDelta = radiusMeters / GeoDistanceUtils.METERS_PER_DEGREE;
+            double maxAbsLatitude = Math.abs(latitude) + latitudeDelta;
+            if (maxAbsLatitude >= 90.0) {
+                return sign * 180.0;
+            }
+            double longitudeDelta = latitudeDelta / Math.cos(Math.toRadians(maxAbsLatitude));
+            if (longitudeDelta >= 180.0) {
+                return sign * 180.0;
+            }
+            double bound = longitude + sign * longitudeDelta;
+            // 越过180度经线时折回，最大经度会小于最小经度
+            return bound > 180.0 ? bound - 360.0 : bound < -180.0 ? bound + 360.0 : bound;
+        }
+
+        @Override
+        protected boolean containsExact(double latitude, double longitude) {
+            return GeoDistanceUtils.distanceMeters(this.latitude, this.longitude, latitude, longitude) <= radiusMeters;
+        }
+    }
+
+    /**
+     * 多边形围栏，在经纬度平面上按射线法判断，适用于城市级别的围栏
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class Polygon extends Geofence {
+
+        private final double[] latitudes;
+
+        private final double[] longitudes;
+
+        private Polygon(long id, double[] latitudes, double[] longitudes) {
+            super(id, min(latitudes), min(longitudes), max(latitudes), max(longitudes));
+            this.latitudes = latitudes.clone();
+            this.longitudes = longitudes.clone();
+        }
+
+        @Override
+        protected boolean containsExact(double latitude, double longitude) {
+            boolean inside = false;
+            int n = latitudes.length;
+            for (int i = 0, j = n - 1; i < n; j = i++) {
+                double lat1 = latitudes[i];
+                double lon1 = longitudes[i];
+                double lat2 = latitudes[j];
+                double lon2 = longitudes[j];
+                if (onSegment(latitude, longitude, lat1, lon1, lat2, lon2)) {
+                    return true;
+                }
+                if ((lat1 > latitude) != (lat2 > latitude)
+                        && longitude < (lon2 - lon1) * (latitude - lat1) / (lat2 - lat1) + lon1) {
+                    inside = !inside;
+                }
+            }
+            return inside;
+        }
+
+        private static boolean onSegment(double latitude, double longitude, double lat1, double lon1,
+                                         double lat2, double lon2) {
+            double cross = (lon2 - lon1) * (latitude - lat1) - (lat2 - lat1) * (longitude - lon1);
+            return cross == 0
+                    && longitude >= Math.min(lon1, lon2) && longitude <= Math.max(lon1, lon2)
+                    && latitude >= Math.min(lat1, lat2) && latitude <= Math.max(lat1, lat2);
+        }
+
+        private static double min(double[] values) {
+            double min = Double.POSITIVE_INFINITY;
+            for (double value : values) {
+                min = Math.min(min, value);
+            }
+            return min;
+        }
+
+        private static double max(double[] values) {
+            double max = Double.NEGATIVE_INFINITY;
+            for (double value : values) {
+                max = Math.max(max, value);
+            }
+            return max;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.seeker.locationtracker.common.spatial;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 围栏的等经纬度网格索引，创建后不可变，围栏变化时整体重建
+ * 
+ * <p>每个围栏登记在其外接矩形覆盖的所有网格中，判断一个点时只取出点所在网格的围栏做精确判断，
+ * 与围栏总数无关。外接矩形覆盖的网格数超过上限的大围栏不登记到网格，每个点都要判断。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public class GeofenceIndex {
+
+    private static final Geofence[] NONE = new Geofence[0];
+
+    private static final long[] NO_IDS = new long[0];
+
+    private final double cellSizeDegrees;
+
+    private final int latitudeCells;
+
+    private final int longitudeCells;
+
+    /**
+     * 围栏ID -> 围栏
+     */
+    private final Map<Long, Geofence> fences;
+
+    /**
+     * 网格编号 -> 外接矩形覆盖该网格的围栏
+     */
+    private final Map<Long, Geofence[]> cells;
+
+    /**
+     * 覆盖网格数超过上限的大围栏
+     */
+    private final Geofence[] large;
+
+    /**
+     * @param fences 围栏
+     * @param cellSizeDegrees 网格边长(度)，应与常见围栏大小同一量级
+     * @param maxCellsPerFence 单个围栏最多登记的网格数
+     */
+    public GeofenceIndex(Collection<Geofence> fences, double cellSizeDegrees, int maxCellsPerFence) {
+        if (!(cellSizeDegrees > 0 && cellSizeDegrees <= 90)) {
+            throw new IllegalArgumentException("网格边长必须在(0, 90]度之间: " + cellSizeDegrees);
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.latitudeCells = (int) Math.ceil(180.0 / cellSizeDegrees);
+        this.longitudeCells = (int) Math.ceil(360.0 / cellSizeDegrees);
+        this.fences = new HashMap<>(fences.size() * 2);
+
+        Map<Long, List<Geofence>> grid = new HashMap<>();
+        List<Geofence> largeFences = new ArrayList<>();
+        for (Geofence fence : fences) {
+            this.fences.put(fence.getId(), fence);
+            int row0 = latitudeRow(fence.getMinLatitude());
+            int row1 = latitudeRow(fence.getMaxLatitude());
+            int col0 = longitudeColumn(fence.getMinLongitude());
+            int col1 = longitudeColumn(fence.getMaxLongitude());
+            if (fence.getMaxLongitude() < fence.getMinLongitude()) {
+                // 跨越180度经线，列号绕回
+                col1 += longitudeCells;
+            }
+            long cellCount = (long) (row1 - row0 + 1) * (col1 - col0 + 1);
+            if (cellCount > maxCellsPerFence) {
+                largeFences.add(fence);
+                continue;
+            }
+            for (int row = row0; row <= row1; row++) {
+                for (int col = col0; col <= col1; col++) {
+                    long cell = (long) row * longitudeCells + Math.floorMod(col, longitudeCells);
+                    grid.computeIfAbsent(cell, key -> new ArrayList<>(2)).add(fence);
+                }
+            }
+        }
+        this.cells = new HashMap<>(grid.size() * 2);
+        for (Map.Entry<Long, List<Geofence>> entry : grid.entrySet()) {
+            cells.put(entry.getKey(), entry.getValue().toArray(NONE));
+        }
+        this.large = largeFences.toArray(NONE);
+    }
+
+    /**
+     * 查询围栏
+     * 
+     * @param id 围栏ID
+     * @return 围栏，不存在时返回null
+     */
+    public Geofence get(long id) {
+        return fences.get(id);
+    }
+
+    public int size() {
+        return fences.size();
+    }
+
+    public boolean isEmpty() {
+        return fences.isEmpty();
+    }
+
+    /**
+     * 查询包含该点的围栏
+     * 
+     * @param latitude 纬度
+     * @param longitude 经度
+     * @return 升序排列的围栏ID
+     */
+    public long[] containing(double latitude, double longitude) {
+        Geofence[] candidates = cells.get((long) latitudeRow(latitude) * longitudeCells
+                + longitudeColumn(longitude));
+        if (candidates == null && large.length == 0) {
+            return NO_IDS;
+        }
+        long[] ids = NO_IDS;
+        int count = 0;
+        for (Geofence[] group : new Geofence[][]{candidates == null ? NONE : candidates, large}) {
+            for (Geofence fence : group) {
+                if (fence.contains(latitude, longitude)) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, Math.max(4, count * 2));
+                    }
+                    ids[count++] = fence.getId();
+                }
+            }
+        }
+        if (count == 0) {
+            return NO_IDS;
+        }
+        long[] result = count == ids.length ? ids : Arrays.copyOf(ids, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private int latitudeRow(double latitude) {
+        int row = (int) Math.floor((latitude + 90.0) / cellSizeDegrees);
+        return Math.max(0, Math.min(row, latitudeCells - 1));
+    }
+
+    private int longitudeColumn(double longitude) {
+        int column = (int) Math.floor((longitude + 180.0) / cellSizeDegrees);
+        return Math.max(0, Math.min(column, longitudeCells - 1));
+    }
+}
@@ -0,0 +1,214 @@
+package com.seeker.locationtracker.common.stream;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 订阅者的有界缓冲区，写入线程放入、推送线程取出，两端都不加锁不阻塞
+ * 
+ * <p>放入由多个写入线程并发调用，取出同一时间只有一个推送线程调用。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public abstract class LocationStreamBuffer {
+
+    /**
+     * 放入结果
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    public enum Offer {
+        /**
+         * 已放入缓冲区
+         */
+        QUEUED,
+        /**
+         * 与同一设备未推送的位置合并，只保留较新的一条
+         */
+        COALESCED,
+        /**
+         * 缓冲区已满，丢弃
+         */
+        DROPPED
+    }
+
+    protected final int capacity;
+
+    protected final AtomicInteger size = new AtomicInteger();
+
+    protected LocationStreamBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("缓冲区大小必须大于0: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * 缓冲区满时丢弃新到的位置
+     * 
+     * @param capacity 最多缓存的位置条数
+     * @return 缓冲区
+     */
+    public static LocationStreamBuffer dropping(int capacity) {
+        return new Dropping(capacity);
+    }
+
+    /**
+     * 每台设备只保留最新一条未推送的位置，缓冲区满时丢弃新设备的位置
+     * 
+     * @param capacity 最多缓存的设备数
+     * @return 缓冲区
+     */
+    public static LocationStreamBuffer coalescing(int capacity) {
+        return new Coalescing(capacity);
+    }
+
+    /**
+     * 放入一条位置
+     * 
+     * @param event 位置事件
+     * @return 放入结果
+     */
+    public abstract Offer offer(LocationStreamEvent event);
+
+    /**
+     * 按放入顺序取出位置
+     * 
+     * @param target 输出
+     * @param maxEvents 最多取出条数
+     * @return 取出条数
+     */
+    public abstract int drainTo(List<LocationStreamEvent> target, int maxEvents);
+
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    /**
+     * 先占用容量再放入，占用失败说明已满，不会超出容量
+     * 
+     * @return 是否占用成功
+     */
+    protected boolean reserve() {
+        if (size.incrementAndGet() > capacity) {
+            size.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 丢弃新位置的缓冲区
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class Dropping extends LocationStreamBuffer {
+
+        private final Queue<LocationStreamEvent> queue = new ConcurrentLinkedQueue<>();
+
+        private Dropping(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public Offer offer(LocationStreamEvent event) {
+            if (!reserve()) {
+                return Offer.DROPPED;
+            }
+            queue.offer(event);
+            return Offer.QUEUED;
+        }
+
+        @Override
+        public int drainTo(List<LocationStreamEvent> target, int maxEvents) {
+            int drained = 0;
+            LocationStreamEvent event;
+            while (drained < maxEvents && (event = queue.poll()) != null) {
+                size.decrementAndGet();
+                target.add(event);
+                drained++;
+            }
+            return drained;
+        }
+    }
+
+    /**
+     * 按设备合并的缓冲区
+     * 
+     * <p>每台设备在 pending 中最多一条位置，设备唯一标识第一次放入时追加到 order 队列，取出时按 order 的顺序
+     * 移除 pending 中的位置。不能合并的事件直接放入 order 队列。size 为 pending 中的设备数加上 order 中
+     * 不能合并的事件数。</p>
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class Coalescing extends LocationStreamBuffer {
+
+        private final ConcurrentHashMap<String, LocationStreamEvent> pending = new ConcurrentHashMap<>();
+
+        /**
+         * 设备唯一标识，或不能合并的事件
+         */
+        private final Queue<Object> order = new ConcurrentLinkedQueue<>();
+
+        private Coalescing(int capacity) {
+            super(capacity);
+        }
+
+        @Override
+        public Offer offer(LocationStreamEvent event) {
+            if (!event.isCoalescable()) {
+                if (!reserve()) {
+                    return Offer.DROPPED;
+                }
+                order.offer(event);
+                return Offer.QUEUED;
+            }
+            String deviceId = event.getDeviceId();
+            while (true) {
+                LocationStreamEvent current = pending.get(deviceId);
+                if (current == null) {
+                    if (!reserve()) {
+                        return Offer.DROPPED;
+                    }
+                    if (pending.putIfAbsent(deviceId, event) == null) {
+                        order.offer(deviceId);
+                        return Offer.QUEUED;
+                    }
+                    // 其他写入线程先放入了同一设备，退还容量后按合并处理
+                    size.decrementAndGet();
+                    continue;
+                }
+                if (event.getTimestamp() <= current.getTimestamp()) {
+                    // 乱序上传的旧位置不覆盖未推送的新位置
+                    return Offer.COALESCED;
+                }
+                if (pending.replace(deviceId, current, event)) {
+                    return Offer.COALESCED;
+                }
+            }
+        }
+
+        @Override
+        public int drainTo(List<LocationStreamEvent> target, int maxEvents) {
+            int drained = 0;
+            Object next;
+            while (drained < maxEvents && (next = order.poll()) != null) {
+                LocationStreamEvent event = next instanceof LocationStreamEvent
+                        ? (LocationStreamEvent) next : pending.remove(next);
+                size.decrementAndGet();
+                if (event != null) {
+                    target.add(event);
+                    drained++;
+                }
+            }
+            return drained;
+        }
+    }
+}
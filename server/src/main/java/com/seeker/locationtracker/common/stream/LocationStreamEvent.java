@@ -0,0 +1,128 @@
+package com.seeker.locationtracker.common.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.model.entity.GeofenceEventEntity;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+
+/**
+ * 待推送的事件：新写入的位置，或进出围栏事件
+ * 
+ * <p>同一个事件会推送给所有匹配的订阅者，JSON在第一次推送时序列化并缓存，之后的订阅者直接复用。
+ * 并发推送时可能重复序列化，结果相同，不需要加锁。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class LocationStreamEvent {
+
+    public static final String NAME_LOCATION = "location";
+
+    public static final String NAME_GEOFENCE = "geofence";
+
+    private final String name;
+
+    private final String id;
+
+    private final String deviceId;
+
+    private final long timestamp;
+
+    private final double latitude;
+
+    private final double longitude;
+
+    private final Object payload;
+
+    private volatile String json;
+
+    private LocationStreamEvent(String name, String id, String deviceId, long timestamp, double latitude,
+                                double longitude, Object payload) {
+        this.name = name;
+        this.id = id;
+        this.deviceId = deviceId;
+        this.timestamp = timestamp;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.payload = payload;
+    }
+
+    /**
+     * 新写入的位置，事件ID为 设备唯一标识:位置时间戳
+     * 
+     * @param entity 位置数据
+     * @return 事件
+     */
+    public static LocationStreamEvent location(LocationEntity entity) {
+        return new LocationStreamEvent(NAME_LOCATION, entity.getDeviceId() + ":" + entity.getLocationTimestamp(),
+                entity.getDeviceId(), entity.getLocationTimestamp(), entity.getLatitude(), entity.getLongitude(),
+                entity);
+    }
+
+    /**
+     * 进出围栏事件，事件ID为 设备唯一标识:位置时间戳:围栏ID:事件类型
+     * 
+     * @param event 进出围栏事件
+     * @return 事件
+     */
+    public static LocationStreamEvent geofence(GeofenceEventEntity event) {
+        return new LocationStreamEvent(NAME_GEOFENCE, event.getDeviceId() + ":" + event.getLocationTimestamp()
+                + ":" + event.getFenceId() + ":" + event.getEventType(), event.getDeviceId(),
+                event.getLocationTimestamp(), event.getLatitude(), event.getLongitude(), event);
+    }
+
+    /**
+     * @return SSE事件名
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getDeviceId() {
+        return deviceId;
+    }
+
+    /**
+     * @return 位置时间戳
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public double getLatitude() {
+        return latitude;
+    }
+
+    public double getLongitude() {
+        return longitude;
+    }
+
+    /**
+     * 位置可以被同一设备更新的位置合并，进出围栏事件不能合并
+     * 
+     * @return 是否可以合并
+     */
+    public boolean isCoalescable() {
+        return NAME_LOCATION.equals(name);
+    }
+
+    /**
+     * 序列化为JSON，与查询接口返回的数据格式相同
+     * 
+     * @param objectMapper 序列化使用的ObjectMapper
+     * @return JSON字符串
+     * @throws JsonProcessingException 序列化失败
+     */
+    public String toJson(ObjectMapper objectMapper) throws JsonProcessingException {
+        String value = json;
+        if (value == null) {
+            value = objectMapper.writeValueAsString(payload);
+            json = value;
+        }
+        return value;
+    }
+}
@@ -0,0 +1,81 @@
+package com.seeker.locationtracker.common.stream;
+
+import com.seeker.locationtracker.model.dto.BoundingBoxQueryDTO;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 订阅条件，设备和矩形区域同时指定时两者都要满足，都不指定时订阅所有设备
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class LocationStreamFilter {
+
+    /**
+     * 订阅的设备，null表示不限设备
+     */
+    private final Set<String> deviceIds;
+
+    /**
+     * 订阅的矩形区域，null表示不限区域
+     */
+    private final BoundingBoxQueryDTO boundingBox;
+
+    /**
+     * @param deviceIds 订阅的设备，null或空集合表示不限设备
+     * @param boundingBox 订阅的矩形区域，null表示不限区域
+     */
+    public LocationStreamFilter(Set<String> deviceIds, BoundingBoxQueryDTO boundingBox) {
+        this.deviceIds = deviceIds == null || deviceIds.isEmpty() ? null : Collections.unmodifiableSet(deviceIds);
+        this.boundingBox = boundingBox;
+    }
+
+    /**
+     * @return 订阅的设备，不限设备时返回null
+     */
+    public Set<String> getDeviceIds() {
+        return deviceIds;
+    }
+
+    public boolean hasDeviceIds() {
+        return deviceIds != null;
+    }
+
+    /**
+     * 判断位置是否满足订阅条件
+     * 
+     * @param deviceId 设备唯一标识
+     * @param latitude 纬度
+     * @param longitude 经度
+     * @return 是否满足
+     */
+    public boolean matches(String deviceId, double latitude, double longitude) {
+        if (deviceIds != null && !deviceIds.contains(deviceId)) {
+            return false;
+        }
+        return withinBoundingBox(latitude, longitude);
+    }
+
+    /**
+     * 只判断矩形区域，用于已按设备索引找到的订阅者
+     * 
+     * @param latitude 纬度
+     * @param longitude 经度
+     * @return 是否在订阅区域内
+     */
+    public boolean withinBoundingBox(double latitude, double longitude) {
+        if (boundingBox == null) {
+            return true;
+        }
+        if (latitude < boundingBox.getMinLatitude() || latitude > boundingBox.getMaxLatitude()) {
+            return false;
+        }
+        if (boundingBox.getMinLongitude() <= boundingBox.getMaxLongitude()) {
+            return longitude >= boundingBox.getMinLongitude() && longitude <= boundingBox.getMaxLongitude();
+        }
+        // 跨越180度经线
+        return longitude >= boundingBox.getMinLongitude() || longitude <= boundingBox.getMaxLongitude();
+    }
+}
@@ -0,0 +1,787 @@
+package com.seeker.locationtracker.common.wal;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * 位置数据预写日志：只追加、按段切分、内存映射写入
+ *
+ * <p>日志按字节编号（LSN）连续编址，每个段文件以其第一条记录的LSN命名（20位十进制，.wal），
+ * 段写满后新段从上一段最后一条记录的结束位置接着编号，LSN没有空洞。段文件创建时写满0预分配为固定大小后再映射：
+ * 稀疏文件在磁盘写满时写入映射内存会使进程收到 SIGBUS，预分配失败则在创建时以 IOException 报告。
+ * 恢复时读到长度为0、越界或校验和不符的记录即认为是段的结尾。</p>
+ *
+ * <p>预分配和刷盘64MB的新段需要数百毫秒，不能放在 append 的锁内：下一个段由后台线程提前以临时文件名创建、
+ * 预分配并映射，切换时在锁内只改名换入，再开始准备下一个。后台尚未准备好时切换等待其完成，
+ * 后台预分配失败时切换改为同步创建，仍失败则本批写入失败。</p>
+ *
+ * <p>段文件格式：4字节魔数、4字节版本，之后是逐条记录：4字节负载长度、4字节负载CRC32、负载。
+ * 负载为一条位置数据，浮点数按原值存放，写库时与直接上传的数据完全相同。</p>
+ *
+ * <p>append 先把整批记录编码到暂存缓冲区，任何一条编码失败都不写入；整批放不下当前段时先切换到新段，
+ * 一批记录总在同一个段内，要么全部写入、要么都不写入，调用方按失败返回的批次不会在日志中留下一部分。</p>
+ *
+ * <p>写入与刷盘分开：append 在锁内把记录写进映射内存后立即返回结束LSN，sync 按组刷盘——第一个等待的线程
+ * 把当时已写入的全部数据一次性 force 到磁盘，期间到达的线程排队，轮到时发现自己的数据已经刷盘就直接返回，
+ * 并发越高每次刷盘覆盖的记录越多。</p>
+ *
+ * <p>已写库的位置记录在 checkpoint 文件中，只在要删除段之前刷盘：崩溃后可能从稍早的位置重放，
+ * 重放的数据已存在时被 (DEVICE_ID, LOCATION_TIMESTAMP) 唯一索引忽略。已写库的段整段删除，
+ * 调用方必须保证 markApplied 之前的写库事务已经落盘。</p>
+ *
+ * <p>无法写库的记录通过 quarantine 追加到 rejected 文件（格式与段文件相同），不再阻塞后续记录。
+ * takeQuarantined 把 rejected 文件改名为 rejected.replaying 后取出其中的记录重新写库，
+ * 仍无法写库的记录重新 quarantine 到新的 rejected 文件，全部处理完后 finishQuarantineReplay 删除 rejected.replaying；
+ * 中途崩溃时下次从 rejected.replaying 继续。</p>
+ *
+ * <p>写入、刷盘可以并发调用；read、markApplied 只能由同一个写库线程调用。</p>
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+public final class LocationWriteAheadLog implements AutoCloseable {
+
+    /**
+     * 段文件魔数 "LWAL"
+     */
+    private static final int MAGIC = 0x4C57414C;
+
+    private static final int VERSION = 1;
+
+    private static final int SEGMENT_HEADER_BYTES = 8;
+
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    /**
+     * 单条记录负载的上限，设备唯一标识和位置提供者由 LocationValidator 限制长度，实际远小于该值
+     */
+    private static final int MAX_PAYLOAD_BYTES = 4096;
+
+    private static final int MIN_SEGMENT_BYTES = 1024 * 1024;
+
+    private static final String SEGMENT_SUFFIX = ".wal";
+
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private static final String REJECTED_FILE = "rejected";
+
+    private static final String REPLAYING_REJECTED_FILE = "rejected.replaying";
+
+    /**
+     * 后台预分配的下一个段的临时文件名，不匹配段文件的后缀
+     */
+    private static final String SPARE_FILE = "next.wal.tmp";
+
+    private static final int PREALLOCATE_CHUNK_BYTES = 64 * 1024;
+
+    private static final int FLAG_ACCURACY = 1;
+
+    private static final int FLAG_ALTITUDE = 1 << 1;
+
+    private static final int FLAG_SPEED = 1 << 2;
+
+    private static final int FLAG_BEARING = 1 << 3;
+
+    private final Path directory;
+
+    private final int segmentBytes;
+
+    /**
+     * 段起始LSN -> 段，包含尚未写库的旧段和当前写入的段
+     */
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    private final Object syncLock = new Object();
+
+    /**
+     * 整批编码的暂存缓冲区，只在持有对象锁时使用，按需扩容
+     */
+    private ByteBuffer scratch = ByteBuffer.allocate(64 * 1024);
+
+    private final CRC32 crc = new CRC32();
+
+    private final FileChannel checkpointChannel;
+
+    private final ByteBuffer checkpointBuffer = ByteBuffer.allocate(2 * Long.BYTES);
+
+    private final ByteBuffer zeros = ByteBuffer.allocateDirect(PREALLOCATE_CHUNK_BYTES);
+
+    private final ExecutorService preallocator;
+
+    /**
+     * 后台准备的下一个段，只在持有对象锁时读写
+     */
+    private Future<MappedByteBuffer> spare;
+
+    /**
+     * 当前写入的段，只在持有对象锁时读写
+     */
+    private Segment current;
+
+    /**
+     * 已写入的结束LSN
+     */
+    private volatile long written;
+
+    /**
+     * 已刷盘的结束LSN
+     */
+    private volatile long synced;
+
+    /**
+     * 已写库的结束LSN
+     */
+    private volatile long applied;
+
+    private LocationWriteAheadLog(Path directory, int segmentBytes, FileChannel checkpointChannel, long checkpoint) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.checkpointChannel = checkpointChannel;
+        this.applied = checkpoint;
+        this.preallocator = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-wal-preallocator");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 打开日志目录，只读取检查点和段文件列表，之后必须先调用 replay 才能写入
+     *
+     * @param directory 日志目录，不存在时创建
+     * @param segmentBytes 段文件大小(字节)
+     * @return 预写日志
+     * @throws IOException 目录或文件读写失败
+     */
+    public static LocationWriteAheadLog open(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes < MIN_SEGMENT_BYTES) {
+            throw new IllegalArgumentException("预写日志段文件不能小于1MB: " + segmentBytes);
+        }
+        Files.createDirectories(directory);
+        Files.deleteIfExists(directory.resolve(SPARE_FILE));
+        FileChannel checkpointChannel = FileChannel.open(directory.resolve(CHECKPOINT_FILE),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long checkpoint = 0;
+        ByteBuffer buffer = ByteBuffer.allocate(2 * Long.BYTES);
+        if (checkpointChannel.read(buffer, 0) == buffer.capacity()) {
+            buffer.flip();
+            long value = buffer.getLong();
+            // 第二个值为取反的校验，检查点文件损坏时从最早的段开始重放
+            if (buffer.getLong() == ~value) {
+                checkpoint = value;
+            }
+        }
+        LocationWriteAheadLog wal = new LocationWriteAheadLog(directory, segmentBytes, checkpointChannel, checkpoint);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SEGMENT_SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    long base = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                    wal.segments.put(base, new Segment(path, null));
+                } catch (NumberFormatException e) {
+                    log.warn("忽略无法识别的预写日志文件: {}", path);
+                }
+            }
+        }
+        return wal;
+    }
+
+    /**
+     * 重放检查点之后尚未写库的记录，重放完的段全部删除，再创建新段开始接收写入
+     *
+     * @param batchSize 每批条数
+     * @param sink 写库回调，抛出异常时重放中止，日志保留到下次启动
+     * @return 重放条数
+     * @throws IOException 段文件读写失败
+     */
+    public synchronized long replay(int batchSize, Consumer<List<LocationEntity>> sink) throws IOException {
+        if (current != null) {
+            throw new IllegalStateException("预写日志已经开始写入");
+        }
+        long replayed = 0;
+        long end = applied;
+        List<LocationEntity> batch = new ArrayList<>(batchSize);
+        for (Map.Entry<Long, Segment> entry : segments.entrySet()) {
+            long base = entry.getKey();
+            Long next = segments.higherKey(base);
+            end = Math.max(end, base);
+            if (next != null && next <= applied) {
+                // 整段都已写库
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(entry.getValue().path, StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.limit() < SEGMENT_HEADER_BYTES || buffer.getInt(0) != MAGIC
+                        || buffer.getInt(Integer.BYTES) != VERSION) {
+                    log.warn("预写日志段文件头无效，已跳过: {}", entry.getValue().path);
+                    continue;
+                }
+                long offset = SEGMENT_HEADER_BYTES + Math.max(0, applied - base);
+                while (true) {
+                    LocationEntity entity = readVerified(buffer, offset);
+                    if (entity == null) {
+                        break;
+                    }
+                    offset += RECORD_HEADER_BYTES + buffer.getInt((int) offset);
+                    batch.add(entity);
+                    if (batch.size() >= batchSize) {
+                        sink.accept(batch);
+                        replayed += batch.size();
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                end = Math.max(end, base + offset - SEGMENT_HEADER_BYTES);
+                if (next != null && base + offset - SEGMENT_HEADER_BYTES != next) {
+                    log.warn("预写日志段在LSN {} 处提前结束，下一段从 {} 开始，中间的数据已损坏",
+                            base + offset - SEGMENT_HEADER_BYTES, next);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            sink.accept(batch);
+            replayed += batch.size();
+        }
+
+        // 全部写库后删除旧段、从新段开始：旧段末尾可能有写了一半的记录，不在其后继续追加
+        markApplied(end);
+        checkpointChannel.force(false);
+        for (Segment segment : segments.values()) {
+            Files.deleteIfExists(segment.path);
+        }
+        segments.clear();
+        current = createSegment(end);
+        written = end;
+        synced = end;
+        prepareSpare();
+        return replayed;
+    }
+
+    /**
+     * 追加一批位置数据，写入映射内存后返回，不等待刷盘；整批写入或都不写入
+     *
+     * @param entities 位置数据
+     * @return 最后一条记录的结束LSN，作为 sync 的参数
+     * @throws IllegalArgumentException 单条记录编码后超过上限，或整批超过一个段
+     */
+    public synchronized long append(List<LocationEntity> entities) {
+        if (current == null) {
+            throw new IllegalStateException("预写日志尚未重放完成或已关闭");
+        }
+        scratch.clear();
+        for (LocationEntity entity : entities) {
+            if (scratch.remaining() < RECORD_HEADER_BYTES + MAX_PAYLOAD_BYTES) {
+                ByteBuffer larger = ByteBuffer.allocate(
+                        Math.max(scratch.capacity() * 2, scratch.position() + RECORD_HEADER_BYTES + MAX_PAYLOAD_BYTES));
+                scratch.flip();
+                scratch = larger.put(scratch);
+            }
+            encodeRecord(entity, scratch, crc);
+        }
+        scratch.flip();
+        int length = scratch.remaining();
+        if (current.writer.remaining() < length) {
+            if (SEGMENT_HEADER_BYTES + length > segmentBytes) {
+                throw new IllegalArgumentException("一批位置数据编码后超过预写日志段文件大小: " + length);
+            }
+            roll();
+        }
+        current.writer.put(scratch);
+        written += length;
+        return written;
+    }
+
+    /**
+     * 等待指定LSN之前的数据刷盘，多个线程同时等待时合并为一次刷盘
+     *
+     * @param lsn append 返回的结束LSN
+     * @return 本线程是否执行了刷盘
+     */
+    public boolean sync(long lsn) {
+        if (synced >= lsn) {
+            return false;
+        }
+        synchronized (syncLock) {
+            if (synced >= lsn) {
+                return false;
+            }
+            long target;
+            Segment segment;
+            synchronized (this) {
+                target = written;
+                segment = current;
+            }
+            if (segment == null) {
+                throw new IllegalStateException("预写日志尚未重放完成或已关闭");
+            }
+            // 之前的段在切换时已经刷盘，只需刷当前段
+            segment.buffer.force();
+            synced = target;
+            return true;
+        }
+    }
+
+    /**
+     * 从指定LSN开始读取已刷盘的记录
+     *
+     * @param from 起始LSN
+     * @param maxRecords 最多读取条数
+     * @param out 读到的位置数据
+     * @return 读到的最后一条记录的结束LSN，没有新记录时等于from
+     */
+    public long read(long from, int maxRecords, List<LocationEntity> out) {
+        long end = synced;
+        long lsn = from;
+        ByteBuffer view = null;
+        long viewBase = -1;
+        int count = 0;
+        while (lsn < end && count < maxRecords) {
+            Map.Entry<Long, Segment> entry = segments.floorEntry(lsn);
+            if (entry.getKey() != viewBase) {
+                viewBase = entry.getKey();
+                view = entry.getValue().buffer.duplicate();
+            }
+            int offset = (int) (SEGMENT_HEADER_BYTES + lsn - viewBase);
+            int length = view.getInt(offset);
+            view.limit(offset + RECORD_HEADER_BYTES + length).position(offset + RECORD_HEADER_BYTES);
+            out.add(decode(view));
+            view.clear();
+            lsn += RECORD_HEADER_BYTES + length;
+            count++;
+        }
+        return lsn;
+    }
+
+    /**
+     * 记录写库进度，删除已全部写库的段
+     *
+     * @param lsn 已写库的结束LSN
+     * @throws IOException 检查点写入或段文件删除失败
+     */
+    public void markApplied(long lsn) throws IOException {
+        applied = lsn;
+        checkpointBuffer.clear();
+        checkpointBuffer.putLong(lsn).putLong(~lsn).flip();
+        checkpointChannel.write(checkpointBuffer, 0);
+        Map.Entry<Long, Segment> oldest = segments.firstEntry();
+        Long second = oldest == null ? null : segments.higherKey(oldest.getKey());
+        if (second != null && second <= lsn) {
+            // 检查点落盘之后才能删除段，否则崩溃后从旧检查点重放时找不到已删除的段
+            checkpointChannel.force(false);
+        }
+        while (true) {
+            Map.Entry<Long, Segment> first = segments.firstEntry();
+            Long next = first == null ? null : segments.higherKey(first.getKey());
+            if (next == null || next > lsn) {
+                break;
+            }
+            segments.remove(first.getKey());
+            Files.deleteIfExists(first.getValue().path);
+        }
+    }
+
+    /**
+     * 把无法写库的记录追加到 rejected 文件并刷盘，格式与段文件相同，可人工处理后重新导入
+     *
+     * @param entities 无法写库的位置数据
+     * @throws IOException 文件写入失败
+     */
+    public void quarantine(List<LocationEntity> entities) throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_BYTES + MAX_PAYLOAD_BYTES);
+        CRC32 checksum = new CRC32();
+        try (FileChannel channel = FileChannel.open(directory.resolve(REJECTED_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            if (channel.size() == 0) {
+                ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_BYTES);
+                header.putInt(MAGIC).putInt(VERSION).flip();
+                writeFully(channel, header);
+            }
+            for (LocationEntity entity : entities) {
+                record.clear();
+                encodeRecord(entity, record, checksum);
+                record.flip();
+                writeFully(channel, record);
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * 取出 rejected 文件中的记录重新写库：文件改名为 rejected.replaying，之后 quarantine 的记录写入新的 rejected 文件
+     *
+     * <p>上次重新写库中途崩溃留下的 rejected.replaying 优先处理，这时 rejected 文件保留到下一次。
+     * 与 quarantine 由同一个线程调用。</p>
+     *
+     * @return 位置数据，没有时为空
+     * @throws IOException 文件读取或改名失败
+     */
+    public List<LocationEntity> takeQuarantined() throws IOException {
+        Path replaying = directory.resolve(REPLAYING_REJECTED_FILE);
+        if (!Files.exists(replaying)) {
+            Path rejected = directory.resolve(REJECTED_FILE);
+            if (!Files.exists(rejected)) {
+                return new ArrayList<>();
+            }
+            Files.move(rejected, replaying, StandardCopyOption.ATOMIC_MOVE);
+        }
+        return readRecords(replaying);
+    }
+
+    /**
+     * takeQuarantined 取出的记录已全部写库或重新 quarantine 后调用，删除 rejected.replaying
+     *
+     * @throws IOException 文件删除失败
+     */
+    public void finishQuarantineReplay() throws IOException {
+        Files.deleteIfExists(directory.resolve(REPLAYING_REJECTED_FILE));
+    }
+
+    /**
+     * 读取 rejected 文件中的全部记录
+     *
+     * @param directory 日志目录
+     * @return 位置数据，文件不存在时为空
+     * @throws IOException 文件读取失败
+     */
+    public static List<LocationEntity> readQuarantined(Path directory) throws IOException {
+        return readRecords(directory.resolve(REJECTED_FILE));
+    }
+
+    private static List<LocationEntity> readRecords(Path path) throws IOException {
+        List<LocationEntity> entities = new ArrayList<>();
+        if (!Files.exists(path)) {
+            return entities;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        long offset = SEGMENT_HEADER_BYTES;
+        while (true) {
+            LocationEntity entity = readVerified(buffer, offset);
+            if (entity == null) {
+                return entities;
+            }
+            entities.add(entity);
+            offset += RECORD_HEADER_BYTES + buffer.getInt((int) offset);
+        }
+    }
+
+    /**
+     * @return 已刷盘的结束LSN
+     */
+    public long getSynced() {
+        return synced;
+    }
+
+    /**
+     * @return 已写库的结束LSN
+     */
+    public long getApplied() {
+        return applied;
+    }
+
+    /**
+     * @return 已写入但尚未写库的字节数
+     */
+    public long pendingBytes() {
+        return written - applied;
+    }
+
+    /**
+     * @return 段文件个数
+     */
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * 刷盘并停止写入，删除后台预分配的段，映射内存在段对象回收后释放
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (current != null) {
+            current.buffer.force();
+            synced = written;
+            current = null;
+        }
+        if (spare != null) {
+            spare.cancel(false);
+            spare = null;
+        }
+        preallocator.shutdown();
+        try {
+            preallocator.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待预写日志段文件预分配结束时被中断");
+        }
+        Files.deleteIfExists(directory.resolve(SPARE_FILE));
+        checkpointChannel.close();
+    }
+
+    /**
+     * 当前段写满，刷盘后切换到后台准备好的新段，新段从当前写入位置接着编号，再开始准备下一个
+     */
+    private void roll() {
+        current.buffer.force();
+        MappedByteBuffer buffer;
+        try {
+            buffer = takeSpare(segmentPath(written));
+        } catch (IOException e) {
+            throw new UncheckedIOException("预写日志段文件创建失败", e);
+        }
+        current = install(written, buffer);
+        prepareSpare();
+    }
+
+    /**
+     * 在后台创建、预分配并映射下一个段的临时文件
+     */
+    private void prepareSpare() {
+        Path path = directory.resolve(SPARE_FILE);
+        spare = preallocator.submit(() -> {
+            // 上次改名失败时可能残留
+            Files.deleteIfExists(path);
+            return allocate(path);
+        });
+    }
+
+    /**
+     * 取出后台准备好的段并改名为指定的段文件，后台预分配失败时同步创建
+     *
+     * @param path 段文件路径
+     * @return 段文件的映射
+     * @throws IOException 段文件创建或改名失败
+     */
+    private MappedByteBuffer takeSpare(Path path) throws IOException {
+        Future<MappedByteBuffer> future = spare;
+        spare = null;
+        if (future != null) {
+            try {
+                MappedByteBuffer buffer = future.get();
+                Files.move(directory.resolve(SPARE_FILE), path, StandardCopyOption.ATOMIC_MOVE);
+                return buffer;
+            } catch (ExecutionException e) {
+                log.warn("预写日志后台预分配段文件失败，改为同步创建: {}", path, e.getCause());
+            } catch (InterruptedException e) {
+                // 后台仍在准备，留给下一次切换
+                spare = future;
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("等待预写日志段文件预分配时被中断");
+            }
+        }
+        return allocate(path);
+    }
+
+    private Segment createSegment(long base) throws IOException {
+        return install(base, allocate(segmentPath(base)));
+    }
+
+    private Path segmentPath(long base) {
+        return directory.resolve(String.format("%020d", base) + SEGMENT_SUFFIX);
+    }
+
+    /**
+     * 创建段文件，预分配后映射整个文件
+     */
+    private MappedByteBuffer allocate(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            preallocate(channel);
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        } catch (IOException e) {
+            Files.deleteIfExists(path);
+            throw e;
+        }
+    }
+
+    /**
+     * 写入段文件头，登记为日志的段
+     */
+    private Segment install(long base, MappedByteBuffer buffer) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(Integer.BYTES, VERSION);
+        Segment segment = new Segment(segmentPath(base), buffer);
+        segments.put(base, segment);
+        return segment;
+    }
+
+    /**
+     * 写满0分配整个段的磁盘空间并刷盘，磁盘空间不足时在这里失败，而不是在写入映射内存时
+     */
+    private void preallocate(FileChannel channel) throws IOException {
+        long position = 0;
+        while (position < segmentBytes) {
+            ByteBuffer chunk = zeros.duplicate();
+            chunk.limit((int) Math.min(chunk.capacity(), segmentBytes - position));
+            while (chunk.hasRemaining()) {
+                position += channel.write(chunk, position);
+            }
+        }
+        channel.force(true);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * 读取并校验一条记录，用于重放
+     *
+     * @return 位置数据，记录不完整或校验和不符时返回null
+     */
+    private static LocationEntity readVerified(ByteBuffer buffer, long position) {
+        if (position + RECORD_HEADER_BYTES > buffer.limit()) {
+            return null;
+        }
+        int offset = (int) position;
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > MAX_PAYLOAD_BYTES || offset + RECORD_HEADER_BYTES + length > buffer.limit()) {
+            return null;
+        }
+        ByteBuffer payload = buffer.duplicate();
+        payload.limit(offset + RECORD_HEADER_BYTES + length).position(offset + RECORD_HEADER_BYTES);
+        CRC32 checksum = new CRC32();
+        checksum.update(payload.duplicate());
+        if ((int) checksum.getValue() != buffer.getInt(offset + Integer.BYTES)) {
+            return null;
+        }
+        return decode(payload);
+    }
+
+    /**
+     * 在缓冲区当前位置编码一条完整记录（长度、CRC32、负载），缓冲区至少剩余 RECORD_HEADER_BYTES + MAX_PAYLOAD_BYTES
+     *
+     * @throws IllegalArgumentException 负载超过 MAX_PAYLOAD_BYTES，缓冲区位置不变
+     */
+    private static void encodeRecord(LocationEntity entity, ByteBuffer buffer, CRC32 checksum) {
+        int start = buffer.position();
+        int limit = buffer.limit();
+        buffer.limit(start + RECORD_HEADER_BYTES + MAX_PAYLOAD_BYTES).position(start + RECORD_HEADER_BYTES);
+        try {
+            encode(entity, buffer);
+        } catch (BufferOverflowException e) {
+            buffer.limit(limit).position(start);
+            throw new IllegalArgumentException("位置数据编码后超过 " + MAX_PAYLOAD_BYTES + " 字节");
+        }
+        int length = buffer.position() - start - RECORD_HEADER_BYTES;
+        checksum.reset();
+        checksum.update(buffer.array(), buffer.arrayOffset() + start + RECORD_HEADER_BYTES, length);
+        buffer.putInt(start, length).putInt(start + Integer.BYTES, (int) checksum.getValue());
+        buffer.limit(limit);
+    }
+
+    private static void encode(LocationEntity entity, ByteBuffer buffer) {
+        putString(buffer, entity.getDeviceId());
+        putString(buffer, entity.getProvider());
+        buffer.putLong(entity.getLocationTimestamp());
+        buffer.putLong(entity.getCreateTime() == null ? System.currentTimeMillis() : entity.getCreateTime().getTime());
+        buffer.putDouble(entity.getLatitude());
+        buffer.putDouble(entity.getLongitude());
+        int flags = (entity.getAccuracy() != null ? FLAG_ACCURACY : 0)
+                | (entity.getAltitude() != null ? FLAG_ALTITUDE : 0)
+                | (entity.getSpeed() != null ? FLAG_SPEED : 0)
+                | (entity.getBearing() != null ? FLAG_BEARING : 0);
+        buffer.put((byte) flags);
+        if (entity.getAccuracy() != null) {
+            buffer.putDouble(entity.getAccuracy());
+        }
+        if (entity.getAltitude() != null) {
+            buffer.putDouble(entity.getAltitude());
+        }
+        if (entity.getSpeed() != null) {
+            buffer.putDouble(entity.getSpeed());
+        }
+        if (entity.getBearing() != null) {
+            buffer.putDouble(entity.getBearing());
+        }
+    }
+
+    private static LocationEntity decode(ByteBuffer buffer) {
+        LocationEntity entity = new LocationEntity();
+        entity.setDeviceId(getString(buffer));
+        entity.setProvider(getString(buffer));
+        entity.setLocationTimestamp(buffer.getLong());
+        Date createTime = new Date(buffer.getLong());
+        entity.setCreateTime(createTime);
+        entity.setUpdateTime(createTime);
+        entity.setLatitude(buffer.getDouble());
+        entity.setLongitude(buffer.getDouble());
+        int flags = buffer.get();
+        entity.setAccuracy((flags & FLAG_ACCURACY) != 0 ? buffer.getDouble() : null);
+        entity.setAltitude((flags & FLAG_ALTITUDE) != 0 ? buffer.getDouble() : null);
+        entity.setSpeed((flags & FLAG_SPEED) != 0 ? buffer.getDouble() : null);
+        entity.setBearing((flags & FLAG_BEARING) != 0 ? buffer.getDouble() : null);
+        return entity;
+    }
+
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 段文件
+     *
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class Segment {
+
+        private final Path path;
+
+        /**
+         * 整个段的映射，重放前登记的旧段为null
+         */
+        private final MappedByteBuffer buffer;
+
+        /**
+         * 写入位置，只在持有日志对象锁时使用
+         */
+        private final ByteBuffer writer;
+
+        private Segment(Path path, MappedByteBuffer buffer) {
+            this.path = path;
+            this.buffer = buffer;
+            if (buffer == null) {
+                this.writer = null;
+            } else {
+                this.writer = buffer.duplicate();
+                this.writer.position(SEGMENT_HEADER_BYTES);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.seeker.locationtracker.common.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 有界的请求处理线程池，每类接口一个实例
+ * 
+ * <p>控制器把请求处理提交到这里后立即返回 DeferredResult，Tomcat工作线程被释放。线程数和队列长度固定，
+ * 队列已满时立即以 RequestExecutorSaturatedException 拒绝，不阻塞提交线程；请求在 timeoutMs 内未完成时同样
+ * 返回该异常，仍在排队的任务被取消，已开始执行的任务继续执行但结果被丢弃。不同类别的接口使用不同实例，
+ * 一类接口占满自己的线程和队列不会影响另一类。</p>
+ * 
+ * <p>指标以 pool 标签区分：location.request.executor.active、queued 为当前执行和排队的任务数，
+ * rejected、timeouts 为拒绝和超时的请求数，queue.wait 为任务在队列中等待的时间。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public class BoundedRequestExecutor {
+
+    private final String name;
+
+    private final long timeoutMs;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Counter rejectedCounter;
+
+    private final Counter timeoutCounter;
+
+    private final Timer queueWaitTimer;
+
+    /**
+     * @param name 线程池名称，用作线程名前缀和指标标签
+     * @param threads 线程数
+     * @param queueCapacity 排队任务数上限
+     * @param timeoutMs 请求超时(毫秒)，包括排队时间
+     * @param meterRegistry 指标注册表
+     */
+    public BoundedRequestExecutor(String name, int threads, int queueCapacity, long timeoutMs,
+                                  MeterRegistry meterRegistry) {
+        this.name = name;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-request-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("location.request.executor.active", executor, ThreadPoolExecutor::getActiveCount)
+                .tag("pool", name).description("正在执行的请求数").register(meterRegistry);
+        Gauge.builder("location.request.executor.queued", executor, pool -> pool.getQueue().size())
+                .tag("pool", name).description("排队等待执行的请求数").register(meterRegistry);
+        Gauge.builder("location.request.executor.queue.capacity", executor,
+                pool -> pool.getQueue().size() + pool.getQueue().remainingCapacity())
+                .tag("pool", name).description("排队请求数上限").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("location.request.executor.rejected").tag("pool", name)
+                .description("队列已满被拒绝的请求数").register(meterRegistry);
+        this.timeoutCounter = Counter.builder("location.request.executor.timeouts").tag("pool", name)
+                .description("超时未完成的请求数").register(meterRegistry);
+        this.queueWaitTimer = Timer.builder("location.request.executor.queue.wait").tag("pool", name)
+                .description("请求在队列中等待的时间").publishPercentileHistogram().register(meterRegistry);
+    }
+
+    /**
+     * 提交请求处理
+     * 
+     * @param task 请求处理，抛出的异常作为错误结果交给全局异常处理
+     * @param <T> 响应类型
+     * @return 异步结果，队列已满时已设置为错误结果
+     */
+    public <T> DeferredResult<T> submit(Callable<T> task) {
+        DeferredResult<T> result = new DeferredResult<>(timeoutMs);
+        long submittedAt = System.nanoTime();
+        Future<?> future;
+        try {
+            future = executor.submit(() -> {
+                queueWaitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                if (result.isSetOrExpired()) {
+                    return;
+                }
+                try {
+                    result.setResult(task.call());
+                } catch (Exception e) {
+                    result.setErrorResult(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            result.setErrorResult(new RequestExecutorSaturatedException(name + " 请求队列已满，请稍后重试"));
+            return result;
+        }
+        result.onTimeout(() -> {
+            timeoutCounter.increment();
+            future.cancel(false);
+            result.setErrorResult(new RequestExecutorSaturatedException(
+                    name + " 请求处理超时(" + timeoutMs + "ms)，请稍后重试"));
+        });
+        return result;
+    }
+
+    /**
+     * 停止接收新请求，等待已提交的请求处理完成
+     * 
+     * @throws InterruptedException 等待被中断
+     */
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,111 @@
+package com.seeker.locationtracker.common.web;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.model.vo.ResponseResult;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 复用预先序列化结果的响应转换器，只负责输出 ResponseResult
+ * 
+ * <p>不带数据的成功结果只由提示消息和精确到秒的当前时间决定，上传接口的成功响应几乎都是这种结果。
+ * 按提示消息缓存最近一次序列化得到的字节数组，时间相同时直接输出，每秒每种消息只序列化一次；
+ * 其余结果用同一个ObjectMapper序列化，输出与Jackson转换器完全相同。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public class PreSerializedResultHttpMessageConverter extends AbstractHttpMessageConverter<ResponseResult<?>> {
+
+    /**
+     * 最多缓存的提示消息种数，超出后新的消息不再缓存
+     */
+    private static final int MAX_CACHED_MESSAGES = 64;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 提示消息 -> 最近一次序列化结果
+     */
+    private final ConcurrentHashMap<String, CachedBody> bodies = new ConcurrentHashMap<>();
+
+    public PreSerializedResultHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_JSON);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * 子类（如分页结果）字段不同，交给Jackson转换器
+     */
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == ResponseResult.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected ResponseResult<?> readInternal(Class<? extends ResponseResult<?>> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("不支持读取 ResponseResult", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(ResponseResult<?> result, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(serialize(result));
+    }
+
+    /**
+     * 序列化结果，返回的数组可能被多个响应共用，不能修改
+     */
+    private byte[] serialize(ResponseResult<?> result) throws JsonProcessingException {
+        if (!isCacheable(result)) {
+            return objectMapper.writeValueAsBytes(result);
+        }
+        CachedBody cached = bodies.get(result.getOpDesc());
+        if (cached != null && cached.localTime.equals(result.getLocalTime())) {
+            return cached.body;
+        }
+        byte[] body = objectMapper.writeValueAsBytes(result);
+        if (cached != null || bodies.size() < MAX_CACHED_MESSAGES) {
+            bodies.put(result.getOpDesc(), new CachedBody(result.getLocalTime(), body));
+        }
+        return body;
+    }
+
+    private static boolean isCacheable(ResponseResult<?> result) {
+        return result.getData() == null
+                && result.getOpDesc() != null
+                && result.getLocalTime() != null
+                && result.getStatusCode() == ResponseResult.STATUS_CODE_SUCCESS
+                && result.getOpCode() == ResponseResult.OP_CODE_SUCCESS
+                && ResponseResult.BUSINESS_CODE.equals(result.getBusinessCode());
+    }
+
+    /**
+     * 某一秒的序列化结果
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class CachedBody {
+
+        private final String localTime;
+
+        private final byte[] body;
+
+        private CachedBody(String localTime, byte[] body) {
+            this.localTime = localTime;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.seeker.locationtracker.common.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.common.ratelimit.TokenBucketRateLimiter;
+import com.seeker.locationtracker.model.vo.ResponseResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 按设备限流拦截器，每类接口一个实例
+ * 
+ * <p>设备依次按设备唯一标识请求头、路径中的设备唯一标识识别，都没有时退回客户端地址
+ * （经反向代理时由 server.forward-headers-strategy 还原）。同一NAT出口后的多台设备各自限流。
+ * 超出限额时返回429和Retry-After（秒），并计入 location.ratelimit.throttled 指标。</p>
+ * 
+ * <p>服务端没有认证，设备唯一标识由客户端填写，轮换取值可以绕过单台设备的限额；跟踪的设备数达到上限时
+ * 淘汰最接近补满的令牌桶（计入 location.ratelimit.evicted 指标），不同设备不共用令牌桶，
+ * 轮换取值不会使其他设备被限流。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String DEVICE_ID_VARIABLE = "deviceId";
+
+    private final String deviceIdHeader;
+
+    private final TokenBucketRateLimiter limiter;
+
+    private final ObjectMapper objectMapper;
+
+    private final Counter throttledCounter;
+
+    /**
+     * @param category 接口类别，用作指标标签
+     * @param permitsPerMinute 每台设备每分钟请求数
+     * @param maxTrackedDevices 最多跟踪的设备数
+     * @param deviceIdHeader 设备唯一标识请求头
+     * @param objectMapper 用于输出拒绝请求的响应
+     * @param meterRegistry 指标注册表
+     */
+    public RateLimitInterceptor(String category, int permitsPerMinute, int maxTrackedDevices, String deviceIdHeader,
+                                ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.deviceIdHeader = deviceIdHeader;
+        this.limiter = new TokenBucketRateLimiter(permitsPerMinute, maxTrackedDevices);
+        this.objectMapper = objectMapper;
+        this.throttledCounter = Counter.builder("location.ratelimit.throttled").tag("category", category)
+                .description("被限流拒绝的请求数").register(meterRegistry);
+        Gauge.builder("location.ratelimit.devices", limiter, TokenBucketRateLimiter::size).tag("category", category)
+                .description("限流跟踪中的设备数").register(meterRegistry);
+        FunctionCounter.builder("location.ratelimit.evicted", limiter, TokenBucketRateLimiter::evictions)
+                .tag("category", category)
+                .description("跟踪的设备数达到上限时被淘汰的令牌桶数").register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
+            throws Exception {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // 异步处理完成后的再次分派，请求已在第一次分派时计数
+            return true;
+        }
+        long waitNanos = limiter.tryAcquire(resolveDevice(request));
+        if (waitNanos == 0) {
+            return true;
+        }
+        throttledCounter.increment();
+        long retryAfterSeconds = Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)
+                / TimeUnit.SECONDS.toNanos(1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ResponseResult<Void> result = ResponseResult.fail("请求过于频繁，请在 " + retryAfterSeconds + " 秒后重试");
+        result.setStatusCode(HttpStatus.TOO_MANY_REQUESTS.value());
+        objectMapper.writeValue(response.getOutputStream(), result);
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private String resolveDevice(HttpServletRequest request) {
+        String deviceId = request.getHeader(deviceIdHeader);
+        if (deviceId != null && !deviceId.isEmpty()) {
+            return deviceId;
+        }
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables != null && variables.get(DEVICE_ID_VARIABLE) != null) {
+            return variables.get(DEVICE_ID_VARIABLE);
+        }
+        // 与设备唯一标识区分开，避免伪造的设备唯一标识占用某个地址的额度
+        return "addr:" + request.getRemoteAddr();
+    }
+}
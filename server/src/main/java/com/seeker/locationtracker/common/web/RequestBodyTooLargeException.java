@@ -0,0 +1,20 @@
+package com.seeker.locationtracker.common.web;
+
+import java.io.IOException;
+
+/**
+ * 请求体解压后超过大小限制
+ * 
+ * <p>在读取请求体时抛出，会被消息转换器包装为 HttpMessageNotReadableException。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public class RequestBodyTooLargeException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RequestBodyTooLargeException(long limit) {
+        super("请求体解压后超过 " + limit + " 字节的限制");
+    }
+}
@@ -0,0 +1,415 @@
+package com.seeker.locationtracker.common.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.model.vo.ResponseResult;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * 请求体解压过滤器
+ * 
+ * <p>对 Content-Encoding 为 gzip 或 deflate 的请求，把请求体替换为边读边解压的流，并移除
+ * Content-Encoding 和 Content-Length 请求头，后续的消息转换器看到的就是未压缩的请求体。
+ * 解压后的字节数超过上限时读取抛出 RequestBodyTooLargeException，不会把整个请求体解压到内存。</p>
+ * 
+ * <p>deflate 按RFC要求应为zlib格式，但部分客户端发送不带zlib头的原始deflate数据，按前两个字节自动识别。</p>
+ * 
+ * <p>压缩前后的字节数通过 location.request.body.compressed.bytes、location.request.body.decompressed.bytes
+ * 指标按编码统计。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public class RequestDecompressionFilter extends OncePerRequestFilter {
+
+    private static final String GZIP = "gzip";
+
+    private static final String X_GZIP = "x-gzip";
+
+    private static final String DEFLATE = "deflate";
+
+    private static final String IDENTITY = "identity";
+
+    private final long maxDecompressedBytes;
+
+    private final ObjectMapper objectMapper;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Counter unsupportedCounter;
+
+    private final Counter tooLargeCounter;
+
+    /**
+     * @param maxDecompressedBytes 解压后请求体的最大字节数
+     * @param objectMapper 用于输出拒绝请求的响应
+     * @param meterRegistry 指标注册表
+     */
+    public RequestDecompressionFilter(long maxDecompressedBytes, ObjectMapper objectMapper,
+                                      MeterRegistry meterRegistry) {
+        this.maxDecompressedBytes = maxDecompressedBytes;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.unsupportedCounter = Counter.builder("location.request.body.rejected").tag("reason", "unsupported")
+                .description("解压失败被拒绝的请求数").register(meterRegistry);
+        this.tooLargeCounter = Counter.builder("location.request.body.rejected").tag("reason", "too_large")
+                .description("解压失败被拒绝的请求数").register(meterRegistry);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+        if (contentEncoding == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        String encoding = contentEncoding.trim().toLowerCase(Locale.ROOT);
+        if (encoding.isEmpty() || IDENTITY.equals(encoding)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        if (X_GZIP.equals(encoding)) {
+            encoding = GZIP;
+        }
+        if (!GZIP.equals(encoding) && !DEFLATE.equals(encoding)) {
+            unsupportedCounter.increment();
+            reject(response, "不支持的请求体编码: " + contentEncoding);
+            return;
+        }
+
+        DecompressingRequest decompressing = new DecompressingRequest(request, encoding);
+        try {
+            chain.doFilter(decompressing, response);
+        } finally {
+            decompressing.close();
+            Counter.builder("location.request.body.compressed.bytes").tag("encoding", encoding)
+                    .description("压缩请求体的传输字节数").register(meterRegistry)
+                    .increment(decompressing.compressedBytes());
+            Counter.builder("location.request.body.decompressed.bytes").tag("encoding", encoding)
+                    .description("压缩请求体解压后的字节数").register(meterRegistry)
+                    .increment(decompressing.decompressedBytes());
+            if (decompressing.limitExceeded()) {
+                tooLargeCounter.increment();
+            }
+        }
+    }
+
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.UNSUPPORTED_MEDIA_TYPE.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), ResponseResult.fail(message));
+    }
+
+    /**
+     * 请求体替换为解压流的请求
+     *
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private final class DecompressingRequest extends HttpServletRequestWrapper {
+
+        private final String encoding;
+
+        private CountingInputStream compressed;
+
+        private LimitedInputStream decompressed;
+
+        private ServletInputStream inputStream;
+
+        private BufferedReader reader;
+
+        DecompressingRequest(HttpServletRequest request, String encoding) {
+            super(request);
+            this.encoding = encoding;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (inputStream == null) {
+                compressed = new CountingInputStream(super.getInputStream());
+                decompressed = new LimitedInputStream(open(compressed), maxDecompressedBytes);
+                inputStream = new DecompressedServletInputStream(decompressed);
+            }
+            return inputStream;
+        }
+
+        @Override
+        public BufferedReader getReader() throws IOException {
+            if (reader == null) {
+                String charset = getCharacterEncoding();
+                reader = new BufferedReader(new InputStreamReader(getInputStream(),
+                        charset == null ? StandardCharsets.UTF_8.name() : charset));
+            }
+            return reader;
+        }
+
+        @Override
+        public int getContentLength() {
+            return -1;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return -1;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return isRemovedHeader(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            return isRemovedHeader(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaderNames() {
+            List<String> names = Collections.list(super.getHeaderNames());
+            names.removeIf(this::isRemovedHeader);
+            return Collections.enumeration(names);
+        }
+
+        private boolean isRemovedHeader(String name) {
+            return HttpHeaders.CONTENT_ENCODING.equalsIgnoreCase(name)
+                    || HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name);
+        }
+
+        private InputStream open(InputStream in) throws IOException {
+            if (GZIP.equals(encoding)) {
+                return new GZIPInputStream(in);
+            }
+            PushbackInputStream pushback = new PushbackInputStream(in, 2);
+            byte[] header = new byte[2];
+            int read = 0;
+            while (read < header.length) {
+                int n = pushback.read(header, read, header.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            pushback.unread(header, 0, read);
+            return new OwnedInflaterInputStream(pushback, new Inflater(read < 2 || !isZlibHeader(header)));
+        }
+
+        void close() {
+            if (decompressed != null) {
+                try {
+                    // 关闭解压流以释放Inflater占用的本地内存
+                    decompressed.close();
+                } catch (IOException ignored) {
+                    // 请求已处理完
+                }
+            }
+        }
+
+        long compressedBytes() {
+            return compressed == null ? 0 : compressed.count;
+        }
+
+        long decompressedBytes() {
+            return decompressed == null ? 0 : decompressed.count;
+        }
+
+        boolean limitExceeded() {
+            return decompressed != null && decompressed.exceeded;
+        }
+    }
+
+    /**
+     * zlib头：压缩方法为8(deflate)，且前两个字节按大端组成的整数能被31整除
+     */
+    private static boolean isZlibHeader(byte[] header) {
+        int cmf = header[0] & 0xFF;
+        int flg = header[1] & 0xFF;
+        return (cmf & 0x0F) == 8 && ((cmf << 8) | flg) % 31 == 0;
+    }
+
+    /**
+     * 关闭时释放自行创建的Inflater（InflaterInputStream只会释放它默认创建的Inflater）
+     *
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class OwnedInflaterInputStream extends InflaterInputStream {
+
+        OwnedInflaterInputStream(InputStream in, Inflater inflater) {
+            super(in, inflater);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                inf.end();
+            }
+        }
+    }
+
+    /**
+     * 统计读取字节数的输入流
+     *
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                count += n;
+            }
+            return n;
+        }
+    }
+
+    /**
+     * 限制读取字节数的输入流，超过上限时抛出 RequestBodyTooLargeException
+     *
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+
+        private final long limit;
+
+        private long count;
+
+        private boolean exceeded;
+
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                account(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                account(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            account(skipped);
+            return skipped;
+        }
+
+        private void account(long n) throws RequestBodyTooLargeException {
+            count += n;
+            if (count > limit) {
+                exceeded = true;
+                throw new RequestBodyTooLargeException(limit);
+            }
+        }
+    }
+
+    /**
+     * 阻塞读取的ServletInputStream，不支持Servlet 3.1非阻塞读取
+     *
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class DecompressedServletInputStream extends ServletInputStream {
+
+        private final InputStream in;
+
+        private boolean finished;
+
+        DecompressedServletInputStream(InputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            finished = b < 0;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            finished = n < 0;
+            return n;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        @Override
+        public boolean isFinished() {
+            return finished;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            throw new UnsupportedOperationException("解压后的请求体不支持非阻塞读取");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.seeker.locationtracker.common.web;
+
+/**
+ * 请求处理线程池已满或请求在超时前未处理完成
+ * 
+ * <p>作为 DeferredResult 的错误结果返回，由全局异常处理转换为503和Retry-After。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public class RequestExecutorSaturatedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public RequestExecutorSaturatedException(String message) {
+        super(message);
+    }
+}
@@ -1,7 +1,13 @@
 package com.seeker.locationtracker.config;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.seeker.locationtracker.common.web.RequestBodyTooLargeException;
+import com.seeker.locationtracker.common.web.RequestExecutorSaturatedException;
 import com.seeker.locationtracker.model.vo.ResponseResult;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.beans.ConversionNotSupportedException;
@@ -15,6 +21,8 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import javax.annotation.Resource;
+import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
 
 /**
@@ -28,6 +36,9 @@ import java.io.IOException;
 @ResponseBody
 public class ErrorHandleConfig {
 
+    @Resource
+    private MeterRegistry meterRegistry;
+
     /**
      * 运行时异常处理
      * 
@@ -107,15 +118,62 @@ public class ErrorHandleConfig {
     }
 
     /**
-     * 400错误处理
+     * 400错误处理，请求体解压后超过大小限制时返回413
      * 
      * @param ex 请求不可读异常
+     * @param response HTTP响应
      * @return ResponseResult<String> 错误结果
      * @author Seeker Team
      * @date 2025-08-09
      */
     @ExceptionHandler({HttpMessageNotReadableException.class})
-    public ResponseResult<String> requestNotReadable(HttpMessageNotReadableException ex) {
+    public ResponseResult<String> requestNotReadable(HttpMessageNotReadableException ex,
+                                                     HttpServletResponse response) {
+        // 读取请求体的异常可能被消息转换器多层包装
+        for (Throwable cause = ex.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof RequestBodyTooLargeException) {
+                log.warn("请求体过大: {}", cause.getMessage());
+                response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+                ResponseResult<String> ret = ResponseResult.fail(cause.getMessage());
+                ret.setStatusCode(ErrorCode.RequestBodyTooLargeException.getCode());
+                countError(ret.getStatusCode(), cause);
+                return ret;
+            }
+        }
+        return resultFormat(ErrorCode.HttpMessageNotReadableException.getCode(), ex);
+    }
+
+    /**
+     * 503错误处理，请求处理线程池已满或请求处理超时，客户端按Retry-After重试
+     * 
+     * @param ex 线程池饱和异常
+     * @param response HTTP响应
+     * @return ResponseResult<String> 错误结果
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @ExceptionHandler({RequestExecutorSaturatedException.class})
+    public ResponseResult<String> requestExecutorSaturated(RequestExecutorSaturatedException ex,
+                                                           HttpServletResponse response) {
+        log.warn("请求被拒绝: {}", ex.getMessage());
+        response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+        ResponseResult<String> ret = ResponseResult.fail(ex.getMessage());
+        ret.setStatusCode(ErrorCode.RequestExecutorSaturatedException.getCode());
+        countError(ret.getStatusCode(), ex);
+        return ret;
+    }
+
+    /**
+     * 400错误处理，流式解析的请求体不是合法的JSON时按请求不可读处理
+     * 
+     * @param ex JSON解析异常
+     * @return ResponseResult<String> 错误结果
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @ExceptionHandler({JsonProcessingException.class})
+    public ResponseResult<String> requestJsonNotReadable(JsonProcessingException ex) {
         return resultFormat(ErrorCode.HttpMessageNotReadableException.getCode(), ex);
     }
 
@@ -230,6 +288,7 @@ public class ErrorHandleConfig {
         }
         ResponseResult<String> ret = ResponseResult.fail(sb.toString());
         ret.setStatusCode(ErrorCode.MethodArgumentNotValidException.getCode());
+        countError(ret.getStatusCode(), ex);
         return ret;
     }
 
@@ -265,9 +324,23 @@ public class ErrorHandleConfig {
         }
         ResponseResult<String> ret = ResponseResult.fail(ex.getMessage());
         ret.setStatusCode(code);
+        countError(code, ex);
         return ret;
     }
 
+    /**
+     * 按异常码统计失败请求数
+     * 
+     * @param code 异常编码
+     * @param ex 异常
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private void countError(Integer code, Throwable ex) {
+        meterRegistry.counter("location.api.errors", "code", String.valueOf(code),
+                "exception", ex.getClass().getSimpleName()).increment();
+    }
+
     /**
      * 异常码定义
      * 
@@ -290,7 +363,9 @@ public class ErrorHandleConfig {
         StackOverflowError(514), 
         ArithmeticException(515),
         MethodArgumentNotValidException(516), 
-        Exception(517);
+        Exception(517),
+        RequestBodyTooLargeException(518),
+        RequestExecutorSaturatedException(519);
 
         int code;
 
@@ -0,0 +1,548 @@
+package com.seeker.locationtracker.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 位置数据配置属性（app.location）
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Data
+@ConfigurationProperties(prefix = "app.location")
+public class LocationProperties {
+
+    /**
+     * 数据保留天数
+     */
+    private int retentionDays = 30;
+
+    /**
+     * 允许位置时间晚于服务端当前时间的最大偏差(毫秒)，早于保留期或晚于该偏差的位置数据确认接收后丢弃
+     */
+    private long maxClockSkewMs = 300000;
+
+    /**
+     * 保留期清理配置
+     */
+    private Retention retention = new Retention();
+
+    /**
+     * 单次批量上传最大条数
+     */
+    private int maxBatchSize = 100;
+
+    /**
+     * 默认位置获取间隔(毫秒)
+     */
+    private long defaultLocationInterval = 30000;
+
+    /**
+     * 默认数据上传间隔(毫秒)
+     */
+    private long defaultUploadInterval = 50000;
+
+    /**
+     * 位置数据存储：sqlite-月份分区表（默认）；memory-纯内存，不持久化，只用于测试和对比，只支持sync写入模式
+     */
+    private String store = "sqlite";
+
+    /**
+     * 写入配置
+     */
+    private Ingest ingest = new Ingest();
+
+    /**
+     * 设备空间索引配置
+     */
+    private Spatial spatial = new Spatial();
+
+    /**
+     * 轨迹抽稀配置
+     */
+    private Track track = new Track();
+
+    /**
+     * 按月分区配置
+     */
+    private Partition partition = new Partition();
+
+    /**
+     * 冷数据归档配置
+     */
+    private Archive archive = new Archive();
+
+    /**
+     * 压缩请求体解压配置
+     */
+    private Decompression decompression = new Decompression();
+
+    /**
+     * 重复上传过滤配置
+     */
+    private Dedup dedup = new Dedup();
+
+    /**
+     * 实时位置推送配置
+     */
+    private Stream stream = new Stream();
+
+    /**
+     * 地理围栏配置
+     */
+    private Geofence geofence = new Geofence();
+
+    /**
+     * 设备登记配置
+     */
+    private Device device = new Device();
+
+    /**
+     * 请求处理线程池配置
+     */
+    private Executor executor = new Executor();
+
+    /**
+     * 写入模式
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    public enum IngestMode {
+        /**
+         * 请求线程同步写库
+         */
+        SYNC,
+        /**
+         * 请求校验后入队立即返回，由后台线程分组提交
+         */
+        ASYNC,
+        /**
+         * 请求校验后追加到预写日志并分组刷盘，刷盘后返回，由后台线程异步写库
+         */
+        WAL
+    }
+
+    /**
+     * 订阅者缓冲区满时的处理方式
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    public enum StreamOverflowPolicy {
+        /**
+         * 缓冲区满时丢弃新到的位置
+         */
+        DROP,
+        /**
+         * 每台设备只保留最新一条未推送的位置，缓冲区按设备数计算，满时丢弃新设备的位置
+         */
+        COALESCE
+    }
+
+    /**
+     * 写入配置（app.location.ingest）
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Ingest {
+
+        /**
+         * 写入模式：sync/async/wal
+         */
+        private IngestMode mode = IngestMode.SYNC;
+
+        /**
+         * 异步模式下内存队列容量，队列满时拒绝上传
+         */
+        private int queueCapacity = 10000;
+
+        /**
+         * 分组提交的最大行数
+         */
+        private int groupCommitSize = 200;
+
+        /**
+         * 分组提交的最长等待时间(毫秒)
+         */
+        private long groupCommitIntervalMs = 50;
+
+        /**
+         * 异步模式下停止时等待队列正常提交完的时间(毫秒)，超时后中断写线程，剩余数据只做一次立即提交
+         */
+        private long shutdownGraceMs = 10000;
+
+        /**
+         * wal模式下预写日志目录
+         */
+        private String walPath = "./data/wal";
+
+        /**
+         * 预写日志段文件大小(字节)，不小于1MB
+         */
+        private int walSegmentBytes = 64 * 1024 * 1024;
+
+        /**
+         * 预写日志中尚未写库的数据超过该大小(字节)时拒绝上传
+         */
+        private long walMaxPendingBytes = 256L * 1024 * 1024;
+    }
+
+    /**
+     * 设备空间索引配置（app.location.spatial）
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Spatial {
+
+        /**
+         * 网格边长(度)，0.05度约5.5公里
+         */
+        private double cellSizeDegrees = 0.05;
+
+        /**
+         * 半径查询和最近邻查询允许的最大半径(米)
+         */
+        private double maxRadiusMeters = 100000;
+    }
+
+    /**
+     * 轨迹抽稀配置（app.location.track）
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Track {
+
+        /**
+         * 单次抽稀查询最多读取的原始点数，超过时拒绝查询
+         */
+        private int maxSimplifyPoints = 200000;
+
+        /**
+         * 抽稀结果缓存条数
+         */
+        private int cacheSize = 1000;
+
+        /**
+         * 结束时间早于当前时间多久的时间范围视为已关闭(毫秒)，只缓存已关闭时间范围的抽稀结果
+         */
+        private long closedRangeGraceMs = 600000;
+    }
+
+    /**
+     * 按月分区配置（app.location.partition）
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Partition {
+
+        /**
+         * 提前创建未来几个月的分区表
+         */
+        private int precreateMonths = 1;
+    }
+
+    /**
+     * 保留期清理配置（app.location.retention）
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Retention {
+
+        /**
+         * 是否启用定时清理
+         */
+        private boolean enabled = true;
+
+        /**
+         * 定时清理的cron表达式
+         */
+        private String cron = "0 30 3 * * ?";
+
+        /**
+         * 每批删除的主键区间大小，每批一个短事务
+         */
+        private int chunkSize = 1000;
+
+        /**
+         * 批次之间让出写连接的时间(毫秒)
+         */
+        private long pauseMs = 50;
+
+        /**
+         * 分区从查询路由中摘除后等待多久再删除表(毫秒)，让已开始的查询执行完
+         */
+        private long dropDelayMs = 5000;
+
+        /**
+         * 每次增量清理归还的页数
+         */
+        private int vacuumPages = 1000;
+    }
+
+    /**
+     * 冷数据归档配置（app.location.archive）
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Archive {
+
+        /**
+         * 是否启用定时归档
+         */
+        private boolean enabled = true;
+
+        /**
+         * 定时归档的cron表达式，应早于保留期清理执行
+         */
+        private String cron = "0 0 3 * * ?";
+
+        /**
+         * 位置时间早于多少天之前的数据归档，按自然日整天归档
+         */
+        private int afterDays = 7;
+
+        /**
+         * 每次读取的待归档行数，每页是一个独立的短查询
+         */
+        private int pageSize = 5000;
+
+        /**
+         * 一天最多保留的增量段个数，超过后在归档结束时合并回基础段
+         */
+        private int maxDeltaSegments = 4;
+
+        /**
+         * 列式段文件目录
+         */
+        private String path = "./data/archive";
+
+        /**
+         * 保持内存映射的列式段个数
+         */
+        private int mappedSegmentCacheSize = 1024;
+    }
+
+    /**
+     * 压缩请求体解压配置（app.location.decompression）
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Decompression {
+
+        /**
+         * 是否解压 Content-Encoding 为 gzip、deflate 的请求体
+         */
+        private boolean enabled = true;
+
+        /**
+         * 解压后请求体的最大字节数，超过时返回413
+         */
+        private long maxDecompressedBytes = 1048576;
+    }
+
+    /**
+     * 重复上传过滤配置（app.location.dedup）
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Dedup {
+
+        /**
+         * 是否在写库前用内存中最近写入的位置时间过滤重复上传，关闭后仍由唯一索引去重
+         */
+        private boolean enabled = true;
+
+        /**
+         * 每台设备记住的最近写入位置时间个数。超出窗口的重传由唯一索引去重，只是多走一次写库；
+         * 每台设备约占 8 × recentPerDevice + 200 字节堆内存
+         */
+        private int recentPerDevice = 16;
+
+        /**
+         * 最多记住的设备数，超出时淘汰最久未上传的设备；默认配置下满载约 33MB 堆内存
+         */
+        private int maxDevices = 100000;
+    }
+
+    /**
+     * 实时位置推送配置（app.location.stream）
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Stream {
+
+        /**
+         * 最大订阅连接数
+         */
+        private int maxSubscribers = 1000;
+
+        /**
+         * 每个订阅者未推送位置的缓冲区大小
+         */
+        private int bufferSize = 256;
+
+        /**
+         * 缓冲区满时的处理方式：drop/coalesce
+         */
+        private StreamOverflowPolicy overflowPolicy = StreamOverflowPolicy.COALESCE;
+
+        /**
+         * 单个订阅最多指定的设备数
+         */
+        private int maxDevicesPerSubscription = 1000;
+
+        /**
+         * 推送线程数，慢订阅者的网络写入只占用推送线程，不影响写入
+         */
+        private int dispatcherThreads = 2;
+
+        /**
+         * 单次推送最多发送的位置条数，发送完让出推送线程
+         */
+        private int maxEventsPerDispatch = 64;
+
+        /**
+         * 空闲连接的心跳间隔(毫秒)，用于保持代理连接并发现已断开的订阅者
+         */
+        private long heartbeatIntervalMs = 15000;
+
+        /**
+         * 订阅连接的最长时间(毫秒)，到期后服务端关闭连接，EventSource会自动重连
+         */
+        private long timeoutMs = 1800000;
+    }
+
+    /**
+     * 地理围栏配置（app.location.geofence）
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Geofence {
+
+        /**
+         * 围栏索引的网格边长(度)，每个点只判断所在网格内的围栏
+         */
+        private double cellSizeDegrees = 0.05;
+
+        /**
+         * 单个围栏最多登记的网格数，外接矩形更大的围栏对每个点都要判断
+         */
+        private int maxCellsPerFence = 1024;
+
+        /**
+         * 多边形最多顶点数
+         */
+        private int maxPolygonVertices = 1000;
+
+        /**
+         * 圆形围栏最大半径(米)
+         */
+        private double maxRadiusMeters = 100000;
+
+        /**
+         * 待写入事件的队列容量，写入跟不上时丢弃新事件（推送不受影响）
+         */
+        private int eventQueueCapacity = 10000;
+
+        /**
+         * 每次写入的最大事件数
+         */
+        private int eventBatchSize = 100;
+    }
+
+    /**
+     * 设备登记配置（app.location.device）
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Device {
+
+        /**
+         * 最后活跃时间写回 T_DEVICE 的间隔(毫秒)，期间同一设备多次上传只写一次
+         */
+        private long flushIntervalMs = 5000;
+
+        /**
+         * 每条写回语句的最大设备数
+         */
+        private int flushBatchSize = 200;
+
+        /**
+         * 最后活跃时间在该时长(毫秒)内的设备视为在线
+         */
+        private long onlineThresholdMs = 300000;
+    }
+
+    /**
+     * 请求处理线程池配置（app.location.executor），写入和查询接口各用一个线程池，互不占用
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    public static class Executor {
+
+        /**
+         * 上传接口线程池
+         */
+        private ExecutorPool ingest = new ExecutorPool(16, 2000, 10000);
+
+        /**
+         * 查询接口线程池
+         */
+        private ExecutorPool query = new ExecutorPool(8, 200, 15000);
+    }
+
+    /**
+     * 单个请求处理线程池配置
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ExecutorPool {
+
+        /**
+         * 线程数
+         */
+        private int threads;
+
+        /**
+         * 排队请求数上限，队列已满时立即返回503
+         */
+        private int queueCapacity;
+
+        /**
+         * 请求超时(毫秒)，包括排队时间，超时返回503
+         */
+        private long timeoutMs;
+    }
+}
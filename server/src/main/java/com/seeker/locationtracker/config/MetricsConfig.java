@@ -0,0 +1,24 @@
+package com.seeker.locationtracker.config;
+
+import com.seeker.locationtracker.common.metrics.SqlStatementMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 指标配置
+ * 
+ * <p>HTTP接口耗时由Actuator自动记录为 http.server.requests，百分位和直方图在 management.metrics 中配置；
+ * 应用自身的指标以 location. 开头，可通过 /actuator/prometheus 采集。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public SqlStatementMetricsInterceptor sqlStatementMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new SqlStatementMetricsInterceptor(meterRegistry);
+    }
+}
@@ -0,0 +1,48 @@
+package com.seeker.locationtracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 接口限流配置属性（app.security.rate-limit）
+ * 
+ * <p>按设备、按接口类别分别限流，每个令牌桶的容量等于每分钟请求数，即允许一分钟的突发量。
+ * 请求中没有设备唯一标识时按客户端地址限流。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Data
+@ConfigurationProperties(prefix = "app.security.rate-limit")
+public class RateLimitProperties {
+
+    /**
+     * 是否启用限流
+     */
+    private boolean enabled = true;
+
+    /**
+     * 上传接口每台设备每分钟请求数
+     */
+    private int uploadPerMinute = 60;
+
+    /**
+     * 查询接口每台设备每分钟请求数
+     */
+    private int queryPerMinute = 100;
+
+    /**
+     * 配置接口每台设备每分钟请求数
+     */
+    private int configPerMinute = 10;
+
+    /**
+     * 每类接口最多跟踪的设备数，超出时淘汰最接近补满的令牌桶
+     */
+    private int maxTrackedDevices = 100000;
+
+    /**
+     * 设备唯一标识请求头，没有该请求头时依次使用路径中的设备唯一标识、客户端地址
+     */
+    private String deviceIdHeader = "X-Device-Id";
+}
@@ -0,0 +1,147 @@
+package com.seeker.locationtracker.config;
+
+import com.seeker.locationtracker.common.datasource.ReadWriteRoutingInterceptor;
+import com.seeker.locationtracker.common.datasource.SqliteRoutingDataSource;
+import com.seeker.locationtracker.common.datasource.StatementCachingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * SQLite数据源配置
+ * 
+ * <p>开启WAL日志模式，使用一个专用写连接加一个只读连接池，
+ * 并通过MyBatis拦截器将查询路由到只读连接池。</p>
+ * 
+ * <p>写入模式为wal时写连接固定使用 synchronous=FULL：预写日志在写库事务提交后就删除已写库的段，
+ * 提交本身必须已经落盘，NORMAL 级别下断电会丢失已确认的数据。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "app.sqlite", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqliteDataSourceConfig {
+
+    /**
+     * SQLite只读打开模式（SQLITE_OPEN_READONLY）
+     */
+    private static final String OPEN_MODE_READONLY = "1";
+
+    private static final String JDBC_URL_PREFIX = "jdbc:sqlite:";
+
+    private static final String SYNCHRONOUS_FULL = "FULL";
+
+    @Bean
+    @Primary
+    public SqliteRoutingDataSource dataSource(DataSourceProperties dataSourceProperties,
+                                              SqliteProperties sqliteProperties,
+                                              LocationProperties locationProperties) {
+        initializeNewDatabase(dataSourceProperties.determineUrl(), sqliteProperties);
+        String writerSynchronous = locationProperties.getIngest().getMode() == LocationProperties.IngestMode.WAL
+                ? SYNCHRONOUS_FULL : sqliteProperties.getSynchronous();
+        HikariDataSource writeDataSource = createDataSource(dataSourceProperties, sqliteProperties,
+                "sqlite-writer", 1, false, writerSynchronous);
+        HikariDataSource readDataSource = createDataSource(dataSourceProperties, sqliteProperties,
+                "sqlite-reader", sqliteProperties.getReadPoolSize(), true, sqliteProperties.getSynchronous());
+        log.info("SQLite数据源已启用. journalMode={}, synchronous={}, mmapSize={}, cacheSize={}, readPoolSize={}",
+                sqliteProperties.getJournalMode(), writerSynchronous,
+                sqliteProperties.getMmapSize(), sqliteProperties.getCacheSize(),
+                sqliteProperties.getReadPoolSize());
+        return new SqliteRoutingDataSource(writeDataSource, readDataSource);
+    }
+
+    @Bean
+    public ReadWriteRoutingInterceptor readWriteRoutingInterceptor() {
+        return new ReadWriteRoutingInterceptor();
+    }
+
+    /**
+     * 数据库文件不存在时先创建并设置自动清理模式
+     * 
+     * <p>auto_vacuum 必须在数据库第一次写入之前设置，切换WAL日志模式就会写入文件头，
+     * 所以要在连接池按驱动属性切换日志模式之前，用一个临时连接按顺序设置。已有的数据库文件不做处理。</p>
+     * 
+     * @param url JDBC地址
+     * @param sqliteProperties SQLite配置
+     */
+    private void initializeNewDatabase(String url, SqliteProperties sqliteProperties) {
+        String path = url.substring(JDBC_URL_PREFIX.length());
+        int queryStart = path.indexOf('?');
+        if (queryStart >= 0) {
+            path = path.substring(0, queryStart);
+        }
+        File file = new File(path);
+        if (path.isEmpty() || path.startsWith(":memory:") || file.length() > 0) {
+            return;
+        }
+        try (Connection connection = DriverManager.getConnection(url);
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("PRAGMA auto_vacuum = " + sqliteProperties.getAutoVacuum());
+            statement.executeUpdate("PRAGMA journal_mode = " + sqliteProperties.getJournalMode());
+            log.info("SQLite数据库文件已创建. path={}, autoVacuum={}", file.getAbsolutePath(),
+                    sqliteProperties.getAutoVacuum());
+        } catch (SQLException e) {
+            throw new IllegalStateException("SQLite数据库文件初始化失败: " + file.getAbsolutePath(), e);
+        }
+    }
+
+    /**
+     * 创建连接池，PRAGMA通过驱动连接属性在每个连接建立时设置
+     * 
+     * <p>写连接池的物理连接由 StatementCachingDataSource 创建，批量写入的语句缓存在物理连接上，
+     * 随连接池淘汰连接一起关闭。</p>
+     * 
+     * @param dataSourceProperties 数据源配置
+     * @param sqliteProperties SQLite配置
+     * @param poolName 连接池名称
+     * @param poolSize 连接池大小
+     * @param readOnly 是否只读
+     * @param synchronous 同步级别
+     * @return 连接池
+     */
+    private HikariDataSource createDataSource(DataSourceProperties dataSourceProperties,
+                                              SqliteProperties sqliteProperties,
+                                              String poolName, int poolSize, boolean readOnly,
+                                              String synchronous) {
+        Properties connectionProperties = new Properties();
+        connectionProperties.setProperty("synchronous", synchronous);
+        connectionProperties.setProperty("mmap_size", String.valueOf(sqliteProperties.getMmapSize()));
+        connectionProperties.setProperty("cache_size", String.valueOf(sqliteProperties.getCacheSize()));
+        connectionProperties.setProperty("busy_timeout", String.valueOf(sqliteProperties.getBusyTimeout()));
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(poolName);
+        dataSource.setMaximumPoolSize(poolSize);
+        dataSource.setMinimumIdle(poolSize);
+        if (readOnly) {
+            // 日志模式记录在数据库文件中，由写连接设置，只读连接无法修改
+            connectionProperties.setProperty("open_mode", OPEN_MODE_READONLY);
+            dataSource.setJdbcUrl(dataSourceProperties.determineUrl());
+            dataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            dataSource.setDataSourceProperties(connectionProperties);
+            // 与连接的实际只读状态保持一致，否则连接池初始化连接时会尝试修改只读标记
+            dataSource.setReadOnly(true);
+        } else {
+            connectionProperties.setProperty("journal_mode", sqliteProperties.getJournalMode());
+            // 设置了DataSource后连接池不再使用jdbcUrl和数据源属性，连接属性交给 DriverManagerDataSource
+            DriverManagerDataSource driverDataSource =
+                    new DriverManagerDataSource(dataSourceProperties.determineUrl(), connectionProperties);
+            driverDataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            dataSource.setDataSource(new StatementCachingDataSource(driverDataSource));
+        }
+        return dataSource;
+    }
+}
@@ -0,0 +1,57 @@
+package com.seeker.locationtracker.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * SQLite连接配置属性（app.sqlite）
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Data
+@ConfigurationProperties(prefix = "app.sqlite")
+public class SqliteProperties {
+
+    /**
+     * 是否启用SQLite读写分离数据源，非SQLite数据库（如测试环境H2）需关闭
+     */
+    private boolean enabled = true;
+
+    /**
+     * 日志模式：WAL模式下读不阻塞写、写不阻塞读
+     */
+    private String journalMode = "WAL";
+
+    /**
+     * 同步级别：OFF/NORMAL/FULL/EXTRA，WAL模式下NORMAL不会损坏数据库，断电时可能丢失最近提交的事务；
+     * 写入模式为wal时写连接固定使用FULL
+     */
+    private String synchronous = "NORMAL";
+
+    /**
+     * 自动清理模式：NONE/FULL/INCREMENTAL，只在创建数据库文件时设置；INCREMENTAL模式下删除数据释放的页
+     * 由保留期清理任务通过 PRAGMA incremental_vacuum 分批归还给文件系统
+     */
+    private String autoVacuum = "INCREMENTAL";
+
+    /**
+     * 内存映射读取的最大字节数，0表示关闭
+     */
+    private long mmapSize = 268435456L;
+
+    /**
+     * 每个连接的页缓存大小，负数表示KiB
+     */
+    private int cacheSize = -16000;
+
+    /**
+     * 数据库被锁定时的等待时间(毫秒)
+     */
+    private int busyTimeout = 5000;
+
+    /**
+     * 只读连接池大小
+     */
+    private int readPoolSize = 4;
+}
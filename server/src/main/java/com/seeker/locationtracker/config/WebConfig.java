@@ -0,0 +1,117 @@
+package com.seeker.locationtracker.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.common.web.BoundedRequestExecutor;
+import com.seeker.locationtracker.common.web.PreSerializedResultHttpMessageConverter;
+import com.seeker.locationtracker.common.web.RateLimitInterceptor;
+import com.seeker.locationtracker.common.web.RequestDecompressionFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * Web层配置
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * 位置接口的URL模式
+     */
+    private static final String LOCATION_URL_PATTERN = "/api/location/*";
+
+    private static final String[] UPLOAD_PATHS = {"/api/location/upload", "/api/location/batch"};
+
+    private static final String HEALTH_PATH = "/api/location/health";
+
+    @Resource
+    private RateLimitProperties rateLimitProperties;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 位置接口的压缩请求体解压过滤器，需在其他读取请求体的过滤器之前执行
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "app.location.decompression", name = "enabled", havingValue = "true",
+            matchIfMissing = true)
+    public FilterRegistrationBean<RequestDecompressionFilter> requestDecompressionFilter(
+            LocationProperties locationProperties) {
+        RequestDecompressionFilter filter = new RequestDecompressionFilter(
+                locationProperties.getDecompression().getMaxDecompressedBytes(), objectMapper, meterRegistry);
+        FilterRegistrationBean<RequestDecompressionFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.addUrlPatterns(LOCATION_URL_PATTERN);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 100);
+        return registration;
+    }
+
+    /**
+     * 上传接口的请求处理线程池
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedRequestExecutor ingestRequestExecutor(LocationProperties locationProperties) {
+        return requestExecutor("ingest", locationProperties.getExecutor().getIngest());
+    }
+
+    /**
+     * 查询接口的请求处理线程池
+     */
+    @Bean(destroyMethod = "shutdown")
+    public BoundedRequestExecutor queryRequestExecutor(LocationProperties locationProperties) {
+        return requestExecutor("query", locationProperties.getExecutor().getQuery());
+    }
+
+    private BoundedRequestExecutor requestExecutor(String name, LocationProperties.ExecutorPool pool) {
+        return new BoundedRequestExecutor(name, pool.getThreads(), pool.getQueueCapacity(), pool.getTimeoutMs(),
+                meterRegistry);
+    }
+
+    /**
+     * 响应结果优先使用复用序列化结果的转换器，其余类型仍由Jackson转换器处理
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new PreSerializedResultHttpMessageConverter(objectMapper));
+    }
+
+    /**
+     * 按接口类别注册限流拦截器，拦截器在读取请求体之前执行，被限流的请求不会解析请求体
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (!rateLimitProperties.isEnabled()) {
+            return;
+        }
+        registry.addInterceptor(rateLimitInterceptor("upload", rateLimitProperties.getUploadPerMinute()))
+                .addPathPatterns(UPLOAD_PATHS);
+        registry.addInterceptor(rateLimitInterceptor("query", rateLimitProperties.getQueryPerMinute()))
+                .addPathPatterns("/api/location/**")
+                .addPathPatterns("/api/geofence/**")
+                .addPathPatterns("/api/device/**")
+                .excludePathPatterns(UPLOAD_PATHS)
+                .excludePathPatterns(HEALTH_PATH);
+        registry.addInterceptor(rateLimitInterceptor("config", rateLimitProperties.getConfigPerMinute()))
+                .addPathPatterns("/api/config/**");
+    }
+
+    private RateLimitInterceptor rateLimitInterceptor(String category, int permitsPerMinute) {
+        return new RateLimitInterceptor(category, permitsPerMinute, rateLimitProperties.getMaxTrackedDevices(),
+                rateLimitProperties.getDeviceIdHeader(), objectMapper, meterRegistry);
+    }
+}
@@ -0,0 +1,47 @@
+package com.seeker.locationtracker.controller;
+
+import com.seeker.locationtracker.model.vo.DeviceVO;
+import com.seeker.locationtracker.model.vo.ResponseResult;
+import com.seeker.locationtracker.service.DeviceService;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 设备控制器
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/device")
+public class DeviceController {
+
+    @Resource
+    private DeviceService deviceService;
+
+    /**
+     * 查询设备信息和在线状态
+     * 
+     * @param deviceId 设备唯一标识
+     * @return 设备信息
+     */
+    @GetMapping("/{deviceId}")
+    public ResponseResult<DeviceVO> getDevice(@PathVariable String deviceId) {
+        return deviceService.getDevice(deviceId);
+    }
+
+    /**
+     * 查询设备列表，按最后活跃时间倒序
+     * 
+     * @param online 只查询在线(true)或离线(false)设备，不传时不过滤
+     * @param limit 最大条数，默认100，最大1000
+     * @return 设备列表
+     */
+    @GetMapping
+    public ResponseResult<List<DeviceVO>> listDevices(@RequestParam(required = false) Boolean online,
+                                                      @RequestParam(required = false) Integer limit) {
+        return deviceService.listDevices(online, limit);
+    }
+}
@@ -0,0 +1,118 @@
+package com.seeker.locationtracker.controller;
+
+import com.seeker.locationtracker.common.web.BoundedRequestExecutor;
+import com.seeker.locationtracker.model.dto.GeofenceDTO;
+import com.seeker.locationtracker.model.entity.GeofenceEntity;
+import com.seeker.locationtracker.model.entity.GeofenceEventEntity;
+import com.seeker.locationtracker.model.vo.ResponseResult;
+import com.seeker.locationtracker.service.GeofenceService;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.annotation.Resource;
+import javax.validation.Valid;
+import java.util.List;
+
+/**
+ * 地理围栏控制器
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/geofence")
+public class GeofenceController {
+
+    @Resource
+    private GeofenceService geofenceService;
+
+    @Resource
+    private BoundedRequestExecutor queryRequestExecutor;
+
+    /**
+     * 创建围栏
+     * 
+     * @param geofenceDTO 围栏参数
+     * @return 创建的围栏
+     */
+    @PostMapping
+    public ResponseResult<GeofenceEntity> createGeofence(@Valid @RequestBody GeofenceDTO geofenceDTO) {
+        return geofenceService.createGeofence(geofenceDTO);
+    }
+
+    /**
+     * 修改围栏
+     * 
+     * @param id 围栏ID
+     * @param geofenceDTO 围栏参数
+     * @return 修改后的围栏
+     */
+    @PutMapping("/{id}")
+    public ResponseResult<GeofenceEntity> updateGeofence(@PathVariable Long id,
+                                                         @Valid @RequestBody GeofenceDTO geofenceDTO) {
+        return geofenceService.updateGeofence(id, geofenceDTO);
+    }
+
+    /**
+     * 删除围栏
+     * 
+     * @param id 围栏ID
+     * @return 响应结果
+     */
+    @DeleteMapping("/{id}")
+    public ResponseResult<Void> deleteGeofence(@PathVariable Long id) {
+        return geofenceService.deleteGeofence(id);
+    }
+
+    /**
+     * 查询围栏
+     * 
+     * @param id 围栏ID
+     * @return 围栏
+     */
+    @GetMapping("/{id}")
+    public ResponseResult<GeofenceEntity> getGeofence(@PathVariable Long id) {
+        return geofenceService.getGeofence(id);
+    }
+
+    /**
+     * 查询全部围栏
+     * 
+     * @return 围栏列表
+     */
+    @GetMapping
+    public ResponseResult<List<GeofenceEntity>> listGeofences() {
+        return geofenceService.listGeofences();
+    }
+
+    /**
+     * 查询进出围栏事件，设备和围栏至少指定一个，在查询线程池中执行
+     * 
+     * @param deviceId 设备唯一标识
+     * @param fenceId 围栏ID
+     * @param from 开始时间戳(毫秒，包含)
+     * @param to 结束时间戳(毫秒，不包含)
+     * @param limit 最大条数，默认100，最大1000
+     * @return 按位置时间倒序的事件列表
+     */
+    @GetMapping("/events")
+    public DeferredResult<ResponseResult<List<GeofenceEventEntity>>> queryEvents(
+            @RequestParam(required = false) String deviceId,
+            @RequestParam(required = false) Long fenceId,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(required = false) Integer limit) {
+        return queryRequestExecutor.submit(() -> geofenceService.queryEvents(deviceId, fenceId, from, to, limit));
+    }
+
+    /**
+     * 查询设备当前所在的围栏
+     * 
+     * @param deviceId 设备唯一标识
+     * @return 围栏ID列表
+     */
+    @GetMapping("/device/{deviceId}")
+    public ResponseResult<List<Long>> getDeviceGeofences(@PathVariable String deviceId) {
+        return geofenceService.getDeviceGeofences(deviceId);
+    }
+}
@@ -1,16 +1,35 @@
 package com.seeker.locationtracker.controller;
 
-import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.common.codec.LocationBinaryCodec;
+import com.seeker.locationtracker.common.web.BoundedRequestExecutor;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.vo.BatchUploadItemVO;
+import com.seeker.locationtracker.model.vo.NearbyLocationVO;
+import com.seeker.locationtracker.model.vo.PageResponseResult;
 import com.seeker.locationtracker.model.vo.ResponseResult;
+import com.seeker.locationtracker.model.vo.SimplifiedTrackVO;
 import com.seeker.locationtracker.service.LocationService;
+import com.seeker.locationtracker.service.LocationStreamService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.annotation.Resource;
-import javax.validation.Valid;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 位置数据控制器
  * 
+ * <p>上传和查询接口分别提交到有界的 ingestRequestExecutor 和 queryRequestExecutor 中执行，Tomcat工作线程
+ * 读取请求体后即释放；线程池队列已满或请求超时返回503和Retry-After。健康检查直接返回，推送接口自行管理连接。</p>
+ * 
  * @author seeker
  * @date 2025-08-10
  */
@@ -18,20 +37,73 @@ import javax.validation.Valid;
 @RequestMapping("/api/location")
 public class LocationController {
     
+    /**
+     * 与Jackson消息转换器一样接受 +json 后缀的媒体类型
+     */
+    private static final String JSON_SUFFIX_TYPE = "application/*+json";
+    
     @Resource
     private LocationService locationService;
     
+    @Resource
+    private LocationStreamService locationStreamService;
+    
+    @Resource
+    private ObjectMapper objectMapper;
+    
+    @Resource
+    private BoundedRequestExecutor ingestRequestExecutor;
+    
+    @Resource
+    private BoundedRequestExecutor queryRequestExecutor;
+    
     /**
      * 上传位置数据
      * 
-     * @param locationDTO 位置数据传输对象
+     * <p>请求体为 LocationUploadDTO 的JSON，按字节读取后流式解析，不经过消息转换器的反射绑定和 @Valid 校验，
+     * 校验规则和失败时的响应与之相同。</p>
+     * 
+     * @param body 请求体
+     * @return 响应结果，请求体不是合法的JSON时为错误结果
+     */
+    @PostMapping(value = "/upload", consumes = {MediaType.APPLICATION_JSON_VALUE, JSON_SUFFIX_TYPE})
+    public DeferredResult<ResponseResult<Void>> uploadLocation(@RequestBody byte[] body) {
+        return ingestRequestExecutor.submit(() -> locationService.uploadLocationJson(body));
+    }
+    
+    /**
+     * 上传紧凑二进制格式的位置数据（Content-Type: application/x-location-batch，单条记录）
+     * 
+     * @param body 请求体，格式见 LocationBinaryCodec
      * @return 响应结果
      */
-    @PostMapping("/upload")
-    public ResponseResult<Void> uploadLocation(@Valid @RequestBody LocationUploadDTO locationDTO) {
-        return locationService.uploadLocation(locationDTO);
+    @PostMapping(value = "/upload", consumes = LocationBinaryCodec.CONTENT_TYPE)
+    public DeferredResult<ResponseResult<Void>> uploadLocationBinary(@RequestBody byte[] body) {
+        return ingestRequestExecutor.submit(() -> locationService.uploadLocationBinary(body));
     }
     
+    /**
+     * 批量上传位置数据
+     * 
+     * @param body 请求体，LocationUploadDTO 的JSON数组
+     * @return 每条数据的写入结果，请求体不是合法的JSON时为错误结果
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, JSON_SUFFIX_TYPE})
+    public DeferredResult<ResponseResult<List<BatchUploadItemVO>>> uploadLocations(@RequestBody byte[] body) {
+        return ingestRequestExecutor.submit(() -> locationService.uploadLocationsJson(body));
+    }
+    
+    /**
+     * 批量上传紧凑二进制格式的位置数据（Content-Type: application/x-location-batch）
+     * 
+     * @param body 请求体，格式见 LocationBinaryCodec
+     * @return 每条数据的写入结果
+     */
+    @PostMapping(value = "/batch", consumes = LocationBinaryCodec.CONTENT_TYPE)
+    public DeferredResult<ResponseResult<List<BatchUploadItemVO>>> uploadLocationsBinary(@RequestBody byte[] body) {
+        return ingestRequestExecutor.submit(() -> locationService.uploadLocationsBinary(body));
+    }
+
     /**
      * 健康检查接口
      * 
@@ -43,19 +115,182 @@ public class LocationController {
     }
     
     /**
-     * 查询所有位置数据（用于测试验证）
+     * 按键集分页查询设备轨迹
      * 
-     * @return 响应结果
+     * @param deviceId 设备唯一标识
+     * @param from 开始时间戳(毫秒，包含)
+     * @param to 结束时间戳(毫秒，不包含)
+     * @param limit 每页条数，默认100，最大1000
+     * @param cursor 上一页返回的scrollId，首页不传
+     * @return 分页结果
      */
-    @GetMapping("/list")
-    public ResponseResult<Object> listLocations() {
+    @GetMapping("/{deviceId}/track")
+    public DeferredResult<PageResponseResult<LocationEntity>> queryTrack(@PathVariable String deviceId,
+                                                                         @RequestParam(required = false) Long from,
+                                                                         @RequestParam(required = false) Long to,
+                                                                         @RequestParam(required = false) Integer limit,
+                                                                         @RequestParam(required = false) String cursor) {
+        return queryRequestExecutor.submit(() -> locationService.queryTrack(deviceId, from, to, limit, cursor));
+    }
+    
+    /**
+     * 查询设备抽稀轨迹（Douglas-Peucker），用于地图绘制
+     * 
+     * @param deviceId 设备唯一标识
+     * @param from 开始时间戳(毫秒，包含)
+     * @param to 结束时间戳(毫秒，不包含)
+     * @param tolerance 容差(米)
+     * @param zoom 地图缩放级别(0-22)，未指定容差时按该级别一个像素换算
+     * @return 抽稀后的轨迹
+     */
+    @GetMapping("/{deviceId}/track/simplified")
+    public DeferredResult<ResponseResult<SimplifiedTrackVO>> querySimplifiedTrack(
+            @PathVariable String deviceId,
+            @RequestParam Long from,
+            @RequestParam Long to,
+            @RequestParam(required = false) Double tolerance,
+            @RequestParam(required = false) Integer zoom) {
+        return queryRequestExecutor.submit(
+                () -> locationService.querySimplifiedTrack(deviceId, from, to, tolerance, zoom));
+    }
+    
+    /**
+     * 查询矩形区域内的历史位置数据
+     * 
+     * @param bbox 矩形区域，格式为 minLon,minLat,maxLon,maxLat
+     * @param from 开始时间戳(毫秒，包含)
+     * @param to 结束时间戳(毫秒，不包含)
+     * @param limit 最大条数，默认100，最大1000
+     * @return 位置数据列表
+     */
+    @GetMapping("/search")
+    public DeferredResult<ResponseResult<List<LocationEntity>>> searchInBoundingBox(
+            @RequestParam String bbox,
+            @RequestParam(required = false) Long from,
+            @RequestParam(required = false) Long to,
+            @RequestParam(required = false) Integer limit) {
+        return queryRequestExecutor.submit(() -> locationService.searchInBoundingBox(bbox, from, to, limit));
+    }
+    
+    /**
+     * 查询半径范围内的设备（按设备最新位置）
+     * 
+     * @param lat 中心点纬度
+     * @param lon 中心点经度
+     * @param radius 半径(米)
+     * @param limit 最大条数，默认100，最大1000
+     * @return 按距离升序排列的设备
+     */
+    @GetMapping("/nearby")
+    public DeferredResult<ResponseResult<List<NearbyLocationVO>>> searchNearby(
+            @RequestParam Double lat,
+            @RequestParam Double lon,
+            @RequestParam Double radius,
+            @RequestParam(required = false) Integer limit) {
+        return queryRequestExecutor.submit(() -> locationService.searchNearby(lat, lon, radius, limit));
+    }
+    
+    /**
+     * 查询距离最近的k台设备（按设备最新位置）
+     * 
+     * @param lat 中心点纬度
+     * @param lon 中心点经度
+     * @param k 设备数，默认10，最大1000
+     * @param maxRadius 最大搜索半径(米)，默认为配置的最大半径
+     * @return 按距离升序排列的设备
+     */
+    @GetMapping("/nearest")
+    public DeferredResult<ResponseResult<List<NearbyLocationVO>>> searchNearest(
+            @RequestParam Double lat,
+            @RequestParam Double lon,
+            @RequestParam(required = false) Integer k,
+            @RequestParam(required = false) Double maxRadius) {
+        return queryRequestExecutor.submit(() -> locationService.searchNearest(lat, lon, k, maxRadius));
+    }
+    
+    /**
+     * 查询设备最新位置
+     * 
+     * @param deviceId 设备唯一标识
+     * @return 最新位置
+     */
+    @GetMapping("/latest/{deviceId}")
+    public DeferredResult<ResponseResult<LocationEntity>> getLatestLocation(@PathVariable String deviceId) {
+        return queryRequestExecutor.submit(() -> locationService.getLatestLocation(deviceId));
+    }
+    
+    /**
+     * 批量查询设备最新位置
+     * 
+     * @param deviceIds 设备唯一标识列表，单次最多1000个
+     * @return 设备唯一标识到最新位置的映射
+     */
+    @PostMapping("/latest")
+    public DeferredResult<ResponseResult<Map<String, LocationEntity>>> getLatestLocations(
+            @RequestBody List<String> deviceIds) {
+        return queryRequestExecutor.submit(() -> locationService.getLatestLocations(deviceIds));
+    }
+    
+    /**
+     * 订阅实时位置（Server-Sent Events）
+     * 
+     * <p>新写入的位置以 location 事件推送，数据与查询接口的位置数据相同；订阅设备进出围栏时以 geofence 事件
+     * 推送，数据与围栏事件查询接口相同；推送跟不上时以 dropped 事件告知
+     * 丢弃和合并的条数。空闲时定期发送心跳注释。订阅条件不合法返回400，订阅连接数已达上限返回503，
+     * 非200响应不会触发EventSource自动重连。</p>
+     * 
+     * @param deviceId 设备唯一标识
+     * @param deviceIds 逗号分隔的设备唯一标识（设备组），与 deviceId 合并
+     * @param bbox 矩形区域，格式为 minLon,minLat,maxLon,maxLat，与设备同时指定时两者都要满足
+     * @param snapshot 是否先推送订阅设备的最新位置，默认是，只在指定了设备时生效
+     * @param response 拒绝订阅时输出错误响应
+     * @return 推送连接，拒绝订阅时返回null
+     * @throws IOException 输出错误响应失败
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamLocations(@RequestParam(required = false) String deviceId,
+                                      @RequestParam(required = false) String deviceIds,
+                                      @RequestParam(required = false) String bbox,
+                                      @RequestParam(defaultValue = "true") boolean snapshot,
+                                      HttpServletResponse response) throws IOException {
         try {
-            // 简单查询所有数据用于验证
-            java.util.List<com.seeker.locationtracker.model.entity.LocationEntity> locations = 
-                locationService.getAllLocations();
-            return ResponseResult.success(locations, "查询成功，共 " + locations.size() + " 条记录");
-        } catch (Exception e) {
-            return ResponseResult.fail("查询失败: " + e.getMessage());
+            return locationStreamService.subscribe(deviceId, deviceIds, bbox, snapshot);
+        } catch (IllegalArgumentException e) {
+            rejectSubscription(response, HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (IllegalStateException e) {
+            rejectSubscription(response, HttpStatus.SERVICE_UNAVAILABLE, e.getMessage());
         }
+        return null;
+    }
+    
+    /**
+     * 查询最近写入的位置数据（用于测试验证）
+     * 
+     * @param limit 最大条数，默认100，最大1000
+     * @return 响应结果
+     */
+    @GetMapping("/list")
+    public DeferredResult<ResponseResult<Object>> listLocations(@RequestParam(required = false) Integer limit) {
+        return queryRequestExecutor.submit(() -> {
+            try {
+                List<LocationEntity> locations = locationService.listRecentLocations(limit);
+                return ResponseResult.success(locations, "查询成功，共 " + locations.size() + " 条记录");
+            } catch (Exception e) {
+                return ResponseResult.fail("查询失败: " + e.getMessage());
+            }
+        });
+    }
+    
+    /**
+     * 推送接口只产生 text/event-stream，拒绝订阅时直接输出JSON错误响应
+     */
+    private void rejectSubscription(HttpServletResponse response, HttpStatus status, String message)
+            throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        ResponseResult<Void> result = ResponseResult.fail(message);
+        result.setStatusCode(status.value());
+        objectMapper.writeValue(response.getOutputStream(), result);
     }
 }
@@ -0,0 +1,42 @@
+package com.seeker.locationtracker.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.seeker.locationtracker.model.entity.DeviceEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 设备Mapper接口
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Mapper
+public interface DeviceMapper extends BaseMapper<DeviceEntity> {
+    
+    /**
+     * 查询全部设备
+     * 
+     * @return 设备列表
+     */
+    List<DeviceEntity> selectAllDevices();
+    
+    /**
+     * 按设备唯一标识批量查询
+     * 
+     * @param deviceIds 设备唯一标识
+     * @return 设备列表
+     */
+    List<DeviceEntity> selectByDeviceIds(@Param("deviceIds") Collection<String> deviceIds);
+    
+    /**
+     * 批量写回最后活跃时间，设备不存在时登记，已有更晚的最后活跃时间时不更新
+     * 
+     * @param devices 设备唯一标识和最后活跃时间
+     * @return 影响行数
+     */
+    int upsertLastSeen(@Param("devices") List<DeviceEntity> devices);
+}
@@ -0,0 +1,40 @@
+package com.seeker.locationtracker.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.seeker.locationtracker.model.entity.GeofenceEventEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 进出围栏事件Mapper接口
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Mapper
+public interface GeofenceEventMapper extends BaseMapper<GeofenceEventEntity> {
+    
+    /**
+     * 批量写入事件，一条多行INSERT语句
+     * 
+     * @param events 事件列表，每批不超过100条，避免超出SQLite的参数个数限制
+     * @return 影响行数
+     */
+    int insertBatch(@Param("events") List<GeofenceEventEntity> events);
+    
+    /**
+     * 查询事件，按位置时间、主键倒序
+     * 
+     * @param deviceId 设备唯一标识，为空表示不限
+     * @param fenceId 围栏ID，为空表示不限
+     * @param from 开始时间戳(毫秒，包含)，为空表示不限
+     * @param to 结束时间戳(毫秒，不包含)，为空表示不限
+     * @param limit 最大条数
+     * @return 事件列表
+     */
+    List<GeofenceEventEntity> selectEvents(@Param("deviceId") String deviceId, @Param("fenceId") Long fenceId,
+                                           @Param("from") Long from, @Param("to") Long to,
+                                           @Param("limit") int limit);
+}
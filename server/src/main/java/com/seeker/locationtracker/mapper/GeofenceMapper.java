@@ -0,0 +1,40 @@
+package com.seeker.locationtracker.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.seeker.locationtracker.model.entity.GeofenceEntity;
+import org.apache.ibatis.annotations.Mapper;
+
+import java.util.List;
+
+/**
+ * 地理围栏Mapper接口
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Mapper
+public interface GeofenceMapper extends BaseMapper<GeofenceEntity> {
+    
+    /**
+     * 查询全部围栏，按主键升序
+     * 
+     * @return 围栏列表
+     */
+    List<GeofenceEntity> selectAllOrdered();
+    
+    /**
+     * 创建围栏，生成的主键回填到实体
+     * 
+     * @param geofence 围栏
+     * @return 影响行数
+     */
+    int insertFence(GeofenceEntity geofence);
+    
+    /**
+     * 修改围栏的全部字段，为空的字段写入NULL
+     * 
+     * @param geofence 围栏
+     * @return 影响行数
+     */
+    int updateFence(GeofenceEntity geofence);
+}
@@ -1,8 +1,15 @@
 package com.seeker.locationtracker.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.seeker.locationtracker.model.dto.BoundingBoxQueryDTO;
+import com.seeker.locationtracker.model.dto.TrackQueryDTO;
 import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.vo.TrackPointVO;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
 
 /**
  * 位置数据Mapper接口
@@ -13,4 +20,114 @@ import org.apache.ibatis.annotations.Mapper;
 @Mapper
 public interface LocationMapper extends BaseMapper<LocationEntity> {
     
+    /**
+     * 写入位置数据到指定分区表
+     * 
+     * @param table 分区表名，由分区服务解析
+     * @param entity 位置实体
+     * @return 影响行数，同一设备同一位置时间的数据已存在时为0
+     */
+    int insertIntoPartition(@Param("table") String table, @Param("entity") LocationEntity entity);
+    
+    /**
+     * 键集分页查询设备轨迹，按位置时间、主键升序
+     * 
+     * @param query 轨迹查询条件，limit为本次实际查询条数，tables为裁剪后的分区表
+     * @return 位置数据列表
+     */
+    List<LocationEntity> selectTrackPage(TrackQueryDTO query);
+    
+    /**
+     * 流式查询设备轨迹点，按位置时间、主键升序逐行回调，只读取绘制轨迹需要的列
+     * 
+     * @param query 轨迹查询条件，只使用设备、时间范围和分区表
+     * @param handler 逐行回调
+     */
+    void selectTrackPoints(TrackQueryDTO query, ResultHandler<TrackPointVO> handler);
+    
+    /**
+     * 查询最近写入的位置数据
+     * 
+     * @param limit 最大条数
+     * @param tables 参与查询的分区表
+     * @return 位置数据列表，按主键倒序
+     */
+    List<LocationEntity> selectRecent(@Param("limit") int limit, @Param("tables") List<String> tables);
+    
+    /**
+     * 查询一个分区内每台设备位置时间戳最新的一条数据
+     * 
+     * @param table 分区表名
+     * @return 位置数据列表，分区内有数据的每台设备一条
+     */
+    List<LocationEntity> selectLatestPerDevice(@Param("table") String table);
+    
+    /**
+     * 查询一台设备位置时间戳最新的一条数据
+     * 
+     * @param deviceId 设备唯一标识
+     * @param tables 参与查询的分区表
+     * @return 最新位置，没有数据时返回null
+     */
+    LocationEntity selectLatestByDevice(@Param("deviceId") String deviceId, @Param("tables") List<String> tables);
+    
+    /**
+     * 查询矩形区域内的位置数据
+     * 
+     * @param query 区域查询条件，需已计算地理哈希区间和分区表
+     * @return 位置数据列表
+     */
+    List<LocationEntity> selectInBoundingBox(BoundingBoxQueryDTO query);
+    
+    /**
+     * 按键集分页查询待归档的位置数据，每页是一个独立的短查询，不在整个归档过程中持有读事务
+     * 
+     * @param table 分区表名
+     * @param before 位置时间早于该值(毫秒，不包含)的数据
+     * @param after 上一页的最后一行，按 (设备, 位置时间, 主键) 之后开始；为空时从头开始
+     * @param limit 每页条数
+     * @return 位置数据列表，按设备、位置时间、主键升序
+     */
+    List<LocationEntity> selectArchiveCandidates(@Param("table") String table, @Param("before") long before,
+                                                 @Param("after") LocationEntity after, @Param("limit") int limit);
+    
+    /**
+     * 删除已归档的位置数据，只删除归档时已读到的行（主键不超过maxTid），归档之后补传的数据保留
+     * 
+     * @param table 分区表名
+     * @param deviceId 设备唯一标识
+     * @param from 开始时间戳(毫秒，包含)
+     * @param to 结束时间戳(毫秒，不包含)
+     * @param maxTid 已归档的最大主键
+     * @return 影响行数
+     */
+    int deleteArchived(@Param("table") String table, @Param("deviceId") String deviceId, @Param("from") long from,
+                       @Param("to") long to, @Param("maxTid") long maxTid);
+    
+    /**
+     * 删除位置时间早于截止时间的数据
+     * 
+     * @param table 分区表名
+     * @param before 截止时间戳(毫秒，不包含)，为null时删除整张表的数据
+     * @return 影响行数
+     */
+    int deleteLocatedBefore(@Param("table") String table, @Param("before") Long before);
+    
+    /**
+     * 查询原 T_LOCATION 表中尚未计算地理哈希的存量数据，只返回主键和经纬度
+     * 
+     * @param limit 最大条数
+     * @return 位置数据列表
+     */
+    List<LocationEntity> selectWithoutGeohash(@Param("limit") int limit);
+    
+    /**
+     * 回填地理哈希
+     * 
+     * @param tid 主键
+     * @param geohash 地理哈希
+     * @return 影响行数
+     */
+    int updateGeohash(@Param("tid") Long tid, @Param("geohash") long geohash);
+    
 }
@@ -0,0 +1,129 @@
+package com.seeker.locationtracker.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.seeker.locationtracker.model.entity.LocationPartitionEntity;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/**
+ * 位置数据分区Mapper接口
+ * 
+ * <p>表名参数只接受分区服务按规则生成的表名，不能传入外部输入。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Mapper
+public interface LocationPartitionMapper extends BaseMapper<LocationPartitionEntity> {
+    
+    /**
+     * 查询全部分区，按起始时间升序
+     * 
+     * @return 分区列表
+     */
+    List<LocationPartitionEntity> selectAllOrdered();
+    
+    /**
+     * 创建分区表，表结构与 T_LOCATION 一致
+     * 
+     * @param table 分区表名
+     */
+    void createPartitionTable(@Param("table") String table);
+    
+    /**
+     * 创建轨迹查询唯一索引 (DEVICE_ID, LOCATION_TIMESTAMP)
+     * 
+     * @param table 分区表名
+     */
+    void createTrackIndex(@Param("table") String table);
+    
+    /**
+     * 创建地理哈希索引 (GEOHASH, LOCATION_TIMESTAMP)
+     * 
+     * @param table 分区表名
+     */
+    void createGeohashIndex(@Param("table") String table);
+    
+    /**
+     * 创建保留期清理使用的 CREATE_TIME 索引
+     * 
+     * @param table 分区表名
+     */
+    void createCreateTimeIndex(@Param("table") String table);
+    
+    /**
+     * 创建自动更新 UPDATE_TIME 的触发器
+     * 
+     * @param table 分区表名
+     */
+    void createUpdateTimeTrigger(@Param("table") String table);
+    
+    /**
+     * 设置分区表自增主键的起始值，已设置过时不覆盖
+     * 
+     * @param table 分区表名
+     * @param seq 起始值，分区内第一条数据的主键为 seq + 1
+     */
+    void seedSequence(@Param("table") String table, @Param("seq") long seq);
+    
+    /**
+     * 登记分区，已登记时忽略
+     * 
+     * @param partition 分区
+     */
+    void insertIgnore(LocationPartitionEntity partition);
+    
+    /**
+     * 查询分区内最晚的创建时间，走 CREATE_TIME 索引
+     * 
+     * @param table 分区表名
+     * @return 最晚创建时间(毫秒时间戳)，空表返回null
+     */
+    Long selectMaxCreateTime(@Param("table") String table);
+    
+    /**
+     * 查询创建时间早于截止时间的最大主键，走 CREATE_TIME 索引
+     * 
+     * @param table 分区表名
+     * @param cutoff 截止时间(毫秒时间戳)
+     * @return 最大主键，没有过期数据时返回null
+     */
+    Long selectMaxTidCreatedBefore(@Param("table") String table, @Param("cutoff") long cutoff);
+    
+    /**
+     * 查询不小于指定值的最小主键
+     * 
+     * @param table 分区表名
+     * @param tid 主键下限(包含)
+     * @return 最小主键，没有数据时返回null
+     */
+    Long selectMinTidFrom(@Param("table") String table, @Param("tid") long tid);
+    
+    /**
+     * 删除主键区间内创建时间早于截止时间的数据
+     * 
+     * @param table 分区表名
+     * @param fromTid 主键下限(包含)
+     * @param toTid 主键上限(不包含)
+     * @param cutoff 截止时间(毫秒时间戳)
+     * @return 删除行数
+     */
+    int deleteExpiredChunk(@Param("table") String table, @Param("fromTid") long fromTid,
+                           @Param("toTid") long toTid, @Param("cutoff") long cutoff);
+    
+    /**
+     * 删除分区表
+     * 
+     * @param table 分区表名
+     */
+    void dropPartitionTable(@Param("table") String table);
+    
+    /**
+     * 删除分区表的自增主键记录
+     * 
+     * @param table 分区表名
+     */
+    void deleteSequence(@Param("table") String table);
+}
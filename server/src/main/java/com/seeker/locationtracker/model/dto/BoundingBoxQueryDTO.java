@@ -0,0 +1,77 @@
+package com.seeker.locationtracker.model.dto;
+
+import com.seeker.locationtracker.util.GeoHashUtils;
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 矩形区域查询条件
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Data
+@ApiModel("BoundingBoxQueryDTO-矩形区域查询条件")
+public class BoundingBoxQueryDTO {
+
+    @ApiModelProperty("最小纬度")
+    private double minLatitude;
+
+    @ApiModelProperty("最小经度")
+    private double minLongitude;
+
+    @ApiModelProperty("最大纬度")
+    private double maxLatitude;
+
+    @ApiModelProperty("最大经度，小于最小经度时表示跨越180度经线")
+    private double maxLongitude;
+
+    @ApiModelProperty("开始时间戳(毫秒，包含)")
+    private Long from;
+
+    @ApiModelProperty("结束时间戳(毫秒，不包含)")
+    private Long to;
+
+    @ApiModelProperty("返回条数")
+    private int limit;
+
+    @ApiModelProperty("与时间范围相交的分区表")
+    private List<String> tables;
+
+    @ApiModelProperty("覆盖区域的地理哈希区间")
+    private List<GeoHashUtils.Range> ranges;
+
+    /**
+     * 解析 minLon,minLat,maxLon,maxLat 格式的矩形区域
+     * 
+     * @param bbox 矩形区域字符串
+     * @return 查询条件
+     * @throws IllegalArgumentException 格式错误或坐标越界
+     */
+    public static BoundingBoxQueryDTO parse(String bbox) {
+        String[] parts = bbox == null ? new String[0] : bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox格式应为 minLon,minLat,maxLon,maxLat");
+        }
+        BoundingBoxQueryDTO query = new BoundingBoxQueryDTO();
+        try {
+            query.setMinLongitude(Double.parseDouble(parts[0].trim()));
+            query.setMinLatitude(Double.parseDouble(parts[1].trim()));
+            query.setMaxLongitude(Double.parseDouble(parts[2].trim()));
+            query.setMaxLatitude(Double.parseDouble(parts[3].trim()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bbox坐标格式错误: " + bbox);
+        }
+        if (query.getMinLatitude() < -90 || query.getMaxLatitude() > 90
+                || query.getMinLatitude() > query.getMaxLatitude()) {
+            throw new IllegalArgumentException("bbox纬度范围无效: " + bbox);
+        }
+        if (Math.abs(query.getMinLongitude()) > 180 || Math.abs(query.getMaxLongitude()) > 180) {
+            throw new IllegalArgumentException("bbox经度范围无效: " + bbox);
+        }
+        return query;
+    }
+}
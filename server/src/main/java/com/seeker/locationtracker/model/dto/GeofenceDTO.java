@@ -0,0 +1,46 @@
+package com.seeker.locationtracker.model.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * 地理围栏创建和修改参数
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Data
+@ApiModel("GeofenceDTO-地理围栏")
+public class GeofenceDTO {
+
+    @NotBlank(message = "围栏名称不能为空")
+    @Size(max = 100, message = "围栏名称不能超过100个字符")
+    @ApiModelProperty("围栏名称")
+    private String name;
+
+    @NotBlank(message = "围栏类型不能为空")
+    @Pattern(regexp = "circle|polygon", message = "围栏类型只能是 circle 或 polygon")
+    @ApiModelProperty("围栏类型：circle/polygon")
+    private String type;
+
+    @ApiModelProperty("圆心纬度，圆形围栏必填")
+    private Double latitude;
+
+    @ApiModelProperty("圆心经度，圆形围栏必填")
+    private Double longitude;
+
+    @ApiModelProperty("半径(米)，圆形围栏必填")
+    private Double radius;
+
+    @ApiModelProperty("多边形顶点 [[经度,纬度],...]，至少3个，首尾不需要重复，多边形围栏必填")
+    private List<double[]> coordinates;
+
+    @ApiModelProperty("是否启用，默认启用")
+    private Boolean enabled;
+}
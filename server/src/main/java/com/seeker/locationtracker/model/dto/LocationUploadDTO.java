@@ -2,6 +2,7 @@ package com.seeker.locationtracker.model.dto;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 
 /**
  * 位置数据传输对象
@@ -12,6 +13,7 @@ import javax.validation.constraints.NotNull;
 public class LocationUploadDTO {
     
     @NotBlank(message = "设备ID不能为空")
+    @Size(max = 100, message = "设备ID不能超过100个字符")
     private String deviceId;
     
     @NotNull(message = "纬度不能为空")
@@ -29,6 +31,7 @@ public class LocationUploadDTO {
     private Double bearing;
     
     @NotBlank(message = "位置提供者不能为空")
+    @Size(max = 20, message = "位置提供者不能超过20个字符")
     private String provider;
     
     @NotNull(message = "位置时间戳不能为空")
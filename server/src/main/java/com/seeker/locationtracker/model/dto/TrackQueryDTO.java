@@ -0,0 +1,74 @@
+package com.seeker.locationtracker.model.dto;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 轨迹键集分页查询条件
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Data
+@ApiModel("TrackQueryDTO-轨迹查询条件")
+public class TrackQueryDTO {
+
+    /**
+     * 游标中位置时间戳与主键的分隔符
+     */
+    public static final String CURSOR_SEPARATOR = "_";
+
+    @ApiModelProperty("设备唯一标识")
+    private String deviceId;
+
+    @ApiModelProperty("开始时间戳(毫秒，包含)")
+    private Long from;
+
+    @ApiModelProperty("结束时间戳(毫秒，不包含)")
+    private Long to;
+
+    @ApiModelProperty("返回条数")
+    private int limit;
+
+    @ApiModelProperty("与时间范围相交的分区表")
+    private List<String> tables;
+
+    @ApiModelProperty("上一页最后一条的位置时间戳")
+    private Long cursorTimestamp;
+
+    @ApiModelProperty("上一页最后一条的主键")
+    private Long cursorTid;
+
+    /**
+     * 生成下一页游标
+     * 
+     * @param locationTimestamp 本页最后一条的位置时间戳
+     * @param tid 本页最后一条的主键
+     * @return 游标字符串
+     */
+    public static String encodeCursor(long locationTimestamp, long tid) {
+        return locationTimestamp + CURSOR_SEPARATOR + tid;
+    }
+
+    /**
+     * 解析游标并设置到查询条件，游标为空时从头开始
+     * 
+     * @param cursor 游标字符串
+     * @throws IllegalArgumentException 游标格式错误
+     */
+    public void applyCursor(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return;
+        }
+        int index = cursor.indexOf(CURSOR_SEPARATOR);
+        try {
+            cursorTimestamp = Long.parseLong(cursor.substring(0, index));
+            cursorTid = Long.parseLong(cursor.substring(index + 1));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("分页游标格式错误: " + cursor);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.seeker.locationtracker.model.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.util.Date;
+
+/**
+ * 设备实体类
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@TableName("T_DEVICE")
+public class DeviceEntity {
+    
+    @TableId(value = "TID", type = IdType.AUTO)
+    private Long tid;
+    
+    private String deviceId;
+    
+    /**
+     * Android设备ID
+     */
+    private String androidId;
+    
+    private String deviceModel;
+    
+    private String osVersion;
+    
+    private String appVersion;
+    
+    /**
+     * 位置获取间隔(毫秒)
+     */
+    private Integer locationInterval;
+    
+    /**
+     * 数据上传间隔(毫秒)
+     */
+    private Integer uploadInterval;
+    
+    private Date createTime;
+    
+    private Date updateTime;
+    
+    /**
+     * 最后活跃时间
+     */
+    private Date lastSeenAt;
+    
+    public DeviceEntity() {}
+    
+    public Long getTid() {
+        return tid;
+    }
+    
+    public void setTid(Long tid) {
+        this.tid = tid;
+    }
+    
+    public String getDeviceId() {
+        return deviceId;
+    }
+    
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+    
+    public String getAndroidId() {
+        return androidId;
+    }
+    
+    public void setAndroidId(String androidId) {
+        this.androidId = androidId;
+    }
+    
+    public String getDeviceModel() {
+        return deviceModel;
+    }
+    
+    public void setDeviceModel(String deviceModel) {
+        this.deviceModel = deviceModel;
+    }
+    
+    public String getOsVersion() {
+        return osVersion;
+    }
+    
+    public void setOsVersion(String osVersion) {
+        this.osVersion = osVersion;
+    }
+    
+    public String getAppVersion() {
+        return appVersion;
+    }
+    
+    public void setAppVersion(String appVersion) {
+        this.appVersion = appVersion;
+    }
+    
+    public Integer getLocationInterval() {
+        return locationInterval;
+    }
+    
+    public void setLocationInterval(Integer locationInterval) {
+        this.locationInterval = locationInterval;
+    }
+    
+    public Integer getUploadInterval() {
+        return uploadInterval;
+    }
+    
+    public void setUploadInterval(Integer uploadInterval) {
+        this.uploadInterval = uploadInterval;
+    }
+    
+    public Date getCreateTime() {
+        return createTime;
+    }
+    
+    public void setCreateTime(Date createTime) {
+        this.createTime = createTime;
+    }
+    
+    public Date getUpdateTime() {
+        return updateTime;
+    }
+    
+    public void setUpdateTime(Date updateTime) {
+        this.updateTime = updateTime;
+    }
+    
+    public Date getLastSeenAt() {
+        return lastSeenAt;
+    }
+    
+    public void setLastSeenAt(Date lastSeenAt) {
+        this.lastSeenAt = lastSeenAt;
+    }
+    
+    @Override
+    public String toString() {
+        return "DeviceEntity{" +
+                "tid=" + tid +
+                ", deviceId='" + deviceId + '\'' +
+                ", androidId='" + androidId + '\'' +
+                ", deviceModel='" + deviceModel + '\'' +
+                ", osVersion='" + osVersion + '\'' +
+                ", appVersion='" + appVersion + '\'' +
+                ", locationInterval=" + locationInterval +
+                ", uploadInterval=" + uploadInterval +
+                ", createTime=" + createTime +
+                ", updateTime=" + updateTime +
+                ", lastSeenAt=" + lastSeenAt +
+                '}';
+    }
+}
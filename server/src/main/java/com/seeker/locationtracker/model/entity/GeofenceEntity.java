@@ -0,0 +1,156 @@
+package com.seeker.locationtracker.model.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import java.util.Date;
+
+/**
+ * 地理围栏实体类
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@TableName("T_GEOFENCE")
+public class GeofenceEntity {
+    
+    public static final String TYPE_CIRCLE = "circle";
+    
+    public static final String TYPE_POLYGON = "polygon";
+    
+    @TableId(value = "TID", type = IdType.AUTO)
+    private Long tid;
+    
+    private String name;
+    
+    /**
+     * 围栏类型：circle/polygon
+     */
+    private String fenceType;
+    
+    /**
+     * 圆心纬度，圆形围栏使用
+     */
+    private Double latitude;
+    
+    /**
+     * 圆心经度，圆形围栏使用
+     */
+    private Double longitude;
+    
+    /**
+     * 半径(米)，圆形围栏使用
+     */
+    private Double radius;
+    
+    /**
+     * 多边形顶点，JSON数组 [[经度,纬度],...]，多边形围栏使用
+     */
+    private String coordinates;
+    
+    private Boolean enabled;
+    
+    private Date createTime;
+    
+    private Date updateTime;
+    
+    public GeofenceEntity() {}
+    
+    public Long getTid() {
+        return tid;
+    }
+    
+    public void setTid(Long tid) {
+        this.tid = tid;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public void setName(String name) {
+        this.name = name;
+    }
+    
+    public String getFenceType() {
+        return fenceType;
+    }
+    
+    public void setFenceType(String fenceType) {
+        this.fenceType = fenceType;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    
+    public Double getRadius() {
+        return radius;
+    }
+    
+    public void setRadius(Double radius) {
+        this.radius = radius;
+    }
+    
+    /**
+     * 顶点列表已是JSON，响应中按数组原样输出
+     */
+    @JsonRawValue
+    public String getCoordinates() {
+        return coordinates;
+    }
+    
+    public void setCoordinates(String coordinates) {
+        this.coordinates = coordinates;
+    }
+    
+    public Boolean getEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(Boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public Date getCreateTime() {
+        return createTime;
+    }
+    
+    public void setCreateTime(Date createTime) {
+        this.createTime = createTime;
+    }
+    
+    public Date getUpdateTime() {
+        return updateTime;
+    }
+    
+    public void setUpdateTime(Date updateTime) {
+        this.updateTime = updateTime;
+    }
+    
+    @Override
+    public String toString() {
+        return "GeofenceEntity{" +
+                "tid=" + tid +
+                ", name='" + name + '\'' +
+                ", fenceType='" + fenceType + '\'' +
+                ", latitude=" + latitude +
+                ", longitude=" + longitude +
+                ", radius=" + radius +
+                ", enabled=" + enabled +
+                '}';
+    }
+}
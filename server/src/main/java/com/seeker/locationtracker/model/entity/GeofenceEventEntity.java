@@ -0,0 +1,135 @@
+package com.seeker.locationtracker.model.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.util.Date;
+
+/**
+ * 进出围栏事件实体类
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@TableName("T_GEOFENCE_EVENT")
+public class GeofenceEventEntity {
+    
+    public static final String TYPE_ENTER = "enter";
+    
+    public static final String TYPE_EXIT = "exit";
+    
+    @TableId(value = "TID", type = IdType.AUTO)
+    private Long tid;
+    
+    private Long fenceId;
+    
+    private String deviceId;
+    
+    /**
+     * 事件类型：enter/exit
+     */
+    private String eventType;
+    
+    /**
+     * 触发事件的位置纬度
+     */
+    private Double latitude;
+    
+    /**
+     * 触发事件的位置经度
+     */
+    private Double longitude;
+    
+    /**
+     * 触发事件的位置时间戳(毫秒)
+     */
+    private Long locationTimestamp;
+    
+    private Date createTime;
+    
+    public GeofenceEventEntity() {}
+    
+    public GeofenceEventEntity(long fenceId, String eventType, LocationEntity location) {
+        this.fenceId = fenceId;
+        this.deviceId = location.getDeviceId();
+        this.eventType = eventType;
+        this.latitude = location.getLatitude();
+        this.longitude = location.getLongitude();
+        this.locationTimestamp = location.getLocationTimestamp();
+    }
+    
+    public Long getTid() {
+        return tid;
+    }
+    
+    public void setTid(Long tid) {
+        this.tid = tid;
+    }
+    
+    public Long getFenceId() {
+        return fenceId;
+    }
+    
+    public void setFenceId(Long fenceId) {
+        this.fenceId = fenceId;
+    }
+    
+    public String getDeviceId() {
+        return deviceId;
+    }
+    
+    public void setDeviceId(String deviceId) {
+        this.deviceId = deviceId;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public Double getLatitude() {
+        return latitude;
+    }
+    
+    public void setLatitude(Double latitude) {
+        this.latitude = latitude;
+    }
+    
+    public Double getLongitude() {
+        return longitude;
+    }
+    
+    public void setLongitude(Double longitude) {
+        this.longitude = longitude;
+    }
+    
+    public Long getLocationTimestamp() {
+        return locationTimestamp;
+    }
+    
+    public void setLocationTimestamp(Long locationTimestamp) {
+        this.locationTimestamp = locationTimestamp;
+    }
+    
+    public Date getCreateTime() {
+        return createTime;
+    }
+    
+    public void setCreateTime(Date createTime) {
+        this.createTime = createTime;
+    }
+    
+    @Override
+    public String toString() {
+        return "GeofenceEventEntity{" +
+                "tid=" + tid +
+                ", fenceId=" + fenceId +
+                ", deviceId='" + deviceId + '\'' +
+                ", eventType='" + eventType + '\'' +
+                ", locationTimestamp=" + locationTimestamp +
+                '}';
+    }
+}
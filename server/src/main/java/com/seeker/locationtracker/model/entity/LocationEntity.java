@@ -35,6 +35,11 @@ public class LocationEntity {
     
     private Long locationTimestamp;
     
+    /**
+     * 地理哈希，见 GeoHashUtils
+     */
+    private Long geohash;
+    
     private Date createTime;
     
     private Date updateTime;
@@ -123,6 +128,14 @@ public class LocationEntity {
         this.locationTimestamp = locationTimestamp;
     }
     
+    public Long getGeohash() {
+        return geohash;
+    }
+    
+    public void setGeohash(Long geohash) {
+        this.geohash = geohash;
+    }
+    
     public Date getCreateTime() {
         return createTime;
     }
@@ -152,6 +165,7 @@ public class LocationEntity {
                 ", bearing=" + bearing +
                 ", provider='" + provider + '\'' +
                 ", locationTimestamp=" + locationTimestamp +
+                ", geohash=" + geohash +
                 ", createTime=" + createTime +
                 ", updateTime=" + updateTime +
                 '}';
@@ -0,0 +1,119 @@
+package com.seeker.locationtracker.model.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import java.util.Date;
+
+/**
+ * 位置数据分区实体类
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@TableName("T_LOCATION_PARTITION")
+public class LocationPartitionEntity {
+    
+    @TableId(value = "TABLE_NAME", type = IdType.INPUT)
+    private String tableName;
+    
+    /**
+     * 起始位置时间戳(毫秒，包含)
+     */
+    private Long startTimestamp;
+    
+    /**
+     * 结束位置时间戳(毫秒，不包含)
+     */
+    private Long endTimestamp;
+    
+    /**
+     * 是否接收新写入
+     */
+    private Boolean writable;
+    
+    private Date createTime;
+    
+    public LocationPartitionEntity() {}
+    
+    public LocationPartitionEntity(String tableName, long startTimestamp, long endTimestamp, boolean writable) {
+        this.tableName = tableName;
+        this.startTimestamp = startTimestamp;
+        this.endTimestamp = endTimestamp;
+        this.writable = writable;
+    }
+    
+    /**
+     * 分区区间是否与 [from, to) 相交
+     * 
+     * @param from 开始时间戳(毫秒，包含)，为空表示不限
+     * @param to 结束时间戳(毫秒，不包含)，为空表示不限
+     * @return 是否相交
+     */
+    public boolean overlaps(Long from, Long to) {
+        return startTimestamp < endTimestamp
+                && (from == null || endTimestamp > from)
+                && (to == null || startTimestamp < to);
+    }
+    
+    /**
+     * 分区区间是否包含指定时间戳
+     * 
+     * @param timestamp 位置时间戳(毫秒)
+     * @return 是否包含
+     */
+    public boolean contains(long timestamp) {
+        return timestamp >= startTimestamp && timestamp < endTimestamp;
+    }
+    
+    public String getTableName() {
+        return tableName;
+    }
+    
+    public void setTableName(String tableName) {
+        this.tableName = tableName;
+    }
+    
+    public Long getStartTimestamp() {
+        return startTimestamp;
+    }
+    
+    public void setStartTimestamp(Long startTimestamp) {
+        this.startTimestamp = startTimestamp;
+    }
+    
+    public Long getEndTimestamp() {
+        return endTimestamp;
+    }
+    
+    public void setEndTimestamp(Long endTimestamp) {
+        this.endTimestamp = endTimestamp;
+    }
+    
+    public Boolean getWritable() {
+        return writable;
+    }
+    
+    public void setWritable(Boolean writable) {
+        this.writable = writable;
+    }
+    
+    public Date getCreateTime() {
+        return createTime;
+    }
+    
+    public void setCreateTime(Date createTime) {
+        this.createTime = createTime;
+    }
+    
+    @Override
+    public String toString() {
+        return "LocationPartitionEntity{" +
+                "tableName='" + tableName + '\'' +
+                ", startTimestamp=" + startTimestamp +
+                ", endTimestamp=" + endTimestamp +
+                ", writable=" + writable +
+                ", createTime=" + createTime +
+                '}';
+    }
+}
@@ -0,0 +1,45 @@
+package com.seeker.locationtracker.model.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+/**
+ * 批量上传单条结果
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Data
+@ApiModel("BatchUploadItemVO-批量上传单条结果")
+public class BatchUploadItemVO {
+
+    @ApiModelProperty("请求数组中的下标，从0开始")
+    private int index;
+
+    @ApiModelProperty("设备唯一标识")
+    private String deviceId;
+
+    @ApiModelProperty("位置时间戳(毫秒)")
+    private Long locationTimestamp;
+
+    @ApiModelProperty("是否写入成功，重复上传和超出时间范围被丢弃的数据视为成功")
+    private boolean success;
+
+    @ApiModelProperty("是否为已接收过的重复数据")
+    private boolean duplicate;
+
+    @ApiModelProperty("位置时间超出允许范围，已确认接收但未写入")
+    private boolean dropped;
+
+    @ApiModelProperty("结果描述")
+    private String message;
+
+    public BatchUploadItemVO() {}
+
+    public BatchUploadItemVO(int index, String deviceId, Long locationTimestamp) {
+        this.index = index;
+        this.deviceId = deviceId;
+        this.locationTimestamp = locationTimestamp;
+    }
+}
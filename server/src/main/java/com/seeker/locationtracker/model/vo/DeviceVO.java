@@ -0,0 +1,46 @@
+package com.seeker.locationtracker.model.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+/**
+ * 设备信息
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Data
+@ApiModel("DeviceVO-设备信息")
+public class DeviceVO {
+
+    @ApiModelProperty("设备唯一标识")
+    private String deviceId;
+
+    @ApiModelProperty("Android设备ID")
+    private String androidId;
+
+    @ApiModelProperty("设备型号")
+    private String deviceModel;
+
+    @ApiModelProperty("操作系统版本")
+    private String osVersion;
+
+    @ApiModelProperty("应用版本")
+    private String appVersion;
+
+    @ApiModelProperty("位置获取间隔(毫秒)")
+    private Integer locationInterval;
+
+    @ApiModelProperty("数据上传间隔(毫秒)")
+    private Integer uploadInterval;
+
+    @ApiModelProperty("登记时间戳(毫秒)，尚未写入数据库时为空")
+    private Long registeredAt;
+
+    @ApiModelProperty("最后活跃时间戳(毫秒)")
+    private Long lastSeenAt;
+
+    @ApiModelProperty("是否在线，最后活跃时间在 app.location.device.online-threshold-ms 内")
+    private Boolean online;
+}
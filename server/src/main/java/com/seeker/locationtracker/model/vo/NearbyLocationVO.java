@@ -0,0 +1,34 @@
+package com.seeker.locationtracker.model.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+/**
+ * 附近设备查询结果
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Data
+@ApiModel("NearbyLocationVO-附近设备")
+public class NearbyLocationVO {
+
+    @ApiModelProperty("设备唯一标识")
+    private String deviceId;
+
+    @ApiModelProperty("纬度")
+    private Double latitude;
+
+    @ApiModelProperty("经度")
+    private Double longitude;
+
+    @ApiModelProperty("定位精度(米)")
+    private Double accuracy;
+
+    @ApiModelProperty("位置时间戳(毫秒)")
+    private Long locationTimestamp;
+
+    @ApiModelProperty("到查询中心点的距离(米)")
+    private Double distance;
+}
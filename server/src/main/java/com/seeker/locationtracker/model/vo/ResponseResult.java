@@ -18,9 +18,23 @@ public class ResponseResult<T> {
     public static final int STATUS_CODE_SUCCESS = 200;
     public static final int STATUS_CODE_FAIL = 501;
 
+    /**
+     * 参数校验失败，与全局异常处理中参数验证错误的编码一致
+     */
+    public static final int STATUS_CODE_INVALID_PARAMETER = 516;
+
     public static final int OP_CODE_SUCCESS = 0;
     public static final int OP_CODE_FAIL = 1;
 
+    public static final String BUSINESS_CODE = "LOCATION_TRACKER";
+
+    private static final String LOCAL_TIME_PATTERN = "yyyy-MM-dd HH:mm:ss";
+
+    /**
+     * 当前秒的时间文本，同一秒内构造的结果共用同一个字符串，不必每次格式化
+     */
+    private static volatile LocalTimeText localTimeCache = new LocalTimeText(Long.MIN_VALUE, null);
+
     @ApiModelProperty("接口操作返回码，200:成功,其他异常")
     private int statusCode;
     
@@ -29,9 +43,9 @@ public class ResponseResult<T> {
     
     private int opCode = OP_CODE_SUCCESS;
     
-    private String businessCode = "LOCATION_TRACKER";
+    private String businessCode = BUSINESS_CODE;
     
-    private String localTime = DateUtil.format(new Date(), "yyyy-MM-dd HH:mm:ss");
+    private String localTime = currentLocalTime();
 
     @ApiModelProperty("返回的数据")
     private T data;
@@ -134,4 +148,39 @@ public class ResponseResult<T> {
         r.setOpDesc(msg);
         return r;
     }
+
+    /**
+     * 获取当前时间文本，精确到秒
+     * 
+     * @return yyyy-MM-dd HH:mm:ss 格式的当前时间
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static String currentLocalTime() {
+        long second = System.currentTimeMillis() / 1000;
+        LocalTimeText cached = localTimeCache;
+        if (cached.second != second) {
+            cached = new LocalTimeText(second, DateUtil.format(new Date(second * 1000), LOCAL_TIME_PATTERN));
+            localTimeCache = cached;
+        }
+        return cached.text;
+    }
+
+    /**
+     * 某一秒的时间文本
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class LocalTimeText {
+
+        private final long second;
+
+        private final String text;
+
+        private LocalTimeText(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+    }
 }
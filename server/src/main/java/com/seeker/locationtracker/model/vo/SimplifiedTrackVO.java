@@ -0,0 +1,39 @@
+package com.seeker.locationtracker.model.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 抽稀后的设备轨迹
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Data
+@ApiModel("SimplifiedTrackVO-抽稀轨迹")
+public class SimplifiedTrackVO {
+
+    @ApiModelProperty("设备唯一标识")
+    private String deviceId;
+
+    @ApiModelProperty("开始时间戳(毫秒，包含)")
+    private long from;
+
+    @ApiModelProperty("结束时间戳(毫秒，不包含)")
+    private long to;
+
+    @ApiModelProperty("实际使用的容差(米)")
+    private double tolerance;
+
+    @ApiModelProperty("时间范围内的原始点数")
+    private int totalPoints;
+
+    @ApiModelProperty("抽稀舍弃的点数")
+    private int droppedPoints;
+
+    @ApiModelProperty("保留的轨迹点，按位置时间升序")
+    private List<TrackPointVO> points;
+}
@@ -0,0 +1,25 @@
+package com.seeker.locationtracker.model.vo;
+
+import io.swagger.annotations.ApiModel;
+import io.swagger.annotations.ApiModelProperty;
+import lombok.Data;
+
+/**
+ * 轨迹点，只包含绘制轨迹需要的字段
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Data
+@ApiModel("TrackPointVO-轨迹点")
+public class TrackPointVO {
+
+    @ApiModelProperty("位置时间戳(毫秒)")
+    private long locationTimestamp;
+
+    @ApiModelProperty("纬度")
+    private double latitude;
+
+    @ApiModelProperty("经度")
+    private double longitude;
+}
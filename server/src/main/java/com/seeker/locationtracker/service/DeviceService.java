@@ -0,0 +1,35 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.vo.DeviceVO;
+import com.seeker.locationtracker.model.vo.ResponseResult;
+
+import java.util.List;
+
+/**
+ * 设备登记服务接口
+ * 
+ * <p>设备首次上传时自动登记到 T_DEVICE。最后活跃时间只在内存中更新，按固定间隔把有变化的设备合并为
+ * 一批写回，设备信息查询直接读取内存缓存。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface DeviceService {
+
+    /**
+     * 查询设备信息
+     * 
+     * @param deviceId 设备唯一标识
+     * @return 设备信息
+     */
+    ResponseResult<DeviceVO> getDevice(String deviceId);
+
+    /**
+     * 查询设备列表，按最后活跃时间倒序
+     * 
+     * @param online 只查询在线(true)或离线(false)设备，为空时不过滤
+     * @param limit 最大条数，默认100，最大1000
+     * @return 设备列表
+     */
+    ResponseResult<List<DeviceVO>> listDevices(Boolean online, Integer limit);
+}
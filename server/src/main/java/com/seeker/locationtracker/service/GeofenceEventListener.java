@@ -0,0 +1,24 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.entity.GeofenceEventEntity;
+
+import java.util.List;
+
+/**
+ * 进出围栏事件监听器
+ * 
+ * <p>围栏判断在写入提交后的回调中进行，产生事件后立即回调所有监听器，早于事件写入数据库。
+ * 回调在写入线程上执行，实现必须快速返回且不能抛出异常。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface GeofenceEventListener {
+
+    /**
+     * 产生了进出围栏事件
+     * 
+     * @param events 事件列表，主键尚未生成
+     */
+    void onGeofenceEvents(List<GeofenceEventEntity> events);
+}
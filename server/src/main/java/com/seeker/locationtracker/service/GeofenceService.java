@@ -0,0 +1,81 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.dto.GeofenceDTO;
+import com.seeker.locationtracker.model.entity.GeofenceEntity;
+import com.seeker.locationtracker.model.entity.GeofenceEventEntity;
+import com.seeker.locationtracker.model.vo.ResponseResult;
+
+import java.util.List;
+
+/**
+ * 地理围栏服务接口
+ * 
+ * <p>围栏保存在数据库中，启动时加载到内存的网格索引。每个新写入的点只与所在网格内的围栏比较，
+ * 按设备记录当前所在的围栏，进出变化时产生事件。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface GeofenceService {
+
+    /**
+     * 创建围栏
+     * 
+     * @param geofenceDTO 围栏参数
+     * @return 创建的围栏
+     */
+    ResponseResult<GeofenceEntity> createGeofence(GeofenceDTO geofenceDTO);
+
+    /**
+     * 修改围栏，修改后的形状对之后写入的点生效
+     * 
+     * @param id 围栏ID
+     * @param geofenceDTO 围栏参数
+     * @return 修改后的围栏
+     */
+    ResponseResult<GeofenceEntity> updateGeofence(Long id, GeofenceDTO geofenceDTO);
+
+    /**
+     * 删除围栏，已在围栏内的设备不再产生离开事件
+     * 
+     * @param id 围栏ID
+     * @return 响应结果
+     */
+    ResponseResult<Void> deleteGeofence(Long id);
+
+    /**
+     * 查询围栏
+     * 
+     * @param id 围栏ID
+     * @return 围栏
+     */
+    ResponseResult<GeofenceEntity> getGeofence(Long id);
+
+    /**
+     * 查询全部围栏
+     * 
+     * @return 围栏列表
+     */
+    ResponseResult<List<GeofenceEntity>> listGeofences();
+
+    /**
+     * 查询设备当前所在的围栏
+     * 
+     * @param deviceId 设备唯一标识
+     * @return 围栏ID列表
+     */
+    ResponseResult<List<Long>> getDeviceGeofences(String deviceId);
+
+    /**
+     * 查询进出围栏事件，按位置时间倒序
+     * 
+     * @param deviceId 设备唯一标识
+     * @param fenceId 围栏ID
+     * @param from 开始时间戳(毫秒，包含)
+     * @param to 结束时间戳(毫秒，不包含)
+     * @param limit 最大条数，默认100，最大1000
+     * @return 事件列表
+     */
+    ResponseResult<List<GeofenceEventEntity>> queryEvents(String deviceId, Long fenceId, Long from, Long to,
+                                                          Integer limit);
+}
@@ -0,0 +1,41 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 设备最新位置服务接口
+ * 
+ * <p>在内存中按设备保存位置时间戳最新的一条数据，O(1)查询设备当前位置。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface LatestLocationService {
+
+    /**
+     * 用新写入的位置数据更新缓存，位置时间戳不比已缓存数据新的会被忽略
+     * 
+     * @param entities 已写入的位置数据
+     */
+    void update(List<LocationEntity> entities);
+
+    /**
+     * 查询设备最新位置
+     * 
+     * @param deviceId 设备唯一标识
+     * @return 最新位置，没有数据时返回null
+     */
+    LocationEntity getLatest(String deviceId);
+
+    /**
+     * 批量查询设备最新位置
+     * 
+     * @param deviceIds 设备唯一标识集合
+     * @return 设备唯一标识到最新位置的映射，没有数据的设备不包含在结果中
+     */
+    Map<String, LocationEntity> getLatest(Collection<String> deviceIds);
+}
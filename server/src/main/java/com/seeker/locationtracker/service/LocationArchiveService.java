@@ -0,0 +1,53 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.dto.TrackQueryDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.vo.TrackPointVO;
+
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 位置数据冷归档服务接口
+ * 
+ * <p>位置时间早于归档天数（app.location.archive.after-days）的数据按设备、按自然日写入列式段文件，
+ * 写入成功后从SQLite删除。轨迹查询同时读取SQLite和归档，按 (LOCATION_TIMESTAMP, TID) 合并。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface LocationArchiveService {
+
+    /**
+     * 执行一次归档
+     * 
+     * @return 是否执行，已有归档在运行时返回false
+     */
+    boolean runArchive();
+
+    /**
+     * 按键集分页查询已归档的设备轨迹
+     * 
+     * @param query 轨迹查询条件，使用设备、时间范围、游标和条数
+     * @return 位置数据列表，按位置时间、主键升序，最多limit条
+     */
+    List<LocationEntity> selectTrackPage(TrackQueryDTO query);
+
+    /**
+     * 按位置时间升序遍历已归档的设备轨迹点，逐个段文件按需解码
+     * 
+     * @param deviceId 设备唯一标识
+     * @param from 开始时间戳(毫秒，包含)
+     * @param to 结束时间戳(毫秒，不包含)
+     * @return 轨迹点迭代器
+     */
+    Iterator<TrackPointVO> trackPoints(String deviceId, long from, long to);
+
+    /**
+     * 删除全部数据都已过期的段文件
+     * 
+     * @param cutoff 创建时间早于该值(毫秒)的数据视为过期
+     * @return 删除的段文件数
+     */
+    int purgeExpired(long cutoff);
+}
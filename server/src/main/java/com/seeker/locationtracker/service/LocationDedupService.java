@@ -0,0 +1,22 @@
+package com.seeker.locationtracker.service;
+
+/**
+ * 重复上传过滤服务接口
+ * 
+ * <p>客户端没有收到成功响应时会重传，服务端可能已经提交了这些数据。位置数据按 (设备, 位置时间) 唯一，
+ * 内存中按设备记住最近写入的位置时间，大部分重传在写库前即可识别；漏过的由唯一索引忽略。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface LocationDedupService {
+
+    /**
+     * 是否为最近已写入过的重复数据，命中时计入重复上传指标
+     * 
+     * @param deviceId 设备唯一标识
+     * @param locationTimestamp 位置时间戳(毫秒)
+     * @return 是否重复
+     */
+    boolean isDuplicate(String deviceId, long locationTimestamp);
+}
@@ -0,0 +1,40 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+
+import java.util.List;
+
+/**
+ * 位置数据写入监听器
+ * 
+ * <p>写入事务提交成功后，写入服务按批回调所有监听器，用于维护最新位置缓存、空间索引等内存视图。
+ * 回调在写入线程上执行，实现必须快速返回且不能抛出异常。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface LocationIngestListener {
+
+    /**
+     * 位置数据已提交
+     * 
+     * @param entities 本次提交成功写入的位置数据
+     */
+    void onCommitted(List<LocationEntity> entities);
+
+    /**
+     * 同一设备同一位置时间的数据已存在、被唯一索引忽略，在写入事务提交后回调，默认不处理
+     * 
+     * @param duplicates 被忽略的位置数据
+     */
+    default void onIgnored(List<LocationEntity> duplicates) {
+    }
+
+    /**
+     * 启动预热，在Web服务开始接收请求之前调用一次，默认不处理
+     * 
+     * @param latest 每台设备的最新位置
+     */
+    default void warmUp(List<LocationEntity> latest) {
+    }
+}
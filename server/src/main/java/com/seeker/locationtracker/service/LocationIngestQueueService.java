@@ -0,0 +1,40 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+
+import java.util.List;
+
+/**
+ * 位置数据异步写入队列服务接口
+ * 
+ * <p>仅在 app.location.ingest.mode=async 或 wal 时启用：async 为内存队列，入队后立即返回；
+ * wal 为预写日志，刷盘后返回。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface LocationIngestQueueService {
+
+    /**
+     * 将位置数据放入写入队列
+     * 
+     * @param entity 位置实体
+     * @return 队列已满或服务正在停止时返回false
+     */
+    boolean offer(LocationEntity entity);
+
+    /**
+     * 将一批位置数据放入写入队列
+     * 
+     * @param entities 位置实体列表
+     * @return 与入参一一对应的结果，队列已满或服务正在停止的为false
+     */
+    boolean[] offer(List<LocationEntity> entities);
+
+    /**
+     * 当前排队等待写入的条数
+     * 
+     * @return 排队条数
+     */
+    int size();
+}
@@ -0,0 +1,66 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.entity.LocationPartitionEntity;
+
+import java.util.List;
+
+/**
+ * 位置数据分区服务接口
+ * 
+ * <p>位置数据按位置时间按月写入 T_LOCATION_yyyyMM 分区表，分区区间登记在 T_LOCATION_PARTITION 中。
+ * 启用分区之前的原 T_LOCATION 表作为只读分区参与查询。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface LocationPartitionService {
+
+    /**
+     * 获取位置时间所属的可写分区，分区不存在时创建
+     * 
+     * <p>分区表在独立的短事务中创建，不能在写入事务内调用。</p>
+     * 
+     * @param locationTimestamp 位置时间戳(毫秒)
+     * @return 分区表名
+     */
+    String resolveWritePartition(long locationTimestamp);
+
+    /**
+     * 获取与时间范围相交的分区，按起始时间升序
+     * 
+     * @param from 开始时间戳(毫秒，包含)，为空表示不限
+     * @param to 结束时间戳(毫秒，不包含)，为空表示不限
+     * @return 分区表名列表，没有相交分区时只包含原 T_LOCATION 表，保证查询语句合法
+     */
+    List<String> resolveReadPartitions(Long from, Long to);
+
+    /**
+     * 确保从指定时间所在月份起连续若干个月的分区已创建
+     * 
+     * @param locationTimestamp 位置时间戳(毫秒)
+     * @param months 月份数
+     */
+    void ensurePartitions(long locationTimestamp, int months);
+
+    /**
+     * 查询全部分区
+     * 
+     * @return 分区列表，按起始时间升序
+     */
+    List<LocationPartitionEntity> listPartitions();
+
+    /**
+     * 把分区从读写路由中摘除并删除登记，分区表本身保留，由 {@link #dropDetachedPartition(String)} 删除
+     * 
+     * @param table 分区表名，不能是原 T_LOCATION 表
+     */
+    void detachPartition(String table);
+
+    /**
+     * 删除已摘除的分区表；摘除后又有写入重新登记了同名分区时不删除
+     * 
+     * @param table 分区表名
+     * @return 是否已删除
+     */
+    boolean dropDetachedPartition(String table);
+}
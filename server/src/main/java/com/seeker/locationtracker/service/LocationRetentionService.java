@@ -0,0 +1,20 @@
+package com.seeker.locationtracker.service;
+
+/**
+ * 位置数据保留期清理服务接口
+ * 
+ * <p>创建时间早于保留期（app.location.retention-days）的位置数据视为过期。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface LocationRetentionService {
+
+    /**
+     * 执行一次清理：整表过期的分区直接删除，其余分区按主键区间分批删除过期数据，
+     * 删除整段过期的归档段文件，最后增量清理释放磁盘空间
+     * 
+     * @return 是否执行，已有清理在运行时返回false
+     */
+    boolean runRetention();
+}
@@ -1,7 +1,17 @@
 package com.seeker.locationtracker.service;
 
 import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.vo.BatchUploadItemVO;
+import com.seeker.locationtracker.model.vo.NearbyLocationVO;
+import com.seeker.locationtracker.model.vo.PageResponseResult;
 import com.seeker.locationtracker.model.vo.ResponseResult;
+import com.seeker.locationtracker.model.vo.SimplifiedTrackVO;
+
+import java.util.Collection;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 位置数据服务接口
@@ -20,10 +30,137 @@ public interface LocationService {
     ResponseResult<Void> uploadLocation(LocationUploadDTO locationDTO);
     
     /**
-     * 获取所有位置数据（用于测试验证）
+     * 批量上传位置数据，单次条数受 app.location.max-batch-size 限制
+     * 
+     * @param locationDTOs 位置数据传输对象列表
+     * @return 每条数据的写入结果
+     */
+    ResponseResult<List<BatchUploadItemVO>> uploadLocations(List<LocationUploadDTO> locationDTOs);
+    
+    /**
+     * 上传单条JSON格式的位置数据，请求体以流式解析直接生成位置实体，字段与 LocationUploadDTO 相同
+     * 
+     * @param body 请求体
+     * @return 响应结果，字段校验失败时状态码为 STATUS_CODE_INVALID_PARAMETER
+     * @throws IOException 请求体不是合法的JSON
+     */
+    ResponseResult<Void> uploadLocationJson(byte[] body) throws IOException;
+    
+    /**
+     * 批量上传JSON格式的位置数据，请求体为 LocationUploadDTO 数组，单次条数受 app.location.max-batch-size 限制
+     * 
+     * @param body 请求体
+     * @return 每条数据的写入结果
+     * @throws IOException 请求体不是合法的JSON
+     */
+    ResponseResult<List<BatchUploadItemVO>> uploadLocationsJson(byte[] body) throws IOException;
+    
+    /**
+     * 上传单条紧凑二进制格式的位置数据，格式见 LocationBinaryCodec，请求体只能包含一条记录
+     * 
+     * @param body 请求体
+     * @return 响应结果
+     */
+    ResponseResult<Void> uploadLocationBinary(byte[] body);
+    
+    /**
+     * 批量上传紧凑二进制格式的位置数据，格式见 LocationBinaryCodec，单次条数受 app.location.max-batch-size 限制
+     * 
+     * @param body 请求体
+     * @return 每条数据的写入结果
+     */
+    ResponseResult<List<BatchUploadItemVO>> uploadLocationsBinary(byte[] body);
+    
+    /**
+     * 按键集分页查询设备轨迹，查询代价与翻页深度无关
      * 
+     * @param deviceId 设备唯一标识
+     * @param from 开始时间戳(毫秒，包含)，可为空
+     * @param to 结束时间戳(毫秒，不包含)，可为空
+     * @param limit 每页条数，可为空
+     * @param cursor 上一页返回的游标，首页为空
+     * @return 分页结果，scrollId为下一页游标，没有更多数据时为空
+     */
+    PageResponseResult<LocationEntity> queryTrack(String deviceId, Long from, Long to, Integer limit, String cursor);
+    
+    /**
+     * 查询设备在时间范围内的抽稀轨迹，只返回绘制需要的时间和经纬度
+     * 
+     * @param deviceId 设备唯一标识
+     * @param from 开始时间戳(毫秒，包含)
+     * @param to 结束时间戳(毫秒，不包含)
+     * @param tolerance 容差(米)，可为空
+     * @param zoom 地图缩放级别(0-22)，tolerance为空时按该级别一个像素换算容差，可为空
+     * @return 抽稀后的轨迹，包含舍弃的点数
+     */
+    ResponseResult<SimplifiedTrackVO> querySimplifiedTrack(String deviceId, Long from, Long to, Double tolerance,
+                                                           Integer zoom);
+    
+    /**
+     * 查询矩形区域内的历史位置数据
+     * 
+     * @param bbox 矩形区域，格式为 minLon,minLat,maxLon,maxLat
+     * @param from 开始时间戳(毫秒，包含)，可为空
+     * @param to 结束时间戳(毫秒，不包含)，可为空
+     * @param limit 最大条数，可为空
      * @return 位置数据列表
      */
-    java.util.List<com.seeker.locationtracker.model.entity.LocationEntity> getAllLocations();
+    ResponseResult<List<LocationEntity>> searchInBoundingBox(String bbox, Long from, Long to, Integer limit);
+    
+    /**
+     * 查询半径范围内的设备（内存空间索引，按设备最新位置）
+     * 
+     * @param latitude 中心点纬度
+     * @param longitude 中心点经度
+     * @param radius 半径(米)，不超过 app.location.spatial.max-radius-meters
+     * @param limit 最大条数，可为空
+     * @return 按距离升序排列的设备
+     */
+    ResponseResult<List<NearbyLocationVO>> searchNearby(Double latitude, Double longitude, Double radius,
+                                                        Integer limit);
+    
+    /**
+     * 查询距离最近的k台设备（内存空间索引，按设备最新位置）
+     * 
+     * @param latitude 中心点纬度
+     * @param longitude 中心点经度
+     * @param k 设备数，可为空
+     * @param maxRadius 最大搜索半径(米)，可为空
+     * @return 按距离升序排列的设备
+     */
+    ResponseResult<List<NearbyLocationVO>> searchNearest(Double latitude, Double longitude, Integer k,
+                                                         Double maxRadius);
+    
+    /**
+     * 查询设备最新位置（内存缓存，未命中时查询位置数据存储）
+     * 
+     * @param deviceId 设备唯一标识
+     * @return 最新位置
+     */
+    ResponseResult<LocationEntity> getLatestLocation(String deviceId);
+    
+    /**
+     * 批量查询设备最新位置（内存缓存）
+     * 
+     * @param deviceIds 设备唯一标识集合
+     * @return 设备唯一标识到最新位置的映射，没有数据的设备不包含在结果中
+     */
+    ResponseResult<Map<String, LocationEntity>> getLatestLocations(Collection<String> deviceIds);
+    
+    /**
+     * 获取最近写入的位置数据（用于测试验证）
+     * 
+     * @param limit 最大条数，可为空
+     * @return 位置数据列表
+     */
+    List<LocationEntity> listRecentLocations(Integer limit);
+    
+    /**
+     * 删除位置时间早于截止时间的数据，与保留期清理按创建时间删除不同，不更新最新位置等内存视图
+     * 
+     * @param locationTimestamp 截止位置时间戳(毫秒，不包含)
+     * @return 删除行数
+     */
+    long deleteLocationsBefore(long locationTimestamp);
     
 }
@@ -0,0 +1,75 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+
+import java.util.List;
+
+/**
+ * 位置数据存储接口
+ * 
+ * <p>抽象出位置数据最基本的读写操作，便于在相同的工作负载下对比不同的存储引擎。
+ * LocationService 的写入、轨迹、最新位置和按位置时间删除都经过这个接口，实现由 app.location.store 选择：
+ * 默认的 SqliteLocationStore，或只用于测试和对比的 InMemoryLocationStore，两者都由 LocationStoreConformanceTest 验证。
+ * 所有实现都必须满足同样的语义：</p>
+ * <ul>
+ *     <li>同一设备同一位置时间只保存一条数据，重复写入被忽略，影响行数为0；</li>
+ *     <li>轨迹按位置时间升序返回，时间范围左闭右开；</li>
+ *     <li>按位置时间删除，与保留期清理按创建时间删除不同；</li>
+ *     <li>写入不修改传入的实体。</li>
+ * </ul>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface LocationStore {
+
+    /**
+     * @return 存储引擎名称，用于基准测试和日志
+     */
+    String name();
+
+    /**
+     * 写入一条位置数据
+     * 
+     * @param entity 位置实体
+     * @return 影响行数，同一设备同一位置时间的数据已存在时为0
+     */
+    int append(LocationEntity entity);
+
+    /**
+     * 批量写入位置数据，整批一起提交
+     * 
+     * @param entities 位置实体列表
+     * @return 与入参一一对应的影响行数，重复数据为0
+     */
+    int[] appendBatch(List<LocationEntity> entities);
+
+    /**
+     * 查询设备位置时间最新的一条数据
+     * 
+     * @param deviceId 设备唯一标识
+     * @return 最新位置，没有数据时返回null
+     */
+    LocationEntity latest(String deviceId);
+
+    /**
+     * 查询设备轨迹，按位置时间升序
+     * 
+     * <p>同一设备的位置时间不重复，调用方以最后一条的位置时间 + 1 作为下一页的开始时间即可翻页。</p>
+     * 
+     * @param deviceId 设备唯一标识
+     * @param from 开始时间戳(毫秒，包含)，为null时不限
+     * @param to 结束时间戳(毫秒，不包含)，为null时不限
+     * @param limit 最大条数
+     * @return 位置数据列表
+     */
+    List<LocationEntity> track(String deviceId, Long from, Long to, int limit);
+
+    /**
+     * 删除位置时间早于截止时间的数据
+     * 
+     * @param locationTimestamp 截止位置时间戳(毫秒，不包含)
+     * @return 删除行数
+     */
+    long deleteBefore(long locationTimestamp);
+}
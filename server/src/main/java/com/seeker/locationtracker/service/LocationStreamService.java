@@ -0,0 +1,35 @@
+package com.seeker.locationtracker.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 实时位置推送服务接口
+ * 
+ * <p>以Server-Sent Events推送新写入的位置，代替轮询最近写入接口。可以按设备、设备组或矩形区域订阅，
+ * 每个订阅者有独立的有界缓冲区，推送慢的订阅者只会丢失或合并自己的位置，不影响写入和其他订阅者。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface LocationStreamService {
+
+    /**
+     * 订阅实时位置
+     * 
+     * @param deviceId 设备唯一标识
+     * @param deviceIds 逗号分隔的设备唯一标识，与 deviceId 合并
+     * @param bbox 矩形区域，格式为 minLon,minLat,maxLon,maxLat
+     * @param snapshot 是否先推送订阅设备的最新位置，只在指定了设备时生效
+     * @return 推送连接
+     * @throws IllegalArgumentException 订阅条件不合法
+     * @throws IllegalStateException 订阅连接数已达上限
+     */
+    SseEmitter subscribe(String deviceId, String deviceIds, String bbox, boolean snapshot);
+
+    /**
+     * 当前订阅连接数
+     * 
+     * @return 订阅连接数
+     */
+    int subscriberCount();
+}
@@ -0,0 +1,32 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+
+import java.util.List;
+
+/**
+ * 位置数据批量写入服务接口
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface LocationWriteService {
+
+    /**
+     * 在同一个事务中通过JDBC批处理写入位置数据，按位置时间路由到月份分区表
+     * 
+     * <p>缺少的分区表会在写入事务开始前创建，因此不能在已有事务中调用。</p>
+     * 
+     * @param entities 位置实体列表
+     * @return 与入参一一对应的影响行数，重复数据为0
+     */
+    int[] saveBatch(List<LocationEntity> entities);
+
+    /**
+     * 为原 T_LOCATION 表中一批尚未计算地理哈希的存量数据回填地理哈希
+     * 
+     * @param limit 本批最大条数
+     * @return 本批回填条数，为0时表示已全部回填
+     */
+    int backfillGeohash(int limit);
+}
@@ -0,0 +1,45 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.vo.NearbyLocationVO;
+
+import java.util.List;
+
+/**
+ * 设备空间索引服务接口
+ * 
+ * <p>在内存中按网格索引每台设备的最新位置，支持半径查询和最近邻查询。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface SpatialIndexService {
+
+    /**
+     * 查询半径范围内的设备
+     * 
+     * @param latitude 中心点纬度
+     * @param longitude 中心点经度
+     * @param radiusMeters 半径(米)
+     * @param limit 最大条数
+     * @return 按距离升序排列的设备
+     */
+    List<NearbyLocationVO> withinRadius(double latitude, double longitude, double radiusMeters, int limit);
+
+    /**
+     * 查询距离最近的k台设备
+     * 
+     * @param latitude 中心点纬度
+     * @param longitude 中心点经度
+     * @param k 设备数
+     * @param maxRadiusMeters 最大搜索半径(米)
+     * @return 按距离升序排列的设备，最大半径内不足k台时返回全部
+     */
+    List<NearbyLocationVO> nearest(double latitude, double longitude, int k, double maxRadiusMeters);
+
+    /**
+     * 已索引的设备数
+     * 
+     * @return 设备数
+     */
+    int size();
+}
@@ -0,0 +1,25 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.vo.SimplifiedTrackVO;
+
+/**
+ * 轨迹抽稀服务接口
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public interface TrackSimplifyService {
+
+    /**
+     * 查询设备在时间范围内的轨迹并抽稀，已关闭的时间范围会缓存结果
+     * 
+     * @param deviceId 设备唯一标识
+     * @param from 开始时间戳(毫秒，包含)
+     * @param to 结束时间戳(毫秒，不包含)
+     * @param tolerance 容差(米)，为空时按缩放级别计算
+     * @param zoom 地图缩放级别，容差取该级别下一个像素对应的距离，tolerance不为空时忽略
+     * @return 抽稀后的轨迹
+     * @throws IllegalArgumentException 时间范围内原始点数超过上限
+     */
+    SimplifiedTrackVO simplify(String deviceId, long from, long to, Double tolerance, Integer zoom);
+}
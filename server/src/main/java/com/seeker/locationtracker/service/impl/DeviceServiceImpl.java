@@ -0,0 +1,316 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.mapper.DeviceMapper;
+import com.seeker.locationtracker.model.entity.DeviceEntity;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.vo.DeviceVO;
+import com.seeker.locationtracker.model.vo.ResponseResult;
+import com.seeker.locationtracker.service.DeviceService;
+import com.seeker.locationtracker.service.LocationIngestListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 设备登记服务实现类
+ * 
+ * <p>启动时加载 T_DEVICE 全部设备，之后作为写入监听器在提交成功后更新内存中的最后活跃时间（服务端收到数据的时间），
+ * 重复上传被忽略的数据同样视为活跃。最后活跃时间变晚的设备放入待写回队列，写回线程按间隔取出，
+ * 在一个事务中用 INSERT ... ON CONFLICT DO UPDATE 批量写回：新设备在同一条语句中登记，
+ * 已登记设备每次写回最多更新一行、触发一次 TRIGGER_T_DEVICE_UPDATE_TIME，而不是每次上传一次。</p>
+ * 
+ * <p>写回失败的设备重新放入队列，下次写回时重试。新登记设备的完整信息在写回后查询一次放入缓存。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class DeviceServiceImpl implements DeviceService, LocationIngestListener {
+
+    private static final int DEFAULT_QUERY_LIMIT = 100;
+
+    private static final int MAX_QUERY_LIMIT = 1000;
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @Resource
+    private DeviceMapper deviceMapper;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<String, DeviceState> devices = new ConcurrentHashMap<>();
+
+    /**
+     * 最后活跃时间有变化、等待写回的设备，每台设备最多在队列中出现一次
+     */
+    private final Queue<DeviceState> dirtyDevices = new ConcurrentLinkedQueue<>();
+
+    private final AtomicInteger dirtyCount = new AtomicInteger();
+
+    private ScheduledExecutorService flushScheduler;
+
+    private Timer flushTimer;
+
+    private Counter flushedDevicesCounter;
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("location.device.count", devices, ConcurrentHashMap::size)
+                .description("已登记的设备数（含等待写回的新设备）").register(meterRegistry);
+        Gauge.builder("location.device.dirty", dirtyCount, AtomicInteger::get)
+                .description("最后活跃时间等待写回的设备数").register(meterRegistry);
+        flushTimer = Timer.builder("location.device.flush")
+                .description("最后活跃时间批量写回耗时").register(meterRegistry);
+        flushedDevicesCounter = Counter.builder("location.device.flushed")
+                .description("写回最后活跃时间的设备数").register(meterRegistry);
+
+        long interval = locationProperties.getDevice().getFlushIntervalMs();
+        flushScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "device-last-seen-flush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flushScheduler.scheduleWithFixedDelay(this::flush, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flushScheduler.shutdown();
+        flushScheduler.awaitTermination(10, TimeUnit.SECONDS);
+        // 写回停止前最后一批
+        flush();
+    }
+
+    @Override
+    public void warmUp(List<LocationEntity> latest) {
+        for (DeviceEntity device : deviceMapper.selectAllDevices()) {
+            devices.put(device.getDeviceId(), new DeviceState(device));
+        }
+        // 已有位置数据、但此前没有登记的设备按最新位置补登记
+        int backfilled = 0;
+        for (LocationEntity location : latest) {
+            if (!devices.containsKey(location.getDeviceId())) {
+                touch(location.getDeviceId(), location.getCreateTime() != null
+                        ? location.getCreateTime().getTime() : location.getLocationTimestamp());
+                backfilled++;
+            }
+        }
+        log.info("设备登记加载完成. devices={}, backfilled={}", devices.size(), backfilled);
+    }
+
+    @Override
+    public void onCommitted(List<LocationEntity> entities) {
+        touchAll(entities);
+    }
+
+    @Override
+    public void onIgnored(List<LocationEntity> duplicates) {
+        touchAll(duplicates);
+    }
+
+    @Override
+    public ResponseResult<DeviceVO> getDevice(String deviceId) {
+        DeviceState state = devices.get(deviceId);
+        if (state == null) {
+            return ResponseResult.fail("设备不存在: " + deviceId);
+        }
+        return ResponseResult.success(toVO(state, System.currentTimeMillis()), "查询成功");
+    }
+
+    @Override
+    public ResponseResult<List<DeviceVO>> listDevices(Boolean online, Integer limit) {
+        int size = limit == null || limit <= 0 ? DEFAULT_QUERY_LIMIT : Math.min(limit, MAX_QUERY_LIMIT);
+        long now = System.currentTimeMillis();
+        List<DeviceVO> result = new ArrayList<>();
+        for (DeviceState state : devices.values()) {
+            DeviceVO vo = toVO(state, now);
+            if (online == null || online.equals(vo.getOnline())) {
+                result.add(vo);
+            }
+        }
+        result.sort(Comparator.comparing(DeviceVO::getLastSeenAt,
+                Comparator.nullsLast(Comparator.reverseOrder())));
+        List<DeviceVO> page = result.size() > size ? new ArrayList<>(result.subList(0, size)) : result;
+        return ResponseResult.success(page, "查询成功，共 " + result.size() + " 台设备，返回 " + page.size() + " 台");
+    }
+
+    private void touchAll(List<LocationEntity> entities) {
+        long now = System.currentTimeMillis();
+        for (LocationEntity entity : entities) {
+            touch(entity.getDeviceId(), now);
+        }
+    }
+
+    /**
+     * 更新内存中的最后活跃时间，变晚时放入待写回队列，写入线程上只有内存操作
+     */
+    private void touch(String deviceId, long seenAt) {
+        DeviceState state = devices.get(deviceId);
+        if (state == null) {
+            state = devices.computeIfAbsent(deviceId, DeviceState::new);
+        }
+        if (state.lastSeenAt.getAndAccumulate(seenAt, Math::max) < seenAt) {
+            markDirty(state);
+        }
+    }
+
+    private void markDirty(DeviceState state) {
+        if (state.dirty.compareAndSet(false, true)) {
+            dirtyDevices.offer(state);
+            dirtyCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 写回有变化的设备，由写回线程定时执行，停止时再执行一次
+     */
+    private synchronized void flush() {
+        List<DeviceState> states = new ArrayList<>(dirtyCount.get());
+        DeviceState state;
+        while ((state = dirtyDevices.poll()) != null) {
+            dirtyCount.decrementAndGet();
+            // 先清除标记再读取时间，之后的更新会重新入队，不会丢失
+            state.dirty.set(false);
+            states.add(state);
+        }
+        if (states.isEmpty()) {
+            return;
+        }
+        List<DeviceEntity> rows = new ArrayList<>(states.size());
+        for (DeviceState dirty : states) {
+            DeviceEntity row = new DeviceEntity();
+            row.setDeviceId(dirty.deviceId);
+            row.setLastSeenAt(new Date(dirty.lastSeenAt.get()));
+            rows.add(row);
+        }
+        int batchSize = Math.max(1, locationProperties.getDevice().getFlushBatchSize());
+        long start = System.nanoTime();
+        try {
+            transactionTemplate.execute(status -> {
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    deviceMapper.upsertLastSeen(rows.subList(from, Math.min(from + batchSize, rows.size())));
+                }
+                return null;
+            });
+        } catch (RuntimeException e) {
+            for (DeviceState failed : states) {
+                markDirty(failed);
+            }
+            log.warn("设备最后活跃时间写回失败，下次重试. devices={}", states.size(), e);
+            return;
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        flushedDevicesCounter.increment(rows.size());
+        loadRegistered(states, batchSize);
+    }
+
+    /**
+     * 查询本次写回中新登记设备的完整信息（主键、默认间隔、登记时间）
+     */
+    private void loadRegistered(List<DeviceState> states, int batchSize) {
+        List<String> registered = new ArrayList<>();
+        for (DeviceState state : states) {
+            if (state.entity == null) {
+                registered.add(state.deviceId);
+            }
+        }
+        try {
+            for (int from = 0; from < registered.size(); from += batchSize) {
+                List<String> chunk = registered.subList(from, Math.min(from + batchSize, registered.size()));
+                for (DeviceEntity device : deviceMapper.selectByDeviceIds(chunk)) {
+                    DeviceState state = devices.get(device.getDeviceId());
+                    if (state != null) {
+                        state.entity = device;
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // 设备已登记，只是缓存中暂缺登记信息，下次写回时再查询
+            log.warn("新登记设备信息查询失败. devices={}", registered.size(), e);
+        }
+    }
+
+    private DeviceVO toVO(DeviceState state, long now) {
+        DeviceVO vo = new DeviceVO();
+        vo.setDeviceId(state.deviceId);
+        DeviceEntity entity = state.entity;
+        if (entity != null) {
+            vo.setAndroidId(entity.getAndroidId());
+            vo.setDeviceModel(entity.getDeviceModel());
+            vo.setOsVersion(entity.getOsVersion());
+            vo.setAppVersion(entity.getAppVersion());
+            vo.setLocationInterval(entity.getLocationInterval());
+            vo.setUploadInterval(entity.getUploadInterval());
+            vo.setRegisteredAt(entity.getCreateTime() != null ? entity.getCreateTime().getTime() : null);
+        }
+        long lastSeenAt = state.lastSeenAt.get();
+        vo.setLastSeenAt(lastSeenAt > 0 ? lastSeenAt : null);
+        vo.setOnline(lastSeenAt > 0 && now - lastSeenAt <= locationProperties.getDevice().getOnlineThresholdMs());
+        return vo;
+    }
+
+    /**
+     * 设备的内存状态
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class DeviceState {
+
+        private final String deviceId;
+
+        /**
+         * 数据库中的设备信息，新设备写回之前为null
+         */
+        private volatile DeviceEntity entity;
+
+        /**
+         * 最后活跃时间(毫秒)，没有活跃记录时为0
+         */
+        private final AtomicLong lastSeenAt;
+
+        /**
+         * 是否在待写回队列中
+         */
+        private final AtomicBoolean dirty = new AtomicBoolean();
+
+        private DeviceState(String deviceId) {
+            this.deviceId = deviceId;
+            this.lastSeenAt = new AtomicLong();
+        }
+
+        private DeviceState(DeviceEntity entity) {
+            this.deviceId = entity.getDeviceId();
+            this.entity = entity;
+            this.lastSeenAt = new AtomicLong(entity.getLastSeenAt() != null ? entity.getLastSeenAt().getTime() : 0);
+        }
+    }
+}
@@ -0,0 +1,532 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.common.spatial.Geofence;
+import com.seeker.locationtracker.common.spatial.GeofenceIndex;
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.mapper.GeofenceEventMapper;
+import com.seeker.locationtracker.mapper.GeofenceMapper;
+import com.seeker.locationtracker.model.dto.GeofenceDTO;
+import com.seeker.locationtracker.model.entity.GeofenceEntity;
+import com.seeker.locationtracker.model.entity.GeofenceEventEntity;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.vo.ResponseResult;
+import com.seeker.locationtracker.service.GeofenceEventListener;
+import com.seeker.locationtracker.service.GeofenceService;
+import com.seeker.locationtracker.service.LocationIngestListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 地理围栏服务实现类
+ * 
+ * <p>作为写入监听器在提交成功后判断新写入的点，只判断网格索引给出的候选围栏。每台设备记录最后判断的位置时间
+ * 和所在的围栏，乱序上传的旧位置不参与判断。进出事件先回调事件监听器（实时推送），再放入有界队列，
+ * 由后台线程分批写入 T_GEOFENCE_EVENT，写入慢时不阻塞位置写入。</p>
+ * 
+ * <p>围栏在启动预热时加载，之后的增删改同时更新数据库和内存，并整体重建不可变的网格索引，
+ * 写入线程读取索引时不加锁。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class GeofenceServiceImpl implements GeofenceService, LocationIngestListener {
+
+    private static final int DEFAULT_QUERY_LIMIT = 100;
+
+    private static final int MAX_QUERY_LIMIT = 1000;
+
+    /**
+     * 多行INSERT每条事件6个参数，100条不会超出SQLite默认的999个参数限制
+     */
+    private static final int MAX_EVENT_BATCH_SIZE = 100;
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    private static final long[] NO_FENCES = new long[0];
+
+    @Resource
+    private GeofenceMapper geofenceMapper;
+
+    @Resource
+    private GeofenceEventMapper geofenceEventMapper;
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    @Autowired(required = false)
+    private List<GeofenceEventListener> geofenceEventListeners = Collections.emptyList();
+
+    /**
+     * 围栏ID -> 围栏，包含停用的围栏
+     */
+    private final ConcurrentHashMap<Long, GeofenceEntity> fences = new ConcurrentHashMap<>();
+
+    /**
+     * 围栏ID -> 几何形状，只包含启用的围栏
+     */
+    private final ConcurrentHashMap<Long, Geofence> shapes = new ConcurrentHashMap<>();
+
+    /**
+     * 设备唯一标识 -> 设备的围栏状态
+     */
+    private final ConcurrentHashMap<String, DeviceState> deviceStates = new ConcurrentHashMap<>();
+
+    private volatile GeofenceIndex index;
+
+    private BlockingQueue<GeofenceEventEntity> eventQueue;
+
+    private Thread eventWriterThread;
+
+    private volatile boolean running;
+
+    private Counter enterCounter;
+
+    private Counter exitCounter;
+
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void start() {
+        LocationProperties.Geofence config = locationProperties.getGeofence();
+        index = new GeofenceIndex(Collections.emptyList(), config.getCellSizeDegrees(),
+                config.getMaxCellsPerFence());
+        eventQueue = new ArrayBlockingQueue<>(config.getEventQueueCapacity());
+
+        Gauge.builder("location.geofence.fences", this, service -> service.index.size())
+                .description("已启用的地理围栏数").register(meterRegistry);
+        Gauge.builder("location.geofence.event.queue.size", eventQueue, BlockingQueue::size)
+                .description("等待写入的进出围栏事件数").register(meterRegistry);
+        enterCounter = eventCounter(GeofenceEventEntity.TYPE_ENTER);
+        exitCounter = eventCounter(GeofenceEventEntity.TYPE_EXIT);
+        droppedCounter = Counter.builder("location.geofence.events.dropped")
+                .description("写入队列已满被丢弃的进出围栏事件数").register(meterRegistry);
+
+        running = true;
+        eventWriterThread = new Thread(this::runEventWriter, "geofence-event-writer");
+        eventWriterThread.setDaemon(true);
+        eventWriterThread.start();
+    }
+
+    private Counter eventCounter(String type) {
+        return Counter.builder("location.geofence.events").tag("type", type)
+                .description("产生的进出围栏事件数").register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // 写线程会把队列中剩余事件写完再退出
+        running = false;
+        eventWriterThread.join(SHUTDOWN_TIMEOUT_MS);
+        if (!eventQueue.isEmpty()) {
+            log.warn("进出围栏事件写入停止时仍有 {} 条未写入", eventQueue.size());
+        }
+    }
+
+    /**
+     * 加载围栏，再用每台设备的最新位置初始化所在围栏，不产生事件，重启后不会对已在围栏内的设备重复产生进入事件
+     */
+    @Override
+    public void warmUp(List<LocationEntity> latest) {
+        for (GeofenceEntity fence : geofenceMapper.selectAllOrdered()) {
+            fences.put(fence.getTid(), fence);
+            if (Boolean.TRUE.equals(fence.getEnabled())) {
+                try {
+                    shapes.put(fence.getTid(), toShape(fence));
+                } catch (IOException | IllegalArgumentException e) {
+                    log.error("地理围栏数据无效，已跳过. fence={}", fence, e);
+                }
+            }
+        }
+        rebuildIndex();
+        GeofenceIndex current = index;
+        if (!current.isEmpty()) {
+            for (LocationEntity location : latest) {
+                evaluate(location, current, false, null);
+            }
+        }
+        log.info("地理围栏加载完成. fences={}, enabled={}", fences.size(), current.size());
+    }
+
+    @Override
+    public void onCommitted(List<LocationEntity> entities) {
+        GeofenceIndex current = index;
+        if (current.isEmpty()) {
+            return;
+        }
+        List<GeofenceEventEntity> events = null;
+        for (LocationEntity entity : entities) {
+            events = evaluate(entity, current, true, events);
+        }
+        if (events != null) {
+            publish(events);
+        }
+    }
+
+    /**
+     * 判断一个点，与设备上一次所在的围栏比较产生进出事件
+     * 
+     * @param location 位置数据
+     * @param current 围栏索引
+     * @param emit 是否产生事件，预热时只记录状态
+     * @param events 事件输出，为null时按需创建
+     * @return 事件输出
+     */
+    private List<GeofenceEventEntity> evaluate(LocationEntity location, GeofenceIndex current, boolean emit,
+                                               List<GeofenceEventEntity> events) {
+        long[] inside = current.containing(location.getLatitude(), location.getLongitude());
+        long timestamp = location.getLocationTimestamp();
+        long[][] previous = new long[1][];
+        // 同一设备的判断在compute中串行，并发写入同一设备时不会漏掉或重复产生事件
+        deviceStates.compute(location.getDeviceId(), (deviceId, state) -> {
+            if (state != null && state.timestamp >= timestamp) {
+                // 乱序上传的旧位置
+                return state;
+            }
+            previous[0] = state == null ? NO_FENCES : state.inside;
+            return new DeviceState(timestamp, inside);
+        });
+        if (!emit || previous[0] == null) {
+            return events;
+        }
+        return diff(previous[0], inside, current, location, events);
+    }
+
+    /**
+     * 比较两个升序的围栏ID数组，已删除或停用的围栏不产生离开事件
+     */
+    private static List<GeofenceEventEntity> diff(long[] previous, long[] inside, GeofenceIndex current,
+                                                  LocationEntity location, List<GeofenceEventEntity> events) {
+        int i = 0;
+        int j = 0;
+        while (i < previous.length || j < inside.length) {
+            if (j >= inside.length || (i < previous.length && previous[i] < inside[j])) {
+                if (current.get(previous[i]) != null) {
+                    events = add(events, new GeofenceEventEntity(previous[i], GeofenceEventEntity.TYPE_EXIT,
+                            location));
+                }
+                i++;
+            } else if (i >= previous.length || inside[j] < previous[i]) {
+                events = add(events, new GeofenceEventEntity(inside[j], GeofenceEventEntity.TYPE_ENTER, location));
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return events;
+    }
+
+    private static List<GeofenceEventEntity> add(List<GeofenceEventEntity> events, GeofenceEventEntity event) {
+        List<GeofenceEventEntity> result = events == null ? new ArrayList<>(4) : events;
+        result.add(event);
+        return result;
+    }
+
+    private void publish(List<GeofenceEventEntity> events) {
+        for (GeofenceEventEntity event : events) {
+            (GeofenceEventEntity.TYPE_ENTER.equals(event.getEventType()) ? enterCounter : exitCounter).increment();
+        }
+        for (GeofenceEventListener listener : geofenceEventListeners) {
+            try {
+                listener.onGeofenceEvents(events);
+            } catch (RuntimeException e) {
+                log.error("进出围栏事件回调失败. listener={}", listener.getClass().getSimpleName(), e);
+            }
+        }
+        int dropped = 0;
+        for (GeofenceEventEntity event : events) {
+            if (!eventQueue.offer(event)) {
+                dropped++;
+            }
+        }
+        if (dropped > 0) {
+            droppedCounter.increment(dropped);
+            log.warn("进出围栏事件写入队列已满，丢弃 {} 条", dropped);
+        }
+    }
+
+    private void runEventWriter() {
+        int batchSize = Math.min(locationProperties.getGeofence().getEventBatchSize(), MAX_EVENT_BATCH_SIZE);
+        List<GeofenceEventEntity> batch = new ArrayList<>(batchSize);
+        while (running || !eventQueue.isEmpty()) {
+            try {
+                GeofenceEventEntity first = eventQueue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                eventQueue.drainTo(batch, batchSize - 1);
+                geofenceEventMapper.insertBatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("进出围栏事件写入失败，已丢弃 {} 条", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    @Override
+    public ResponseResult<GeofenceEntity> createGeofence(GeofenceDTO geofenceDTO) {
+        GeofenceEntity fence = new GeofenceEntity();
+        Geofence shape;
+        try {
+            shape = applyDTO(fence, geofenceDTO);
+        } catch (IllegalArgumentException e) {
+            return ResponseResult.fail(ResponseResult.STATUS_CODE_INVALID_PARAMETER, e.getMessage());
+        }
+        geofenceMapper.insertFence(fence);
+        Date now = new Date();
+        fence.setCreateTime(now);
+        fence.setUpdateTime(now);
+        synchronized (this) {
+            fences.put(fence.getTid(), fence);
+            if (fence.getEnabled()) {
+                shapes.put(fence.getTid(), withId(shape, fence));
+            }
+            rebuildIndex();
+        }
+        return ResponseResult.success(fence, "围栏创建成功");
+    }
+
+    @Override
+    public ResponseResult<GeofenceEntity> updateGeofence(Long id, GeofenceDTO geofenceDTO) {
+        GeofenceEntity existing = fences.get(id);
+        if (existing == null) {
+            return ResponseResult.fail("围栏不存在: " + id);
+        }
+        GeofenceEntity fence = new GeofenceEntity();
+        fence.setTid(id);
+        fence.setCreateTime(existing.getCreateTime());
+        Geofence shape;
+        try {
+            shape = applyDTO(fence, geofenceDTO);
+        } catch (IllegalArgumentException e) {
+            return ResponseResult.fail(ResponseResult.STATUS_CODE_INVALID_PARAMETER, e.getMessage());
+        }
+        if (geofenceMapper.updateFence(fence) == 0) {
+            return ResponseResult.fail("围栏不存在: " + id);
+        }
+        fence.setUpdateTime(new Date());
+        synchronized (this) {
+            fences.put(id, fence);
+            if (fence.getEnabled()) {
+                shapes.put(id, shape);
+            } else {
+                shapes.remove(id);
+            }
+            rebuildIndex();
+        }
+        return ResponseResult.success(fence, "围栏修改成功");
+    }
+
+    @Override
+    public ResponseResult<Void> deleteGeofence(Long id) {
+        if (geofenceMapper.deleteById(id) == 0) {
+            return ResponseResult.fail("围栏不存在: " + id);
+        }
+        synchronized (this) {
+            fences.remove(id);
+            shapes.remove(id);
+            rebuildIndex();
+        }
+        return ResponseResult.success("围栏删除成功");
+    }
+
+    @Override
+    public ResponseResult<GeofenceEntity> getGeofence(Long id) {
+        GeofenceEntity fence = fences.get(id);
+        if (fence == null) {
+            return ResponseResult.fail("围栏不存在: " + id);
+        }
+        return ResponseResult.success(fence);
+    }
+
+    @Override
+    public ResponseResult<List<GeofenceEntity>> listGeofences() {
+        List<GeofenceEntity> result = new ArrayList<>(fences.values());
+        result.sort((a, b) -> Long.compare(a.getTid(), b.getTid()));
+        return ResponseResult.success(result, "查询成功，共 " + result.size() + " 个围栏");
+    }
+
+    @Override
+    public ResponseResult<List<Long>> getDeviceGeofences(String deviceId) {
+        DeviceState state = deviceStates.get(deviceId);
+        GeofenceIndex current = index;
+        List<Long> result = new ArrayList<>();
+        if (state != null) {
+            for (long fenceId : state.inside) {
+                if (current.get(fenceId) != null) {
+                    result.add(fenceId);
+                }
+            }
+        }
+        return ResponseResult.success(result, "设备当前在 " + result.size() + " 个围栏内");
+    }
+
+    @Override
+    public ResponseResult<List<GeofenceEventEntity>> queryEvents(String deviceId, Long fenceId, Long from, Long to,
+                                                                 Integer limit) {
+        if ((deviceId == null || deviceId.isEmpty()) && fenceId == null) {
+            return ResponseResult.fail(ResponseResult.STATUS_CODE_INVALID_PARAMETER, "需要指定设备ID或围栏ID");
+        }
+        int size = limit == null || limit <= 0 ? DEFAULT_QUERY_LIMIT : Math.min(limit, MAX_QUERY_LIMIT);
+        List<GeofenceEventEntity> events = geofenceEventMapper.selectEvents(
+                deviceId == null || deviceId.isEmpty() ? null : deviceId, fenceId, from, to, size);
+        return ResponseResult.success(events, "查询成功，共 " + events.size() + " 条事件");
+    }
+
+    /**
+     * 校验参数并填充围栏实体
+     * 
+     * @param fence 围栏实体
+     * @param dto 围栏参数
+     * @return 几何形状，ID为0，创建时主键生成后再替换
+     * @throws IllegalArgumentException 参数不合法
+     */
+    private Geofence applyDTO(GeofenceEntity fence, GeofenceDTO dto) {
+        LocationProperties.Geofence config = locationProperties.getGeofence();
+        fence.setName(dto.getName().trim());
+        fence.setFenceType(dto.getType());
+        fence.setEnabled(dto.getEnabled() == null || dto.getEnabled());
+        long id = fence.getTid() == null ? 0 : fence.getTid();
+        if (GeofenceEntity.TYPE_CIRCLE.equals(dto.getType())) {
+            if (dto.getLatitude() == null || dto.getLongitude() == null) {
+                throw new IllegalArgumentException("圆形围栏的圆心经纬度不能为空");
+            }
+            validateCoordinate(dto.getLatitude(), dto.getLongitude());
+            if (dto.getRadius() == null || !(dto.getRadius() > 0) || dto.getRadius() > config.getMaxRadiusMeters()) {
+                throw new IllegalArgumentException("圆形围栏半径必须大于0且不超过 " + config.getMaxRadiusMeters() + " 米");
+            }
+            fence.setLatitude(dto.getLatitude());
+            fence.setLongitude(dto.getLongitude());
+            fence.setRadius(dto.getRadius());
+            return Geofence.circle(id, dto.getLatitude(), dto.getLongitude(), dto.getRadius());
+        }
+
+        List<double[]> coordinates = dto.getCoordinates();
+        if (coordinates == null || coordinates.size() < 3 || coordinates.size() > config.getMaxPolygonVertices()) {
+            throw new IllegalArgumentException("多边形围栏顶点数必须在3到" + config.getMaxPolygonVertices() + "之间");
+        }
+        double[] latitudes = new double[coordinates.size()];
+        double[] longitudes = new double[coordinates.size()];
+        for (int i = 0; i < coordinates.size(); i++) {
+            double[] vertex = coordinates.get(i);
+            if (vertex == null || vertex.length != 2) {
+                throw new IllegalArgumentException("多边形顶点格式应为 [经度,纬度]");
+            }
+            validateCoordinate(vertex[1], vertex[0]);
+            longitudes[i] = vertex[0];
+            latitudes[i] = vertex[1];
+        }
+        Geofence shape = Geofence.polygon(id, latitudes, longitudes);
+        if (shape.getMaxLongitude() - shape.getMinLongitude() > 180.0) {
+            throw new IllegalArgumentException("多边形经度跨度不能超过180度，不支持跨越180度经线");
+        }
+        try {
+            fence.setCoordinates(objectMapper.writeValueAsString(coordinates));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("多边形顶点格式错误", e);
+        }
+        return shape;
+    }
+
+    private static void validateCoordinate(double latitude, double longitude) {
+        if (latitude < -90.0 || latitude > 90.0) {
+            throw new IllegalArgumentException("纬度必须在-90到90之间");
+        }
+        if (longitude < -180.0 || longitude > 180.0) {
+            throw new IllegalArgumentException("经度必须在-180到180之间");
+        }
+    }
+
+    /**
+     * 从数据库中的围栏构造几何形状
+     */
+    private Geofence toShape(GeofenceEntity fence) throws IOException {
+        if (GeofenceEntity.TYPE_CIRCLE.equals(fence.getFenceType())) {
+            return Geofence.circle(fence.getTid(), fence.getLatitude(), fence.getLongitude(), fence.getRadius());
+        }
+        double[][] coordinates = objectMapper.readValue(fence.getCoordinates(), double[][].class);
+        double[] latitudes = new double[coordinates.length];
+        double[] longitudes = new double[coordinates.length];
+        for (int i = 0; i < coordinates.length; i++) {
+            longitudes[i] = coordinates[i][0];
+            latitudes[i] = coordinates[i][1];
+        }
+        return Geofence.polygon(fence.getTid(), latitudes, longitudes);
+    }
+
+    /**
+     * 创建时几何形状先于主键生成，主键生成后按实体重新构造
+     */
+    private Geofence withId(Geofence shape, GeofenceEntity fence) {
+        if (shape.getId() == fence.getTid()) {
+            return shape;
+        }
+        try {
+            return toShape(fence);
+        } catch (IOException e) {
+            throw new IllegalStateException("多边形顶点格式错误", e);
+        }
+    }
+
+    private synchronized void rebuildIndex() {
+        LocationProperties.Geofence config = locationProperties.getGeofence();
+        index = new GeofenceIndex(new ArrayList<>(shapes.values()), config.getCellSizeDegrees(),
+                config.getMaxCellsPerFence());
+    }
+
+    /**
+     * 设备的围栏状态，创建后不可变
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class DeviceState {
+
+        /**
+         * 最后判断的位置时间戳
+         */
+        private final long timestamp;
+
+        /**
+         * 所在的围栏ID，升序
+         */
+        private final long[] inside;
+
+        private DeviceState(long timestamp, long[] inside) {
+            this.timestamp = timestamp;
+            this.inside = inside;
+        }
+    }
+}
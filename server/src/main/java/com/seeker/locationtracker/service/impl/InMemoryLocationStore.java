@@ -0,0 +1,170 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.LocationIngestListener;
+import com.seeker.locationtracker.service.LocationStore;
+import com.seeker.locationtracker.util.GeoHashUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 纯内存的位置数据存储，每台设备一个按位置时间排序的跳表
+ * 
+ * <p>不持久化，进程退出后数据丢失，只用于测试和对比：app.location.store=memory 时作为服务端的存储，
+ * LocationStoreConformanceTest 用它验证接口约定本身，基准测试用它作为与SQLite存储对比的下限，测试中可以直接创建。
+ * 写入、查询和删除都不加全局锁，可并发调用；批量写入逐条生效，不是原子的。</p>
+ * 
+ * <p>写入时保存传入实体的副本并在副本上分配自增主键，不修改传入的实体。查询返回保存的对象本身，调用方不应修改。</p>
+ * 
+ * <p>作为Spring Bean时与SQLite存储一样，写入后在写入线程上回调写入监听器，最新位置缓存、空间索引等内存视图随之更新；
+ * 按位置时间删除同样不更新这些视图。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.location", name = "store", havingValue = "memory")
+public class InMemoryLocationStore implements LocationStore {
+
+    /**
+     * 设备唯一标识 -> 位置时间戳 -> 位置数据
+     */
+    private final Map<String, ConcurrentSkipListMap<Long, LocationEntity>> devices = new ConcurrentHashMap<>();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /**
+     * 写入监听器，直接创建时为空
+     */
+    @Autowired(required = false)
+    private List<LocationIngestListener> locationIngestListeners = Collections.emptyList();
+
+    @Override
+    public String name() {
+        return "memory";
+    }
+
+    @Override
+    public int append(LocationEntity entity) {
+        return appendBatch(Collections.singletonList(entity))[0];
+    }
+
+    @Override
+    public int[] appendBatch(List<LocationEntity> entities) {
+        Date now = new Date();
+        int[] counts = new int[entities.size()];
+        List<LocationEntity> inserted = new ArrayList<>(entities.size());
+        List<LocationEntity> ignored = new ArrayList<>(0);
+        for (int i = 0; i < counts.length; i++) {
+            LocationEntity stored = insert(entities.get(i), now);
+            if (stored != null) {
+                counts[i] = 1;
+                inserted.add(stored);
+            } else {
+                ignored.add(entities.get(i));
+            }
+        }
+        notifyListeners(inserted, ignored);
+        return counts;
+    }
+
+    /**
+     * 保存一条位置数据
+     * 
+     * @param entity 位置实体
+     * @param now 当前时间
+     * @return 保存的副本，同一设备同一位置时间的数据已存在时返回null
+     */
+    private LocationEntity insert(LocationEntity entity, Date now) {
+        ConcurrentSkipListMap<Long, LocationEntity> track =
+                devices.computeIfAbsent(entity.getDeviceId(), key -> new ConcurrentSkipListMap<>());
+        if (track.containsKey(entity.getLocationTimestamp())) {
+            return null;
+        }
+        // 与SQLite存储一致：补齐地理哈希和时间列，主键在确认不重复后分配
+        LocationEntity stored = SqliteLocationStore.copy(entity, now);
+        if (stored.getGeohash() == null) {
+            stored.setGeohash(GeoHashUtils.encode(stored.getLatitude(), stored.getLongitude()));
+        }
+        stored.setTid(sequence.incrementAndGet());
+        return track.putIfAbsent(stored.getLocationTimestamp(), stored) == null ? stored : null;
+    }
+
+    /**
+     * 与 LocationWriteService 提交后一样回调写入监听器，监听器的异常只记录日志
+     */
+    private void notifyListeners(List<LocationEntity> inserted, List<LocationEntity> ignored) {
+        for (LocationIngestListener listener : locationIngestListeners) {
+            try {
+                if (!inserted.isEmpty()) {
+                    listener.onCommitted(inserted);
+                }
+                if (!ignored.isEmpty()) {
+                    listener.onIgnored(ignored);
+                }
+            } catch (RuntimeException e) {
+                log.error("位置数据写入监听器执行失败. listener={}", listener.getClass().getSimpleName(), e);
+            }
+        }
+    }
+
+    @Override
+    public LocationEntity latest(String deviceId) {
+        ConcurrentSkipListMap<Long, LocationEntity> track = devices.get(deviceId);
+        if (track == null) {
+            return null;
+        }
+        Map.Entry<Long, LocationEntity> last = track.lastEntry();
+        return last == null ? null : last.getValue();
+    }
+
+    @Override
+    public List<LocationEntity> track(String deviceId, Long from, Long to, int limit) {
+        ConcurrentSkipListMap<Long, LocationEntity> track = devices.get(deviceId);
+        if (track == null || limit <= 0) {
+            return new ArrayList<>();
+        }
+        ConcurrentNavigableMap<Long, LocationEntity> range = track;
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, false);
+        }
+        List<LocationEntity> result = new ArrayList<>(Math.min(limit, 128));
+        for (LocationEntity entity : range.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(entity);
+        }
+        return result;
+    }
+
+    @Override
+    public long deleteBefore(long locationTimestamp) {
+        long deleted = 0;
+        for (ConcurrentSkipListMap<Long, LocationEntity> track : devices.values()) {
+            // 逐条从头部删除，不需要先统计区间大小（跳表的size()要遍历）
+            NavigableMap<Long, LocationEntity> expired = track.headMap(locationTimestamp, false);
+            while (expired.pollFirstEntry() != null) {
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+}
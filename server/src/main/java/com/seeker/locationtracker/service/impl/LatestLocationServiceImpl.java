@@ -0,0 +1,71 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.LatestLocationService;
+import com.seeker.locationtracker.service.LocationIngestListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 设备最新位置服务实现类
+ * 
+ * <p>启动时由预热任务加载每台设备的最新位置，之后作为写入监听器在提交成功后更新。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Service
+public class LatestLocationServiceImpl implements LatestLocationService, LocationIngestListener {
+
+    private final ConcurrentHashMap<String, LocationEntity> latestByDevice = new ConcurrentHashMap<>();
+
+    @Override
+    public void update(List<LocationEntity> entities) {
+        for (LocationEntity entity : entities) {
+            latestByDevice.merge(entity.getDeviceId(), entity, LatestLocationServiceImpl::newer);
+        }
+    }
+
+    @Override
+    public void onCommitted(List<LocationEntity> entities) {
+        update(entities);
+    }
+
+    @Override
+    public void warmUp(List<LocationEntity> latest) {
+        update(latest);
+    }
+
+    @Override
+    public LocationEntity getLatest(String deviceId) {
+        return latestByDevice.get(deviceId);
+    }
+
+    @Override
+    public Map<String, LocationEntity> getLatest(Collection<String> deviceIds) {
+        Map<String, LocationEntity> result = new LinkedHashMap<>(deviceIds.size() * 2);
+        for (String deviceId : deviceIds) {
+            LocationEntity entity = latestByDevice.get(deviceId);
+            if (entity != null) {
+                result.put(deviceId, entity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 取位置时间戳较新的一条，相同时保留已有数据，乱序上传的旧数据不会覆盖新数据
+     * 
+     * @param current 已缓存数据
+     * @param candidate 新数据
+     * @return 较新的数据
+     */
+    private static LocationEntity newer(LocationEntity current, LocationEntity candidate) {
+        return candidate.getLocationTimestamp() > current.getLocationTimestamp() ? candidate : current;
+    }
+}
@@ -0,0 +1,833 @@
+package com.seeker.locationtracker.service.impl;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.seeker.locationtracker.common.archive.LocationSegment;
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.mapper.LocationMapper;
+import com.seeker.locationtracker.model.dto.TrackQueryDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.entity.LocationPartitionEntity;
+import com.seeker.locationtracker.model.vo.TrackPointVO;
+import com.seeker.locationtracker.service.LocationArchiveService;
+import com.seeker.locationtracker.service.LocationPartitionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 位置数据冷归档服务实现类
+ * 
+ * <p>段文件按 {归档目录}/{yyyyMMdd}/{设备唯一标识的十六进制}.seg 存放，格式见 LocationSegment。
+ * 启动时扫描目录、只读取各段文件的文件头，建立 设备 -> 日期 -> 当天段文件 的内存目录，查询只读目录、不访问文件系统元数据；
+ * 段文件在第一次查询时通过内存映射读取，最近使用的映射保存在LRU缓存中。</p>
+ * 
+ * <p>归档按轨迹索引顺序分页读取分区表（每页一个短查询，不在整个归档过程中持有读事务），
+ * 同一设备同一天的数据攒齐后写段文件（先写临时文件、刷盘，再原子替换），
+ * 成功后按 (设备, 日期, 主键上限) 删除SQLite中的对应行，归档之后补传的数据留在SQLite。
+ * 下次归档时补传的数据写入当天的增量段 {设备唯一标识的十六进制}.{最大主键}.seg，不重写已有段文件；
+ * 查询时按 (LOCATION_TIMESTAMP, TID) 合并当天的全部段文件，不同段文件中位置时间相同的行只保留主键最小的一条。
+ * 一天的增量段超过 max-delta-segments 个时，在归档结束时合并回基础段。
+ * 删除前查询可能同时读到两层中的同一行，合并时按主键去重。</p>
+ * 
+ * <p>段文件的写入和删除串行执行，读取不加锁：替换和删除文件不影响已经映射的旧文件内容。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class LocationArchiveServiceImpl implements LocationArchiveService {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private static final DateTimeFormatter DAY_FORMATTER = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    @Resource
+    private LocationMapper locationMapper;
+
+    @Resource
+    private LocationPartitionService locationPartitionService;
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 按自然日归档使用的时区
+     */
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /**
+     * 设备唯一标识 -> 当天零点(毫秒时间戳) -> 当天段文件
+     */
+    private final ConcurrentHashMap<String, ConcurrentSkipListMap<Long, DaySegments>> catalog =
+            new ConcurrentHashMap<>();
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final AtomicLong segmentCount = new AtomicLong();
+
+    private final AtomicLong segmentBytes = new AtomicLong();
+
+    private Path root;
+
+    private LRUCache<Path, LocationSegment> mappedSegments;
+
+    private Timer durationTimer;
+
+    private Counter rowsArchivedCounter;
+
+    private Counter segmentsWrittenCounter;
+
+    private Counter compactionsCounter;
+
+    @PostConstruct
+    public void init() {
+        LocationProperties.Archive config = locationProperties.getArchive();
+        root = Paths.get(config.getPath()).toAbsolutePath();
+        mappedSegments = CacheUtil.newLRUCache(config.getMappedSegmentCacheSize());
+        loadCatalog();
+
+        durationTimer = Timer.builder("location.archive.duration")
+                .description("冷数据归档耗时").register(meterRegistry);
+        rowsArchivedCounter = Counter.builder("location.archive.rows")
+                .description("归档并从SQLite删除的行数").register(meterRegistry);
+        segmentsWrittenCounter = Counter.builder("location.archive.segments.written")
+                .description("写入的段文件数（含增量段和合并）").register(meterRegistry);
+        compactionsCounter = Counter.builder("location.archive.compactions")
+                .description("增量段合并回基础段的次数").register(meterRegistry);
+        Gauge.builder("location.archive.segments", segmentCount, AtomicLong::get)
+                .description("段文件个数").register(meterRegistry);
+        Gauge.builder("location.archive.bytes", segmentBytes, AtomicLong::get)
+                .description("段文件总字节数").register(meterRegistry);
+    }
+
+    @Override
+    public boolean runArchive() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("冷数据归档正在运行，跳过本次触发");
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            long before = LocalDate.now(zone).minusDays(locationProperties.getArchive().getAfterDays())
+                    .atStartOfDay(zone).toInstant().toEpochMilli();
+            long rowsBefore = (long) rowsArchivedCounter.count();
+            long segmentsBefore = (long) segmentsWrittenCounter.count();
+            for (LocationPartitionEntity partition : locationPartitionService.listPartitions()) {
+                if (partition.getStartTimestamp() >= before) {
+                    continue;
+                }
+                archivePartition(partition.getTableName(), before);
+            }
+            compactDeltas();
+            log.info("冷数据归档完成. before={}, rows={}, segments={}, costMs={}", before,
+                    (long) rowsArchivedCounter.count() - rowsBefore,
+                    (long) segmentsWrittenCounter.count() - segmentsBefore,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (Exception e) {
+            log.error("冷数据归档失败", e);
+        } finally {
+            durationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            running.set(false);
+        }
+        return true;
+    }
+
+    /**
+     * 按键集分页读取一个分区的待归档数据，每页一个短查询，写段文件和删除已归档的行在两页之间进行
+     */
+    private void archivePartition(String table, long before) {
+        int pageSize = Math.max(1, locationProperties.getArchive().getPageSize());
+        ArchiveWriter writer = new ArchiveWriter(table);
+        LocationEntity after = null;
+        List<LocationEntity> page;
+        do {
+            page = locationMapper.selectArchiveCandidates(table, before, after, pageSize);
+            for (LocationEntity entity : page) {
+                writer.add(entity);
+            }
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1);
+            }
+        } while (page.size() >= pageSize);
+        writer.flush();
+    }
+
+    @Override
+    public List<LocationEntity> selectTrackPage(TrackQueryDTO query) {
+        NavigableMap<Long, DaySegments> days = segmentsInRange(query.getDeviceId(), query.getFrom(), query.getTo());
+        if (days.isEmpty()) {
+            return Collections.emptyList();
+        }
+        long from = query.getFrom() == null ? Long.MIN_VALUE : query.getFrom();
+        long to = query.getTo() == null ? Long.MAX_VALUE : query.getTo();
+        Long cursorTimestamp = query.getCursorTimestamp();
+        List<LocationEntity> records = new ArrayList<>();
+        for (DaySegments day : days.values()) {
+            if (day.maxTimestamp < from || day.minTimestamp >= to
+                    || (cursorTimestamp != null && day.maxTimestamp < cursorTimestamp)) {
+                continue;
+            }
+            DayCursor cursor = open(day, true);
+            if (cursor == null) {
+                continue;
+            }
+            while (cursor.next()) {
+                long timestamp = cursor.getTimestamp();
+                if (timestamp >= to) {
+                    break;
+                }
+                if (timestamp < from || (cursorTimestamp != null && (timestamp < cursorTimestamp
+                        || (timestamp == cursorTimestamp && cursor.getTid() <= query.getCursorTid())))) {
+                    continue;
+                }
+                records.add(cursor.toEntity());
+                if (records.size() >= query.getLimit()) {
+                    return records;
+                }
+            }
+        }
+        return records;
+    }
+
+    @Override
+    public Iterator<TrackPointVO> trackPoints(String deviceId, long from, long to) {
+        return new PointIterator(segmentsInRange(deviceId, from, to).values().iterator(), from, to);
+    }
+
+    @Override
+    public synchronized int purgeExpired(long cutoff) {
+        int purged = 0;
+        for (Map.Entry<String, ConcurrentSkipListMap<Long, DaySegments>> entry : catalog.entrySet()) {
+            for (Map.Entry<Long, DaySegments> dayEntry : entry.getValue().entrySet()) {
+                DaySegments day = dayEntry.getValue();
+                // 合并过补传数据的段文件以最晚的创建时间为准，当天全部过期才删除
+                if (day.maxCreateTime >= cutoff) {
+                    continue;
+                }
+                List<SegmentFile> remaining = new ArrayList<>();
+                for (SegmentFile file : day.files) {
+                    if (deleteSegmentFile(file)) {
+                        purged++;
+                    } else {
+                        remaining.add(file);
+                    }
+                }
+                if (remaining.isEmpty()) {
+                    entry.getValue().remove(dayEntry.getKey());
+                } else {
+                    entry.getValue().put(dayEntry.getKey(), new DaySegments(remaining));
+                }
+            }
+            if (entry.getValue().isEmpty()) {
+                catalog.remove(entry.getKey());
+            }
+        }
+        if (purged > 0) {
+            deleteEmptyDayDirectories();
+            log.info("过期段文件已删除. cutoff={}, segments={}", cutoff, purged);
+        }
+        return purged;
+    }
+
+    /**
+     * 删除段文件并更新统计，不修改目录
+     * 
+     * @return 是否已删除
+     */
+    private boolean deleteSegmentFile(SegmentFile file) {
+        try {
+            Files.deleteIfExists(file.path);
+        } catch (IOException e) {
+            log.warn("删除段文件失败. path={}", file.path, e);
+            return false;
+        }
+        mappedSegments.remove(file.path);
+        segmentCount.decrementAndGet();
+        segmentBytes.addAndGet(-file.size);
+        return true;
+    }
+
+    /**
+     * 查找与时间范围相交的段文件，段文件以当天零点为键，开始时间所在的那一天也包含在内
+     */
+    private NavigableMap<Long, DaySegments> segmentsInRange(String deviceId, Long from, Long to) {
+        NavigableMap<Long, DaySegments> days = catalog.get(deviceId);
+        if (days == null) {
+            return Collections.emptyNavigableMap();
+        }
+        if (from != null) {
+            days = days.tailMap(dayStart(from), true);
+        }
+        if (to != null) {
+            days = days.headMap(to, false);
+        }
+        return days;
+    }
+
+    /**
+     * 打开段文件，已映射的直接复用
+     * 
+     * @return 段文件已被删除时返回null
+     */
+    private LocationSegment open(SegmentFile file) {
+        LocationSegment segment = mappedSegments.get(file.path);
+        if (segment != null) {
+            return segment;
+        }
+        try {
+            segment = map(file.path);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取段文件失败: " + file.path, e);
+        }
+        mappedSegments.put(file.path, segment);
+        return segment;
+    }
+
+    /**
+     * 打开一天的全部段文件，按 (LOCATION_TIMESTAMP, TID) 合并遍历
+     * 
+     * @param full 是否解码全部列
+     * @return 段文件都已被删除时返回null
+     */
+    private DayCursor open(DaySegments day, boolean full) {
+        List<LocationSegment.Cursor> cursors = new ArrayList<>(day.files.size());
+        for (SegmentFile file : day.files) {
+            LocationSegment segment = open(file);
+            if (segment != null) {
+                cursors.add(segment.cursor(full));
+            }
+        }
+        return cursors.isEmpty() ? null : new DayCursor(cursors);
+    }
+
+    private static LocationSegment map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return LocationSegment.wrap(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * 写入一个设备一天的段文件：当天还没有段文件时写基础段，否则写增量段，不重写已有的段文件
+     * 
+     * @param rows 同一设备同一天的位置数据，按位置时间、主键升序
+     */
+    private synchronized void writeSegment(String deviceId, long dayStart, List<LocationEntity> rows)
+            throws IOException {
+        ConcurrentSkipListMap<Long, DaySegments> days = catalog.computeIfAbsent(deviceId,
+                key -> new ConcurrentSkipListMap<>());
+        DaySegments existing = days.get(dayStart);
+        String name = fileName(deviceId);
+        if (existing != null) {
+            // 上次归档后、删除前崩溃会再次归档同一批行，最大主键相同，覆盖同名的增量段
+            long maxTid = Long.MIN_VALUE;
+            for (LocationEntity row : rows) {
+                maxTid = Math.max(maxTid, row.getTid());
+            }
+            name = deltaFileName(deviceId, maxTid);
+        }
+        SegmentFile written = writeFile(dayStart, name, LocationSegment.encode(deviceId, rows));
+        List<SegmentFile> files = new ArrayList<>();
+        if (existing != null) {
+            for (SegmentFile file : existing.files) {
+                if (file.path.equals(written.path)) {
+                    segmentCount.decrementAndGet();
+                    segmentBytes.addAndGet(-file.size);
+                } else {
+                    files.add(file);
+                }
+            }
+        }
+        files.add(written);
+        days.put(dayStart, new DaySegments(files));
+    }
+
+    /**
+     * 增量段达到上限的日期合并回基础段，归档结束时执行
+     */
+    private void compactDeltas() throws IOException {
+        int maxDeltaSegments = Math.max(1, locationProperties.getArchive().getMaxDeltaSegments());
+        for (Map.Entry<String, ConcurrentSkipListMap<Long, DaySegments>> entry : catalog.entrySet()) {
+            for (Map.Entry<Long, DaySegments> dayEntry : entry.getValue().entrySet()) {
+                if (dayEntry.getValue().files.size() - 1 > maxDeltaSegments) {
+                    compact(entry.getKey(), dayEntry.getKey());
+                }
+            }
+        }
+    }
+
+    /**
+     * 把一天的全部段文件按查询时的合并规则重写为一个基础段，再删除增量段。
+     * 删除增量段前崩溃时，重复的行在查询合并时去掉，下次合并时清理
+     */
+    private synchronized void compact(String deviceId, long dayStart) throws IOException {
+        ConcurrentSkipListMap<Long, DaySegments> days = catalog.get(deviceId);
+        DaySegments day = days == null ? null : days.get(dayStart);
+        if (day == null || day.files.size() < 2) {
+            return;
+        }
+        List<LocationEntity> rows = new ArrayList<>();
+        List<LocationSegment.Cursor> cursors = new ArrayList<>(day.files.size());
+        for (SegmentFile file : day.files) {
+            cursors.add(map(file.path).cursor(true));
+        }
+        DayCursor cursor = new DayCursor(cursors);
+        while (cursor.next()) {
+            rows.add(cursor.toEntity());
+        }
+        SegmentFile base = writeFile(dayStart, fileName(deviceId), LocationSegment.encode(deviceId, rows));
+        for (SegmentFile file : day.files) {
+            if (file.path.equals(base.path)) {
+                segmentCount.decrementAndGet();
+                segmentBytes.addAndGet(-file.size);
+            } else {
+                deleteSegmentFile(file);
+            }
+        }
+        days.put(dayStart, new DaySegments(Collections.singletonList(base)));
+        compactionsCounter.increment();
+    }
+
+    /**
+     * 先写临时文件、刷盘，再原子替换目标文件，计入段文件统计
+     */
+    private SegmentFile writeFile(long dayStart, String name, byte[] data) throws IOException {
+        Path directory = root.resolve(Instant.ofEpochMilli(dayStart).atZone(zone).format(DAY_FORMATTER));
+        Files.createDirectories(directory);
+        Path target = directory.resolve(name);
+        Path temp = directory.resolve(name + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(true);
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        mappedSegments.remove(target);
+        segmentsWrittenCounter.increment();
+        segmentCount.incrementAndGet();
+        segmentBytes.addAndGet(data.length);
+        return new SegmentFile(target, LocationSegment.wrap(ByteBuffer.wrap(data)).getHeader(), data.length);
+    }
+
+    /**
+     * 扫描归档目录建立内存目录，清理上次中断留下的临时文件
+     */
+    private void loadCatalog() {
+        if (!Files.isDirectory(root)) {
+            log.info("归档目录不存在，首次归档时创建. path={}", root);
+            return;
+        }
+        try (DirectoryStream<Path> dayDirectories = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dayDirectory : dayDirectories) {
+                long dayStart;
+                try {
+                    dayStart = LocalDate.parse(dayDirectory.getFileName().toString(), DAY_FORMATTER)
+                            .atStartOfDay(zone).toInstant().toEpochMilli();
+                } catch (DateTimeParseException e) {
+                    log.warn("忽略非归档日期目录. path={}", dayDirectory);
+                    continue;
+                }
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(dayDirectory)) {
+                    for (Path path : files) {
+                        String name = path.getFileName().toString();
+                        if (name.endsWith(TEMP_SUFFIX)) {
+                            Files.deleteIfExists(path);
+                        } else if (name.endsWith(SEGMENT_SUFFIX)) {
+                            registerOnLoad(path, dayStart);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("扫描归档目录失败: " + root, e);
+        }
+        log.info("归档目录加载完成. path={}, devices={}, segments={}, bytes={}", root, catalog.size(),
+                segmentCount.get(), segmentBytes.get());
+    }
+
+    /**
+     * 登记启动时已有的段文件，只读取文件头，段文件在第一次查询时再映射
+     */
+    private void registerOnLoad(Path path, long dayStart) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            LocationSegment.Header header = LocationSegment.readHeader(channel, size);
+            SegmentFile file = new SegmentFile(path, header, size);
+            catalog.computeIfAbsent(header.getDeviceId(), key -> new ConcurrentSkipListMap<>())
+                    .merge(dayStart, new DaySegments(Collections.singletonList(file)), DaySegments::plus);
+            segmentCount.incrementAndGet();
+            segmentBytes.addAndGet(size);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("忽略无法解析的段文件. path={}", path, e);
+        }
+    }
+
+    private void deleteEmptyDayDirectories() {
+        try (DirectoryStream<Path> dayDirectories = Files.newDirectoryStream(root, Files::isDirectory)) {
+            for (Path dayDirectory : dayDirectories) {
+                try {
+                    Files.delete(dayDirectory);
+                } catch (DirectoryNotEmptyException e) {
+                    // 仍有段文件
+                }
+            }
+        } catch (IOException e) {
+            log.warn("清理空归档目录失败. path={}", root, e);
+        }
+    }
+
+    private long dayStart(long timestamp) {
+        return Instant.ofEpochMilli(timestamp).atZone(zone).toLocalDate().atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * 设备唯一标识按UTF-8十六进制编码作为文件名，避免特殊字符和大小写不敏感的文件系统冲突
+     */
+    private static String fileName(String deviceId) {
+        return hex(deviceId).append(SEGMENT_SUFFIX).toString();
+    }
+
+    /**
+     * 增量段文件名：设备唯一标识的十六进制加增量段的最大主键
+     */
+    private static String deltaFileName(String deviceId, long maxTid) {
+        return hex(deviceId).append('.').append(maxTid).append(SEGMENT_SUFFIX).toString();
+    }
+
+    private static StringBuilder hex(String deviceId) {
+        byte[] bytes = deviceId.getBytes(StandardCharsets.UTF_8);
+        StringBuilder sb = new StringBuilder(bytes.length * 2 + 24);
+        for (byte b : bytes) {
+            sb.append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+        }
+        return sb;
+    }
+
+    /**
+     * 段文件目录项，保存文件头中的统计信息，查询时据此跳过不相交的段文件
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class SegmentFile {
+
+        private final Path path;
+
+        private final long minTimestamp;
+
+        private final long maxTimestamp;
+
+        private final long maxCreateTime;
+
+        private final long size;
+
+        SegmentFile(Path path, LocationSegment.Header header, long size) {
+            this.path = path;
+            this.minTimestamp = header.getMinTimestamp();
+            this.maxTimestamp = header.getMaxTimestamp();
+            this.maxCreateTime = header.getMaxCreateTime();
+            this.size = size;
+        }
+    }
+
+    /**
+     * 一个设备一天的段文件：基础段和之后补传数据的增量段，不可变，写入时整体替换
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class DaySegments {
+
+        private final List<SegmentFile> files;
+
+        private final long minTimestamp;
+
+        private final long maxTimestamp;
+
+        private final long maxCreateTime;
+
+        DaySegments(List<SegmentFile> files) {
+            this.files = files;
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            long createTime = Long.MIN_VALUE;
+            for (SegmentFile file : files) {
+                min = Math.min(min, file.minTimestamp);
+                max = Math.max(max, file.maxTimestamp);
+                createTime = Math.max(createTime, file.maxCreateTime);
+            }
+            this.minTimestamp = min;
+            this.maxTimestamp = max;
+            this.maxCreateTime = createTime;
+        }
+
+        DaySegments plus(DaySegments other) {
+            List<SegmentFile> merged = new ArrayList<>(files.size() + other.files.size());
+            merged.addAll(files);
+            merged.addAll(other.files);
+            return new DaySegments(merged);
+        }
+    }
+
+    /**
+     * 按 (LOCATION_TIMESTAMP, TID) 合并遍历一天的多个段文件。
+     * 不同段文件中位置时间相同的行是重复归档或重复补传的同一个点，只保留最先遇到（主键最小）的一条
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class DayCursor {
+
+        private final LocationSegment.Cursor[] cursors;
+
+        /**
+         * 各游标是否已移动到一行且未结束
+         */
+        private final boolean[] ready;
+
+        private LocationSegment.Cursor current;
+
+        private int currentIndex = -1;
+
+        DayCursor(List<LocationSegment.Cursor> cursors) {
+            this.cursors = cursors.toArray(new LocationSegment.Cursor[0]);
+            this.ready = new boolean[this.cursors.length];
+            for (int i = 0; i < this.cursors.length; i++) {
+                ready[i] = this.cursors[i].next();
+            }
+        }
+
+        boolean next() {
+            long previousTimestamp = current == null ? 0 : current.getTimestamp();
+            int previousIndex = currentIndex;
+            if (currentIndex >= 0) {
+                ready[currentIndex] = current.next();
+            }
+            while (true) {
+                int index = -1;
+                for (int i = 0; i < cursors.length; i++) {
+                    if (ready[i] && (index < 0 || before(cursors[i], cursors[index]))) {
+                        index = i;
+                    }
+                }
+                if (index < 0) {
+                    current = null;
+                    currentIndex = -1;
+                    return false;
+                }
+                if (previousIndex >= 0 && index != previousIndex
+                        && cursors[index].getTimestamp() == previousTimestamp) {
+                    ready[index] = cursors[index].next();
+                    continue;
+                }
+                current = cursors[index];
+                currentIndex = index;
+                return true;
+            }
+        }
+
+        private static boolean before(LocationSegment.Cursor a, LocationSegment.Cursor b) {
+            return a.getTimestamp() < b.getTimestamp()
+                    || (a.getTimestamp() == b.getTimestamp() && a.getTid() < b.getTid());
+        }
+
+        long getTimestamp() {
+            return current.getTimestamp();
+        }
+
+        long getTid() {
+            return current.getTid();
+        }
+
+        double getLatitude() {
+            return current.getLatitude();
+        }
+
+        double getLongitude() {
+            return current.getLongitude();
+        }
+
+        LocationEntity toEntity() {
+            return current.toEntity();
+        }
+    }
+
+    /**
+     * 归档写入：逐行接收按设备、位置时间排序的数据，同一设备同一天的数据攒齐后写段文件并删除SQLite中的对应行
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private final class ArchiveWriter {
+
+        private final String table;
+
+        private List<LocationEntity> group = new ArrayList<>();
+
+        private String deviceId;
+
+        private long dayStart;
+
+        private long dayEnd;
+
+        ArchiveWriter(String table) {
+            this.table = table;
+        }
+
+        void add(LocationEntity entity) {
+            if (!group.isEmpty() && (!entity.getDeviceId().equals(deviceId)
+                    || entity.getLocationTimestamp() >= dayEnd)) {
+                flush();
+            }
+            if (group.isEmpty()) {
+                deviceId = entity.getDeviceId();
+                LocalDate day = Instant.ofEpochMilli(entity.getLocationTimestamp()).atZone(zone).toLocalDate();
+                dayStart = day.atStartOfDay(zone).toInstant().toEpochMilli();
+                dayEnd = day.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+            }
+            group.add(entity);
+        }
+
+        void flush() {
+            if (group.isEmpty()) {
+                return;
+            }
+            long maxTid = Long.MIN_VALUE;
+            for (LocationEntity entity : group) {
+                maxTid = Math.max(maxTid, entity.getTid());
+            }
+            try {
+                writeSegment(deviceId, dayStart, group);
+            } catch (IOException e) {
+                throw new UncheckedIOException("写入段文件失败: " + deviceId + "@" + dayStart, e);
+            }
+            int deleted = locationMapper.deleteArchived(table, deviceId, dayStart, dayEnd, maxTid);
+            rowsArchivedCounter.increment(deleted);
+            group = new ArrayList<>();
+        }
+    }
+
+    /**
+     * 跨段文件按位置时间升序遍历轨迹点，只解码时间、主键和经纬度列
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private final class PointIterator implements Iterator<TrackPointVO> {
+
+        private final Iterator<DaySegments> days;
+
+        private final long from;
+
+        private final long to;
+
+        private DayCursor cursor;
+
+        private TrackPointVO next;
+
+        PointIterator(Iterator<DaySegments> days, long from, long to) {
+            this.days = days;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                if (cursor == null || !cursor.next()) {
+                    if (!openNextSegment()) {
+                        return false;
+                    }
+                    continue;
+                }
+                long timestamp = cursor.getTimestamp();
+                if (timestamp >= to) {
+                    cursor = null;
+                    continue;
+                }
+                if (timestamp >= from) {
+                    TrackPointVO point = new TrackPointVO();
+                    point.setLocationTimestamp(timestamp);
+                    point.setLatitude(cursor.getLatitude());
+                    point.setLongitude(cursor.getLongitude());
+                    next = point;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public TrackPointVO next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            TrackPointVO point = next;
+            next = null;
+            return point;
+        }
+
+        private boolean openNextSegment() {
+            while (days.hasNext()) {
+                DaySegments day = days.next();
+                if (day.maxTimestamp < from || day.minTimestamp >= to) {
+                    continue;
+                }
+                cursor = open(day, false);
+                if (cursor != null) {
+                    return true;
+                }
+            }
+            cursor = null;
+            return false;
+        }
+    }
+}
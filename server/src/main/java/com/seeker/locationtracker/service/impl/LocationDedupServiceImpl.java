@@ -0,0 +1,139 @@
+package com.seeker.locationtracker.service.impl;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.LocationDedupService;
+import com.seeker.locationtracker.service.LocationIngestListener;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.List;
+
+/**
+ * 重复上传过滤服务实现类
+ * 
+ * <p>每台设备用一个定长环形数组保存最近写入的位置时间，设备按LRU淘汰。只记录已提交的数据：
+ * 写入失败的数据重传时必须能再次写入，不能被误判为重复。</p>
+ * 
+ * <p>内存过滤只是快速路径，窗口之外的重传仍由唯一索引去重。堆内存随窗口和设备数线性增长，
+ * 每台设备约 8 × recent-per-device + 200 字节，默认窗口16个、10万台设备约33MB。</p>
+ * 
+ * <p>重复数据按来源计入 location.ingest.duplicates 指标：filter-写库前被内存过滤，index-被唯一索引忽略。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Service
+public class LocationDedupServiceImpl implements LocationDedupService, LocationIngestListener {
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private boolean enabled;
+
+    private int recentPerDevice;
+
+    private LRUCache<String, RecentTimestamps> recentByDevice;
+
+    private Counter filteredCounter;
+
+    private Counter ignoredCounter;
+
+    @PostConstruct
+    public void init() {
+        LocationProperties.Dedup config = locationProperties.getDedup();
+        enabled = config.isEnabled();
+        recentPerDevice = Math.max(1, config.getRecentPerDevice());
+        recentByDevice = CacheUtil.newLRUCache(config.getMaxDevices());
+        filteredCounter = Counter.builder("location.ingest.duplicates").tag("source", "filter")
+                .description("按已接收处理的重复上传条数").register(meterRegistry);
+        ignoredCounter = Counter.builder("location.ingest.duplicates").tag("source", "index")
+                .description("按已接收处理的重复上传条数").register(meterRegistry);
+    }
+
+    @Override
+    public boolean isDuplicate(String deviceId, long locationTimestamp) {
+        if (!enabled) {
+            return false;
+        }
+        RecentTimestamps recent = recentByDevice.get(deviceId);
+        if (recent != null && recent.contains(locationTimestamp)) {
+            filteredCounter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void onCommitted(List<LocationEntity> entities) {
+        remember(entities);
+    }
+
+    @Override
+    public void onIgnored(List<LocationEntity> duplicates) {
+        ignoredCounter.increment(duplicates.size());
+        remember(duplicates);
+    }
+
+    @Override
+    public void warmUp(List<LocationEntity> latest) {
+        remember(latest);
+    }
+
+    private void remember(List<LocationEntity> entities) {
+        if (!enabled) {
+            return;
+        }
+        for (LocationEntity entity : entities) {
+            recentByDevice.get(entity.getDeviceId(), () -> new RecentTimestamps(recentPerDevice))
+                    .add(entity.getLocationTimestamp());
+        }
+    }
+
+    /**
+     * 单台设备最近写入的位置时间，满了之后覆盖最早记录的一个
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class RecentTimestamps {
+
+        private final long[] timestamps;
+
+        private int size;
+
+        private int next;
+
+        RecentTimestamps(int capacity) {
+            this.timestamps = new long[capacity];
+        }
+
+        synchronized boolean contains(long timestamp) {
+            for (int i = 0; i < size; i++) {
+                if (timestamps[i] == timestamp) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        synchronized void add(long timestamp) {
+            if (contains(timestamp)) {
+                return;
+            }
+            timestamps[next] = timestamp;
+            next = (next + 1) % timestamps.length;
+            if (size < timestamps.length) {
+                size++;
+            }
+        }
+    }
+}
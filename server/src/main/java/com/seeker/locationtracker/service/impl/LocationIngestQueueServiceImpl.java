@@ -0,0 +1,204 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.LocationIngestQueueService;
+import com.seeker.locationtracker.service.LocationWriteService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 位置数据异步写入队列服务实现类
+ * 
+ * <p>请求线程只负责入队，由单个后台写线程从有界队列中取数据，
+ * 攒满 group-commit-size 行或等待 group-commit-interval-ms 毫秒后一次性提交，
+ * 使请求耗时与SQLite的fsync耗时解耦。</p>
+ * 
+ * <p>入队的数据已经向客户端确认。停止时先等写线程按正常节奏提交完队列（最多 shutdown-grace-ms 毫秒），
+ * 超时（通常是数据库持续失败、写线程在退避重试）则中断写线程：不再等待新数据，也不再退避重试，
+ * 当前批次和队列中剩余的数据各做一次立即提交后退出；仍然失败或停止时未提交的条数记录日志并计入
+ * location.ingest.dropped。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.location.ingest", name = "mode", havingValue = "async")
+public class LocationIngestQueueServiceImpl implements LocationIngestQueueService {
+
+    private static final int MAX_RETRY_TIMES = 3;
+
+    private static final long RETRY_BACKOFF_MS = 200;
+
+    /**
+     * 中断写线程后等待其做完最后一次提交的时间
+     */
+    private static final long INTERRUPT_TIMEOUT_MS = 5000;
+
+    @Resource
+    private LocationWriteService locationWriteService;
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private BlockingQueue<LocationEntity> queue;
+
+    private Thread writerThread;
+
+    private volatile boolean running;
+
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void start() {
+        LocationProperties.Ingest ingest = locationProperties.getIngest();
+        queue = new ArrayBlockingQueue<>(ingest.getQueueCapacity());
+        Gauge.builder("location.ingest.queue.size", queue, BlockingQueue::size)
+                .description("异步写入队列中等待提交的条数").register(meterRegistry);
+        droppedCounter = Counter.builder("location.ingest.dropped")
+                .description("异步写入重试后仍失败或停止时未提交而丢弃的条数").register(meterRegistry);
+        running = true;
+        writerThread = new Thread(this::runWriter, "location-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("位置数据异步写入已启用. queueCapacity={}, groupCommitSize={}, groupCommitIntervalMs={}",
+                ingest.getQueueCapacity(), ingest.getGroupCommitSize(), ingest.getGroupCommitIntervalMs());
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        // 停止接收新数据，写线程会把队列中剩余数据提交完再退出
+        running = false;
+        writerThread.join(locationProperties.getIngest().getShutdownGraceMs());
+        if (writerThread.isAlive()) {
+            log.warn("位置数据异步写入未能在 {} ms 内提交完，中断写线程做最后一次提交. queue={}",
+                    locationProperties.getIngest().getShutdownGraceMs(), queue.size());
+            writerThread.interrupt();
+            writerThread.join(INTERRUPT_TIMEOUT_MS);
+        }
+        int remaining = queue.size();
+        if (remaining > 0) {
+            droppedCounter.increment(remaining);
+            log.error("位置数据异步写入停止时仍有 {} 条已确认的数据未提交，已丢弃", remaining);
+        }
+    }
+
+    @Override
+    public boolean offer(LocationEntity entity) {
+        return running && queue.offer(entity);
+    }
+
+    @Override
+    public boolean[] offer(List<LocationEntity> entities) {
+        boolean[] accepted = new boolean[entities.size()];
+        for (int i = 0; i < accepted.length; i++) {
+            accepted[i] = offer(entities.get(i));
+        }
+        return accepted;
+    }
+
+    @Override
+    public int size() {
+        return queue.size();
+    }
+
+    /**
+     * 后台写线程主循环
+     */
+    private void runWriter() {
+        LocationProperties.Ingest ingest = locationProperties.getIngest();
+        int groupCommitSize = ingest.getGroupCommitSize();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(ingest.getGroupCommitIntervalMs());
+        List<LocationEntity> batch = new ArrayList<>(groupCommitSize);
+        boolean interrupted = false;
+        while (!interrupted && (running || !queue.isEmpty())) {
+            try {
+                LocationEntity first = queue.poll(intervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + intervalNanos;
+                while (batch.size() < groupCommitSize) {
+                    if (queue.drainTo(batch, groupCommitSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    LocationEntity next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (!batch.isEmpty()) {
+                commit(batch);
+                batch.clear();
+            }
+        }
+        if (interrupted) {
+            // 不再接收新数据，队列中已确认的数据逐批立即提交后再退出
+            running = false;
+            while (queue.drainTo(batch, groupCommitSize) > 0) {
+                commit(batch);
+                batch.clear();
+            }
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * 提交一组数据，失败时有限次重试
+     * 
+     * <p>退避等待时被中断不再等待，立即做最后一次提交（中断标记已清除，不影响获取连接），之后恢复中断标记。</p>
+     * 
+     * @param batch 待提交数据
+     */
+    private void commit(List<LocationEntity> batch) {
+        boolean interrupted = false;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                locationWriteService.saveBatch(batch);
+                break;
+            } catch (Exception e) {
+                if (attempt >= MAX_RETRY_TIMES || interrupted) {
+                    droppedCounter.increment(batch.size());
+                    log.error("异步批量写入失败，已丢弃 {} 条已确认的位置数据. attempts={}, first={}:{}", batch.size(),
+                            attempt, batch.get(0).getDeviceId(), batch.get(0).getLocationTimestamp(), e);
+                    break;
+                }
+                log.warn("异步批量写入失败，第 {} 次重试. size={}", attempt, batch.size(), e);
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MS * attempt);
+                } catch (InterruptedException ie) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
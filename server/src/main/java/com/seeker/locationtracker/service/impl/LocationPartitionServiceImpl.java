@@ -0,0 +1,197 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.mapper.LocationPartitionMapper;
+import com.seeker.locationtracker.model.entity.LocationPartitionEntity;
+import com.seeker.locationtracker.service.LocationPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Resource;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 位置数据分区服务实现类
+ * 
+ * <p>分区列表在内存中以不可变快照保存，读写路由都只读快照、不加锁；新建分区时加锁，
+ * 分区表建好并提交后再替换快照，路由到的分区一定已经存在。</p>
+ * 
+ * <p>每个分区表的自增主键从 yyyyMM * 10^10 开始，不同分区的主键互不重叠，
+ * 跨分区按 (LOCATION_TIMESTAMP, TID) 排序和分页仍然唯一。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class LocationPartitionServiceImpl implements LocationPartitionService {
+
+    /**
+     * 启用分区之前的原位置表
+     */
+    public static final String LEGACY_TABLE = "T_LOCATION";
+
+    private static final String TABLE_PREFIX = "T_LOCATION_";
+
+    private static final DateTimeFormatter MONTH_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+
+    /**
+     * 每个分区的主键区间大小
+     */
+    private static final long TID_RANGE_PER_PARTITION = 10_000_000_000L;
+
+    @Resource
+    private LocationPartitionMapper locationPartitionMapper;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    /**
+     * 按月划分使用的时区，分区区间创建后登记在库中，修改时区只影响之后新建的分区
+     */
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    /**
+     * 分区快照，首次使用时加载（此时数据库迁移已完成）
+     */
+    private volatile List<LocationPartitionEntity> partitions;
+
+    @Override
+    public String resolveWritePartition(long locationTimestamp) {
+        LocationPartitionEntity partition = findWritable(snapshot(), locationTimestamp);
+        if (partition != null) {
+            return partition.getTableName();
+        }
+        return createPartition(YearMonth.from(Instant.ofEpochMilli(locationTimestamp).atZone(zone)))
+                .getTableName();
+    }
+
+    @Override
+    public List<String> resolveReadPartitions(Long from, Long to) {
+        List<String> tables = new ArrayList<>();
+        for (LocationPartitionEntity partition : snapshot()) {
+            if (partition.overlaps(from, to)) {
+                tables.add(partition.getTableName());
+            }
+        }
+        if (tables.isEmpty()) {
+            tables.add(LEGACY_TABLE);
+        }
+        return tables;
+    }
+
+    @Override
+    public void ensurePartitions(long locationTimestamp, int months) {
+        YearMonth month = YearMonth.from(Instant.ofEpochMilli(locationTimestamp).atZone(zone));
+        for (int i = 0; i < months; i++) {
+            YearMonth target = month.plusMonths(i);
+            if (findWritable(snapshot(), target.atDay(1).atStartOfDay(zone).toInstant().toEpochMilli()) == null) {
+                createPartition(target);
+            }
+        }
+    }
+
+    @Override
+    public List<LocationPartitionEntity> listPartitions() {
+        return snapshot();
+    }
+
+    @Override
+    public synchronized void detachPartition(String table) {
+        if (LEGACY_TABLE.equals(table)) {
+            throw new IllegalArgumentException("原位置表不能摘除: " + table);
+        }
+        transactionTemplate.execute(status -> locationPartitionMapper.deleteById(table));
+        List<LocationPartitionEntity> updated = new ArrayList<>(snapshot());
+        updated.removeIf(partition -> partition.getTableName().equals(table));
+        partitions = Collections.unmodifiableList(updated);
+        log.info("位置数据分区已摘除. table={}", table);
+    }
+
+    @Override
+    public synchronized boolean dropDetachedPartition(String table) {
+        for (LocationPartitionEntity partition : snapshot()) {
+            if (partition.getTableName().equals(table)) {
+                log.info("位置数据分区已重新登记，跳过删除. table={}", table);
+                return false;
+            }
+        }
+        transactionTemplate.execute(status -> {
+            locationPartitionMapper.dropPartitionTable(table);
+            locationPartitionMapper.deleteSequence(table);
+            return null;
+        });
+        log.info("位置数据分区已删除. table={}", table);
+        return true;
+    }
+
+    private List<LocationPartitionEntity> snapshot() {
+        List<LocationPartitionEntity> snapshot = partitions;
+        if (snapshot == null) {
+            synchronized (this) {
+                snapshot = partitions;
+                if (snapshot == null) {
+                    snapshot = Collections.unmodifiableList(locationPartitionMapper.selectAllOrdered());
+                    partitions = snapshot;
+                    log.info("位置数据分区加载完成. partitions={}", snapshot.size());
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * 创建月份分区并替换快照
+     * 
+     * @param month 月份
+     * @return 分区
+     */
+    private synchronized LocationPartitionEntity createPartition(YearMonth month) {
+        long start = month.atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        LocationPartitionEntity existing = findWritable(snapshot(), start);
+        if (existing != null) {
+            return existing;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("不能在写入事务中创建分区表: " + month);
+        }
+        String table = TABLE_PREFIX + month.format(MONTH_FORMATTER);
+        long end = month.plusMonths(1).atDay(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        LocationPartitionEntity partition = new LocationPartitionEntity(table, start, end, true);
+        transactionTemplate.execute(status -> {
+            locationPartitionMapper.createPartitionTable(table);
+            locationPartitionMapper.createTrackIndex(table);
+            locationPartitionMapper.createGeohashIndex(table);
+            locationPartitionMapper.createCreateTimeIndex(table);
+            locationPartitionMapper.createUpdateTimeTrigger(table);
+            locationPartitionMapper.seedSequence(table,
+                    (month.getYear() * 100L + month.getMonthValue()) * TID_RANGE_PER_PARTITION);
+            locationPartitionMapper.insertIgnore(partition);
+            return null;
+        });
+
+        List<LocationPartitionEntity> updated = new ArrayList<>(snapshot());
+        updated.add(partition);
+        updated.sort((a, b) -> Long.compare(a.getStartTimestamp(), b.getStartTimestamp()));
+        partitions = Collections.unmodifiableList(updated);
+        log.info("位置数据分区已创建. table={}, start={}, end={}", table, start, end);
+        return partition;
+    }
+
+    private static LocationPartitionEntity findWritable(List<LocationPartitionEntity> snapshot, long timestamp) {
+        for (int i = snapshot.size() - 1; i >= 0; i--) {
+            LocationPartitionEntity partition = snapshot.get(i);
+            if (Boolean.TRUE.equals(partition.getWritable()) && partition.contains(timestamp)) {
+                return partition;
+            }
+        }
+        return null;
+    }
+}
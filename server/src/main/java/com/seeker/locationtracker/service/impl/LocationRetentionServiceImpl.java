@@ -0,0 +1,239 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.mapper.LocationPartitionMapper;
+import com.seeker.locationtracker.model.entity.LocationPartitionEntity;
+import com.seeker.locationtracker.service.LocationArchiveService;
+import com.seeker.locationtracker.service.LocationPartitionService;
+import com.seeker.locationtracker.service.LocationRetentionService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 位置数据保留期清理服务实现类
+ * 
+ * <p>每批删除一个主键区间，不在事务中执行，每条DELETE自动提交后释放写连接，批次之间暂停一段时间，
+ * 清理期间的上传最多等待一批删除的耗时。过期数据的主键上限通过 CREATE_TIME 索引确定，
+ * 分批删除走主键范围，不需要扫描整表。</p>
+ * 
+ * <p>进度和耗时通过 location.retention.* 指标暴露。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class LocationRetentionServiceImpl implements LocationRetentionService {
+
+    /**
+     * PRAGMA auto_vacuum 的 INCREMENTAL 取值
+     */
+    private static final int AUTO_VACUUM_INCREMENTAL = 2;
+
+    private static final long MILLIS_PER_DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Resource
+    private LocationPartitionService locationPartitionService;
+
+    @Resource
+    private LocationPartitionMapper locationPartitionMapper;
+
+    @Resource
+    private LocationArchiveService locationArchiveService;
+
+    /**
+     * PRAGMA incremental_vacuum 每归还一页返回一行，预编译语句只执行一步就返回，
+     * 需要用普通Statement（sqlite3_exec）执行才能一次归还指定的页数
+     */
+    @Resource
+    private JdbcTemplate jdbcTemplate;
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /**
+     * 本次（或上次）清理已处理的表数
+     */
+    private final AtomicLong tablesProcessed = new AtomicLong();
+
+    /**
+     * 本次（或上次）清理需要处理的表数
+     */
+    private final AtomicLong tablesTotal = new AtomicLong();
+
+    /**
+     * 本次（或上次）清理已删除的行数
+     */
+    private final AtomicLong rowsDeletedInRun = new AtomicLong();
+
+    /**
+     * 上次成功完成的时间(毫秒时间戳)
+     */
+    private final AtomicLong lastSuccessTime = new AtomicLong();
+
+    private Timer durationTimer;
+
+    private Counter rowsDeletedCounter;
+
+    private Counter partitionsDroppedCounter;
+
+    private Counter vacuumPagesCounter;
+
+    @PostConstruct
+    public void init() {
+        durationTimer = Timer.builder("location.retention.duration")
+                .description("保留期清理耗时").register(meterRegistry);
+        rowsDeletedCounter = Counter.builder("location.retention.rows.deleted")
+                .description("分批删除的过期行数").register(meterRegistry);
+        partitionsDroppedCounter = Counter.builder("location.retention.partitions.dropped")
+                .description("整表删除的过期分区数").register(meterRegistry);
+        vacuumPagesCounter = Counter.builder("location.retention.vacuum.pages")
+                .description("增量清理归还的页数").register(meterRegistry);
+        Gauge.builder("location.retention.running", running, flag -> flag.get() ? 1 : 0)
+                .description("是否正在清理").register(meterRegistry);
+        Gauge.builder("location.retention.progress.tables", tablesProcessed, AtomicLong::get)
+                .description("本次清理已处理的表数").register(meterRegistry);
+        Gauge.builder("location.retention.progress.tables.total", tablesTotal, AtomicLong::get)
+                .description("本次清理需要处理的表数").register(meterRegistry);
+        Gauge.builder("location.retention.progress.rows", rowsDeletedInRun, AtomicLong::get)
+                .description("本次清理已删除的行数").register(meterRegistry);
+        Gauge.builder("location.retention.last.success", lastSuccessTime, AtomicLong::get)
+                .description("上次清理完成时间(毫秒时间戳)").register(meterRegistry);
+    }
+
+    @Override
+    public boolean runRetention() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("保留期清理正在运行，跳过本次触发");
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            LocationProperties.Retention config = locationProperties.getRetention();
+            long cutoff = System.currentTimeMillis() - locationProperties.getRetentionDays() * MILLIS_PER_DAY;
+            List<LocationPartitionEntity> partitions = locationPartitionService.listPartitions();
+            tablesTotal.set(partitions.size());
+            tablesProcessed.set(0);
+            rowsDeletedInRun.set(0);
+
+            List<String> detached = new ArrayList<>();
+            for (LocationPartitionEntity partition : partitions) {
+                String table = partition.getTableName();
+                if (!LocationPartitionServiceImpl.LEGACY_TABLE.equals(table) && isFullyExpired(partition, cutoff)) {
+                    locationPartitionService.detachPartition(table);
+                    detached.add(table);
+                } else {
+                    deleteExpiredRows(table, cutoff, config);
+                }
+                tablesProcessed.incrementAndGet();
+            }
+            if (!detached.isEmpty()) {
+                // 等待摘除前已经开始的查询执行完再删表
+                Thread.sleep(config.getDropDelayMs());
+                for (String table : detached) {
+                    if (locationPartitionService.dropDetachedPartition(table)) {
+                        partitionsDroppedCounter.increment();
+                    }
+                }
+            }
+            int segmentsPurged = locationArchiveService.purgeExpired(cutoff);
+            long vacuumed = incrementalVacuum(config);
+            lastSuccessTime.set(System.currentTimeMillis());
+            log.info("保留期清理完成. cutoff={}, rowsDeleted={}, partitionsDropped={}, segmentsPurged={}, "
+                    + "vacuumPages={}, costMs={}", cutoff, rowsDeletedInRun.get(), detached.size(), segmentsPurged,
+                    vacuumed, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("保留期清理被中断. rowsDeleted={}", rowsDeletedInRun.get());
+        } catch (Exception e) {
+            log.error("保留期清理失败. rowsDeleted={}", rowsDeletedInRun.get(), e);
+        } finally {
+            durationTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            running.set(false);
+        }
+        return true;
+    }
+
+    /**
+     * 分区内的数据是否全部过期；空分区只有在位置时间区间整体早于截止时间时才算过期，避免删掉预创建的分区
+     */
+    private boolean isFullyExpired(LocationPartitionEntity partition, long cutoff) {
+        Long maxCreateTime = locationPartitionMapper.selectMaxCreateTime(partition.getTableName());
+        if (maxCreateTime == null) {
+            return partition.getEndTimestamp() <= cutoff;
+        }
+        return maxCreateTime < cutoff;
+    }
+
+    /**
+     * 按主键区间分批删除过期数据
+     */
+    private void deleteExpiredRows(String table, long cutoff, LocationProperties.Retention config)
+            throws InterruptedException {
+        Long maxTid = locationPartitionMapper.selectMaxTidCreatedBefore(table, cutoff);
+        if (maxTid == null) {
+            return;
+        }
+        Long fromTid = locationPartitionMapper.selectMinTidFrom(table, Long.MIN_VALUE);
+        while (fromTid != null && fromTid <= maxTid) {
+            long toTid = Math.min(fromTid + config.getChunkSize(), maxTid + 1);
+            int deleted = locationPartitionMapper.deleteExpiredChunk(table, fromTid, toTid, cutoff);
+            rowsDeletedInRun.addAndGet(deleted);
+            rowsDeletedCounter.increment(deleted);
+            Thread.sleep(config.getPauseMs());
+            // 跳过已被删空的主键区间
+            fromTid = locationPartitionMapper.selectMinTidFrom(table, toTid);
+        }
+    }
+
+    /**
+     * 分批把空闲页归还给文件系统，数据库不是INCREMENTAL模式时跳过
+     * 
+     * @return 归还的页数
+     */
+    private long incrementalVacuum(LocationProperties.Retention config) throws InterruptedException {
+        Integer autoVacuum = jdbcTemplate.queryForObject("PRAGMA auto_vacuum", Integer.class);
+        if (autoVacuum == null || autoVacuum != AUTO_VACUUM_INCREMENTAL) {
+            log.warn("数据库未启用增量清理(auto_vacuum={})，删除数据释放的空间只会被复用，不会归还给文件系统；"
+                    + "可在停机维护时执行 PRAGMA auto_vacuum=INCREMENTAL; VACUUM; 切换", autoVacuum);
+            return 0;
+        }
+        long total = 0;
+        long freePages = freelistCount();
+        while (freePages > 0) {
+            jdbcTemplate.update("PRAGMA incremental_vacuum(" + config.getVacuumPages() + ")");
+            long remaining = freelistCount();
+            if (remaining >= freePages) {
+                break;
+            }
+            total += freePages - remaining;
+            vacuumPagesCounter.increment(freePages - remaining);
+            freePages = remaining;
+            Thread.sleep(config.getPauseMs());
+        }
+        return total;
+    }
+
+    private long freelistCount() {
+        Long count = jdbcTemplate.queryForObject("PRAGMA freelist_count", Long.class);
+        return count == null ? 0 : count;
+    }
+}
@@ -1,15 +1,45 @@
 package com.seeker.locationtracker.service.impl;
 
+import com.seeker.locationtracker.common.codec.DecodedLocation;
+import com.seeker.locationtracker.common.codec.LocationBinaryCodec;
+import com.seeker.locationtracker.common.codec.LocationJsonCodec;
+import com.seeker.locationtracker.common.codec.LocationValidator;
+import com.seeker.locationtracker.config.LocationProperties;
 import com.seeker.locationtracker.mapper.LocationMapper;
+import com.seeker.locationtracker.model.dto.BoundingBoxQueryDTO;
 import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import com.seeker.locationtracker.model.dto.TrackQueryDTO;
 import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.vo.BatchUploadItemVO;
+import com.seeker.locationtracker.model.vo.NearbyLocationVO;
+import com.seeker.locationtracker.model.vo.PageResponseResult;
 import com.seeker.locationtracker.model.vo.ResponseResult;
+import com.seeker.locationtracker.model.vo.SimplifiedTrackVO;
+import com.seeker.locationtracker.service.LatestLocationService;
+import com.seeker.locationtracker.service.LocationDedupService;
+import com.seeker.locationtracker.service.LocationArchiveService;
+import com.seeker.locationtracker.service.LocationIngestQueueService;
+import com.seeker.locationtracker.service.LocationPartitionService;
 import com.seeker.locationtracker.service.LocationService;
-import org.springframework.beans.BeanUtils;
+import com.seeker.locationtracker.service.LocationStore;
+import com.seeker.locationtracker.service.SpatialIndexService;
+import com.seeker.locationtracker.service.TrackSimplifyService;
+import com.seeker.locationtracker.util.GeoHashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 位置数据服务实现类
@@ -17,36 +47,611 @@ import java.util.Date;
  * @author seeker
  * @date 2025-08-10
  */
+@Slf4j
 @Service
 public class LocationServiceImpl implements LocationService {
     
+    private static final int DEFAULT_QUERY_LIMIT = 100;
+    
+    private static final int MAX_QUERY_LIMIT = 1000;
+    
+    /**
+     * 矩形区域查询最多拆分的网格数，网格越多覆盖越精确，但索引范围扫描次数越多
+     */
+    private static final int MAX_BOUNDING_BOX_CELLS = 32;
+    
+    private static final int DEFAULT_NEAREST_K = 10;
+    
+    private static final int MAX_ZOOM = 22;
+    
+    private static final String DUPLICATE_MESSAGE = "位置数据已存在，重复上传已确认接收";
+    
+    private static final String OUT_OF_WINDOW_MESSAGE = "位置时间早于数据保留期或晚于当前时间，已确认接收并丢弃";
+    
     @Resource
     private LocationMapper locationMapper;
     
+    @Resource
+    private LocationStore locationStore;
+    
+    @Resource
+    private LatestLocationService latestLocationService;
+    
+    @Resource
+    private LocationPartitionService locationPartitionService;
+    
+    @Resource
+    private LocationArchiveService locationArchiveService;
+    
+    @Resource
+    private LocationDedupService locationDedupService;
+    
+    @Resource
+    private SpatialIndexService spatialIndexService;
+    
+    @Resource
+    private TrackSimplifyService trackSimplifyService;
+    
+    @Resource
+    private LocationProperties locationProperties;
+    
+    @Resource
+    private MeterRegistry meterRegistry;
+    
+    private DistributionSummary jsonBatchSizeSummary;
+    
+    private DistributionSummary binaryBatchSizeSummary;
+    
+    private Counter outOfWindowCounter;
+    
+    /**
+     * 异步写入队列，仅在 app.location.ingest.mode=async 或 wal 时存在
+     */
+    @Autowired(required = false)
+    private LocationIngestQueueService locationIngestQueueService;
+    
+    @PostConstruct
+    public void init() {
+        // 异步写入队列和预写日志直接提交到SQLite，内存存储只支持同步写入
+        if (locationIngestQueueService != null && !"sqlite".equals(locationStore.name())) {
+            throw new IllegalStateException("位置数据存储 " + locationStore.name()
+                    + " 只支持 app.location.ingest.mode=sync");
+        }
+        jsonBatchSizeSummary = batchSizeSummary("json");
+        binaryBatchSizeSummary = batchSizeSummary("binary");
+        outOfWindowCounter = Counter.builder("location.upload.dropped").tag("reason", "out_of_window")
+                .description("位置时间超出允许范围、确认接收后丢弃的位置数据条数").register(meterRegistry);
+    }
+    
+    private DistributionSummary batchSizeSummary(String format) {
+        return DistributionSummary.builder("location.upload.batch.size").tag("format", format)
+                .description("批量上传请求的条数").publishPercentileHistogram().register(meterRegistry);
+    }
+    
     @Override
     public ResponseResult<Void> uploadLocation(LocationUploadDTO locationDTO) {
+        // 转换DTO为Entity，与JSON、二进制上传使用同一套校验
+        LocationEntity entity = toEntity(locationDTO, new Date());
+        LocationValidator validator = validator();
+        String violation = validator.validate(entity);
+        if (violation != null) {
+            return ResponseResult.fail(ResponseResult.STATUS_CODE_INVALID_PARAMETER, violation);
+        }
+        return submit(entity, validator);
+    }
+    
+    @Override
+    public ResponseResult<Void> uploadLocationJson(byte[] body) throws IOException {
+        LocationValidator validator = validator();
+        DecodedLocation record = LocationJsonCodec.decode(body, new Date(), validator);
+        if (record.getViolation() != null) {
+            return ResponseResult.fail(ResponseResult.STATUS_CODE_INVALID_PARAMETER, record.getViolation());
+        }
+        return submit(record.getEntity(), validator);
+    }
+    
+    @Override
+    public ResponseResult<Void> uploadLocationBinary(byte[] body) {
+        LocationValidator validator = validator();
+        List<DecodedLocation> records;
+        try {
+            records = LocationBinaryCodec.decode(body, 1, new Date(), validator);
+        } catch (IllegalArgumentException e) {
+            return ResponseResult.fail(e.getMessage());
+        }
+        DecodedLocation record = records.get(0);
+        if (record.getViolation() != null) {
+            return ResponseResult.fail(ResponseResult.STATUS_CODE_INVALID_PARAMETER, record.getViolation());
+        }
+        return submit(record.getEntity(), validator);
+    }
+    
+    /**
+     * 写入（或入队）单条位置数据
+     * 
+     * @param entity 位置实体，已通过字段校验
+     * @param validator 本次请求的校验器
+     * @return 响应结果
+     */
+    private ResponseResult<Void> submit(LocationEntity entity, LocationValidator validator) {
+        // 超出时间范围的数据确认接收后丢弃，按失败返回时客户端会一直重传
+        if (!validator.accepts(entity.getLocationTimestamp())) {
+            outOfWindowCounter.increment();
+            return ResponseResult.success(OUT_OF_WINDOW_MESSAGE);
+        }
+        // 客户端重传的已提交数据直接确认，不再写库
+        if (locationDedupService.isDuplicate(entity.getDeviceId(), entity.getLocationTimestamp())) {
+            return ResponseResult.success(DUPLICATE_MESSAGE);
+        }
         try {
-            // 转换DTO为Entity
-            LocationEntity entity = new LocationEntity();
-            BeanUtils.copyProperties(locationDTO, entity);
-            entity.setCreateTime(new Date());
-            entity.setUpdateTime(new Date());
+            // 异步模式下入队（预写日志模式下刷盘）即返回，由后台线程分组提交
+            if (locationIngestQueueService != null) {
+                if (locationIngestQueueService.offer(entity)) {
+                    return ResponseResult.success("位置数据已接收");
+                }
+                return ResponseResult.fail("服务繁忙，位置数据写入队列已满，请稍后重试");
+            }
             
-            // 保存到数据库
-            int result = locationMapper.insert(entity);
+            // 写入位置数据存储，影响行数为0表示同一设备同一位置时间的数据已存在
+            int result = locationStore.append(entity);
             
-            if (result > 0) {
-                return ResponseResult.success("位置数据上传成功");
-            } else {
-                return ResponseResult.fail("位置数据上传失败");
+            if (result == 0) {
+                return ResponseResult.success(DUPLICATE_MESSAGE);
             }
+            return ResponseResult.success("位置数据上传成功");
         } catch (Exception e) {
             return ResponseResult.fail("位置数据上传异常: " + e.getMessage());
         }
     }
     
     @Override
-    public java.util.List<LocationEntity> getAllLocations() {
-        return locationMapper.selectList(null);
+    public ResponseResult<List<BatchUploadItemVO>> uploadLocations(List<LocationUploadDTO> locationDTOs) {
+        if (locationDTOs == null || locationDTOs.isEmpty()) {
+            return ResponseResult.fail("批量上传数据不能为空");
+        }
+        int maxBatchSize = locationProperties.getMaxBatchSize();
+        if (locationDTOs.size() > maxBatchSize) {
+            return ResponseResult.fail("批量上传条数超出限制，单次最多 " + maxBatchSize + " 条");
+        }
+        jsonBatchSizeSummary.record(locationDTOs.size());
+        
+        // 逐条校验，校验失败的条目直接返回失败原因，不影响其余条目写入
+        Date now = new Date();
+        LocationValidator validator = validator();
+        List<BatchUploadItemVO> items = new ArrayList<>(locationDTOs.size());
+        List<BatchUploadItemVO> pendingItems = new ArrayList<>(locationDTOs.size());
+        List<LocationEntity> entities = new ArrayList<>(locationDTOs.size());
+        for (int i = 0; i < locationDTOs.size(); i++) {
+            LocationUploadDTO dto = locationDTOs.get(i);
+            if (dto == null) {
+                BatchUploadItemVO item = new BatchUploadItemVO(i, null, null);
+                item.setMessage("位置数据不能为空");
+                items.add(item);
+                continue;
+            }
+            BatchUploadItemVO item = new BatchUploadItemVO(i, dto.getDeviceId(), dto.getLocationTimestamp());
+            items.add(item);
+            LocationEntity entity = toEntity(dto, now);
+            String violation = validator.validate(entity);
+            if (violation != null) {
+                item.setMessage(violation);
+                continue;
+            }
+            pendingItems.add(item);
+            entities.add(entity);
+        }
+        
+        return submit(items, pendingItems, entities, validator);
+    }
+    
+    @Override
+    public ResponseResult<List<BatchUploadItemVO>> uploadLocationsJson(byte[] body) throws IOException {
+        LocationValidator validator = validator();
+        List<DecodedLocation> records;
+        try {
+            records = LocationJsonCodec.decodeBatch(body, locationProperties.getMaxBatchSize(), new Date(),
+                    validator);
+        } catch (IllegalArgumentException e) {
+            return ResponseResult.fail(e.getMessage());
+        }
+        jsonBatchSizeSummary.record(records.size());
+        return submit(records, validator);
+    }
+    
+    @Override
+    public ResponseResult<List<BatchUploadItemVO>> uploadLocationsBinary(byte[] body) {
+        LocationValidator validator = validator();
+        List<DecodedLocation> records;
+        try {
+            records = LocationBinaryCodec.decode(body, locationProperties.getMaxBatchSize(), new Date(),
+                    validator);
+        } catch (IllegalArgumentException e) {
+            return ResponseResult.fail(e.getMessage());
+        }
+        binaryBatchSizeSummary.record(records.size());
+        return submit(records, validator);
+    }
+    
+    /**
+     * 写入（或入队）解码后的批量位置数据，校验失败的条目直接返回失败原因，不影响其余条目写入
+     * 
+     * @param records 解码结果
+     * @param validator 本次请求的校验器
+     * @return 批量上传结果
+     */
+    private ResponseResult<List<BatchUploadItemVO>> submit(List<DecodedLocation> records,
+                                                           LocationValidator validator) {
+        List<BatchUploadItemVO> items = new ArrayList<>(records.size());
+        List<BatchUploadItemVO> pendingItems = new ArrayList<>(records.size());
+        List<LocationEntity> entities = new ArrayList<>(records.size());
+        for (int i = 0; i < records.size(); i++) {
+            DecodedLocation record = records.get(i);
+            LocationEntity entity = record.getEntity();
+            BatchUploadItemVO item = new BatchUploadItemVO(i, entity.getDeviceId(), entity.getLocationTimestamp());
+            items.add(item);
+            if (record.getViolation() != null) {
+                item.setMessage(record.getViolation());
+                continue;
+            }
+            pendingItems.add(item);
+            entities.add(entity);
+        }
+        return submit(items, pendingItems, entities, validator);
+    }
+    
+    /**
+     * 写入（或入队）校验通过的位置数据，并回填每条的结果，重复数据和超出时间范围被丢弃的数据按成功返回
+     * 
+     * @param items 全部条目的结果
+     * @param pendingItems 校验通过的条目，与entities一一对应
+     * @param entities 待写入的位置实体
+     * @param validator 本次请求的校验器
+     * @return 批量上传结果
+     */
+    private ResponseResult<List<BatchUploadItemVO>> submit(List<BatchUploadItemVO> items,
+                                                           List<BatchUploadItemVO> pendingItems,
+                                                           List<LocationEntity> entities,
+                                                           LocationValidator validator) {
+        List<BatchUploadItemVO> writeItems = new ArrayList<>(pendingItems.size());
+        List<LocationEntity> writeEntities = new ArrayList<>(entities.size());
+        for (int i = 0; i < pendingItems.size(); i++) {
+            LocationEntity entity = entities.get(i);
+            if (!validator.accepts(entity.getLocationTimestamp())) {
+                markDropped(pendingItems.get(i));
+            } else if (locationDedupService.isDuplicate(entity.getDeviceId(), entity.getLocationTimestamp())) {
+                markDuplicate(pendingItems.get(i));
+            } else {
+                writeItems.add(pendingItems.get(i));
+                writeEntities.add(entity);
+            }
+        }
+        
+        if (locationIngestQueueService != null) {
+            boolean[] accepted = locationIngestQueueService.offer(writeEntities);
+            for (int i = 0; i < writeItems.size(); i++) {
+                BatchUploadItemVO item = writeItems.get(i);
+                item.setSuccess(accepted[i]);
+                item.setMessage(item.isSuccess() ? "位置数据已接收" : "服务繁忙，位置数据写入队列已满，请稍后重试");
+            }
+        } else if (!writeEntities.isEmpty()) {
+            try {
+                int[] counts = locationStore.appendBatch(writeEntities);
+                for (int i = 0; i < writeItems.size(); i++) {
+                    BatchUploadItemVO item = writeItems.get(i);
+                    if (counts[i] == 0) {
+                        markDuplicate(item);
+                    } else {
+                        item.setSuccess(true);
+                        item.setMessage("位置数据上传成功");
+                    }
+                }
+            } catch (Exception e) {
+                log.error("批量写入位置数据失败. size={}", writeEntities.size(), e);
+                for (BatchUploadItemVO item : writeItems) {
+                    item.setMessage("位置数据上传异常: " + e.getMessage());
+                }
+            }
+        }
+        
+        int successCount = 0;
+        int duplicateCount = 0;
+        int droppedCount = 0;
+        for (BatchUploadItemVO item : items) {
+            if (item.isSuccess()) {
+                successCount++;
+            }
+            if (item.isDuplicate()) {
+                duplicateCount++;
+            }
+            if (item.isDropped()) {
+                droppedCount++;
+            }
+        }
+        if (droppedCount > 0) {
+            outOfWindowCounter.increment(droppedCount);
+        }
+        return ResponseResult.success(items, "批量上传完成，成功 " + successCount + " 条（其中重复 " + duplicateCount
+                + " 条，超出时间范围丢弃 " + droppedCount + " 条），失败 " + (items.size() - successCount) + " 条");
+    }
+    
+    private void markDuplicate(BatchUploadItemVO item) {
+        item.setSuccess(true);
+        item.setDuplicate(true);
+        item.setMessage(DUPLICATE_MESSAGE);
+    }
+    
+    private void markDropped(BatchUploadItemVO item) {
+        item.setSuccess(true);
+        item.setDropped(true);
+        item.setMessage(OUT_OF_WINDOW_MESSAGE);
+    }
+    
+    @Override
+    public PageResponseResult<LocationEntity> queryTrack(String deviceId, Long from, Long to, Integer limit,
+                                                         String cursor) {
+        int pageSize = normalizeLimit(limit);
+        TrackQueryDTO query = new TrackQueryDTO();
+        query.setDeviceId(deviceId);
+        query.setFrom(from);
+        query.setTo(to);
+        try {
+            query.applyCursor(cursor);
+        } catch (IllegalArgumentException e) {
+            return PageResponseResult.fail(e.getMessage());
+        }
+        // 多查一条用于判断是否还有下一页
+        query.setLimit(pageSize + 1);
+        List<LocationEntity> records = mergeTrack(
+                locationStore.track(deviceId, hotFrom(query), to, query.getLimit()),
+                locationArchiveService.selectTrackPage(query), query.getLimit());
+        
+        String nextCursor = null;
+        if (records.size() > pageSize) {
+            records = records.subList(0, pageSize);
+            LocationEntity last = records.get(pageSize - 1);
+            nextCursor = TrackQueryDTO.encodeCursor(last.getLocationTimestamp(), last.getTid());
+        }
+        PageResponseResult<LocationEntity> result = PageResponseResult.success(records);
+        result.setPageSize(pageSize);
+        result.setScrollId(nextCursor);
+        return result;
+    }
+    
+    @Override
+    public ResponseResult<SimplifiedTrackVO> querySimplifiedTrack(String deviceId, Long from, Long to,
+                                                                  Double tolerance, Integer zoom) {
+        if (from == null || to == null || from >= to) {
+            return ResponseResult.fail("轨迹抽稀需要指定时间范围，且开始时间必须早于结束时间");
+        }
+        if (tolerance != null && !(tolerance >= 0)) {
+            return ResponseResult.fail("容差不能小于0");
+        }
+        if (tolerance == null && zoom != null && (zoom < 0 || zoom > MAX_ZOOM)) {
+            return ResponseResult.fail("缩放级别必须在0到" + MAX_ZOOM + "之间");
+        }
+        try {
+            SimplifiedTrackVO track = trackSimplifyService.simplify(deviceId, from, to, tolerance, zoom);
+            return ResponseResult.success(track, "查询成功，原始 " + track.getTotalPoints() + " 个点，舍弃 "
+                    + track.getDroppedPoints() + " 个点");
+        } catch (IllegalArgumentException e) {
+            return ResponseResult.fail(e.getMessage());
+        }
+    }
+    
+    @Override
+    public ResponseResult<List<LocationEntity>> searchInBoundingBox(String bbox, Long from, Long to,
+                                                                  Integer limit) {
+        BoundingBoxQueryDTO query;
+        try {
+            query = BoundingBoxQueryDTO.parse(bbox);
+        } catch (IllegalArgumentException e) {
+            return ResponseResult.fail(e.getMessage());
+        }
+        query.setFrom(from);
+        query.setTo(to);
+        query.setLimit(normalizeLimit(limit));
+        query.setTables(locationPartitionService.resolveReadPartitions(from, to));
+        query.setRanges(GeoHashUtils.coverBoundingBox(query.getMinLatitude(), query.getMinLongitude(),
+                query.getMaxLatitude(), query.getMaxLongitude(), MAX_BOUNDING_BOX_CELLS));
+        List<LocationEntity> locations = locationMapper.selectInBoundingBox(query);
+        return ResponseResult.success(locations, "查询成功，共 " + locations.size() + " 条记录");
+    }
+    
+    @Override
+    public ResponseResult<List<NearbyLocationVO>> searchNearby(Double latitude, Double longitude, Double radius,
+                                                               Integer limit) {
+        String violation = validateCenter(latitude, longitude);
+        if (violation != null) {
+            return ResponseResult.fail(violation);
+        }
+        double maxRadius = locationProperties.getSpatial().getMaxRadiusMeters();
+        if (radius == null || !(radius > 0) || radius > maxRadius) {
+            return ResponseResult.fail("查询半径必须大于0且不超过 " + maxRadius + " 米");
+        }
+        List<NearbyLocationVO> nearby = spatialIndexService.withinRadius(latitude, longitude, radius,
+                normalizeLimit(limit));
+        return ResponseResult.success(nearby, "查询成功，共 " + nearby.size() + " 台设备");
+    }
+    
+    @Override
+    public ResponseResult<List<NearbyLocationVO>> searchNearest(Double latitude, Double longitude, Integer k,
+                                                                Double maxRadius) {
+        String violation = validateCenter(latitude, longitude);
+        if (violation != null) {
+            return ResponseResult.fail(violation);
+        }
+        double radiusLimit = locationProperties.getSpatial().getMaxRadiusMeters();
+        if (maxRadius != null && (!(maxRadius > 0) || maxRadius > radiusLimit)) {
+            return ResponseResult.fail("最大搜索半径必须大于0且不超过 " + radiusLimit + " 米");
+        }
+        int count = k == null ? DEFAULT_NEAREST_K : k;
+        if (count <= 0 || count > MAX_QUERY_LIMIT) {
+            return ResponseResult.fail("设备数必须在1到" + MAX_QUERY_LIMIT + "之间");
+        }
+        List<NearbyLocationVO> nearest = spatialIndexService.nearest(latitude, longitude, count,
+                maxRadius == null ? radiusLimit : maxRadius);
+        return ResponseResult.success(nearest, "查询成功，共 " + nearest.size() + " 台设备");
+    }
+    
+    @Override
+    public ResponseResult<LocationEntity> getLatestLocation(String deviceId) {
+        LocationEntity latest = latestLocationService.getLatest(deviceId);
+        if (latest == null) {
+            // 缓存只有预热和启动后写入的设备，预热跳过的设备查询存储
+            latest = locationStore.latest(deviceId);
+        }
+        if (latest == null) {
+            return ResponseResult.fail("设备暂无位置数据: " + deviceId);
+        }
+        return ResponseResult.success(latest);
+    }
+    
+    @Override
+    public ResponseResult<Map<String, LocationEntity>> getLatestLocations(Collection<String> deviceIds) {
+        if (deviceIds == null || deviceIds.isEmpty()) {
+            return ResponseResult.fail("设备ID列表不能为空");
+        }
+        if (deviceIds.size() > MAX_QUERY_LIMIT) {
+            return ResponseResult.fail("设备ID数量超出限制，单次最多 " + MAX_QUERY_LIMIT + " 个");
+        }
+        Map<String, LocationEntity> latest = latestLocationService.getLatest(deviceIds);
+        return ResponseResult.success(latest, "查询成功，共 " + latest.size() + " 台设备有位置数据");
+    }
+    
+    @Override
+    public List<LocationEntity> listRecentLocations(Integer limit) {
+        return locationMapper.selectRecent(normalizeLimit(limit),
+                locationPartitionService.resolveReadPartitions(null, null));
+    }
+    
+    @Override
+    public long deleteLocationsBefore(long locationTimestamp) {
+        return locationStore.deleteBefore(locationTimestamp);
+    }
+    
+    /**
+     * 存储中轨迹的开始时间：有游标时从游标的位置时间 + 1 开始
+     * 
+     * <p>存储中同一设备同一位置时间只有一条，合并时游标停在这个位置时间主键较大的一条上，
+     * 存储中这个位置时间的行主键不会更大，与按 (位置时间, 主键) 比较游标的结果相同。</p>
+     * 
+     * @param query 轨迹查询条件
+     * @return 开始时间戳(毫秒，包含)，为null时不限
+     */
+    private static Long hotFrom(TrackQueryDTO query) {
+        if (query.getCursorTimestamp() == null) {
+            return query.getFrom();
+        }
+        long next = query.getCursorTimestamp() + 1;
+        return query.getFrom() == null ? next : Math.max(query.getFrom(), next);
+    }
+    
+    /**
+     * 按 (位置时间, 主键) 合并SQLite和归档中的轨迹，同一设备同一位置时间只返回一条
+     * 
+     * <p>两边位置时间相同的行是归档删除前的同一行（主键相同），或已归档的日期又补传的同一个点（SQLite中是新主键），
+     * 与归档内部合并一样按 (设备, 位置时间) 去重。保留主键较大的一条：游标停在较大的主键上，
+     * 下一页两边都不会再返回这个位置时间的行。</p>
+     * 
+     * @param hot SQLite中的轨迹，已排序
+     * @param archived 归档中的轨迹，已排序
+     * @param limit 最多返回条数
+     * @return 合并后的轨迹
+     */
+    private List<LocationEntity> mergeTrack(List<LocationEntity> hot, List<LocationEntity> archived, int limit) {
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<LocationEntity> merged = new ArrayList<>(Math.min(limit, hot.size() + archived.size()));
+        int i = 0;
+        int j = 0;
+        while (merged.size() < limit && (i < hot.size() || j < archived.size())) {
+            if (j >= archived.size()) {
+                merged.add(hot.get(i++));
+                continue;
+            }
+            if (i >= hot.size()) {
+                merged.add(archived.get(j++));
+                continue;
+            }
+            LocationEntity a = hot.get(i);
+            LocationEntity b = archived.get(j);
+            int cmp = a.getLocationTimestamp().compareTo(b.getLocationTimestamp());
+            if (cmp == 0) {
+                i++;
+                j++;
+                merged.add(a.getTid() >= b.getTid() ? a : b);
+                continue;
+            }
+            merged.add(cmp < 0 ? hot.get(i++) : archived.get(j++));
+        }
+        return merged;
+    }
+    
+    /**
+     * 规范化查询条数
+     * 
+     * @param limit 请求的条数
+     * @return 介于1和最大条数之间的条数
+     */
+    private int normalizeLimit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_QUERY_LIMIT;
+        }
+        return Math.min(limit, MAX_QUERY_LIMIT);
+    }
+    
+    /**
+     * 校验查询中心点
+     * 
+     * @param latitude 纬度
+     * @param longitude 经度
+     * @return 校验失败信息，校验通过时返回null
+     */
+    private String validateCenter(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null) {
+            return "中心点经纬度不能为空";
+        }
+        if (latitude < -90.0 || latitude > 90.0) {
+            return "纬度必须在-90到90之间";
+        }
+        if (longitude < -180.0 || longitude > 180.0) {
+            return "经度必须在-180到180之间";
+        }
+        return null;
+    }
+    
+    /**
+     * 按当前时间创建上传数据的校验器，位置时间早于数据保留期或晚于允许的时钟偏差的数据不写入
+     * 
+     * @return 校验器
+     */
+    private LocationValidator validator() {
+        return LocationValidator.of(System.currentTimeMillis(), locationProperties.getRetentionDays(),
+                locationProperties.getMaxClockSkewMs());
+    }
+    
+    /**
+     * 转换DTO为Entity
+     * 
+     * @param locationDTO 位置数据传输对象
+     * @param now 当前时间
+     * @return 位置实体
+     */
+    private LocationEntity toEntity(LocationUploadDTO locationDTO, Date now) {
+        LocationEntity entity = new LocationEntity();
+        // 逐个字段赋值，不用反射拷贝属性
+        entity.setDeviceId(locationDTO.getDeviceId());
+        entity.setLatitude(locationDTO.getLatitude());
+        entity.setLongitude(locationDTO.getLongitude());
+        entity.setAccuracy(locationDTO.getAccuracy());
+        entity.setAltitude(locationDTO.getAltitude());
+        entity.setSpeed(locationDTO.getSpeed());
+        entity.setBearing(locationDTO.getBearing());
+        entity.setProvider(locationDTO.getProvider());
+        entity.setLocationTimestamp(locationDTO.getLocationTimestamp());
+        entity.setCreateTime(now);
+        entity.setUpdateTime(now);
+        return entity;
     }
 }
@@ -0,0 +1,387 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seeker.locationtracker.common.stream.LocationStreamBuffer;
+import com.seeker.locationtracker.common.stream.LocationStreamEvent;
+import com.seeker.locationtracker.common.stream.LocationStreamFilter;
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.model.dto.BoundingBoxQueryDTO;
+import com.seeker.locationtracker.model.entity.GeofenceEventEntity;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.GeofenceEventListener;
+import com.seeker.locationtracker.service.LatestLocationService;
+import com.seeker.locationtracker.service.LocationIngestListener;
+import com.seeker.locationtracker.service.LocationStreamService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 实时位置推送服务实现类
+ * 
+ * <p>作为写入监听器在提交成功后把位置放入匹配订阅者的缓冲区，只做内存操作，不等待网络写入。
+ * 每个订阅者同一时间最多有一个推送任务在推送线程池中执行，任务每次最多发送 max-events-per-dispatch 条后
+ * 让出线程，慢订阅者的缓冲区满后按 overflow-policy 丢弃或合并，并在下一次推送时告知丢失的条数。</p>
+ * 
+ * <p>同时作为围栏事件监听器，把进出围栏事件按同样的设备和区域条件推送给订阅者，围栏事件不参与合并。</p>
+ * 
+ * <p>指定了设备的订阅者按设备唯一标识索引，其余订阅者逐个匹配。订阅和取消订阅时重建索引，写入线程读取不可变的
+ * 索引快照，不加锁。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class LocationStreamServiceImpl implements LocationStreamService, LocationIngestListener,
+        GeofenceEventListener {
+
+    private static final String EVENT_DROPPED = "dropped";
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @Resource
+    private LatestLocationService latestLocationService;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 指定了设备的订阅者，按设备唯一标识索引
+     */
+    private volatile Map<String, List<Subscriber>> subscribersByDevice = Collections.emptyMap();
+
+    /**
+     * 没有指定设备的订阅者
+     */
+    private volatile List<Subscriber> unindexedSubscribers = Collections.emptyList();
+
+    private ExecutorService dispatcher;
+
+    private ScheduledExecutorService heartbeatScheduler;
+
+    private Counter sentCounter;
+
+    private Counter droppedCounter;
+
+    private Counter coalescedCounter;
+
+    @PostConstruct
+    public void start() {
+        LocationProperties.Stream stream = locationProperties.getStream();
+        AtomicInteger threadIndex = new AtomicInteger();
+        dispatcher = Executors.newFixedThreadPool(stream.getDispatcherThreads(), runnable -> {
+            Thread thread = new Thread(runnable, "location-stream-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "location-stream-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        heartbeatScheduler.scheduleWithFixedDelay(this::heartbeat, stream.getHeartbeatIntervalMs(),
+                stream.getHeartbeatIntervalMs(), TimeUnit.MILLISECONDS);
+
+        Gauge.builder("location.stream.subscribers", subscribers, Set::size)
+                .description("实时位置推送的订阅连接数").register(meterRegistry);
+        sentCounter = eventCounter("sent");
+        droppedCounter = eventCounter("dropped");
+        coalescedCounter = eventCounter("coalesced");
+    }
+
+    private Counter eventCounter(String result) {
+        return Counter.builder("location.stream.events").tag("result", result)
+                .description("实时推送的位置条数，dropped为缓冲区满被丢弃，coalesced为被同一设备更新的位置合并")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        heartbeatScheduler.shutdownNow();
+        dispatcher.shutdownNow();
+        for (Subscriber subscriber : new ArrayList<>(subscribers)) {
+            unregister(subscriber);
+            subscriber.emitter.complete();
+        }
+    }
+
+    @Override
+    public SseEmitter subscribe(String deviceId, String deviceIds, String bbox, boolean snapshot) {
+        LocationProperties.Stream stream = locationProperties.getStream();
+        LocationStreamFilter filter = new LocationStreamFilter(parseDeviceIds(deviceId, deviceIds, stream),
+                StringUtils.hasText(bbox) ? BoundingBoxQueryDTO.parse(bbox) : null);
+        LocationStreamBuffer buffer = stream.getOverflowPolicy() == LocationProperties.StreamOverflowPolicy.DROP
+                ? LocationStreamBuffer.dropping(stream.getBufferSize())
+                : LocationStreamBuffer.coalescing(stream.getBufferSize());
+        SseEmitter emitter = new SseEmitter(stream.getTimeoutMs());
+        Subscriber subscriber = new Subscriber(filter, buffer, emitter);
+
+        register(subscriber, stream.getMaxSubscribers());
+        emitter.onCompletion(() -> unregister(subscriber));
+        emitter.onTimeout(() -> unregister(subscriber));
+        emitter.onError(e -> unregister(subscriber));
+
+        if (snapshot && filter.hasDeviceIds()) {
+            for (LocationEntity latest : latestLocationService.getLatest(filter.getDeviceIds()).values()) {
+                if (filter.withinBoundingBox(latest.getLatitude(), latest.getLongitude())) {
+                    offer(subscriber, LocationStreamEvent.location(latest));
+                }
+            }
+        }
+        return emitter;
+    }
+
+    @Override
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    @Override
+    public void onCommitted(List<LocationEntity> entities) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<String, List<Subscriber>> byDevice = subscribersByDevice;
+        List<Subscriber> unindexed = unindexedSubscribers;
+        for (LocationEntity entity : entities) {
+            LocationStreamEvent event = null;
+            List<Subscriber> deviceSubscribers = byDevice.get(entity.getDeviceId());
+            if (deviceSubscribers != null) {
+                for (Subscriber subscriber : deviceSubscribers) {
+                    if (subscriber.filter.withinBoundingBox(entity.getLatitude(), entity.getLongitude())) {
+                        event = event == null ? LocationStreamEvent.location(entity) : event;
+                        offer(subscriber, event);
+                    }
+                }
+            }
+            for (Subscriber subscriber : unindexed) {
+                if (subscriber.filter.matches(entity.getDeviceId(), entity.getLatitude(), entity.getLongitude())) {
+                    event = event == null ? LocationStreamEvent.location(entity) : event;
+                    offer(subscriber, event);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void onGeofenceEvents(List<GeofenceEventEntity> events) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        Map<String, List<Subscriber>> byDevice = subscribersByDevice;
+        List<Subscriber> unindexed = unindexedSubscribers;
+        for (GeofenceEventEntity geofenceEvent : events) {
+            LocationStreamEvent event = null;
+            List<Subscriber> deviceSubscribers = byDevice.get(geofenceEvent.getDeviceId());
+            if (deviceSubscribers != null) {
+                for (Subscriber subscriber : deviceSubscribers) {
+                    if (subscriber.filter.withinBoundingBox(geofenceEvent.getLatitude(),
+                            geofenceEvent.getLongitude())) {
+                        event = event == null ? LocationStreamEvent.geofence(geofenceEvent) : event;
+                        offer(subscriber, event);
+                    }
+                }
+            }
+            for (Subscriber subscriber : unindexed) {
+                if (subscriber.filter.matches(geofenceEvent.getDeviceId(), geofenceEvent.getLatitude(),
+                        geofenceEvent.getLongitude())) {
+                    event = event == null ? LocationStreamEvent.geofence(geofenceEvent) : event;
+                    offer(subscriber, event);
+                }
+            }
+        }
+    }
+
+    private Set<String> parseDeviceIds(String deviceId, String deviceIds, LocationProperties.Stream stream) {
+        Set<String> result = new LinkedHashSet<>();
+        if (StringUtils.hasText(deviceId)) {
+            result.add(deviceId.trim());
+        }
+        if (StringUtils.hasText(deviceIds)) {
+            for (String id : deviceIds.split(",")) {
+                if (StringUtils.hasText(id)) {
+                    result.add(id.trim());
+                }
+            }
+        }
+        if (result.size() > stream.getMaxDevicesPerSubscription()) {
+            throw new IllegalArgumentException("单个订阅最多指定 " + stream.getMaxDevicesPerSubscription() + " 台设备");
+        }
+        return result;
+    }
+
+    private void offer(Subscriber subscriber, LocationStreamEvent event) {
+        switch (subscriber.buffer.offer(event)) {
+            case DROPPED:
+                subscriber.dropped.incrementAndGet();
+                droppedCounter.increment();
+                break;
+            case COALESCED:
+                subscriber.coalesced.incrementAndGet();
+                coalescedCounter.increment();
+                break;
+            default:
+                break;
+        }
+        schedule(subscriber);
+    }
+
+    /**
+     * 订阅者没有推送任务在执行时提交一个，已有任务时由该任务退出前重新检查缓冲区
+     */
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.closed.get() || !subscriber.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> dispatch(subscriber));
+        } catch (RejectedExecutionException e) {
+            // 服务停止中
+            subscriber.scheduled.set(false);
+        }
+    }
+
+    private void dispatch(Subscriber subscriber) {
+        int maxEvents = locationProperties.getStream().getMaxEventsPerDispatch();
+        List<LocationStreamEvent> events = new ArrayList<>(Math.min(maxEvents, 64));
+        try {
+            subscriber.buffer.drainTo(events, maxEvents);
+            boolean heartbeatDue = subscriber.heartbeatDue.getAndSet(false);
+            long dropped = subscriber.dropped.getAndSet(0);
+            long coalesced = subscriber.coalesced.getAndSet(0);
+            if (dropped > 0 || coalesced > 0) {
+                subscriber.emitter.send(SseEmitter.event().name(EVENT_DROPPED)
+                        .data("{\"dropped\":" + dropped + ",\"coalesced\":" + coalesced + "}"));
+            }
+            for (LocationStreamEvent event : events) {
+                subscriber.emitter.send(SseEmitter.event().name(event.getName()).id(event.getId())
+                        .data(event.toJson(objectMapper)));
+            }
+            sentCounter.increment(events.size());
+            if (heartbeatDue && events.isEmpty() && dropped == 0 && coalesced == 0) {
+                subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开或连接已结束，由容器回调结束异步请求
+            log.debug("实时位置推送失败，取消订阅. filter={}", subscriber.filter.getDeviceIds(), e);
+            unregister(subscriber);
+        } finally {
+            subscriber.scheduled.set(false);
+            if (!subscriber.buffer.isEmpty()) {
+                schedule(subscriber);
+            }
+        }
+    }
+
+    private void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue.set(true);
+            schedule(subscriber);
+        }
+    }
+
+    private synchronized void register(Subscriber subscriber, int maxSubscribers) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new IllegalStateException("订阅连接数已达上限 " + maxSubscribers);
+        }
+        subscribers.add(subscriber);
+        rebuildIndex();
+    }
+
+    private void unregister(Subscriber subscriber) {
+        if (subscriber.closed.compareAndSet(false, true)) {
+            synchronized (this) {
+                subscribers.remove(subscriber);
+                rebuildIndex();
+            }
+        }
+    }
+
+    private void rebuildIndex() {
+        Map<String, List<Subscriber>> byDevice = new HashMap<>();
+        List<Subscriber> unindexed = new ArrayList<>();
+        for (Subscriber subscriber : subscribers) {
+            if (!subscriber.filter.hasDeviceIds()) {
+                unindexed.add(subscriber);
+                continue;
+            }
+            for (String deviceId : subscriber.filter.getDeviceIds()) {
+                byDevice.computeIfAbsent(deviceId, key -> new ArrayList<>(1)).add(subscriber);
+            }
+        }
+        subscribersByDevice = byDevice;
+        unindexedSubscribers = unindexed;
+    }
+
+    /**
+     * 订阅者
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class Subscriber {
+
+        private final LocationStreamFilter filter;
+
+        private final LocationStreamBuffer buffer;
+
+        private final SseEmitter emitter;
+
+        /**
+         * 是否有推送任务已提交或正在执行
+         */
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private final AtomicBoolean heartbeatDue = new AtomicBoolean();
+
+        /**
+         * 上次推送以来丢弃的条数
+         */
+        private final AtomicLong dropped = new AtomicLong();
+
+        /**
+         * 上次推送以来合并的条数
+         */
+        private final AtomicLong coalesced = new AtomicLong();
+
+        private Subscriber(LocationStreamFilter filter, LocationStreamBuffer buffer, SseEmitter emitter) {
+            this.filter = filter;
+            this.buffer = buffer;
+            this.emitter = emitter;
+        }
+    }
+}
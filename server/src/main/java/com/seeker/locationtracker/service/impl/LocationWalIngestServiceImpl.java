@@ -0,0 +1,420 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.common.wal.LocationWriteAheadLog;
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.LocationIngestQueueService;
+import com.seeker.locationtracker.service.LocationWriteService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 基于预写日志的位置数据写入服务实现类
+ * 
+ * <p>请求线程把位置数据追加到内存映射的预写日志，与同时到达的其他请求合并刷盘后返回，
+ * 请求耗时只包含一次顺序写的fsync，与SQLite事务提交的耗时解耦；进程崩溃时已确认的数据都在日志中。
+ * 单个后台写线程从日志中按 group-commit-size / group-commit-interval-ms 分组读取，经 LocationWriteService 写库
+ * （按位置时间路由到月份分区表，提交后通知内存视图），再推进检查点、删除已写库的段。</p>
+ * 
+ * <p>写库失败按原因区分：数据库忙或锁定、I/O错误、磁盘已满、获取连接超时等暂时性错误按退避一直重试，
+ * 不推进检查点，数据留在日志中；只有数据本身导致的确定性错误（约束冲突、类型不符、值过大等）才逐条写库，
+ * 逐条仍是确定性错误的记录移到预写日志目录的 rejected 文件并计入 location.ingest.wal.rejected，
+ * 不会因为一条无法写入的数据阻塞整个日志。无法判断的错误按暂时性错误处理，宁可阻塞也不丢数据。
+ * 写连接在wal模式下使用 synchronous=FULL，写库事务提交即已落盘，之后才推进检查点、删除段。</p>
+ * 
+ * <p>启动时（Web服务开始接收请求之前）先重放检查点之后的数据，再把 rejected 文件中的记录重新写库：
+ * 修复原因（如表结构）后重启即可补写，仍是确定性错误的记录重新移回 rejected 文件。
+ * 启动时的写库暂时性错误只重试有限次，仍失败则启动失败，日志和 rejected 文件保留。
+ * 停止时写线程把已刷盘的数据写完再退出，超时未写完的数据下次启动时重放。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.location.ingest", name = "mode", havingValue = "wal")
+public class LocationWalIngestServiceImpl implements LocationIngestQueueService, SmartInitializingSingleton {
+
+    /**
+     * 启动重放时暂时性错误的最大尝试次数，写线程运行时不限次数
+     */
+    private static final int MAX_STARTUP_ATTEMPTS = 5;
+
+    private static final long RETRY_BACKOFF_MS = 200;
+
+    /**
+     * 重试退避的上限倍数，即最长每 2 秒重试一次
+     */
+    private static final int MAX_BACKOFF_MULTIPLIER = 10;
+
+    /**
+     * SQLite结果码（SQLException.getErrorCode 的低8位）中由数据本身导致的确定性错误：
+     * SQLITE_TOOBIG、SQLITE_CONSTRAINT、SQLITE_MISMATCH、SQLITE_RANGE
+     */
+    private static final int[] DETERMINISTIC_SQLITE_CODES = {18, 19, 20, 25};
+
+    private static final long SHUTDOWN_TIMEOUT_MS = 10000;
+
+    @Resource
+    private LocationWriteService locationWriteService;
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private LocationWriteAheadLog wal;
+
+    private Thread applierThread;
+
+    private volatile boolean running;
+
+    /**
+     * 服务是否正在停止，停止后写库失败不再重试，数据留在日志中
+     */
+    private volatile boolean stopped;
+
+    /**
+     * 已确认、尚未写库的条数
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final Object applierMonitor = new Object();
+
+    /**
+     * 写线程是否在等待新数据，刷盘后只在等待时唤醒，避免每个请求都加锁
+     */
+    private volatile boolean applierWaiting;
+
+    private Timer syncTimer;
+
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() throws IOException {
+        LocationProperties.Ingest ingest = locationProperties.getIngest();
+        wal = LocationWriteAheadLog.open(Paths.get(ingest.getWalPath()), ingest.getWalSegmentBytes());
+        syncTimer = Timer.builder("location.ingest.wal.sync")
+                .description("预写日志分组刷盘耗时").publishPercentileHistogram().register(meterRegistry);
+        rejectedCounter = Counter.builder("location.ingest.wal.rejected")
+                .description("无法写库、移到 rejected 文件的位置数据条数").register(meterRegistry);
+        Gauge.builder("location.ingest.wal.pending", pending, AtomicInteger::get)
+                .description("预写日志中已确认、尚未写库的条数").register(meterRegistry);
+        Gauge.builder("location.ingest.wal.pending.bytes", wal, LocationWriteAheadLog::pendingBytes)
+                .description("预写日志中尚未写库的字节数").register(meterRegistry);
+        Gauge.builder("location.ingest.wal.segments", wal, LocationWriteAheadLog::segmentCount)
+                .description("预写日志段文件个数").register(meterRegistry);
+    }
+
+    /**
+     * 所有单例初始化之后（数据库迁移已完成）重放未写库的数据，再开始接收写入
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        LocationProperties.Ingest ingest = locationProperties.getIngest();
+        long start = System.currentTimeMillis();
+        long replayed;
+        int rejectedReplayed;
+        try {
+            replayed = wal.replay(ingest.getGroupCommitSize(), this::applyOnStartup);
+            rejectedReplayed = replayRejected(ingest.getGroupCommitSize());
+        } catch (IOException e) {
+            throw new UncheckedIOException("预写日志重放失败", e);
+        }
+        running = true;
+        applierThread = new Thread(this::runApplier, "location-wal-applier");
+        applierThread.setDaemon(true);
+        applierThread.start();
+        log.info("位置数据预写日志已启用. path={}, segmentBytes={}, replayed={}, rejectedReplayed={}, costMs={}",
+                ingest.getWalPath(), ingest.getWalSegmentBytes(), replayed, rejectedReplayed,
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 把 rejected 文件中的记录重新写库，仍是确定性错误的记录重新移回 rejected 文件
+     * 
+     * @param batchSize 每批条数
+     * @return 重新写库的条数（含再次移回的）
+     * @throws IOException rejected 文件读写失败
+     */
+    private int replayRejected(int batchSize) throws IOException {
+        List<LocationEntity> rejected = wal.takeQuarantined();
+        if (rejected.isEmpty()) {
+            return 0;
+        }
+        long before = (long) rejectedCounter.count();
+        for (int from = 0; from < rejected.size(); from += batchSize) {
+            applyOnStartup(new ArrayList<>(rejected.subList(from, Math.min(rejected.size(), from + batchSize))));
+        }
+        wal.finishQuarantineReplay();
+        log.info("rejected 文件中的位置数据已重新写库. total={}, stillRejected={}", rejected.size(),
+                (long) rejectedCounter.count() - before);
+        return rejected.size();
+    }
+
+    /**
+     * 启动时写库，暂时性错误有限次重试后仍失败则抛出异常使启动失败
+     */
+    private void applyOnStartup(List<LocationEntity> batch) {
+        try {
+            if (!apply(batch, MAX_STARTUP_ATTEMPTS)) {
+                throw new IllegalStateException("预写日志重放写库失败");
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("预写日志 rejected 文件写入失败", e);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException, IOException {
+        running = false;
+        stopped = true;
+        if (applierThread != null) {
+            wakeApplier();
+            applierThread.join(SHUTDOWN_TIMEOUT_MS);
+        }
+        wal.close();
+        if (pending.get() > 0) {
+            log.warn("预写日志写入停止时仍有 {} 条数据未写库，下次启动时重放", pending.get());
+        }
+    }
+
+    @Override
+    public boolean offer(LocationEntity entity) {
+        return offer(Collections.singletonList(entity))[0];
+    }
+
+    @Override
+    public boolean[] offer(List<LocationEntity> entities) {
+        boolean[] accepted = new boolean[entities.size()];
+        if (entities.isEmpty() || !running
+                || wal.pendingBytes() > locationProperties.getIngest().getWalMaxPendingBytes()) {
+            return accepted;
+        }
+        try {
+            long lsn = wal.append(entities);
+            long start = System.nanoTime();
+            if (wal.sync(lsn)) {
+                syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        } catch (RuntimeException e) {
+            log.error("位置数据追加到预写日志失败. size={}", entities.size(), e);
+            return accepted;
+        }
+        pending.addAndGet(entities.size());
+        if (applierWaiting) {
+            wakeApplier();
+        }
+        for (int i = 0; i < accepted.length; i++) {
+            accepted[i] = true;
+        }
+        return accepted;
+    }
+
+    @Override
+    public int size() {
+        return pending.get();
+    }
+
+    /**
+     * 后台写线程主循环：从检查点开始读取已刷盘的记录，攒满一组或等待超时后写库
+     */
+    private void runApplier() {
+        LocationProperties.Ingest ingest = locationProperties.getIngest();
+        int groupCommitSize = ingest.getGroupCommitSize();
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(ingest.getGroupCommitIntervalMs());
+        List<LocationEntity> batch = new ArrayList<>(groupCommitSize);
+        long cursor = wal.getApplied();
+        long deadline = 0;
+        try {
+            while (true) {
+                boolean wasEmpty = batch.isEmpty();
+                cursor = wal.read(cursor, groupCommitSize - batch.size(), batch);
+                if (batch.isEmpty()) {
+                    if (!running) {
+                        break;
+                    }
+                    awaitRecords(cursor, intervalNanos);
+                    continue;
+                }
+                if (wasEmpty) {
+                    deadline = System.nanoTime() + intervalNanos;
+                }
+                long remaining = deadline - System.nanoTime();
+                if (batch.size() < groupCommitSize && running && remaining > 0) {
+                    awaitRecords(cursor, remaining);
+                    continue;
+                }
+                if (!apply(batch, Integer.MAX_VALUE)) {
+                    // 停止时仍写库失败，数据留在日志中下次启动时重放
+                    break;
+                }
+                wal.markApplied(cursor);
+                pending.addAndGet(-batch.size());
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("预写日志检查点写入失败，写线程退出，未写库的数据下次启动时重放", e);
+        }
+    }
+
+    /**
+     * 等待新的已刷盘记录或超时
+     * 
+     * @param cursor 已读取到的LSN
+     * @param timeoutNanos 最长等待时间(纳秒)
+     */
+    private void awaitRecords(long cursor, long timeoutNanos) throws InterruptedException {
+        synchronized (applierMonitor) {
+            applierWaiting = true;
+            try {
+                // 先登记等待再检查：刷盘线程先更新刷盘位置再检查是否有人等待，两边至少有一边能看到对方
+                if (running && wal.getSynced() == cursor) {
+                    TimeUnit.NANOSECONDS.timedWait(applierMonitor, timeoutNanos);
+                }
+            } finally {
+                applierWaiting = false;
+            }
+        }
+    }
+
+    private void wakeApplier() {
+        synchronized (applierMonitor) {
+            applierMonitor.notifyAll();
+        }
+    }
+
+    /**
+     * 写库：暂时性错误按退避重试，整批遇到确定性错误时逐条写库，逐条仍是确定性错误的记录移到 rejected 文件
+     * 
+     * @param batch 待写库的数据
+     * @param maxAttempts 暂时性错误的最大尝试次数
+     * @return 整批是否已处理（写库或移出），服务停止或暂时性错误重试次数用完时返回false，数据留在日志中
+     * @throws IOException rejected 文件写入失败
+     */
+    private boolean apply(List<LocationEntity> batch, int maxAttempts) throws IOException {
+        Outcome outcome = commit(batch, maxAttempts);
+        if (outcome != Outcome.REJECTED) {
+            return outcome == Outcome.APPLIED;
+        }
+        List<LocationEntity> rejected = new ArrayList<>();
+        for (LocationEntity entity : batch) {
+            outcome = commit(Collections.singletonList(entity), maxAttempts);
+            if (outcome == Outcome.REJECTED) {
+                rejected.add(entity);
+            } else if (outcome != Outcome.APPLIED) {
+                // 逐条写库到一半停止，已写库的记录重放时被唯一索引忽略
+                return false;
+            }
+        }
+        if (!rejected.isEmpty()) {
+            wal.quarantine(rejected);
+            rejectedCounter.increment(rejected.size());
+            log.error("{} 条位置数据无法写库，已移到预写日志目录的 rejected 文件. batchSize={}, first={}:{}",
+                    rejected.size(), batch.size(), rejected.get(0).getDeviceId(),
+                    rejected.get(0).getLocationTimestamp());
+        }
+        return true;
+    }
+
+    /**
+     * 写库，暂时性错误按退避重试，服务停止时不再重试
+     * 
+     * @param batch 待写库的数据
+     * @param maxAttempts 暂时性错误的最大尝试次数
+     * @return 写库结果
+     */
+    private Outcome commit(List<LocationEntity> batch, int maxAttempts) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                locationWriteService.saveBatch(batch);
+                return Outcome.APPLIED;
+            } catch (Exception e) {
+                if (isDeterministic(e)) {
+                    log.warn("预写日志写库遇到数据错误. size={}", batch.size(), e);
+                    return Outcome.REJECTED;
+                }
+                if (attempt >= maxAttempts || stopped) {
+                    log.error("预写日志写库失败，数据留在日志中. size={}, attempts={}", batch.size(), attempt, e);
+                    return Outcome.PENDING;
+                }
+                if (attempt == 1) {
+                    log.warn("预写日志写库失败，按退避重试. size={}", batch.size(), e);
+                } else {
+                    log.warn("预写日志写库失败，第 {} 次重试. size={}, cause={}", attempt, batch.size(), e.toString());
+                }
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MS * Math.min(attempt, MAX_BACKOFF_MULTIPLIER));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return Outcome.PENDING;
+                }
+            }
+        }
+    }
+
+    /**
+     * 是否为数据本身导致、重试也不会成功的错误：异常链中有数据完整性异常、参数异常，
+     * 或SQLite结果码为约束冲突、类型不符、值过大、参数越界
+     */
+    private static boolean isDeterministic(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof DataIntegrityViolationException || cause instanceof IllegalArgumentException) {
+                return true;
+            }
+            if (cause instanceof SQLException) {
+                int code = ((SQLException) cause).getErrorCode() & 0xFF;
+                for (int deterministic : DETERMINISTIC_SQLITE_CODES) {
+                    if (code == deterministic) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 写库结果
+     */
+    private enum Outcome {
+
+        /**
+         * 已写库
+         */
+        APPLIED,
+
+        /**
+         * 确定性错误，重试也不会成功
+         */
+        REJECTED,
+
+        /**
+         * 暂时性错误重试次数用完或服务停止，数据留在日志中
+         */
+        PENDING
+    }
+}
@@ -0,0 +1,307 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.common.datasource.PreparedStatementCache;
+import com.seeker.locationtracker.mapper.LocationMapper;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.LocationIngestListener;
+import com.seeker.locationtracker.service.LocationPartitionService;
+import com.seeker.locationtracker.service.LocationWriteService;
+import com.seeker.locationtracker.util.GeoHashUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 位置数据批量写入服务实现类
+ * 
+ * <p>每张分区表的写入语句在写连接上编译一次后缓存复用，参数逐列手工绑定后以JDBC批处理执行，
+ * 整批数据在一个事务中提交，避免SQLite每行一次提交带来的fsync开销。每条数据按位置时间路由到所属的月份分区表。</p>
+ * 
+ * <p>同一设备同一位置时间的数据已存在时不写入，对应的影响行数为0。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class LocationWriteServiceImpl implements LocationWriteService {
+
+    /**
+     * 与 LocationMapper.insertIntoPartition 相同的写入语句，%s 为分区表名
+     */
+    private static final String INSERT_SQL_TEMPLATE = "INSERT OR IGNORE INTO %s (DEVICE_ID, LATITUDE, LONGITUDE, "
+            + "ACCURACY, ALTITUDE, SPEED, BEARING, PROVIDER, LOCATION_TIMESTAMP, GEOHASH, CREATE_TIME, UPDATE_TIME) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Resource
+    private SqlSessionFactory sqlSessionFactory;
+
+    @Resource
+    private DataSource dataSource;
+
+    @Resource
+    private LocationMapper locationMapper;
+
+    @Resource
+    private LocationPartitionService locationPartitionService;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private List<LocationIngestListener> locationIngestListeners;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 分区表名 -> 写入语句
+     */
+    private final Map<String, String> insertSqls = new ConcurrentHashMap<>();
+
+    private Timer commitTimer;
+
+    private Timer insertStatementTimer;
+
+    private DistributionSummary commitSizeSummary;
+
+    private Counter insertedRowsCounter;
+
+    private Counter ignoredRowsCounter;
+
+    @PostConstruct
+    public void init() {
+        commitTimer = Timer.builder("location.ingest.commit")
+                .description("批量写入事务耗时（含提交）").publishPercentileHistogram().register(meterRegistry);
+        // 写入不再经过MyBatis拦截器，沿用原来的语句耗时指标
+        insertStatementTimer = Timer.builder("location.sqlite.statement")
+                .tag("statement", "LocationMapper.insertIntoPartition").tag("type", "batch")
+                .description("SQL语句执行耗时").publishPercentileHistogram().register(meterRegistry);
+        commitSizeSummary = DistributionSummary.builder("location.ingest.commit.size")
+                .description("每个写入事务的行数").publishPercentileHistogram().register(meterRegistry);
+        insertedRowsCounter = Counter.builder("location.ingest.rows").tag("result", "inserted")
+                .description("写入的位置数据行数").register(meterRegistry);
+        ignoredRowsCounter = Counter.builder("location.ingest.rows").tag("result", "duplicate")
+                .description("写入的位置数据行数").register(meterRegistry);
+    }
+
+    @Override
+    public int[] saveBatch(List<LocationEntity> entities) {
+        int[] counts = new int[entities.size()];
+        if (entities.isEmpty()) {
+            return counts;
+        }
+        // 分区表在写入事务之外解析和创建：写连接只有一个，事务内不能再借连接建表
+        String[] tables = new String[entities.size()];
+        for (int i = 0; i < entities.size(); i++) {
+            LocationEntity entity = entities.get(i);
+            tables[i] = locationPartitionService.resolveWritePartition(entity.getLocationTimestamp());
+            if (entity.getGeohash() == null) {
+                entity.setGeohash(GeoHashUtils.encode(entity.getLatitude(), entity.getLongitude()));
+            }
+        }
+        // 按分区表排序后写入，同一张表的数据连续执行才能作为同一个PreparedStatement的一批
+        Integer[] order = new Integer[entities.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing(i -> tables[i]));
+        
+        long start = System.nanoTime();
+        transactionTemplate.execute(status -> {
+            // 取事务绑定的写连接，语句在连接上缓存复用，参数逐列手工绑定，不经过MyBatis的动态SQL和反射取值
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                long statementStart = System.nanoTime();
+                int from = 0;
+                while (from < order.length) {
+                    String table = tables[order[from]];
+                    int to = from + 1;
+                    while (to < order.length && tables[order[to]].equals(table)) {
+                        to++;
+                    }
+                    insertIntoPartition(connection, table, entities, order, from, to, counts);
+                    from = to;
+                }
+                insertStatementTimer.record(System.nanoTime() - statementStart, TimeUnit.NANOSECONDS);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+            
+            // 事务提交成功后再通知内存视图，回滚时不会留下脏数据；影响行数为0的是被唯一索引忽略的重复数据
+            List<LocationEntity> inserted = new ArrayList<>(entities.size());
+            List<LocationEntity> ignored = new ArrayList<>();
+            for (int i = 0; i < counts.length; i++) {
+                if (counts[i] != 0) {
+                    inserted.add(entities.get(i));
+                } else {
+                    ignored.add(entities.get(i));
+                }
+            }
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    for (LocationIngestListener listener : locationIngestListeners) {
+                        try {
+                            listener.onCommitted(inserted);
+                            if (!ignored.isEmpty()) {
+                                listener.onIgnored(ignored);
+                            }
+                        } catch (RuntimeException e) {
+                            log.error("位置数据写入监听器执行失败. listener={}", listener.getClass().getSimpleName(), e);
+                        }
+                    }
+                }
+            });
+            return null;
+        });
+        commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        commitSizeSummary.record(entities.size());
+        int inserted = 0;
+        for (int count : counts) {
+            if (count != 0) {
+                inserted++;
+            }
+        }
+        insertedRowsCounter.increment(inserted);
+        ignoredRowsCounter.increment(counts.length - inserted);
+        return counts;
+    }
+
+    /**
+     * 批量写入同一张分区表的数据，影响行数按原始顺序写回
+     * 
+     * @param connection 事务连接
+     * @param table 分区表名
+     * @param entities 位置数据
+     * @param order 按分区表排序后的下标
+     * @param from 本表在 order 中的起始位置（含）
+     * @param to 本表在 order 中的结束位置（不含）
+     * @param counts 影响行数
+     */
+    private void insertIntoPartition(Connection connection, String table, List<LocationEntity> entities,
+                                     Integer[] order, int from, int to, int[] counts) {
+        String sql = insertSqls.computeIfAbsent(table, key -> String.format(INSERT_SQL_TEMPLATE, key));
+        PreparedStatementCache statementCache = null;
+        try {
+            // 写连接池的物理连接带语句缓存，其他数据源（如测试用的H2）按普通方式创建并关闭语句
+            statementCache = PreparedStatementCache.of(connection);
+            if (statementCache == null) {
+                try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                    executeInsertBatch(statement, entities, order, from, to, counts);
+                }
+                return;
+            }
+            PreparedStatement statement = statementCache.prepare(sql);
+            try {
+                executeInsertBatch(statement, entities, order, from, to, counts);
+            } finally {
+                statement.clearBatch();
+                statement.clearParameters();
+            }
+        } catch (SQLException e) {
+            if (statementCache != null) {
+                statementCache.evict(sql);
+            }
+            throw new UncategorizedSQLException("位置数据批量写入", sql, e);
+        }
+    }
+
+    private static void executeInsertBatch(PreparedStatement statement, List<LocationEntity> entities,
+                                           Integer[] order, int from, int to, int[] counts) throws SQLException {
+        for (int i = from; i < to; i++) {
+            bindInsert(statement, entities.get(order[i]));
+            statement.addBatch();
+        }
+        int[] updateCounts = statement.executeBatch();
+        for (int i = 0; i < updateCounts.length; i++) {
+            counts[order[from + i]] = updateCounts[i];
+        }
+    }
+
+    /**
+     * 按 INSERT_SQL_TEMPLATE 的列顺序绑定参数，时间列与MyBatis的DateTypeHandler一样按Timestamp绑定
+     */
+    private static void bindInsert(PreparedStatement statement, LocationEntity entity) throws SQLException {
+        statement.setString(1, entity.getDeviceId());
+        statement.setDouble(2, entity.getLatitude());
+        statement.setDouble(3, entity.getLongitude());
+        setNullableDouble(statement, 4, entity.getAccuracy());
+        setNullableDouble(statement, 5, entity.getAltitude());
+        setNullableDouble(statement, 6, entity.getSpeed());
+        setNullableDouble(statement, 7, entity.getBearing());
+        statement.setString(8, entity.getProvider());
+        statement.setLong(9, entity.getLocationTimestamp());
+        if (entity.getGeohash() == null) {
+            statement.setNull(10, Types.BIGINT);
+        } else {
+            statement.setLong(10, entity.getGeohash());
+        }
+        setNullableTimestamp(statement, 11, entity.getCreateTime());
+        setNullableTimestamp(statement, 12, entity.getUpdateTime());
+    }
+
+    private static void setNullableDouble(PreparedStatement statement, int index, Double value) throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.DOUBLE);
+        } else {
+            statement.setDouble(index, value);
+        }
+    }
+
+    private static void setNullableTimestamp(PreparedStatement statement, int index, Date value)
+            throws SQLException {
+        if (value == null) {
+            statement.setNull(index, Types.TIMESTAMP);
+        } else {
+            statement.setTimestamp(index, new Timestamp(value.getTime()));
+        }
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public int backfillGeohash(int limit) {
+        List<LocationEntity> entities = locationMapper.selectWithoutGeohash(limit);
+        if (entities.isEmpty()) {
+            return 0;
+        }
+        try (SqlSession batchSqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+            LocationMapper mapper = batchSqlSession.getMapper(LocationMapper.class);
+            for (LocationEntity entity : entities) {
+                mapper.updateGeohash(entity.getTid(),
+                        GeoHashUtils.encode(entity.getLatitude(), entity.getLongitude()));
+            }
+            batchSqlSession.flushStatements();
+        }
+        return entities.size();
+    }
+}
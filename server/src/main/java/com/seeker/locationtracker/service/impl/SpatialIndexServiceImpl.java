@@ -0,0 +1,79 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.common.spatial.DeviceGridIndex;
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.vo.NearbyLocationVO;
+import com.seeker.locationtracker.service.LocationIngestListener;
+import com.seeker.locationtracker.service.SpatialIndexService;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 设备空间索引服务实现类
+ * 
+ * <p>启动时由预热任务加载每台设备的最新位置，之后作为写入监听器在提交成功后更新。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Service
+public class SpatialIndexServiceImpl implements SpatialIndexService, LocationIngestListener {
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    private DeviceGridIndex index;
+
+    @PostConstruct
+    public void init() {
+        index = new DeviceGridIndex(locationProperties.getSpatial().getCellSizeDegrees());
+    }
+
+    @Override
+    public void onCommitted(List<LocationEntity> entities) {
+        for (LocationEntity entity : entities) {
+            index.update(entity);
+        }
+    }
+
+    @Override
+    public void warmUp(List<LocationEntity> latest) {
+        onCommitted(latest);
+    }
+
+    @Override
+    public List<NearbyLocationVO> withinRadius(double latitude, double longitude, double radiusMeters, int limit) {
+        return toVOs(index.withinRadius(latitude, longitude, radiusMeters, limit));
+    }
+
+    @Override
+    public List<NearbyLocationVO> nearest(double latitude, double longitude, int k, double maxRadiusMeters) {
+        return toVOs(index.nearest(latitude, longitude, k, maxRadiusMeters));
+    }
+
+    @Override
+    public int size() {
+        return index.size();
+    }
+
+    private List<NearbyLocationVO> toVOs(List<DeviceGridIndex.Neighbor> neighbors) {
+        List<NearbyLocationVO> result = new ArrayList<>(neighbors.size());
+        for (DeviceGridIndex.Neighbor neighbor : neighbors) {
+            LocationEntity location = neighbor.getLocation();
+            NearbyLocationVO vo = new NearbyLocationVO();
+            vo.setDeviceId(location.getDeviceId());
+            vo.setLatitude(location.getLatitude());
+            vo.setLongitude(location.getLongitude());
+            vo.setAccuracy(location.getAccuracy());
+            vo.setLocationTimestamp(location.getLocationTimestamp());
+            vo.setDistance(neighbor.getDistanceMeters());
+            result.add(vo);
+        }
+        return result;
+    }
+}
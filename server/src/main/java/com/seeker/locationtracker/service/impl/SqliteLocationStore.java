@@ -0,0 +1,123 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.mapper.LocationMapper;
+import com.seeker.locationtracker.model.dto.TrackQueryDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.entity.LocationPartitionEntity;
+import com.seeker.locationtracker.service.LocationPartitionService;
+import com.seeker.locationtracker.service.LocationStore;
+import com.seeker.locationtracker.service.LocationWriteService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 基于SQLite月份分区表的位置数据存储，服务端默认的存储（app.location.store=sqlite）
+ * 
+ * <p>写入直接使用上传链路的 LocationWriteService，事务提交后同样会通知内存视图；
+ * 查询按时间范围裁剪分区后走 (DEVICE_ID, LOCATION_TIMESTAMP) 唯一索引。</p>
+ * 
+ * <p>按位置时间删除只删除分区表中的数据，不删除分区表本身，也不更新最新位置等内存视图。</p>
+ * 
+ * <p>写入的是传入实体的副本，LocationWriteService 补齐的地理哈希和时间列不会回写到调用方的对象上。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "app.location", name = "store", havingValue = "sqlite", matchIfMissing = true)
+public class SqliteLocationStore implements LocationStore {
+
+    @Resource
+    private LocationWriteService locationWriteService;
+
+    @Resource
+    private LocationPartitionService locationPartitionService;
+
+    @Resource
+    private LocationMapper locationMapper;
+
+    @Override
+    public String name() {
+        return "sqlite";
+    }
+
+    @Override
+    public int append(LocationEntity entity) {
+        return appendBatch(Collections.singletonList(entity))[0];
+    }
+
+    @Override
+    public int[] appendBatch(List<LocationEntity> entities) {
+        Date now = new Date();
+        List<LocationEntity> copies = new ArrayList<>(entities.size());
+        for (LocationEntity entity : entities) {
+            copies.add(copy(entity, now));
+        }
+        return locationWriteService.saveBatch(copies);
+    }
+
+    @Override
+    public LocationEntity latest(String deviceId) {
+        return locationMapper.selectLatestByDevice(deviceId, locationPartitionService.resolveReadPartitions(null, null));
+    }
+
+    @Override
+    public List<LocationEntity> track(String deviceId, Long from, Long to, int limit) {
+        TrackQueryDTO query = new TrackQueryDTO();
+        query.setDeviceId(deviceId);
+        query.setFrom(from);
+        query.setTo(to);
+        query.setLimit(limit);
+        query.setTables(locationPartitionService.resolveReadPartitions(from, to));
+        return locationMapper.selectTrackPage(query);
+    }
+
+    @Override
+    public long deleteBefore(long locationTimestamp) {
+        long deleted = 0;
+        // 每个分区一条语句、各自提交，整张分区都早于截止时间时不逐行判断
+        for (LocationPartitionEntity partition : locationPartitionService.listPartitions()) {
+            if (partition.getStartTimestamp() >= locationTimestamp) {
+                continue;
+            }
+            Long before = partition.getEndTimestamp() <= locationTimestamp ? null : locationTimestamp;
+            deleted += locationMapper.deleteLocatedBefore(partition.getTableName(), before);
+        }
+        log.info("按位置时间删除位置数据. before={}, deleted={}", locationTimestamp, deleted);
+        return deleted;
+    }
+
+    /**
+     * 复制待写入的位置数据，不复制主键
+     * 
+     * <p>写入语句显式绑定时间列，未设置时按上传链路的方式取当前时间，否则保留期清理无法按创建时间删除。</p>
+     * 
+     * @param entity 位置实体
+     * @param now 当前时间
+     * @return 副本
+     */
+    static LocationEntity copy(LocationEntity entity, Date now) {
+        LocationEntity copy = new LocationEntity();
+        copy.setDeviceId(entity.getDeviceId());
+        copy.setLatitude(entity.getLatitude());
+        copy.setLongitude(entity.getLongitude());
+        copy.setAccuracy(entity.getAccuracy());
+        copy.setAltitude(entity.getAltitude());
+        copy.setSpeed(entity.getSpeed());
+        copy.setBearing(entity.getBearing());
+        copy.setProvider(entity.getProvider());
+        copy.setLocationTimestamp(entity.getLocationTimestamp());
+        copy.setGeohash(entity.getGeohash());
+        copy.setCreateTime(entity.getCreateTime() == null ? now : entity.getCreateTime());
+        copy.setUpdateTime(entity.getUpdateTime() == null ? copy.getCreateTime() : entity.getUpdateTime());
+        return copy;
+    }
+}
@@ -0,0 +1,335 @@
+package com.seeker.locationtracker.service.impl;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.mapper.LocationMapper;
+import com.seeker.locationtracker.model.dto.TrackQueryDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.model.vo.SimplifiedTrackVO;
+import com.seeker.locationtracker.model.vo.TrackPointVO;
+import com.seeker.locationtracker.service.LocationArchiveService;
+import com.seeker.locationtracker.service.LocationIngestListener;
+import com.seeker.locationtracker.service.LocationPartitionService;
+import com.seeker.locationtracker.service.TrackSimplifyService;
+import com.seeker.locationtracker.util.GeoDistanceUtils;
+import com.seeker.locationtracker.util.TrackSimplifyUtils;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 轨迹抽稀服务实现类
+ * 
+ * <p>轨迹点逐行流出时先做半径过滤（与上一个保留点的距离不超过容差的点直接丢弃，不进入内存），
+ * 再对剩余点做Douglas-Peucker抽稀。结果只包含绘制需要的时间和经纬度。</p>
+ * 
+ * <p>SQLite中的轨迹点与归档中的轨迹点按位置时间归并后进入过滤，两层数据都是有序流，不需要整体排序。</p>
+ * 
+ * <p>结束时间早于当前时间超过宽限期的时间范围视为已关闭，其结果写入LRU缓存；
+ * 之后补传到已关闭范围内的位置数据会使该设备对应的缓存失效。每台设备单独记录其缓存键和一个代数：
+ * 失效时只检查该设备的缓存键，在写线程提交后的回调中不扫描整个缓存；补传使代数加一，
+ * 失效之前开始计算的结果在写入缓存前发现代数已变化，不再写入。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Service
+public class TrackSimplifyServiceImpl implements TrackSimplifyService, LocationIngestListener {
+
+    /**
+     * 归档按1e-7度定点化存储经纬度，差值小于该值视为同一位置
+     */
+    private static final double COORDINATE_EPSILON = 1e-7;
+
+    @Resource
+    private LocationMapper locationMapper;
+
+    @Resource
+    private LocationPartitionService locationPartitionService;
+
+    @Resource
+    private LocationArchiveService locationArchiveService;
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    private LRUCache<String, SimplifiedTrackVO> cache;
+
+    /**
+     * 设备唯一标识 -> 该设备的缓存键和代数
+     */
+    private final ConcurrentMap<String, DeviceEntries> deviceEntries = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        cache = CacheUtil.newLRUCache(locationProperties.getTrack().getCacheSize());
+        // 淘汰和失效都经过这里，缓存键索引与缓存保持一致；回调在缓存锁内执行，不能再获取设备锁
+        cache.setListener((key, track) -> {
+            DeviceEntries entries = deviceEntries.get(track.getDeviceId());
+            if (entries != null) {
+                entries.tracks.remove(key);
+            }
+        });
+    }
+
+    @Override
+    public SimplifiedTrackVO simplify(String deviceId, long from, long to, Double tolerance, Integer zoom) {
+        LocationProperties.Track config = locationProperties.getTrack();
+        boolean closed = to <= System.currentTimeMillis() - config.getClosedRangeGraceMs();
+        String cacheKey = deviceId + '|' + from + '|' + to + '|' + (tolerance != null ? "t" + tolerance : "z" + zoom);
+        DeviceEntries entries = null;
+        long generation = 0;
+        if (closed) {
+            SimplifiedTrackVO cached = cache.get(cacheKey);
+            if (cached != null) {
+                return cached;
+            }
+            entries = deviceEntries.computeIfAbsent(deviceId, id -> new DeviceEntries());
+            generation = entries.generation;
+        }
+
+        TrackQueryDTO query = new TrackQueryDTO();
+        query.setDeviceId(deviceId);
+        query.setFrom(from);
+        query.setTo(to);
+        query.setTables(locationPartitionService.resolveReadPartitions(from, to));
+        RadialFilter filter = new RadialFilter(tolerance, zoom, config.getMaxSimplifyPoints());
+        ArchiveMerger merger = new ArchiveMerger(locationArchiveService.trackPoints(deviceId, from, to), filter);
+        locationMapper.selectTrackPoints(query, merger);
+        merger.drain();
+        if (filter.total > config.getMaxSimplifyPoints()) {
+            throw new IllegalArgumentException("时间范围内轨迹点超过 " + config.getMaxSimplifyPoints() + " 个，请缩小时间范围");
+        }
+        List<TrackPointVO> candidates = filter.finish();
+
+        int n = candidates.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            TrackPointVO point = candidates.get(i);
+            x[i] = filter.projectX(point);
+            y[i] = filter.projectY(point);
+        }
+        boolean[] keep = TrackSimplifyUtils.douglasPeucker(x, y, n, filter.tolerance);
+        List<TrackPointVO> points = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            if (keep[i]) {
+                points.add(candidates.get(i));
+            }
+        }
+
+        SimplifiedTrackVO result = new SimplifiedTrackVO();
+        result.setDeviceId(deviceId);
+        result.setFrom(from);
+        result.setTo(to);
+        result.setTolerance(filter.tolerance);
+        result.setTotalPoints(filter.total);
+        result.setDroppedPoints(filter.total - points.size());
+        result.setPoints(points);
+        if (closed) {
+            synchronized (entries) {
+                // 计算期间有补传数据提交时结果可能已过期，不写入缓存
+                if (entries.generation == generation) {
+                    cache.put(cacheKey, result);
+                    entries.tracks.put(cacheKey, result);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void onCommitted(List<LocationEntity> entities) {
+        if (deviceEntries.isEmpty()) {
+            return;
+        }
+        long closedBefore = System.currentTimeMillis() - locationProperties.getTrack().getClosedRangeGraceMs();
+        for (LocationEntity entity : entities) {
+            // 只有补传到已关闭时间范围内的数据才可能让缓存过期，正常上传直接跳过
+            if (entity.getLocationTimestamp() >= closedBefore) {
+                continue;
+            }
+            DeviceEntries entries = deviceEntries.get(entity.getDeviceId());
+            if (entries == null) {
+                continue;
+            }
+            long timestamp = entity.getLocationTimestamp();
+            synchronized (entries) {
+                entries.generation++;
+                for (Map.Entry<String, SimplifiedTrackVO> entry : entries.tracks.entrySet()) {
+                    SimplifiedTrackVO track = entry.getValue();
+                    if (timestamp >= track.getFrom() && timestamp < track.getTo()) {
+                        cache.remove(entry.getKey());
+                        entries.tracks.remove(entry.getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * 一台设备的缓存键和代数
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class DeviceEntries {
+
+        /**
+         * 缓存键 -> 缓存的结果，淘汰时由缓存回调移除
+         */
+        private final Map<String, SimplifiedTrackVO> tracks = new ConcurrentHashMap<>();
+
+        /**
+         * 已关闭范围内的补传次数，只在持有本对象锁时修改
+         */
+        private volatile long generation;
+    }
+
+    /**
+     * 逐行接收SQLite中的轨迹点，与归档中的轨迹点按位置时间归并后交给半径过滤
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class ArchiveMerger implements ResultHandler<TrackPointVO> {
+
+        private final Iterator<TrackPointVO> archived;
+
+        private final RadialFilter filter;
+
+        private TrackPointVO pending;
+
+        private boolean stopped;
+
+        ArchiveMerger(Iterator<TrackPointVO> archived, RadialFilter filter) {
+            this.archived = archived;
+            this.filter = filter;
+            this.pending = archived.hasNext() ? archived.next() : null;
+        }
+
+        @Override
+        public void handleResult(ResultContext<? extends TrackPointVO> context) {
+            TrackPointVO point = context.getResultObject();
+            while (pending != null && pending.getLocationTimestamp() <= point.getLocationTimestamp()) {
+                // 归档后、删除前两层中的同一个点只取SQLite中的
+                boolean duplicate = pending.getLocationTimestamp() == point.getLocationTimestamp()
+                        && Math.abs(pending.getLatitude() - point.getLatitude()) < COORDINATE_EPSILON
+                        && Math.abs(pending.getLongitude() - point.getLongitude()) < COORDINATE_EPSILON;
+                if (!duplicate && !filter.accept(pending)) {
+                    stop(context);
+                    return;
+                }
+                pending = archived.hasNext() ? archived.next() : null;
+            }
+            if (!filter.accept(point)) {
+                stop(context);
+            }
+        }
+
+        /**
+         * SQLite中的轨迹点读完后，把剩余的归档轨迹点交给过滤
+         */
+        void drain() {
+            while (!stopped && pending != null && filter.accept(pending)) {
+                pending = archived.hasNext() ? archived.next() : null;
+            }
+        }
+
+        private void stop(ResultContext<? extends TrackPointVO> context) {
+            stopped = true;
+            context.stop();
+        }
+    }
+
+    /**
+     * 流式半径过滤：逐个接收轨迹点，只保留与上一个保留点距离超过容差的点，终点始终保留
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    private static final class RadialFilter {
+
+        private final Integer zoom;
+
+        private final int maxPoints;
+
+        private final List<TrackPointVO> kept = new ArrayList<>();
+
+        private double tolerance;
+
+        private double metersPerDegreeLongitude;
+
+        private TrackPointVO last;
+
+        private double lastKeptX;
+
+        private double lastKeptY;
+
+        private int total;
+
+        RadialFilter(Double tolerance, Integer zoom, int maxPoints) {
+            this.tolerance = tolerance == null ? 0 : tolerance;
+            this.zoom = tolerance == null ? zoom : null;
+            this.maxPoints = maxPoints;
+        }
+
+        /**
+         * @return 点数超过上限时返回false，应停止读取
+         */
+        boolean accept(TrackPointVO point) {
+            if (++total > maxPoints) {
+                return false;
+            }
+            if (last == null) {
+                // 以起点纬度作为投影基准，按缩放级别换算容差
+                metersPerDegreeLongitude = GeoDistanceUtils.METERS_PER_DEGREE
+                        * Math.cos(Math.toRadians(point.getLatitude()));
+                if (zoom != null) {
+                    tolerance = TrackSimplifyUtils.metersPerPixel(point.getLatitude(), zoom);
+                }
+                keep(point);
+                return true;
+            }
+            last = point;
+            double dx = projectX(point) - lastKeptX;
+            double dy = projectY(point) - lastKeptY;
+            if (dx * dx + dy * dy > tolerance * tolerance) {
+                keep(point);
+            }
+            return true;
+        }
+
+        private void keep(TrackPointVO point) {
+            kept.add(point);
+            last = point;
+            lastKeptX = projectX(point);
+            lastKeptY = projectY(point);
+        }
+
+        List<TrackPointVO> finish() {
+            if (last != null && kept.get(kept.size() - 1) != last) {
+                kept.add(last);
+            }
+            return kept;
+        }
+
+        double projectX(TrackPointVO point) {
+            return point.getLongitude() * metersPerDegreeLongitude;
+        }
+
+        double projectY(TrackPointVO point) {
+            return point.getLatitude() * GeoDistanceUtils.METERS_PER_DEGREE;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.seeker.locationtracker.task;
+
+import com.seeker.locationtracker.service.LocationWriteService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 存量位置数据地理哈希回填任务
+ * 
+ * <p>应用启动完成后在后台分批回填，每批一个短事务，批次之间让出写连接，不影响正常上传。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Component
+public class GeohashBackfillTask {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    private static final long PAUSE_MS = 20;
+
+    @Resource
+    private LocationWriteService locationWriteService;
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() throws InterruptedException {
+        long total = 0;
+        int count;
+        while ((count = locationWriteService.backfillGeohash(CHUNK_SIZE)) > 0) {
+            total += count;
+            Thread.sleep(PAUSE_MS);
+        }
+        if (total > 0) {
+            log.info("存量位置数据地理哈希回填完成. rows={}", total);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.seeker.locationtracker.task;
+
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.service.LocationArchiveService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 位置数据冷归档任务
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Component
+public class LocationArchiveTask {
+
+    @Resource
+    private LocationArchiveService locationArchiveService;
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @Scheduled(cron = "${app.location.archive.cron:0 0 3 * * ?}")
+    public void archive() {
+        if (locationProperties.getArchive().isEnabled()) {
+            locationArchiveService.runArchive();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.seeker.locationtracker.task;
+
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.service.LocationPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 位置数据分区预创建任务
+ * 
+ * <p>启动时和每天凌晨检查当前月份及之后若干个月的分区表，提前创建，
+ * 避免月初第一批上传在写入路径上建表。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Component
+public class LocationPartitionTask {
+
+    @Resource
+    private LocationPartitionService locationPartitionService;
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "0 10 0 * * ?")
+    public void precreatePartitions() {
+        try {
+            locationPartitionService.ensurePartitions(System.currentTimeMillis(),
+                    1 + locationProperties.getPartition().getPrecreateMonths());
+        } catch (Exception e) {
+            log.error("位置数据分区预创建失败", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.seeker.locationtracker.task;
+
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.service.LocationRetentionService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 位置数据保留期清理任务
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Component
+public class LocationRetentionTask {
+
+    @Resource
+    private LocationRetentionService locationRetentionService;
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @Scheduled(cron = "${app.location.retention.cron:0 30 3 * * ?}")
+    public void enforceRetention() {
+        if (locationProperties.getRetention().isEnabled()) {
+            locationRetentionService.runRetention();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.seeker.locationtracker.task;
+
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.mapper.DeviceMapper;
+import com.seeker.locationtracker.mapper.LocationMapper;
+import com.seeker.locationtracker.model.entity.DeviceEntity;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.LocationIngestListener;
+import com.seeker.locationtracker.service.LocationPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 内存视图预热任务
+ * 
+ * <p>在所有单例初始化之后、Web服务开始接收请求之前，加载每台设备的最新位置，
+ * 交给所有写入监听器（最新位置缓存、空间索引等）预热，避免每个视图各自扫描一遍位置表。</p>
+ * 
+ * <p>分区按位置时间互不重叠，从最新的分区开始逐个分区分组查询，设备第一次出现的分区就是它最新位置所在的分区。
+ * T_DEVICE 中登记了最后活跃时间的设备全部找到后停止，通常只需要查询最近一两个分区，不扫描全部保留的历史数据。
+ * 位置时间不晚于接收时间加允许的时钟偏差，最后活跃时间早于数据保留期（开启冷数据归档时为归档时间线）的设备
+ * 在分区表中已经没有或即将没有数据，不等待这些设备。
+ * 最后活跃时间尚未写回的设备在最新的分区中，第一个分区总是会查询。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+@Slf4j
+@Component
+public class LocationViewWarmupTask implements SmartInitializingSingleton {
+
+    @Resource
+    private LocationMapper locationMapper;
+
+    @Resource
+    private DeviceMapper deviceMapper;
+
+    @Resource
+    private LocationPartitionService locationPartitionService;
+
+    @Resource
+    private LocationProperties locationProperties;
+
+    @Resource
+    private List<LocationIngestListener> locationIngestListeners;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        long start = System.currentTimeMillis();
+        Set<String> pending = activeDevices(start);
+        List<String> tables = locationPartitionService.resolveReadPartitions(null, null);
+        Map<String, LocationEntity> latest = new HashMap<>(Math.max(16, pending.size() * 4 / 3 + 1));
+        int scanned = 0;
+        for (int i = tables.size() - 1; i >= 0; i--) {
+            for (LocationEntity entity : locationMapper.selectLatestPerDevice(tables.get(i))) {
+                if (latest.putIfAbsent(entity.getDeviceId(), entity) == null) {
+                    pending.remove(entity.getDeviceId());
+                }
+            }
+            scanned++;
+            if (pending.isEmpty()) {
+                break;
+            }
+        }
+        List<LocationEntity> entities = new ArrayList<>(latest.values());
+        for (LocationIngestListener listener : locationIngestListeners) {
+            listener.warmUp(entities);
+        }
+        log.info("内存视图预热完成. devices={}, partitions={}/{}, missing={}, listeners={}, costMs={}",
+                entities.size(), scanned, tables.size(), pending.size(), locationIngestListeners.size(),
+                System.currentTimeMillis() - start);
+    }
+
+    /**
+     * 分区表中可能还有数据的设备：最后活跃时间加允许的时钟偏差不早于数据保留期或归档时间线
+     */
+    private Set<String> activeDevices(long now) {
+        int keepDays = locationProperties.getRetentionDays();
+        if (locationProperties.getArchive().isEnabled()) {
+            // 归档按自然日整天进行，多留一天
+            keepDays = Math.min(keepDays, locationProperties.getArchive().getAfterDays() + 1);
+        }
+        long retainedFrom = now - TimeUnit.DAYS.toMillis(keepDays) - locationProperties.getMaxClockSkewMs();
+        Set<String> devices = new HashSet<>();
+        for (DeviceEntity device : deviceMapper.selectAllDevices()) {
+            if (device.getLastSeenAt() != null && device.getLastSeenAt().getTime() >= retainedFrom) {
+                devices.add(device.getDeviceId());
+            }
+        }
+        return devices;
+    }
+}
@@ -0,0 +1,40 @@
+package com.seeker.locationtracker.util;
+
+/**
+ * 地理距离工具类
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class GeoDistanceUtils {
+
+    /**
+     * 地球平均半径(米)
+     */
+    public static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    /**
+     * 每度纬度对应的距离(米)
+     */
+    public static final double METERS_PER_DEGREE = Math.PI * EARTH_RADIUS_METERS / 180.0;
+
+    private GeoDistanceUtils() {}
+
+    /**
+     * 按半正矢公式计算两点间的球面距离
+     * 
+     * @param latitude1 点1纬度
+     * @param longitude1 点1经度
+     * @param latitude2 点2纬度
+     * @param longitude2 点2经度
+     * @return 距离(米)
+     */
+    public static double distanceMeters(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double phi1 = Math.toRadians(latitude1);
+        double phi2 = Math.toRadians(latitude2);
+        double sinDeltaPhi = Math.sin((phi2 - phi1) / 2);
+        double sinDeltaLambda = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = sinDeltaPhi * sinDeltaPhi + Math.cos(phi1) * Math.cos(phi2) * sinDeltaLambda * sinDeltaLambda;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
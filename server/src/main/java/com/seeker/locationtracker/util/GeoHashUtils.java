@@ -0,0 +1,173 @@
+package com.seeker.locationtracker.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 整数地理哈希工具类
+ * 
+ * <p>将经纬度各量化为26位整数后按位交错（经度位在高位，与标准geohash的位序一致），
+ * 得到52位的Z序编码。同一网格内的点编码前缀相同，因此一个网格对应一段连续的编码区间，
+ * 矩形区域可以拆成少量区间，转换为索引上的范围扫描。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class GeoHashUtils {
+
+    /**
+     * 每个坐标轴的位数，纬度分辨率约0.3米
+     */
+    public static final int BITS_PER_AXIS = 26;
+
+    private static final long AXIS_CELLS = 1L << BITS_PER_AXIS;
+
+    private GeoHashUtils() {}
+
+    /**
+     * 计算经纬度的地理哈希
+     * 
+     * @param latitude 纬度
+     * @param longitude 经度
+     * @return 52位地理哈希
+     */
+    public static long encode(double latitude, double longitude) {
+        return interleave(quantizeLongitude(longitude), quantizeLatitude(latitude));
+    }
+
+    /**
+     * 将矩形区域拆分为不超过maxCells个网格，并合并为有序的编码区间
+     * 
+     * @param minLatitude 最小纬度
+     * @param minLongitude 最小经度
+     * @param maxLatitude 最大纬度
+     * @param maxLongitude 最大经度，小于最小经度时表示跨越180度经线
+     * @param maxCells 最大网格数
+     * @return 按起始编码升序、互不重叠的区间列表
+     */
+    public static List<Range> coverBoundingBox(double minLatitude, double minLongitude,
+                                               double maxLatitude, double maxLongitude, int maxCells) {
+        if (minLongitude > maxLongitude) {
+            List<Range> ranges = new ArrayList<>();
+            ranges.addAll(coverBoundingBox(minLatitude, minLongitude, maxLatitude, 180.0, maxCells / 2));
+            ranges.addAll(coverBoundingBox(minLatitude, -180.0, maxLatitude, maxLongitude, maxCells / 2));
+            return merge(ranges);
+        }
+        long x0 = quantizeLongitude(minLongitude);
+        long x1 = quantizeLongitude(maxLongitude);
+        long y0 = quantizeLatitude(minLatitude);
+        long y1 = quantizeLatitude(maxLatitude);
+
+        // 从最细的层级开始逐级放大网格，直到网格数不超过上限
+        int level = BITS_PER_AXIS;
+        while (level > 0) {
+            int shift = BITS_PER_AXIS - level;
+            long cells = ((x1 >> shift) - (x0 >> shift) + 1) * ((y1 >> shift) - (y0 >> shift) + 1);
+            if (cells <= Math.max(maxCells, 1)) {
+                break;
+            }
+            level--;
+        }
+
+        int shift = BITS_PER_AXIS - level;
+        int codeShift = 2 * shift;
+        List<Range> ranges = new ArrayList<>();
+        for (long x = x0 >> shift; x <= x1 >> shift; x++) {
+            for (long y = y0 >> shift; y <= y1 >> shift; y++) {
+                long prefix = interleave(x, y);
+                ranges.add(new Range(prefix << codeShift, ((prefix + 1) << codeShift) - 1));
+            }
+        }
+        return merge(ranges);
+    }
+
+    /**
+     * 合并相邻或重叠的区间
+     * 
+     * @param ranges 区间列表
+     * @return 合并后的有序区间列表
+     */
+    private static List<Range> merge(List<Range> ranges) {
+        Collections.sort(ranges, Comparator.comparingLong(Range::getMin));
+        List<Range> merged = new ArrayList<>(ranges.size());
+        Range current = null;
+        for (Range range : ranges) {
+            if (current != null && range.getMin() <= current.getMax() + 1) {
+                current = new Range(current.getMin(), Math.max(current.getMax(), range.getMax()));
+                merged.set(merged.size() - 1, current);
+            } else {
+                current = range;
+                merged.add(current);
+            }
+        }
+        return merged;
+    }
+
+    private static long quantizeLatitude(double latitude) {
+        return quantize((latitude + 90.0) / 180.0);
+    }
+
+    private static long quantizeLongitude(double longitude) {
+        return quantize((longitude + 180.0) / 360.0);
+    }
+
+    private static long quantize(double fraction) {
+        long value = (long) (fraction * AXIS_CELLS);
+        return Math.max(0, Math.min(AXIS_CELLS - 1, value));
+    }
+
+    /**
+     * 交错两个坐标的二进制位，x占高位
+     * 
+     * @param x 经度网格坐标
+     * @param y 纬度网格坐标
+     * @return 交错后的编码
+     */
+    private static long interleave(long x, long y) {
+        return (spread(x) << 1) | spread(y);
+    }
+
+    /**
+     * 在每一位之间插入一个0位
+     * 
+     * @param value 不超过32位的整数
+     * @return 展开后的整数
+     */
+    private static long spread(long value) {
+        long v = value & 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    /**
+     * 地理哈希闭区间
+     * 
+     * @author seeker
+     * @date 2026-10-18
+     */
+    public static final class Range {
+
+        private final long min;
+
+        private final long max;
+
+        public Range(long min, long max) {
+            this.min = min;
+            this.max = max;
+        }
+
+        public long getMin() {
+            return min;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.seeker.locationtracker.util;
+
+/**
+ * 轨迹抽稀工具类
+ * 
+ * <p>在以轨迹起点为基准的等距圆柱投影平面（单位米）上计算距离，城市尺度内误差可以忽略。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class TrackSimplifyUtils {
+
+    /**
+     * 256像素瓦片在0级缩放、赤道处每像素对应的距离(米)
+     */
+    private static final double METERS_PER_PIXEL_AT_ZOOM_0 = 2 * Math.PI * 6378137.0 / 256;
+
+    private TrackSimplifyUtils() {}
+
+    /**
+     * 计算Web墨卡托地图在指定纬度和缩放级别下一个像素对应的距离
+     * 
+     * @param latitude 纬度
+     * @param zoom 缩放级别
+     * @return 每像素距离(米)
+     */
+    public static double metersPerPixel(double latitude, int zoom) {
+        return METERS_PER_PIXEL_AT_ZOOM_0 * Math.cos(Math.toRadians(latitude)) / (1L << zoom);
+    }
+
+    /**
+     * Douglas-Peucker抽稀，用显式栈代替递归，长轨迹不会栈溢出
+     * 
+     * @param x 投影横坐标(米)
+     * @param y 投影纵坐标(米)
+     * @param n 点数
+     * @param tolerance 容差(米)，点到保留线段的垂直距离不超过容差时舍弃
+     * @return 每个点是否保留，首尾点始终保留
+     */
+    public static boolean[] douglasPeucker(double[] x, double[] y, int n, double tolerance) {
+        boolean[] keep = new boolean[n];
+        if (n == 0) {
+            return keep;
+        }
+        keep[0] = true;
+        keep[n - 1] = true;
+        double toleranceSquared = tolerance * tolerance;
+        int[] stack = new int[64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = n - 1;
+        while (top > 0) {
+            int last = stack[--top];
+            int first = stack[--top];
+            double maxDistanceSquared = -1;
+            int index = -1;
+            for (int i = first + 1; i < last; i++) {
+                double distanceSquared = segmentDistanceSquared(x[i], y[i], x[first], y[first], x[last], y[last]);
+                if (distanceSquared > maxDistanceSquared) {
+                    maxDistanceSquared = distanceSquared;
+                    index = i;
+                }
+            }
+            if (index > 0 && maxDistanceSquared > toleranceSquared) {
+                keep[index] = true;
+                if (top + 4 > stack.length) {
+                    int[] grown = new int[stack.length * 2];
+                    System.arraycopy(stack, 0, grown, 0, top);
+                    stack = grown;
+                }
+                stack[top++] = first;
+                stack[top++] = index;
+                stack[top++] = index;
+                stack[top++] = last;
+            }
+        }
+        return keep;
+    }
+
+    /**
+     * 点到线段距离的平方
+     */
+    private static double segmentDistanceSquared(double px, double py, double ax, double ay, double bx, double by) {
+        double dx = bx - ax;
+        double dy = by - ay;
+        if (dx != 0 || dy != 0) {
+            double t = ((px - ax) * dx + (py - ay) * dy) / (dx * dx + dy * dy);
+            if (t > 1) {
+                ax = bx;
+                ay = by;
+            } else if (t > 0) {
+                ax += dx * t;
+                ay += dy * t;
+            }
+        }
+        dx = px - ax;
+        dy = py - ay;
+        return dx * dx + dy * dy;
+    }
+}
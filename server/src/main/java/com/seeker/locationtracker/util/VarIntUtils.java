@@ -0,0 +1,91 @@
+package com.seeker.locationtracker.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * 变长整数编码工具类
+ * 
+ * <p>每个字节低7位存数据、最高位表示后面还有字节，小整数只占1到2个字节。
+ * 有符号整数先做zig-zag映射（0,-1,1,-2... 映射为 0,1,2,3...），让绝对值小的负数也只占少量字节。</p>
+ * 
+ * @author seeker
+ * @date 2026-10-18
+ */
+public final class VarIntUtils {
+
+    private VarIntUtils() {}
+
+    /**
+     * zig-zag映射
+     * 
+     * @param value 有符号整数
+     * @return 无符号表示
+     */
+    public static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    /**
+     * zig-zag逆映射
+     * 
+     * @param value 无符号表示
+     * @return 有符号整数
+     */
+    public static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * 写入无符号变长整数
+     * 
+     * @param out 输出
+     * @param value 按无符号处理的整数
+     */
+    public static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    /**
+     * 写入有符号变长整数（zig-zag）
+     * 
+     * @param out 输出
+     * @param value 有符号整数
+     */
+    public static void writeSignedVarLong(ByteArrayOutputStream out, long value) {
+        writeVarLong(out, zigZag(value));
+    }
+
+    /**
+     * 从当前位置读取无符号变长整数
+     * 
+     * @param buffer 输入，读取后位置后移
+     * @return 整数
+     * @throws IllegalArgumentException 超过10个字节仍未结束
+     */
+    public static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("变长整数格式错误");
+    }
+
+    /**
+     * 从当前位置读取有符号变长整数（zig-zag）
+     * 
+     * @param buffer 输入，读取后位置后移
+     * @return 整数
+     */
+    public static long readSignedVarLong(ByteBuffer buffer) {
+        return unZigZag(readVarLong(buffer));
+    }
+}
@@ -0,0 +1,8 @@
+-- 轨迹查询复合索引
+-- V20261018__轨迹查询复合索引.sql
+
+-- 按设备、位置时间、主键做键集分页，查询代价与翻页深度无关
+CREATE INDEX IDX_T_LOCATION_DEVICE_TS_TID ON T_LOCATION(DEVICE_ID, LOCATION_TIMESTAMP, TID);
+
+-- 复合索引的前缀已覆盖按设备查询，删除冗余的单列索引以减少写入开销
+DROP INDEX IF EXISTS IDX_T_LOCATION_DEVICE_ID;
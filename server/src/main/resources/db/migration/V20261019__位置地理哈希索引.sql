@@ -0,0 +1,8 @@
+-- 位置地理哈希索引
+-- V20261019__位置地理哈希索引.sql
+
+-- 地理哈希：经纬度各量化为26位后按位交错得到的52位整数，写入时计算，存量数据由应用启动后分批回填
+ALTER TABLE T_LOCATION ADD COLUMN GEOHASH INTEGER;
+
+-- 矩形区域查询拆分为若干地理哈希区间做索引范围扫描，时间条件在索引内过滤
+CREATE INDEX IDX_T_LOCATION_GEOHASH_TS ON T_LOCATION(GEOHASH, LOCATION_TIMESTAMP);
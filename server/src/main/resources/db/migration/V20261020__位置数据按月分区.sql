@@ -0,0 +1,16 @@
+-- 位置数据按月分区
+-- V20261020__位置数据按月分区.sql
+
+-- 分区登记表：每个分区表覆盖一段位置时间戳区间，查询按区间裁剪分区，写入按区间路由
+CREATE TABLE T_LOCATION_PARTITION (
+    TABLE_NAME VARCHAR(64) PRIMARY KEY, -- 分区表名
+    START_TIMESTAMP INTEGER NOT NULL, -- 起始位置时间戳(毫秒，包含)
+    END_TIMESTAMP INTEGER NOT NULL, -- 结束位置时间戳(毫秒，不包含)
+    WRITABLE INTEGER NOT NULL DEFAULT 1, -- 是否接收新写入(1:是 0:否)
+    CREATE_TIME INTEGER DEFAULT (strftime('%s', 'now') * 1000) -- 创建时间(毫秒时间戳)
+);
+
+-- 原位置表作为只读分区保留，区间取现有数据的时间范围，之后的写入全部进入按月分区表
+INSERT INTO T_LOCATION_PARTITION (TABLE_NAME, START_TIMESTAMP, END_TIMESTAMP, WRITABLE)
+SELECT 'T_LOCATION', COALESCE(MIN(LOCATION_TIMESTAMP), 0), COALESCE(MAX(LOCATION_TIMESTAMP) + 1, 0), 0
+FROM T_LOCATION;
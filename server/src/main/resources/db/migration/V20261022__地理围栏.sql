@@ -0,0 +1,38 @@
+-- 地理围栏
+-- V20261022__地理围栏.sql
+
+-- 围栏表：圆形围栏使用中心点和半径，多边形围栏使用顶点列表
+CREATE TABLE T_GEOFENCE (
+    TID INTEGER PRIMARY KEY AUTOINCREMENT, -- 主键ID
+    NAME VARCHAR(100) NOT NULL, -- 围栏名称
+    FENCE_TYPE VARCHAR(20) NOT NULL, -- 围栏类型(circle/polygon)
+    LATITUDE REAL, -- 圆心纬度
+    LONGITUDE REAL, -- 圆心经度
+    RADIUS REAL, -- 半径(米)
+    COORDINATES TEXT, -- 多边形顶点，JSON数组 [[经度,纬度],...]
+    ENABLED INTEGER NOT NULL DEFAULT 1, -- 是否启用(1:是 0:否)
+    CREATE_TIME INTEGER DEFAULT (strftime('%s', 'now') * 1000), -- 创建时间(毫秒时间戳)
+    UPDATE_TIME INTEGER DEFAULT (strftime('%s', 'now') * 1000) -- 更新时间(毫秒时间戳)
+);
+
+-- 进出围栏事件表
+CREATE TABLE T_GEOFENCE_EVENT (
+    TID INTEGER PRIMARY KEY AUTOINCREMENT, -- 主键ID
+    FENCE_ID INTEGER NOT NULL, -- 围栏ID
+    DEVICE_ID VARCHAR(100) NOT NULL, -- 设备唯一标识
+    EVENT_TYPE VARCHAR(10) NOT NULL, -- 事件类型(enter/exit)
+    LATITUDE REAL NOT NULL, -- 触发事件的位置纬度
+    LONGITUDE REAL NOT NULL, -- 触发事件的位置经度
+    LOCATION_TIMESTAMP INTEGER NOT NULL, -- 触发事件的位置时间戳(毫秒)
+    CREATE_TIME INTEGER DEFAULT (strftime('%s', 'now') * 1000) -- 创建时间(毫秒时间戳)
+);
+
+-- 按设备、按围栏查询事件，均按位置时间排序
+CREATE INDEX IDX_T_GEOFENCE_EVENT_DEVICE_TS ON T_GEOFENCE_EVENT(DEVICE_ID, LOCATION_TIMESTAMP);
+CREATE INDEX IDX_T_GEOFENCE_EVENT_FENCE_TS ON T_GEOFENCE_EVENT(FENCE_ID, LOCATION_TIMESTAMP);
+
+CREATE TRIGGER TRIGGER_T_GEOFENCE_UPDATE_TIME
+    AFTER UPDATE ON T_GEOFENCE
+BEGIN
+    UPDATE T_GEOFENCE SET UPDATE_TIME = (strftime('%s', 'now') * 1000) WHERE TID = NEW.TID;
+END;
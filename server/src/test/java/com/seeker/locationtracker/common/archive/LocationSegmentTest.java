@@ -0,0 +1,277 @@
+package com.seeker.locationtracker.common.archive;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 列式段编解码测试：各列往返、空值、游程、文件头与损坏的段文件
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+class LocationSegmentTest {
+
+    private static final String DEVICE = "device-0001";
+
+    private static final long BASE_TIMESTAMP = 1790784000000L;
+
+    /**
+     * 魔数4字节、版本1字节、设备唯一标识长度2字节
+     */
+    private static final int DEVICE_ID_OFFSET = 7;
+
+    @Test
+    void roundTripsEveryColumn() {
+        List<LocationEntity> rows = track(100);
+
+        List<LocationEntity> decoded = decode(LocationSegment.encode(DEVICE, rows));
+
+        assertEquals(rows.size(), decoded.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertRow(rows.get(i), decoded.get(i));
+        }
+    }
+
+    @Test
+    void roundTripsIrregularTimestampsAndTids() {
+        // 间隔忽大忽小、同一位置时间两条（主键递增）、主键不连续
+        long[] timestamps = {0, 30000, 60000, 61000, 61000, 3600000, 3600001, 86399999};
+        long[] tids = {5, 6, 100, 7, 8, 1000000, 1000001, 2};
+        List<LocationEntity> rows = new ArrayList<>();
+        for (int i = 0; i < timestamps.length; i++) {
+            LocationEntity row = row(i);
+            row.setLocationTimestamp(BASE_TIMESTAMP + timestamps[i]);
+            row.setTid(tids[i]);
+            rows.add(row);
+        }
+
+        LocationSegment segment = LocationSegment.wrap(ByteBuffer.wrap(LocationSegment.encode(DEVICE, rows)));
+        LocationSegment.Cursor cursor = segment.cursor(true);
+        for (int i = 0; i < timestamps.length; i++) {
+            assertTrue(cursor.next());
+            assertEquals(BASE_TIMESTAMP + timestamps[i], cursor.getTimestamp());
+            assertEquals(tids[i], cursor.getTid());
+        }
+        assertFalse(cursor.next());
+        assertEquals(1000001L, segment.getMaxTid());
+    }
+
+    @Test
+    void roundTripsNullMetricsAndProviderRuns() {
+        List<LocationEntity> rows = track(6);
+        rows.get(1).setAccuracy(null);
+        rows.get(2).setAltitude(null);
+        rows.get(2).setSpeed(null);
+        rows.get(3).setBearing(null);
+        rows.get(3).setProvider("network");
+        rows.get(4).setProvider("network");
+        rows.get(5).setProvider("自定义");
+
+        List<LocationEntity> decoded = decode(LocationSegment.encode(DEVICE, rows));
+
+        for (int i = 0; i < rows.size(); i++) {
+            assertRow(rows.get(i), decoded.get(i));
+        }
+        assertNull(decoded.get(1).getAccuracy());
+        assertEquals(rows.get(2).getAccuracy(), decoded.get(2).getAccuracy());
+    }
+
+    @Test
+    void usesLocationTimestampWhenCreateTimeIsMissing() {
+        LocationEntity row = row(0);
+        row.setCreateTime(null);
+
+        LocationEntity decoded = decode(LocationSegment.encode(DEVICE, Collections.singletonList(row))).get(0);
+
+        assertEquals(new Date(row.getLocationTimestamp()), decoded.getCreateTime());
+        assertEquals(decoded.getCreateTime(), decoded.getUpdateTime());
+    }
+
+    @Test
+    void readsHeader() {
+        List<LocationEntity> rows = track(10);
+        rows.get(3).setCreateTime(new Date(BASE_TIMESTAMP + 999999));
+
+        LocationSegment segment = LocationSegment.wrap(ByteBuffer.wrap(LocationSegment.encode(DEVICE, rows)));
+
+        assertEquals(DEVICE, segment.getDeviceId());
+        assertEquals(10, segment.getRowCount());
+        assertEquals(rows.get(0).getLocationTimestamp().longValue(), segment.getMinTimestamp());
+        assertEquals(rows.get(9).getLocationTimestamp().longValue(), segment.getMaxTimestamp());
+        assertEquals(BASE_TIMESTAMP + 999999, segment.getMaxCreateTime());
+        assertEquals(rows.get(9).getTid().longValue(), segment.getMaxTid());
+    }
+
+    @Test
+    void readsHeaderFromChannelWithoutColumns() throws IOException {
+        List<LocationEntity> rows = track(10);
+        byte[] data = LocationSegment.encode(DEVICE, rows);
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream(data));
+
+        LocationSegment.Header header = LocationSegment.readHeader(channel, data.length);
+
+        assertEquals(DEVICE, header.getDeviceId());
+        assertEquals(10, header.getRowCount());
+        assertEquals(rows.get(0).getLocationTimestamp().longValue(), header.getMinTimestamp());
+        assertEquals(rows.get(9).getLocationTimestamp().longValue(), header.getMaxTimestamp());
+        assertEquals(rows.get(9).getTid().longValue(), header.getMaxTid());
+        // 列数据没有被读取
+        assertTrue(channel.read(ByteBuffer.allocate(data.length)) > 0);
+    }
+
+    @Test
+    void rejectsTruncatedHeaderFromChannel() {
+        byte[] data = LocationSegment.encode(DEVICE, track(50));
+
+        for (int length : new int[] {0, 3, DEVICE_ID_OFFSET + 3, DEVICE_ID_OFFSET + DEVICE.length() + 6}) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class, () -> LocationSegment.readHeader(
+                    Channels.newChannel(new ByteArrayInputStream(truncated)), truncated.length), "length=" + length);
+        }
+        // 文件头完整但列数据被截断
+        assertThrows(IllegalArgumentException.class, () -> LocationSegment.readHeader(
+                Channels.newChannel(new ByteArrayInputStream(data)), data.length - 1));
+    }
+
+    @Test
+    void trackCursorDecodesOnlyPositionColumns() {
+        List<LocationEntity> rows = track(20);
+        LocationSegment.Cursor cursor = LocationSegment.wrap(ByteBuffer.wrap(LocationSegment.encode(DEVICE, rows)))
+                .cursor(false);
+
+        for (LocationEntity row : rows) {
+            assertTrue(cursor.next());
+            assertEquals(row.getLocationTimestamp().longValue(), cursor.getTimestamp());
+            assertEquals(row.getTid().longValue(), cursor.getTid());
+            assertEquals(row.getLatitude(), Double.valueOf(cursor.getLatitude()));
+            assertEquals(row.getLongitude(), Double.valueOf(cursor.getLongitude()));
+        }
+        assertFalse(cursor.next());
+        assertThrows(IllegalStateException.class, cursor::toEntity);
+    }
+
+    @Test
+    void rejectsEmptySegment() {
+        assertThrows(IllegalArgumentException.class, () -> LocationSegment.encode(DEVICE, new ArrayList<>()));
+    }
+
+    @Test
+    void rejectsBadMagicAndVersion() {
+        byte[] data = LocationSegment.encode(DEVICE, track(3));
+
+        byte[] badMagic = data.clone();
+        badMagic[0] ^= 1;
+        assertThrows(IllegalArgumentException.class, () -> LocationSegment.wrap(ByteBuffer.wrap(badMagic)));
+
+        byte[] badVersion = data.clone();
+        badVersion[4] = 2;
+        assertThrows(IllegalArgumentException.class, () -> LocationSegment.wrap(ByteBuffer.wrap(badVersion)));
+
+        assertThrows(IllegalArgumentException.class, () -> LocationSegment.wrap(ByteBuffer.allocate(0)));
+    }
+
+    @Test
+    void rejectsTruncatedSegment() {
+        byte[] data = LocationSegment.encode(DEVICE, track(50));
+        int headerBytes = DEVICE_ID_OFFSET + DEVICE.length() + Integer.BYTES + 4 * Long.BYTES + 10 * Integer.BYTES;
+
+        // 截在设备唯一标识、文件头其余部分和列数据中
+        for (int length : new int[] {DEVICE_ID_OFFSET + 3, DEVICE_ID_OFFSET + DEVICE.length() + 6,
+                headerBytes - 1, headerBytes + 1, data.length - 1}) {
+            ByteBuffer truncated = ByteBuffer.wrap(Arrays.copyOf(data, length));
+            assertThrows(IllegalArgumentException.class, () -> LocationSegment.wrap(truncated),
+                    "length=" + length);
+        }
+    }
+
+    @Test
+    void rejectsCorruptLengths() {
+        byte[] data = LocationSegment.encode(DEVICE, track(3));
+        int rowCountOffset = DEVICE_ID_OFFSET + DEVICE.length();
+        int firstColumnLengthOffset = rowCountOffset + Integer.BYTES + 4 * Long.BYTES;
+
+        byte[] negativeColumn = data.clone();
+        ByteBuffer.wrap(negativeColumn).putInt(firstColumnLengthOffset, -1);
+        assertThrows(IllegalArgumentException.class, () -> LocationSegment.wrap(ByteBuffer.wrap(negativeColumn)));
+
+        byte[] hugeColumn = data.clone();
+        ByteBuffer.wrap(hugeColumn).putInt(firstColumnLengthOffset, Integer.MAX_VALUE);
+        assertThrows(IllegalArgumentException.class, () -> LocationSegment.wrap(ByteBuffer.wrap(hugeColumn)));
+
+        byte[] noRows = data.clone();
+        ByteBuffer.wrap(noRows).putInt(rowCountOffset, 0);
+        assertThrows(IllegalArgumentException.class, () -> LocationSegment.wrap(ByteBuffer.wrap(noRows)));
+
+        byte[] longDeviceId = data.clone();
+        ByteBuffer.wrap(longDeviceId).putShort(DEVICE_ID_OFFSET - Short.BYTES, (short) 0xFFFF);
+        assertThrows(IllegalArgumentException.class, () -> LocationSegment.wrap(ByteBuffer.wrap(longDeviceId)));
+    }
+
+    private static List<LocationEntity> decode(byte[] data) {
+        LocationSegment.Cursor cursor = LocationSegment.wrap(ByteBuffer.wrap(data)).cursor(true);
+        List<LocationEntity> rows = new ArrayList<>();
+        while (cursor.next()) {
+            rows.add(cursor.toEntity());
+        }
+        return rows;
+    }
+
+    private static List<LocationEntity> track(int count) {
+        List<LocationEntity> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(row(i));
+        }
+        return rows;
+    }
+
+    private static LocationEntity row(int n) {
+        LocationEntity row = new LocationEntity();
+        row.setTid(1000L + n * 3);
+        row.setDeviceId(DEVICE);
+        // 按1e-7度、0.01定点化后可以精确还原
+        row.setLatitude((399123456 + n * 37 - (n % 5) * 101) / 1e7);
+        row.setLongitude((1163123456 - n * 53) / 1e7);
+        row.setAccuracy((500 + n % 7 * 25) / 100.0);
+        row.setAltitude((-1250 + n * 3) / 100.0);
+        row.setSpeed((n % 11) * 150 / 100.0);
+        row.setBearing((35999 - n * 7) / 100.0);
+        row.setProvider("gps");
+        row.setLocationTimestamp(BASE_TIMESTAMP + n * 30000L + (n % 3));
+        row.setCreateTime(new Date(BASE_TIMESTAMP + n * 30000L + 1500 - n));
+        return row;
+    }
+
+    private static void assertRow(LocationEntity expected, LocationEntity actual) {
+        assertEquals(expected.getTid(), actual.getTid());
+        assertEquals(DEVICE, actual.getDeviceId());
+        assertEquals(expected.getLatitude(), actual.getLatitude());
+        assertEquals(expected.getLongitude(), actual.getLongitude());
+        assertEquals(expected.getAccuracy(), actual.getAccuracy());
+        assertEquals(expected.getAltitude(), actual.getAltitude());
+        assertEquals(expected.getSpeed(), actual.getSpeed());
+        assertEquals(expected.getBearing(), actual.getBearing());
+        assertEquals(expected.getProvider(), actual.getProvider());
+        assertEquals(expected.getLocationTimestamp(), actual.getLocationTimestamp());
+        assertEquals(expected.getCreateTime(), actual.getCreateTime());
+        assertEquals(expected.getCreateTime(), actual.getUpdateTime());
+        assertNotNull(actual.getGeohash());
+    }
+}
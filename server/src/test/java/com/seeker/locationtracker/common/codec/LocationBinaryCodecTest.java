@@ -0,0 +1,192 @@
+package com.seeker.locationtracker.common.codec;
+
+import com.seeker.locationtracker.model.dto.LocationUploadDTO;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 二进制上传格式编解码测试：往返、空值、自定义位置提供者和损坏的请求体
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+class LocationBinaryCodecTest {
+
+    private static final long BASE_TIMESTAMP = 1790784000000L;
+
+    private static final LocationValidator VALIDATOR = new LocationValidator(Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private static final Date NOW = new Date(BASE_TIMESTAMP + 60000);
+
+    @Test
+    void roundTripsEveryField() {
+        List<LocationUploadDTO> locations = Arrays.asList(location(0, "gps"), location(1, "network"),
+                location(2, "fused"));
+
+        List<DecodedLocation> decoded = decode(LocationBinaryCodec.encode(locations));
+
+        assertEquals(3, decoded.size());
+        for (int i = 0; i < 3; i++) {
+            assertNull(decoded.get(i).getViolation());
+            assertLocation(locations.get(i), decoded.get(i).getEntity());
+        }
+        assertSame(NOW, decoded.get(0).getEntity().getCreateTime());
+        assertSame(NOW, decoded.get(0).getEntity().getUpdateTime());
+    }
+
+    @Test
+    void roundTripsNullMetricsAndCustomProvider() {
+        LocationUploadDTO location = location(0, "beidou");
+        location.setAccuracy(null);
+        location.setAltitude(null);
+        location.setSpeed(null);
+        location.setBearing(null);
+        location.setDeviceId("设备-0001");
+
+        LocationEntity entity = decodeOne(location);
+
+        assertLocation(location, entity);
+        assertNull(entity.getAccuracy());
+        assertNull(entity.getBearing());
+    }
+
+    @Test
+    void roundTripsCoordinateExtremes() {
+        LocationUploadDTO location = location(0, "gps");
+        location.setLatitude(-90.0);
+        location.setLongitude(180.0);
+
+        assertLocation(location, decodeOne(location));
+    }
+
+    @Test
+    void keepsValidRecordsWhenOneFailsValidation() {
+        LocationUploadDTO blank = location(1, "gps");
+        blank.setDeviceId("");
+
+        List<DecodedLocation> decoded = decode(LocationBinaryCodec.encode(
+                Arrays.asList(location(0, "gps"), blank, location(2, "gps"))));
+
+        assertNull(decoded.get(0).getViolation());
+        assertEquals("设备ID不能为空", decoded.get(1).getViolation());
+        assertNull(decoded.get(2).getViolation());
+    }
+
+    @Test
+    void reportsUnknownProviderCode() {
+        byte[] body = LocationBinaryCodec.encode(Collections.singletonList(location(0, "gps")));
+        // 版本1字节、条数2字节，记录固定部分的位置提供者编码在第33个字节
+        body[3 + 32] = 9;
+
+        DecodedLocation decoded = decode(body).get(0);
+
+        assertEquals("位置提供者编码无效: 9", decoded.getViolation());
+    }
+
+    @Test
+    void rejectsUnsupportedVersion() {
+        byte[] body = LocationBinaryCodec.encode(Collections.singletonList(location(0, "gps")));
+        body[0] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> decode(body));
+    }
+
+    @Test
+    void rejectsEmptyAndOversizedBatches() {
+        assertThrows(IllegalArgumentException.class, () -> decode(null));
+        assertThrows(IllegalArgumentException.class, () -> decode(new byte[] {LocationBinaryCodec.VERSION, 0}));
+        assertThrows(IllegalArgumentException.class, () -> decode(new byte[] {LocationBinaryCodec.VERSION, 0, 0}));
+
+        List<LocationUploadDTO> locations = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            locations.add(location(i, "gps"));
+        }
+        byte[] body = LocationBinaryCodec.encode(locations);
+        assertThrows(IllegalArgumentException.class, () -> LocationBinaryCodec.decode(body, 10, NOW, VALIDATOR));
+    }
+
+    @Test
+    void rejectsTruncatedBody() {
+        byte[] body = LocationBinaryCodec.encode(Arrays.asList(location(0, "gps"), location(1, "gps")));
+
+        // 截在固定部分、设备唯一标识中间和最后一个字节之前
+        for (int length : new int[] {3 + 10, 3 + 34 + 4, body.length - 1}) {
+            byte[] truncated = Arrays.copyOf(body, length);
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> decode(truncated));
+            assertTrue(e.getMessage().contains("截断"), e.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsCountMismatch() {
+        byte[] body = LocationBinaryCodec.encode(Arrays.asList(location(0, "gps"), location(1, "gps")));
+        ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN).putShort(1, (short) 1);
+
+        assertThrows(IllegalArgumentException.class, () -> decode(body));
+    }
+
+    @Test
+    void rejectsOverlongStringsWhenEncoding() {
+        LocationUploadDTO location = location(0, "gps");
+        StringBuilder deviceId = new StringBuilder();
+        for (int i = 0; i < 256; i++) {
+            deviceId.append('d');
+        }
+        location.setDeviceId(deviceId.toString());
+
+        assertThrows(IllegalArgumentException.class,
+                () -> LocationBinaryCodec.encode(Collections.singletonList(location)));
+    }
+
+    private static List<DecodedLocation> decode(byte[] body) {
+        return LocationBinaryCodec.decode(body, 100, NOW, VALIDATOR);
+    }
+
+    private static LocationEntity decodeOne(LocationUploadDTO location) {
+        DecodedLocation decoded = decode(LocationBinaryCodec.encode(Collections.singletonList(location))).get(0);
+        assertNull(decoded.getViolation());
+        return decoded.getEntity();
+    }
+
+    private static LocationUploadDTO location(int n, String provider) {
+        LocationUploadDTO dto = new LocationUploadDTO();
+        dto.setDeviceId("device-" + n);
+        // 1e-7度定点化后可以精确还原
+        dto.setLatitude((399123456 + n) / 1e7);
+        dto.setLongitude((1163123456 - n) / 1e7);
+        dto.setAccuracy(5.25);
+        dto.setAltitude(-12.5);
+        dto.setSpeed(1.5);
+        dto.setBearing(359.99);
+        dto.setProvider(provider);
+        dto.setLocationTimestamp(BASE_TIMESTAMP + n * 30000L);
+        return dto;
+    }
+
+    private static void assertLocation(LocationUploadDTO expected, LocationEntity actual) {
+        assertEquals(expected.getDeviceId(), actual.getDeviceId());
+        assertEquals(expected.getLatitude(), actual.getLatitude());
+        assertEquals(expected.getLongitude(), actual.getLongitude());
+        assertEquals(expected.getAccuracy(), actual.getAccuracy());
+        assertEquals(expected.getAltitude(), actual.getAltitude());
+        assertEquals(expected.getSpeed(), actual.getSpeed());
+        assertEquals(expected.getBearing(), actual.getBearing());
+        assertEquals(expected.getProvider(), actual.getProvider());
+        assertEquals(expected.getLocationTimestamp(), actual.getLocationTimestamp());
+        assertNull(actual.getTid());
+    }
+}
@@ -0,0 +1,128 @@
+package com.seeker.locationtracker.common.codec;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JSON流式解码测试：字段绑定、与Spring MVC默认Jackson配置一致的宽松规则和非法请求体
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+class LocationJsonCodecTest {
+
+    private static final LocationValidator VALIDATOR = new LocationValidator(Long.MIN_VALUE, Long.MAX_VALUE);
+
+    private static final Date NOW = new Date(1790784060000L);
+
+    private static final String LOCATION = "{\"deviceId\":\"device-0001\",\"latitude\":39.9123456,"
+            + "\"longitude\":116.3123456,\"accuracy\":5.25,\"altitude\":-12.5,\"speed\":1.5,\"bearing\":359.99,"
+            + "\"provider\":\"gps\",\"locationTimestamp\":1790784000000}";
+
+    @Test
+    void decodesEveryField() throws IOException {
+        DecodedLocation decoded = decode(LOCATION);
+
+        assertNull(decoded.getViolation());
+        LocationEntity entity = decoded.getEntity();
+        assertEquals("device-0001", entity.getDeviceId());
+        assertEquals(Double.valueOf(39.9123456), entity.getLatitude());
+        assertEquals(Double.valueOf(116.3123456), entity.getLongitude());
+        assertEquals(Double.valueOf(5.25), entity.getAccuracy());
+        assertEquals(Double.valueOf(-12.5), entity.getAltitude());
+        assertEquals(Double.valueOf(1.5), entity.getSpeed());
+        assertEquals(Double.valueOf(359.99), entity.getBearing());
+        assertEquals("gps", entity.getProvider());
+        assertEquals(Long.valueOf(1790784000000L), entity.getLocationTimestamp());
+        assertSame(NOW, entity.getCreateTime());
+        assertSame(NOW, entity.getUpdateTime());
+    }
+
+    @Test
+    void acceptsNumericStringsAndIgnoresUnknownFields() throws IOException {
+        LocationEntity entity = decode("{\"extra\":{\"nested\":[1,2]},\"deviceId\":\"d\",\"latitude\":\" 39.9 \","
+                + "\"longitude\":\"116.3\",\"provider\":\"gps\",\"locationTimestamp\":\"1790784000000\","
+                + "\"tags\":[\"a\"]}").getEntity();
+
+        assertEquals(Double.valueOf(39.9), entity.getLatitude());
+        assertEquals(Double.valueOf(116.3), entity.getLongitude());
+        assertEquals(Long.valueOf(1790784000000L), entity.getLocationTimestamp());
+    }
+
+    @Test
+    void treatsNullAndEmptyStringAsMissing() throws IOException {
+        DecodedLocation decoded = decode("{\"deviceId\":\"d\",\"latitude\":null,\"longitude\":\"\","
+                + "\"accuracy\":null,\"speed\":\" \",\"provider\":\"gps\",\"locationTimestamp\":null}");
+
+        assertNull(decoded.getEntity().getLatitude());
+        assertNull(decoded.getEntity().getLongitude());
+        assertNull(decoded.getEntity().getAccuracy());
+        assertNull(decoded.getEntity().getSpeed());
+        assertNull(decoded.getEntity().getLocationTimestamp());
+        assertEquals("纬度不能为空, 经度不能为空, 位置时间戳不能为空", decoded.getViolation());
+    }
+
+    @Test
+    void truncatesFractionalTimestamp() throws IOException {
+        LocationEntity entity = decode(LOCATION.replace("1790784000000", "1790784000000.9")).getEntity();
+
+        assertEquals(Long.valueOf(1790784000000L), entity.getLocationTimestamp());
+    }
+
+    @Test
+    void reportsValidationFailureWithoutThrowing() throws IOException {
+        DecodedLocation decoded = decode(LOCATION.replace("39.9123456", "91"));
+
+        assertEquals("纬度必须在-90到90之间", decoded.getViolation());
+    }
+
+    @Test
+    void rejectsMalformedBodies() {
+        assertThrows(JsonParseException.class, () -> decode("[" + LOCATION + "]"));
+        assertThrows(JsonParseException.class, () -> decode(LOCATION.replace("39.9123456", "\"north\"")));
+        assertThrows(JsonParseException.class, () -> decode(LOCATION.replace("39.9123456", "[39.9]")));
+        assertThrows(JsonParseException.class, () -> decode(LOCATION.replace("\"gps\"", "{\"name\":\"gps\"}")));
+        assertThrows(JsonParseException.class, () -> decode(LOCATION.replace("1790784000000", "\"x\"")));
+        assertThrows(IOException.class, () -> decode(LOCATION.substring(0, LOCATION.length() - 5)));
+    }
+
+    @Test
+    void decodesBatchInOrderWithNullElements() throws IOException {
+        String second = LOCATION.replace("device-0001", "device-0002");
+
+        List<DecodedLocation> decoded = decodeBatch("[" + LOCATION + ",null," + second + "]", 10);
+
+        assertEquals(3, decoded.size());
+        assertEquals("device-0001", decoded.get(0).getEntity().getDeviceId());
+        assertEquals("位置数据不能为空", decoded.get(1).getViolation());
+        assertEquals("device-0002", decoded.get(2).getEntity().getDeviceId());
+        assertNull(decoded.get(2).getViolation());
+    }
+
+    @Test
+    void rejectsEmptyOversizedAndMalformedBatches() {
+        assertThrows(IllegalArgumentException.class, () -> decodeBatch("[]", 10));
+        assertThrows(IllegalArgumentException.class, () -> decodeBatch("[" + LOCATION + "," + LOCATION + "]", 1));
+        assertThrows(JsonParseException.class, () -> decodeBatch(LOCATION, 10));
+        assertThrows(JsonParseException.class, () -> decodeBatch("[" + LOCATION + ",1]", 10));
+    }
+
+    private static DecodedLocation decode(String body) throws IOException {
+        return LocationJsonCodec.decode(body.getBytes(StandardCharsets.UTF_8), NOW, VALIDATOR);
+    }
+
+    private static List<DecodedLocation> decodeBatch(String body, int maxRecords) throws IOException {
+        return LocationJsonCodec.decodeBatch(body.getBytes(StandardCharsets.UTF_8), maxRecords, NOW, VALIDATOR);
+    }
+}
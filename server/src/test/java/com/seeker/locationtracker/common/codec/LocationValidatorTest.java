@@ -0,0 +1,122 @@
+package com.seeker.locationtracker.common.codec;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 位置数据字段校验测试：经纬度边界与NaN、必填字段、字符串长度、时间窗口的边界
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+class LocationValidatorTest {
+
+    private static final long NOW = 1790784000000L;
+
+    private static final long DAY_MS = 24L * 60 * 60 * 1000;
+
+    private static final LocationValidator VALIDATOR = LocationValidator.of(NOW, 30, 300000);
+
+    @Test
+    void acceptsValidLocation() {
+        assertNull(VALIDATOR.validate(location(39.9, 116.3)));
+    }
+
+    @Test
+    void acceptsCoordinateBoundaries() {
+        assertNull(VALIDATOR.validate(location(90.0, 180.0)));
+        assertNull(VALIDATOR.validate(location(-90.0, -180.0)));
+        assertNull(VALIDATOR.validate(location(0.0, 0.0)));
+    }
+
+    @Test
+    void rejectsCoordinatesOutOfRange() {
+        assertEquals("纬度必须在-90到90之间", VALIDATOR.validate(location(Math.nextUp(90.0), 0.0)));
+        assertEquals("纬度必须在-90到90之间", VALIDATOR.validate(location(Math.nextDown(-90.0), 0.0)));
+        assertEquals("经度必须在-180到180之间", VALIDATOR.validate(location(0.0, Math.nextUp(180.0))));
+        assertEquals("经度必须在-180到180之间", VALIDATOR.validate(location(0.0, Math.nextDown(-180.0))));
+    }
+
+    @Test
+    void rejectsNaNAndInfiniteCoordinates() {
+        assertEquals("纬度必须在-90到90之间", VALIDATOR.validate(location(Double.NaN, 0.0)));
+        assertEquals("经度必须在-180到180之间", VALIDATOR.validate(location(0.0, Double.NaN)));
+        assertEquals("纬度必须在-90到90之间", VALIDATOR.validate(location(Double.POSITIVE_INFINITY, 0.0)));
+        assertEquals("经度必须在-180到180之间", VALIDATOR.validate(location(0.0, Double.NEGATIVE_INFINITY)));
+    }
+
+    @Test
+    void rejectsMissingFieldsInFieldOrder() {
+        LocationEntity entity = new LocationEntity();
+        entity.setDeviceId(" ");
+        entity.setProvider("");
+
+        assertEquals("设备ID不能为空, 纬度不能为空, 经度不能为空, 位置提供者不能为空, 位置时间戳不能为空",
+                VALIDATOR.validate(entity));
+    }
+
+    @Test
+    void rejectsOverlongDeviceIdAndProvider() {
+        LocationEntity entity = location(39.9, 116.3);
+        entity.setDeviceId(repeat('d', 100));
+        entity.setProvider(repeat('p', 20));
+        assertNull(VALIDATOR.validate(entity));
+
+        entity.setDeviceId(repeat('d', 101));
+        entity.setProvider(repeat('p', 21));
+        assertEquals("设备ID不能超过100个字符, 位置提供者不能超过20个字符", VALIDATOR.validate(entity));
+    }
+
+    @Test
+    void doesNotCheckTimeWindowInValidate() {
+        LocationEntity entity = location(39.9, 116.3);
+        entity.setLocationTimestamp(0L);
+
+        assertNull(VALIDATOR.validate(entity));
+        assertFalse(VALIDATOR.accepts(0L));
+    }
+
+    @Test
+    void acceptsTimeWindowEdgesInclusive() {
+        long min = NOW - 30 * DAY_MS;
+        long max = NOW + 300000;
+        assertEquals(min, VALIDATOR.getMinTimestamp());
+        assertEquals(max, VALIDATOR.getMaxTimestamp());
+
+        assertTrue(VALIDATOR.accepts(min));
+        assertTrue(VALIDATOR.accepts(NOW));
+        assertTrue(VALIDATOR.accepts(max));
+        assertFalse(VALIDATOR.accepts(min - 1));
+        assertFalse(VALIDATOR.accepts(max + 1));
+    }
+
+    @Test
+    void rejectsExtremeTimestamps() {
+        assertFalse(VALIDATOR.accepts(Long.MIN_VALUE));
+        assertFalse(VALIDATOR.accepts(Long.MAX_VALUE));
+        assertFalse(VALIDATOR.accepts(-62135596800000L));
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    private static LocationEntity location(double latitude, double longitude) {
+        LocationEntity entity = new LocationEntity();
+        entity.setDeviceId("device-0001");
+        entity.setLatitude(latitude);
+        entity.setLongitude(longitude);
+        entity.setProvider("gps");
+        entity.setLocationTimestamp(NOW);
+        return entity;
+    }
+}
@@ -0,0 +1,81 @@
+package com.seeker.locationtracker.common.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 令牌桶限流测试：桶容量、键之间互不影响、键数达到上限时的淘汰
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+class TokenBucketRateLimiterTest {
+
+    @Test
+    void allowsBurstUpToCapacityThenThrottles() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(60, 100);
+
+        for (int i = 0; i < 60; i++) {
+            assertEquals(0L, limiter.tryAcquire("10.0.0.1"));
+        }
+        long wait = limiter.tryAcquire("10.0.0.1");
+        // 每秒补充一个令牌
+        assertTrue(wait > 0 && wait <= 1000000000L, "wait=" + wait);
+    }
+
+    @Test
+    void keysDoNotShareBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 100);
+        exhaust(limiter, "10.0.0.1", 10);
+
+        assertTrue(limiter.tryAcquire("10.0.0.1") > 0);
+        assertEquals(0L, limiter.tryAcquire("10.0.0.2"));
+        assertEquals(2, limiter.size());
+    }
+
+    @Test
+    void evictsInsteadOfSharingBucketWhenFull() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 16);
+        for (int i = 0; i < 16; i++) {
+            exhaust(limiter, "10.0.0." + i, 10);
+        }
+        assertEquals(0L, limiter.evictions());
+
+        // 大量新键轮换：每个新键都有自己满的令牌桶，跟踪的键数不超过上限
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(0L, limiter.tryAcquire("10.1." + (i / 256) + "." + (i % 256)));
+            assertTrue(limiter.size() <= 16, "size=" + limiter.size());
+        }
+        assertTrue(limiter.evictions() > 0);
+    }
+
+    @Test
+    void evictsBucketsClosestToFullFirst() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 16);
+        exhaust(limiter, "heavy", 10);
+        for (int i = 0; i < 15; i++) {
+            exhaust(limiter, "light-" + i, 1);
+        }
+
+        limiter.tryAcquire("new");
+
+        // 上限的1/16为1个，淘汰的是只用了一个令牌的键，用完令牌的键仍被限流
+        assertTrue(limiter.evictions() >= 1);
+        assertTrue(limiter.tryAcquire("heavy") > 0);
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucketRateLimiter(10, 0));
+    }
+
+    private static void exhaust(TokenBucketRateLimiter limiter, String key, int permits) {
+        for (int i = 0; i < permits; i++) {
+            assertEquals(0L, limiter.tryAcquire(key));
+        }
+    }
+}
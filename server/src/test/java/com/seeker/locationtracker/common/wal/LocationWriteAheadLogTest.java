@@ -0,0 +1,485 @@
+package com.seeker.locationtracker.common.wal;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 预写日志测试：截断、损坏、检查点和跨段重放，整批写入或都不写入，后台预分配的段
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+class LocationWriteAheadLogTest {
+
+    private static final int SEGMENT_BYTES = 1024 * 1024;
+
+    private static final int SEGMENT_HEADER_BYTES = 8;
+
+    private static final int RECORD_HEADER_BYTES = 8;
+
+    private static final long BASE_TIMESTAMP = 1790784000000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void replaysEverySyncedRecordAfterRestart() throws IOException {
+        write(location(0), location(1), location(2));
+
+        List<LocationEntity> replayed = replay();
+
+        assertEquals(3, replayed.size());
+        for (int i = 0; i < 3; i++) {
+            assertLocation(location(i), replayed.get(i));
+        }
+    }
+
+    @Test
+    void keepsOptionalFieldsNullAcrossReplay() throws IOException {
+        LocationEntity bare = location(0);
+        bare.setAccuracy(null);
+        bare.setAltitude(null);
+        bare.setSpeed(null);
+        bare.setBearing(null);
+        write(bare);
+
+        LocationEntity replayed = replay().get(0);
+
+        assertNull(replayed.getAccuracy());
+        assertNull(replayed.getAltitude());
+        assertNull(replayed.getSpeed());
+        assertNull(replayed.getBearing());
+    }
+
+    @Test
+    void stopsAtTornTailRecord() throws IOException {
+        write(location(0), location(1), location(2));
+        Path segment = onlySegment();
+        long[] offsets = recordOffsets(segment);
+
+        // 最后一条记录只写了一半
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(offsets[2] + RECORD_HEADER_BYTES + 3);
+        }
+
+        List<LocationEntity> replayed = replay();
+        assertEquals(2, replayed.size());
+        assertLocation(location(1), replayed.get(1));
+    }
+
+    @Test
+    void stopsAtTruncatedRecordHeader() throws IOException {
+        write(location(0), location(1));
+        Path segment = onlySegment();
+        long[] offsets = recordOffsets(segment);
+
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.truncate(offsets[1] + 2);
+        }
+
+        assertEquals(1, replay().size());
+    }
+
+    @Test
+    void stopsAtRecordWithBadChecksum() throws IOException {
+        write(location(0), location(1), location(2), location(3));
+        Path segment = onlySegment();
+        long[] offsets = recordOffsets(segment);
+
+        flipByte(segment, offsets[2] + RECORD_HEADER_BYTES + 5);
+
+        List<LocationEntity> replayed = replay();
+        assertEquals(2, replayed.size());
+        assertLocation(location(0), replayed.get(0));
+        assertLocation(location(1), replayed.get(1));
+    }
+
+    @Test
+    void stopsAtRecordWithImpossibleLength() throws IOException {
+        write(location(0), location(1));
+        Path segment = onlySegment();
+        long[] offsets = recordOffsets(segment);
+
+        writeInt(segment, offsets[1], Integer.MAX_VALUE);
+
+        assertEquals(1, replay().size());
+    }
+
+    @Test
+    void skipsSegmentWithInvalidHeader() throws IOException {
+        write(location(0), location(1));
+        writeInt(onlySegment(), 0, 0);
+
+        assertEquals(0, replay().size());
+    }
+
+    @Test
+    void replaysOnlyRecordsAfterCheckpoint() throws IOException {
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(10, batch -> { });
+        long first = wal.append(list(location(0), location(1)));
+        wal.sync(first);
+        wal.markApplied(first);
+        long second = wal.append(list(location(2)));
+        wal.sync(second);
+        wal.close();
+
+        List<LocationEntity> replayed = replay();
+        assertEquals(1, replayed.size());
+        assertLocation(location(2), replayed.get(0));
+    }
+
+    @Test
+    void ignoresCorruptCheckpoint() throws IOException {
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(10, batch -> { });
+        long lsn = wal.append(list(location(0), location(1)));
+        wal.sync(lsn);
+        wal.markApplied(lsn);
+        wal.close();
+
+        flipByte(directory.resolve("checkpoint"), 0);
+
+        // 检查点损坏时从最早的段开始重放，已写库的数据由唯一索引忽略
+        assertEquals(2, replay().size());
+    }
+
+    @Test
+    void replaysAcrossSegmentsAndContinuesAfterCorruptSegment() throws IOException {
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(10, batch -> { });
+        int total = 0;
+        while (wal.segmentCount() < 2) {
+            List<LocationEntity> batch = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                batch.add(location(total++));
+            }
+            wal.sync(wal.append(batch));
+        }
+        wal.close();
+
+        List<Path> segments = segments();
+        assertEquals(2, segments.size());
+        long[] firstOffsets = recordOffsets(segments.get(0));
+        int inFirst = firstOffsets.length;
+        assertEquals(total, inFirst + recordOffsets(segments.get(1)).length);
+        // 整批放不下时整批写到新段，不跨段
+        assertEquals(0, inFirst % 100);
+
+        // 第一段中间损坏：该段在损坏处结束，下一段照常重放，LSN的缺口只记录日志
+        flipByte(segments.get(0), firstOffsets[10] + RECORD_HEADER_BYTES + 1);
+
+        List<LocationEntity> replayed = replay();
+        assertEquals(10 + total - inFirst, replayed.size());
+        assertLocation(location(9), replayed.get(9));
+        assertLocation(location(inFirst), replayed.get(10));
+        assertLocation(location(total - 1), replayed.get(replayed.size() - 1));
+    }
+
+    @Test
+    void rejectsBatchWithOverlongRecordWithoutWritingAnyOfIt() throws IOException {
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(10, batch -> { });
+        LocationEntity overlong = location(1);
+        StringBuilder deviceId = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            deviceId.append('d');
+        }
+        overlong.setDeviceId(deviceId.toString());
+
+        assertThrows(IllegalArgumentException.class, () -> wal.append(list(location(0), overlong, location(2))));
+        assertEquals(0, wal.pendingBytes());
+        wal.sync(wal.append(list(location(3))));
+        wal.close();
+
+        List<LocationEntity> replayed = replay();
+        assertEquals(1, replayed.size());
+        assertLocation(location(3), replayed.get(0));
+    }
+
+    @Test
+    void rejectsBatchLargerThanSegment() throws IOException {
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(10, batch -> { });
+        List<LocationEntity> batch = new ArrayList<>();
+        for (int i = 0; i < SEGMENT_BYTES / 64; i++) {
+            batch.add(location(i));
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> wal.append(batch));
+        assertEquals(0, wal.pendingBytes());
+        assertEquals(1, wal.segmentCount());
+        wal.close();
+    }
+
+    @Test
+    void keepsSegmentsWhenReplaySinkFails() throws IOException {
+        write(location(0), location(1));
+
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        assertThrows(IllegalStateException.class, () -> wal.replay(10, batch -> {
+            throw new IllegalStateException("写库失败");
+        }));
+        wal.close();
+
+        assertEquals(2, replay().size());
+    }
+
+    @Test
+    void deletesReplayedSegmentsAndAppendsAfterReplayedEnd() throws IOException {
+        write(location(0), location(1));
+        assertEquals(2, replay().size());
+
+        // 重放后旧段已删除，再次重放没有数据
+        assertEquals(0, replay().size());
+        assertEquals(1, segments().size());
+    }
+
+    @Test
+    void batchesReplayBySize() throws IOException {
+        write(location(0), location(1), location(2), location(3), location(4));
+        List<Integer> sizes = new ArrayList<>();
+
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(2, batch -> sizes.add(batch.size()));
+        wal.close();
+
+        assertEquals(list(2, 2, 1), sizes);
+    }
+
+    @Test
+    void preallocatesSegmentFiles() throws IOException {
+        write(location(0));
+
+        assertEquals(SEGMENT_BYTES, Files.size(onlySegment()));
+    }
+
+    @Test
+    void rollsToSegmentPreallocatedInBackground() throws Exception {
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(10, batch -> { });
+        Path spare = directory.resolve("next.wal.tmp");
+        awaitFile(spare);
+
+        int total = 0;
+        while (wal.segmentCount() < 2) {
+            List<LocationEntity> batch = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                batch.add(location(total++));
+            }
+            wal.sync(wal.append(batch));
+        }
+        // 换入的段已改名为段文件，后台接着准备下一个
+        assertEquals(2, segments().size());
+        assertEquals(SEGMENT_BYTES, Files.size(segments().get(1)));
+        awaitFile(spare);
+        wal.close();
+
+        assertFalse(Files.exists(spare));
+        assertEquals(total, replay().size());
+    }
+
+    @Test
+    void deletesLeftoverSpareSegmentOnOpen() throws IOException {
+        Files.write(directory.resolve("next.wal.tmp"), new byte[16]);
+
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(10, batch -> { });
+        wal.sync(wal.append(list(location(0))));
+        wal.close();
+
+        assertFalse(Files.exists(directory.resolve("next.wal.tmp")));
+        assertEquals(1, replay().size());
+    }
+
+    @Test
+    void quarantinedRecordsCanBeReadBack() throws IOException {
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(10, batch -> { });
+        wal.quarantine(list(location(0)));
+        wal.quarantine(list(location(1), location(2)));
+        wal.close();
+
+        List<LocationEntity> rejected = LocationWriteAheadLog.readQuarantined(directory);
+        assertEquals(3, rejected.size());
+        assertLocation(location(2), rejected.get(2));
+    }
+
+    @Test
+    void takesQuarantinedRecordsForReplayAndQuarantinesAgainIntoNewFile() throws IOException {
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(10, batch -> { });
+        wal.quarantine(list(location(0), location(1)));
+
+        List<LocationEntity> taken = wal.takeQuarantined();
+        assertEquals(2, taken.size());
+        assertTrue(LocationWriteAheadLog.readQuarantined(directory).isEmpty());
+
+        // 仍无法写库的记录写入新的 rejected 文件
+        wal.quarantine(list(taken.get(1)));
+        wal.finishQuarantineReplay();
+        wal.close();
+
+        assertFalse(Files.exists(directory.resolve("rejected.replaying")));
+        List<LocationEntity> rejected = LocationWriteAheadLog.readQuarantined(directory);
+        assertEquals(1, rejected.size());
+        assertLocation(location(1), rejected.get(0));
+    }
+
+    @Test
+    void resumesInterruptedQuarantineReplay() throws IOException {
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(10, batch -> { });
+        wal.quarantine(list(location(0)));
+        assertEquals(1, wal.takeQuarantined().size());
+        // 重新写库中途崩溃，之后又有新的记录移出
+        wal.quarantine(list(location(1)));
+        wal.close();
+
+        LocationWriteAheadLog reopened = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        reopened.replay(10, batch -> { });
+        List<LocationEntity> taken = reopened.takeQuarantined();
+        assertEquals(1, taken.size());
+        assertLocation(location(0), taken.get(0));
+        reopened.finishQuarantineReplay();
+
+        // 新的 rejected 文件留到下一次
+        List<LocationEntity> next = reopened.takeQuarantined();
+        assertEquals(1, next.size());
+        assertLocation(location(1), next.get(0));
+        reopened.finishQuarantineReplay();
+        assertTrue(reopened.takeQuarantined().isEmpty());
+        reopened.close();
+    }
+
+    private void write(LocationEntity... entities) throws IOException {
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(10, batch -> { });
+        wal.sync(wal.append(list(entities)));
+        wal.close();
+    }
+
+    private static void awaitFile(Path path) throws InterruptedException {
+        for (int i = 0; i < 500 && !Files.exists(path); i++) {
+            Thread.sleep(10);
+        }
+        assertTrue(Files.exists(path), path.toString());
+    }
+
+    private List<LocationEntity> replay() throws IOException {
+        List<LocationEntity> replayed = new ArrayList<>();
+        LocationWriteAheadLog wal = LocationWriteAheadLog.open(directory, SEGMENT_BYTES);
+        wal.replay(1000, replayed::addAll);
+        wal.close();
+        return replayed;
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> segments = segments();
+        assertEquals(1, segments.size());
+        return segments.get(0);
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> segments = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.wal")) {
+            for (Path path : stream) {
+                segments.add(path);
+            }
+        }
+        segments.sort(null);
+        return segments;
+    }
+
+    /**
+     * 按记录头中的长度逐条定位，读到长度为0处结束
+     */
+    private static long[] recordOffsets(Path segment) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(segment));
+        List<Long> offsets = new ArrayList<>();
+        int offset = SEGMENT_HEADER_BYTES;
+        while (offset + RECORD_HEADER_BYTES <= buffer.limit() && buffer.getInt(offset) > 0) {
+            offsets.add((long) offset);
+            offset += RECORD_HEADER_BYTES + buffer.getInt(offset);
+        }
+        long[] result = new long[offsets.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = offsets.get(i);
+        }
+        return result;
+    }
+
+    private static void flipByte(Path path, long position) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            channel.read(one, position);
+            one.put(0, (byte) ~one.get(0));
+            one.rewind();
+            channel.write(one, position);
+        }
+    }
+
+    private static void writeInt(Path path, long position, int value) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES);
+            buffer.putInt(value).flip();
+            channel.write(buffer, position);
+        }
+    }
+
+    private static LocationEntity location(int n) {
+        LocationEntity entity = new LocationEntity();
+        entity.setDeviceId("device-" + (n % 7));
+        entity.setProvider("gps");
+        entity.setLatitude(31.2 + n * 1e-5);
+        entity.setLongitude(121.4 - n * 1e-5);
+        entity.setAccuracy(5.0 + n % 3);
+        entity.setAltitude(12.5);
+        entity.setSpeed(1.5);
+        entity.setBearing(90.0);
+        entity.setLocationTimestamp(BASE_TIMESTAMP + n * 1000L);
+        entity.setCreateTime(new Date(BASE_TIMESTAMP + n * 1000L + 10));
+        return entity;
+    }
+
+    private static void assertLocation(LocationEntity expected, LocationEntity actual) {
+        assertEquals(expected.getDeviceId(), actual.getDeviceId());
+        assertEquals(expected.getProvider(), actual.getProvider());
+        assertEquals(expected.getLatitude(), actual.getLatitude());
+        assertEquals(expected.getLongitude(), actual.getLongitude());
+        assertEquals(expected.getAccuracy(), actual.getAccuracy());
+        assertEquals(expected.getAltitude(), actual.getAltitude());
+        assertEquals(expected.getSpeed(), actual.getSpeed());
+        assertEquals(expected.getBearing(), actual.getBearing());
+        assertEquals(expected.getLocationTimestamp(), actual.getLocationTimestamp());
+        assertEquals(expected.getCreateTime(), actual.getCreateTime());
+        assertNull(actual.getTid());
+    }
+
+    @SafeVarargs
+    private static <T> List<T> list(T... values) {
+        List<T> list = new ArrayList<>(values.length);
+        for (T value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+}
@@ -0,0 +1,319 @@
+package com.seeker.locationtracker.service;
+
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.impl.InMemoryLocationStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * LocationStore 各实现共用的一致性测试
+ *
+ * <p>同一组用例在每个实现上运行，检查 LocationStore 接口约定的语义：重复数据忽略、最新位置、
+ * 轨迹排序与左闭右开的时间范围、翻页、按位置时间删除、字段读写一致，以及写入不修改传入的实体。
+ * 用例轨迹跨过月份边界（东八区和UTC下都是），SQLite实现会跨两个分区写入和查询。</p>
+ *
+ * <p>SQLite实现使用默认配置（与prod一致）在 target 下的数据目录中启动完整的应用上下文；
+ * 新增实现时在 ValueSource 中加上它的名称。</p>
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+@SpringBootTest
+@ActiveProfiles("prod")
+class LocationStoreConformanceTest {
+
+    private static final Path DATA_DIR = Paths.get("target", "location-store-conformance").toAbsolutePath();
+
+    private static final String DEVICE = "conformance-0001";
+
+    private static final String OTHER_DEVICE = "conformance-0002";
+
+    private static final int TRACK_SIZE = 50;
+
+    /**
+     * 北京时间2026年10月1日零点
+     */
+    private static final long BASE_TIMESTAMP = 1790784000000L;
+
+    /**
+     * 用例轨迹的位置间隔(毫秒)，50个点约16小时
+     */
+    private static final long TRACK_INTERVAL_MS = 20 * 60 * 1000L;
+
+    /**
+     * 用例轨迹的起始时间：第10个点为北京时间10月1日零点，第34个点为UTC的10月1日零点
+     */
+    private static final long TRACK_START = BASE_TIMESTAMP - 10 * TRACK_INTERVAL_MS;
+
+    @Resource
+    private LocationStore sqliteLocationStore;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        // SQLite驱动不创建父目录；上次运行留下的数据库先删除
+        try {
+            FileSystemUtils.deleteRecursively(DATA_DIR);
+            Files.createDirectories(DATA_DIR);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        registry.add("app.data.path", DATA_DIR::toString);
+        registry.add("logging.file.name", () -> DATA_DIR.resolve("test.log").toString());
+        registry.add("app.location.retention.enabled", () -> "false");
+        registry.add("app.location.archive.enabled", () -> "false");
+        // 固定输入的位置时间不随当前时间变化，放宽可写入的位置时间范围
+        registry.add("app.location.retention-days", () -> "36500");
+        registry.add("app.security.rate-limit.enabled", () -> "false");
+    }
+
+    @AfterEach
+    void clear() {
+        sqliteLocationStore.deleteBefore(Long.MAX_VALUE);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "memory"})
+    void emptyStoreHasNoData(String name) {
+        LocationStore store = store(name);
+
+        assertNull(store.latest(DEVICE));
+        assertTrue(store.track(DEVICE, null, null, 10).isEmpty());
+        assertEquals(0, store.appendBatch(new ArrayList<>()).length);
+        assertEquals(0L, store.deleteBefore(Long.MAX_VALUE));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "memory"})
+    void ignoresDuplicates(String name) {
+        LocationStore store = store(name);
+        List<LocationEntity> track = track(DEVICE, TRACK_SIZE, 1);
+
+        assertEquals(1, store.append(track.get(0)));
+        assertEquals(0, store.append(copy(track.get(0))));
+
+        // 倒序写入，实现不能依赖位置时间递增；批内重复、与已有数据重复都应被忽略
+        List<LocationEntity> batch = new ArrayList<>(track.subList(1, TRACK_SIZE));
+        Collections.reverse(batch);
+        batch.add(copy(track.get(0)));
+        batch.add(copy(track.get(TRACK_SIZE - 1)));
+        int[] expected = new int[batch.size()];
+        for (int i = 0; i < TRACK_SIZE - 1; i++) {
+            expected[i] = 1;
+        }
+        assertArrayEquals(expected, store.appendBatch(batch));
+        assertEquals(TRACK_SIZE, store.track(DEVICE, null, null, TRACK_SIZE * 2).size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "memory"})
+    void returnsLatestLocation(String name) {
+        LocationStore store = store(name);
+        List<LocationEntity> track = append(store);
+
+        LocationEntity latest = store.latest(DEVICE);
+        assertNotNull(latest);
+        assertSameLocation(track.get(TRACK_SIZE - 1), latest);
+        assertNotNull(latest.getTid());
+        assertNotNull(latest.getGeohash());
+        assertNull(store.latest("conformance-missing"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "memory"})
+    void returnsTrackInTimestampOrder(String name) {
+        LocationStore store = store(name);
+        List<LocationEntity> track = append(store);
+
+        List<LocationEntity> all = store.track(DEVICE, null, null, TRACK_SIZE * 2);
+        assertEquals(TRACK_SIZE, all.size());
+        for (int i = 0; i < TRACK_SIZE; i++) {
+            assertSameLocation(track.get(i), all.get(i));
+        }
+        assertEquals(1, store.track(OTHER_DEVICE, null, null, TRACK_SIZE).size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "memory"})
+    void trackRangeIsHalfOpen(String name) {
+        LocationStore store = store(name);
+        List<LocationEntity> track = append(store);
+
+        long from = track.get(5).getLocationTimestamp();
+        long to = track.get(15).getLocationTimestamp();
+        List<LocationEntity> range = store.track(DEVICE, from, to, TRACK_SIZE);
+        assertEquals(10, range.size());
+        assertEquals(from, range.get(0).getLocationTimestamp());
+        assertEquals(track.get(14).getLocationTimestamp(), range.get(9).getLocationTimestamp());
+        assertEquals(3, store.track(DEVICE, from, null, 3).size());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "memory"})
+    void pagesByLastTimestamp(String name) {
+        LocationStore store = store(name);
+        List<LocationEntity> track = append(store);
+
+        // 以最后一条的位置时间 + 1 翻页，每条恰好读到一次
+        List<LocationEntity> paged = new ArrayList<>();
+        Long cursor = null;
+        while (true) {
+            List<LocationEntity> page = store.track(DEVICE, cursor, null, 7);
+            if (page.isEmpty()) {
+                break;
+            }
+            paged.addAll(page);
+            cursor = page.get(page.size() - 1).getLocationTimestamp() + 1;
+        }
+        assertEquals(TRACK_SIZE, paged.size());
+        for (int i = 0; i < TRACK_SIZE; i++) {
+            assertEquals(track.get(i).getLocationTimestamp(), paged.get(i).getLocationTimestamp());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "memory"})
+    void deletesBeforeLocationTimestamp(String name) {
+        LocationStore store = store(name);
+        List<LocationEntity> track = append(store);
+
+        long cutoff = track.get(20).getLocationTimestamp();
+        // 另一台设备唯一的一条位置时间与 track[0] 相同，也会被删除
+        assertEquals(21L, store.deleteBefore(cutoff));
+        List<LocationEntity> remaining = store.track(DEVICE, null, null, TRACK_SIZE);
+        assertEquals(TRACK_SIZE - 20, remaining.size());
+        assertEquals(cutoff, remaining.get(0).getLocationTimestamp());
+        assertNull(store.latest(OTHER_DEVICE));
+        assertEquals(0L, store.deleteBefore(cutoff));
+        assertEquals(1, store.append(copy(track.get(0))));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "memory"})
+    void doesNotModifyInput(String name) {
+        LocationStore store = store(name);
+        List<LocationEntity> track = track(DEVICE, 3, 3);
+
+        store.append(track.get(0));
+        store.appendBatch(track.subList(1, 3));
+
+        for (LocationEntity entity : track) {
+            assertNull(entity.getTid());
+            assertNull(entity.getGeohash());
+            assertNull(entity.getCreateTime());
+            assertNull(entity.getUpdateTime());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"sqlite", "memory"})
+    void keepsGivenCreateTime(String name) {
+        LocationStore store = store(name);
+        LocationEntity entity = track(DEVICE, 1, 4).get(0);
+        Date createTime = new Date(BASE_TIMESTAMP);
+        entity.setCreateTime(createTime);
+
+        store.appendBatch(Collections.singletonList(entity));
+
+        assertEquals(createTime, store.latest(DEVICE).getCreateTime());
+    }
+
+    private LocationStore store(String name) {
+        LocationStore store = "sqlite".equals(name) ? sqliteLocationStore : new InMemoryLocationStore();
+        assertEquals(name, store.name());
+        return store;
+    }
+
+    /**
+     * 写入用例轨迹和另一台设备的一条数据
+     */
+    private static List<LocationEntity> append(LocationStore store) {
+        List<LocationEntity> track = track(DEVICE, TRACK_SIZE, 1);
+        assertEquals(TRACK_SIZE, sum(store.appendBatch(track)));
+        assertEquals(1, sum(store.appendBatch(track(OTHER_DEVICE, 1, 2))));
+        return track;
+    }
+
+    /**
+     * 生成从 TRACK_START 开始、间隔 TRACK_INTERVAL_MS 的轨迹
+     */
+    private static List<LocationEntity> track(String deviceId, int count, long seed) {
+        Random random = new Random(seed);
+        List<LocationEntity> entities = new ArrayList<>(count);
+        double latitude = 39.9 + random.nextDouble() / 10;
+        double longitude = 116.3 + random.nextDouble() / 10;
+        for (int i = 0; i < count; i++) {
+            latitude += (random.nextDouble() - 0.5) / 1000;
+            longitude += (random.nextDouble() - 0.5) / 1000;
+            LocationEntity entity = new LocationEntity();
+            entity.setDeviceId(deviceId);
+            entity.setLatitude(latitude);
+            entity.setLongitude(longitude);
+            entity.setAccuracy(Math.round(random.nextDouble() * 2000) / 100.0);
+            entity.setAltitude(Math.round((40 + random.nextDouble() * 20) * 100) / 100.0);
+            entity.setSpeed(Math.round(random.nextDouble() * 1500) / 100.0);
+            entity.setBearing(Math.round(random.nextDouble() * 36000) / 100.0);
+            entity.setProvider("gps");
+            entity.setLocationTimestamp(TRACK_START + i * TRACK_INTERVAL_MS);
+            entities.add(entity);
+        }
+        return entities;
+    }
+
+    private static LocationEntity copy(LocationEntity entity) {
+        LocationEntity copy = new LocationEntity();
+        copy.setDeviceId(entity.getDeviceId());
+        copy.setLatitude(entity.getLatitude());
+        copy.setLongitude(entity.getLongitude());
+        copy.setAccuracy(entity.getAccuracy());
+        copy.setAltitude(entity.getAltitude());
+        copy.setSpeed(entity.getSpeed());
+        copy.setBearing(entity.getBearing());
+        copy.setProvider(entity.getProvider());
+        copy.setLocationTimestamp(entity.getLocationTimestamp());
+        return copy;
+    }
+
+    private static int sum(int[] counts) {
+        int sum = 0;
+        for (int count : counts) {
+            sum += count;
+        }
+        return sum;
+    }
+
+    private static void assertSameLocation(LocationEntity expected, LocationEntity actual) {
+        assertEquals(expected.getDeviceId(), actual.getDeviceId());
+        assertEquals(expected.getLocationTimestamp(), actual.getLocationTimestamp());
+        assertEquals(expected.getLatitude(), actual.getLatitude());
+        assertEquals(expected.getLongitude(), actual.getLongitude());
+        assertEquals(expected.getAccuracy(), actual.getAccuracy());
+        assertEquals(expected.getAltitude(), actual.getAltitude());
+        assertEquals(expected.getSpeed(), actual.getSpeed());
+        assertEquals(expected.getBearing(), actual.getBearing());
+        assertEquals(expected.getProvider(), actual.getProvider());
+    }
+}
@@ -0,0 +1,145 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.LocationWriteService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 异步写入队列停止测试：正常停止提交完队列，数据库持续失败时超过宽限期中断写线程、最后提交一次
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+class LocationIngestQueueServiceImplTest {
+
+    @Test
+    void stopCommitsQueuedRowsWithinGracePeriod() throws Exception {
+        StubWriteService writeService = new StubWriteService();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LocationIngestQueueServiceImpl service = start(writeService, registry, 10000);
+
+        for (int i = 0; i < 50; i++) {
+            assertTrue(service.offer(entity(i)));
+        }
+        service.stop();
+
+        assertEquals(50, writeService.saved.get());
+        assertEquals(0, writeService.interruptedCalls.get());
+        assertEquals(0, service.size());
+        assertEquals(0.0, registry.get("location.ingest.dropped").counter().count());
+        assertFalse(service.offer(entity(50)));
+    }
+
+    @Test
+    void stopInterruptsWriterStuckInRetryAndCommitsOnce() throws Exception {
+        StubWriteService writeService = new StubWriteService();
+        writeService.failing.set(true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LocationIngestQueueServiceImpl service = start(writeService, registry, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(service.offer(entity(i)));
+        }
+        // 等第一批提交失败、写线程进入退避后再放入队列，这部分由中断后的立即提交处理
+        while (writeService.calls.get() == 0) {
+            Thread.sleep(5);
+        }
+        for (int i = 5; i < 25; i++) {
+            assertTrue(service.offer(entity(i)));
+        }
+        writeService.failing.set(false);
+        Thread writer = (Thread) ReflectionTestUtils.getField(service, "writerThread");
+
+        long start = System.nanoTime();
+        service.stop();
+        long costMs = (System.nanoTime() - start) / 1000000;
+
+        assertFalse(writer.isAlive());
+        // 退避共 200+400 毫秒，宽限期100毫秒后中断，不会等完全部退避
+        assertTrue(costMs < 600, "costMs=" + costMs);
+        assertEquals(25, writeService.saved.get());
+        assertEquals(0, writeService.interruptedCalls.get());
+        assertEquals(0.0, registry.get("location.ingest.dropped").counter().count());
+    }
+
+    @Test
+    void stopCountsRowsStillFailingAfterInterrupt() throws Exception {
+        StubWriteService writeService = new StubWriteService();
+        writeService.failing.set(true);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LocationIngestQueueServiceImpl service = start(writeService, registry, 100);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(service.offer(entity(i)));
+        }
+        while (writeService.calls.get() == 0) {
+            Thread.sleep(5);
+        }
+        service.stop();
+
+        assertEquals(0, writeService.saved.get());
+        assertEquals(5.0, registry.get("location.ingest.dropped").counter().count());
+    }
+
+    private static LocationIngestQueueServiceImpl start(LocationWriteService writeService, SimpleMeterRegistry registry,
+                                                        long shutdownGraceMs) {
+        LocationProperties properties = new LocationProperties();
+        properties.getIngest().setShutdownGraceMs(shutdownGraceMs);
+        LocationIngestQueueServiceImpl service = new LocationIngestQueueServiceImpl();
+        ReflectionTestUtils.setField(service, "locationProperties", properties);
+        ReflectionTestUtils.setField(service, "meterRegistry", registry);
+        ReflectionTestUtils.setField(service, "locationWriteService", writeService);
+        service.start();
+        return service;
+    }
+
+    private static LocationEntity entity(int i) {
+        LocationEntity entity = new LocationEntity();
+        entity.setDeviceId("device-" + (i % 3));
+        entity.setLocationTimestamp(1000L + i);
+        return entity;
+    }
+
+    /**
+     * 可切换为持续失败的写库服务，记录提交时写线程是否带着中断标记
+     */
+    private static final class StubWriteService implements LocationWriteService {
+
+        private final AtomicBoolean failing = new AtomicBoolean();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final AtomicInteger interruptedCalls = new AtomicInteger();
+
+        private final AtomicInteger saved = new AtomicInteger();
+
+        @Override
+        public int[] saveBatch(List<LocationEntity> entities) {
+            calls.incrementAndGet();
+            if (Thread.currentThread().isInterrupted()) {
+                interruptedCalls.incrementAndGet();
+            }
+            if (failing.get()) {
+                throw new IllegalStateException("database unavailable");
+            }
+            saved.addAndGet(entities.size());
+            return new int[entities.size()];
+        }
+
+        @Override
+        public int backfillGeohash(int limit) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.seeker.locationtracker.service.impl;
+
+import com.seeker.locationtracker.common.wal.LocationWriteAheadLog;
+import com.seeker.locationtracker.config.LocationProperties;
+import com.seeker.locationtracker.model.entity.LocationEntity;
+import com.seeker.locationtracker.service.LocationWriteService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 预写日志写入服务测试：暂时性错误重试不移出，确定性错误只移出无法写库的记录，启动时 rejected 文件重新写库
+ *
+ * @author seeker
+ * @date 2026-10-18
+ */
+class LocationWalIngestServiceImplTest {
+
+    private static final int SQLITE_BUSY = 5;
+
+    private static final int SQLITE_CONSTRAINT = 19;
+
+    private static final long BASE_TIMESTAMP = 1790784000000L;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void retriesTransientErrorsWithoutQuarantining() throws Exception {
+        StubWriteService writeService = new StubWriteService();
+        writeService.busyCalls.set(3);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LocationWalIngestServiceImpl service = start(writeService, registry);
+
+        assertAccepted(service.offer(list(location("device-1", 0), location("device-2", 1))));
+        awaitApplied(service);
+        service.stop();
+
+        assertEquals(2, writeService.saved.size());
+        assertTrue(writeService.calls.get() > 3, "calls=" + writeService.calls.get());
+        assertEquals(0.0, registry.get("location.ingest.wal.rejected").counter().count());
+        assertTrue(LocationWriteAheadLog.readQuarantined(directory).isEmpty());
+    }
+
+    @Test
+    void quarantinesOnlyRowsFailingDeterministically() throws Exception {
+        StubWriteService writeService = new StubWriteService();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LocationWalIngestServiceImpl service = start(writeService, registry);
+
+        assertAccepted(service.offer(list(location("device-1", 0), location("bad", 1), location("device-2", 2))));
+        awaitApplied(service);
+        service.stop();
+
+        assertEquals(2, writeService.saved.size());
+        assertEquals(1.0, registry.get("location.ingest.wal.rejected").counter().count());
+        List<LocationEntity> rejected = LocationWriteAheadLog.readQuarantined(directory);
+        assertEquals(1, rejected.size());
+        assertEquals("bad", rejected.get(0).getDeviceId());
+    }
+
+    @Test
+    void replaysRejectedRowsOnStartup() throws Exception {
+        LocationWalIngestServiceImpl first = start(new StubWriteService(), new SimpleMeterRegistry());
+        assertAccepted(first.offer(list(location("bad", 0), location("device-1", 1))));
+        awaitApplied(first);
+        first.stop();
+        assertEquals(1, LocationWriteAheadLog.readQuarantined(directory).size());
+
+        // 原因修复后重启：rejected 文件中的记录重新写库
+        StubWriteService fixed = new StubWriteService();
+        fixed.rejectedDeviceId = null;
+        LocationWalIngestServiceImpl second = start(fixed, new SimpleMeterRegistry());
+        second.stop();
+
+        assertEquals(1, fixed.saved.size());
+        assertEquals("bad", fixed.saved.get(0).getDeviceId());
+        assertTrue(LocationWriteAheadLog.readQuarantined(directory).isEmpty());
+        assertFalse(Files.exists(directory.resolve("rejected.replaying")));
+    }
+
+    @Test
+    void keepsRowsStillRejectedOnStartupReplay() throws Exception {
+        LocationWalIngestServiceImpl first = start(new StubWriteService(), new SimpleMeterRegistry());
+        assertAccepted(first.offer(list(location("bad", 0))));
+        awaitApplied(first);
+        first.stop();
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        LocationWalIngestServiceImpl second = start(new StubWriteService(), registry);
+        second.stop();
+
+        assertEquals(1.0, registry.get("location.ingest.wal.rejected").counter().count());
+        assertEquals(1, LocationWriteAheadLog.readQuarantined(directory).size());
+        assertFalse(Files.exists(directory.resolve("rejected.replaying")));
+    }
+
+    private LocationWalIngestServiceImpl start(LocationWriteService writeService, SimpleMeterRegistry registry)
+            throws Exception {
+        LocationProperties properties = new LocationProperties();
+        properties.getIngest().setWalPath(directory.toString());
+        properties.getIngest().setWalSegmentBytes(1024 * 1024);
+        properties.getIngest().setGroupCommitIntervalMs(5);
+        LocationWalIngestServiceImpl service = new LocationWalIngestServiceImpl();
+        ReflectionTestUtils.setField(service, "locationProperties", properties);
+        ReflectionTestUtils.setField(service, "meterRegistry", registry);
+        ReflectionTestUtils.setField(service, "locationWriteService", writeService);
+        service.init();
+        service.afterSingletonsInstantiated();
+        return service;
+    }
+
+    private static void awaitApplied(LocationWalIngestServiceImpl service) throws InterruptedException {
+        for (int i = 0; i < 1000 && service.size() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, service.size());
+    }
+
+    private static void assertAccepted(boolean[] accepted) {
+        for (boolean one : accepted) {
+            assertTrue(one);
+        }
+    }
+
+    private static LocationEntity location(String deviceId, int n) {
+        LocationEntity entity = new LocationEntity();
+        entity.setDeviceId(deviceId);
+        entity.setProvider("gps");
+        entity.setLatitude(31.2);
+        entity.setLongitude(121.4);
+        entity.setLocationTimestamp(BASE_TIMESTAMP + n * 1000L);
+        return entity;
+    }
+
+    @SafeVarargs
+    private static <T> List<T> list(T... values) {
+        List<T> list = new ArrayList<>(values.length);
+        Collections.addAll(list, values);
+        return list;
+    }
+
+    /**
+     * 前若干次调用返回 SQLITE_BUSY，含指定设备的批次违反约束，其余写库成功
+     */
+    private static final class StubWriteService implements LocationWriteService {
+
+        private final AtomicInteger busyCalls = new AtomicInteger();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final List<LocationEntity> saved = Collections.synchronizedList(new ArrayList<>());
+
+        private volatile String rejectedDeviceId = "bad";
+
+        @Override
+        public int[] saveBatch(List<LocationEntity> entities) {
+            calls.incrementAndGet();
+            if (busyCalls.getAndDecrement() > 0) {
+                throw new UncategorizedSQLException("位置数据批量写入", "INSERT",
+                        new SQLException("[SQLITE_BUSY] The database file is locked", null, SQLITE_BUSY));
+            }
+            for (LocationEntity entity : entities) {
+                if (entity.getDeviceId().equals(rejectedDeviceId)) {
+                    throw new UncategorizedSQLException("位置数据批量写入", "INSERT",
+                            new SQLException("[SQLITE_CONSTRAINT] Abort due to constraint violation", null,
+                                    SQLITE_CONSTRAINT));
+                }
+            }
+            saved.addAll(entities);
+            return new int[entities.size()];
+        }
+
+        @Override
+        public int backfillGeohash(int limit) {
+            return 0;
+        }
+    }
+}